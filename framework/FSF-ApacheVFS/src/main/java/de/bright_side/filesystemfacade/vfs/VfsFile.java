@@ -1,34 +1,39 @@
 package de.bright_side.filesystemfacade.vfs;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.VersionedData;
 import de.bright_side.filesystemfacade.facade.WrongVersionException;
+import de.bright_side.filesystemfacade.util.AbstractDirectoryStream;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
+import de.bright_side.filesystemfacade.util.RangeInputStream;
+import de.bright_side.filesystemfacade.util.RangeReadChannel;
 
 public class VfsFile implements FSFFile {
     private static final boolean LOGGING_ENABLED = false;
-    private static final String ENCODING = "UTF-8";
 
     private final VfsFileSystem fs;
     private final String path;
@@ -80,6 +85,51 @@ public class VfsFile implements FSFFile {
         }
     }
 
+    @Override
+    public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+        return FSFFileUtil.listFilesWithAttributesOneByOne(this);
+    }
+
+    @Override
+    public FSFDirectoryStream openDirectoryStream() throws Exception {
+        if (fileObject.getType() != FileType.FOLDER){
+            return null;
+        }
+        //: commons-vfs only provides the children as an array, but the attributes are read lazily and the children are not sorted
+        final FileObject[] children = fileObject.getChildren();
+        if (children == null){
+            return null;
+        }
+        return new AbstractDirectoryStream() {
+            private int position = 0;
+
+            @Override
+            protected FSFFileAttributes readNext() throws Exception {
+                if (position >= children.length){
+                    return null;
+                }
+                return new VfsFile(fs, children[position ++]).readAttributes();
+            }
+
+            @Override
+            protected void closeResources() {
+            }
+        };
+    }
+
+    @Override
+    public FSFFileAttributes readAttributes() throws Exception {
+        FileType type = fileObject.getType();
+        if (type == FileType.IMAGINARY){
+            return FSFFileAttributes.createNonExisting(this);
+        }
+        boolean isDir = type == FileType.FOLDER;
+        FileContent content = fileObject.getContent();
+        long length = isDir ? 0 : content.getSize();
+        //: time created is not provided, so 0 is used as stated in FSFFile
+        return new FSFFileAttributes(this, true, isDir, length, content.getLastModifiedTime(), 0, 0);
+    }
+
     @Override
     public String getName() {
         FileName fileName = fileObject.getName();
@@ -250,28 +300,39 @@ public class VfsFile implements FSFFile {
     }
 
     @Override
-    public <K> K readObject(Class<K> classType) throws Exception {
-        BufferedReader reader = null;
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        Gson gson = gsonBuilder.create();
-        try{
-            reader = new BufferedReader(new InputStreamReader(getInputStream(), ENCODING));
-            return gson.fromJson(reader, classType);
-        } catch (Exception e){
-            throw e;
-        } finally {
-            if (reader != null){
-                reader.close();
+    public InputStream getInputStream(long offset, long length) throws Exception {
+        FSFFileUtil.verifyRange(offset, length);
+        if (!fileObject.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ)) {
+            return FSFFileUtil.getInputStreamViaFullStream(this, offset, length);
+        }
+        RandomAccessContent content = fileObject.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            if (offset >= content.length()) {
+                content.close();
+                return new ByteArrayInputStream(new byte[0]);
             }
+            content.seek(offset);
+            return new RangeInputStream(content.getInputStream(), length, content);
+        } catch (Exception e) {
+            content.close();
+            throw e;
         }
     }
 
+    @Override
+    public SeekableByteChannel getSeekableByteChannel() throws Exception {
+        return new RangeReadChannel(this);
+    }
+
+    @Override
+    public <K> K readObject(Class<K> classType) throws Exception {
+        return FSFFileUtil.readObject(this, classType);
+    }
+
     @Override
     public <K> FSFFile writeObject(K objectToWrite) throws Exception {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        Gson gson = gsonBuilder.create();
-        String data = gson.toJson(objectToWrite);
-        writeString(data);
+        FSFFileUtil.writeObject(this, objectToWrite);
+        setTimeLastModified(getCurrentTime());
         return this;
     }
 
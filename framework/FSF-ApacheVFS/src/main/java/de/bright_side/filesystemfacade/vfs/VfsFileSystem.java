@@ -2,7 +2,9 @@ package de.bright_side.filesystemfacade.vfs;
 
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemManager;
@@ -16,6 +18,7 @@ public class VfsFileSystem implements FSFSystem {
 //    private final FileObject fileObject;
     private List<FileObject> roots;
     private boolean hasInternalCommonsVfsBugThatDeletesSubItemsOnMoveOrRename = false;
+    private FSFSerializer serializer = FSFFileUtil.DEFAULT_SERIALIZER;
 
 //    public VfsFileSystem(String startPath, List<FileObject> roots) throws FileSystemException {
 //        this.roots = roots;
@@ -67,6 +70,16 @@ public class VfsFileSystem implements FSFSystem {
         return "/";
     }
 
+    @Override
+    public FSFSerializer getSerializer() {
+        return serializer;
+    }
+
+    @Override
+    public void setSerializer(FSFSerializer serializer) {
+        this.serializer = serializer;
+    }
+
     public FSFEnvironment getEnvironment() {
         return environment;
     }
@@ -10,6 +10,7 @@ import org.apache.commons.vfs2.VFS;
 
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 
@@ -59,4 +60,14 @@ public class VfsMemoryFS implements FSFSystem {
     public String getSeparator() {
         return vfsFileSystem.getSeparator();
     }
+
+    @Override
+    public FSFSerializer getSerializer() {
+        return vfsFileSystem.getSerializer();
+    }
+
+    @Override
+    public void setSerializer(FSFSerializer serializer) {
+        vfsFileSystem.setSerializer(serializer);
+    }
 }
@@ -0,0 +1,70 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+
+/**
+ * appending small blocks of data to a file
+ * 
+ * @author Philip Heyse
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppendBenchmark {
+	private static final int APPEND_SIZE = 1024;
+	
+	@Param
+	public BenchmarkFSType fsType;
+	
+	private BenchmarkFS benchmarkFS;
+	private byte[] appendData;
+	private FSFFile appendFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		appendData = new byte[APPEND_SIZE];
+		new Random(1).nextBytes(appendData);
+		benchmarkFS = fsType.create();
+		appendFile = benchmarkFS.getBaseDir().getChild("append.bin");
+	}
+	
+	/**
+	 * the file to append to starts empty in each iteration so that its size depends only on the number of calls in one iteration
+	 */
+	@Setup(Level.Iteration)
+	public void resetAppendFile() throws Exception {
+		appendFile.writeBytes(false, new byte[0]);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		benchmarkFS.close();
+	}
+	
+	@Benchmark
+	public FSFFile appendBytes() throws Exception {
+		return appendFile.writeBytes(true, appendData);
+	}
+
+}
@@ -0,0 +1,54 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import java.io.File;
+
+import de.bright_side.filesystemfacade.databasefs.DatabaseFS;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+/**
+ * a file system created for a benchmark together with the directory in which the benchmark creates its files
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class BenchmarkFS {
+	private final FSFSystem fsfSystem;
+	private final FSFFile baseDir;
+	private final File nativeTempDir;
+	
+	/**
+	 * @param fsfSystem the file system
+	 * @param baseDir existing directory in the file system in which the benchmark works
+	 * @param nativeTempDir directory in the native file system which is deleted by close() or null if there is none
+	 */
+	public BenchmarkFS(FSFSystem fsfSystem, FSFFile baseDir, File nativeTempDir) {
+		this.fsfSystem = fsfSystem;
+		this.baseDir = baseDir;
+		this.nativeTempDir = nativeTempDir;
+	}
+
+	public FSFSystem getFSFSystem() {
+		return fsfSystem;
+	}
+
+	public FSFFile getBaseDir() {
+		return baseDir;
+	}
+	
+	/**
+	 * deletes the files created by the benchmark and closes the connections of a DatabaseFS
+	 * @throws Exception on general error
+	 */
+	public void close() throws Exception {
+		FSFFileUtil.deleteTree(baseDir);
+		if (fsfSystem instanceof DatabaseFS) {
+			((DatabaseFS)fsfSystem).close();
+		}
+		if (nativeTempDir != null) {
+			nativeTempDir.delete();
+		}
+	}
+	
+}
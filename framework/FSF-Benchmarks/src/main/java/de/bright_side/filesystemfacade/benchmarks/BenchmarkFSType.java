@@ -0,0 +1,161 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import de.bright_side.filesystemfacade.databasefs.DatabaseFS;
+import de.bright_side.filesystemfacade.databasefs.DatabaseFSConfig;
+import de.bright_side.filesystemfacade.encryptedfs.EncryptedFS;
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.historyfs.HistoryFS;
+import de.bright_side.filesystemfacade.memoryfs.MemoryFS;
+import de.bright_side.filesystemfacade.memoryfs.MemoryFSConfig;
+import de.bright_side.filesystemfacade.memoryfs.OffHeapContentStore;
+import de.bright_side.filesystemfacade.nativefs.NativeFS;
+import de.bright_side.filesystemfacade.remotefs.RemoteFS;
+import de.bright_side.filesystemfacade.remotefs.RemoteFSAuthenticationException;
+import de.bright_side.filesystemfacade.remotefs.RemoteFSConnectionProvider;
+import de.bright_side.filesystemfacade.remotefs.RemoteFSFSystemProvider;
+import de.bright_side.filesystemfacade.remotefs.RemoteFSResponder;
+import de.bright_side.filesystemfacade.subdirfs.SubDirFS;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+import de.bright_side.filesystemfacade.vfs.VfsMemoryFS;
+
+/**
+ * the file system types which are benchmarked. The names are used as values of the JMH parameter "fsType".
+ * 
+ * @author Philip Heyse
+ *
+ */
+public enum BenchmarkFSType {
+	MEMORY, CONCURRENT_MEMORY, OFF_HEAP_MEMORY, NATIVE, SUB_DIR, ENCRYPTED, HISTORY_NO_VERSIONS, HISTORY_WITH_VERSIONS, REMOTE, DATABASE, POOLED_DATABASE, VFS_MEMORY;
+	
+	private static final String BASE_DIR_NAME = "benchmark";
+	private static final String BASE_DIR_PATH = "/" + BASE_DIR_NAME;
+	private static final String INNER_BASE_PATH = "/base";
+	private static final String PASSWORD = "benchmark-password";
+	private static final String DATABASE_URL = "jdbc:h2:mem:fsf_benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1";
+	private static final String DATABASE_DRIVER_CLASS_NAME = "org.h2.Driver";
+	private static final String FILE_TABLE_NAME = "FSF_BENCHMARK_FILES";
+	private static final long OFF_HEAP_CAPACITY = 1024L * 1024 * 1024;
+	private static final int DATABASE_POOL_SIZE = 8;
+	
+	/**
+	 * creates a new, empty file system of this type. The base directory of the result exists.
+	 * @return the file system with its base directory
+	 * @throws Exception on general error
+	 */
+	public BenchmarkFS create() throws Exception {
+		FSFEnvironment environment = FSFFileUtil.createDefaultEnvironment();
+		FSFSystem innerFS;
+		FSFSystem fs;
+		switch (this) {
+		case MEMORY:
+			return createWithBaseDir(new MemoryFS(environment), BASE_DIR_PATH);
+		case CONCURRENT_MEMORY:
+			return createWithBaseDir(new MemoryFS(environment, true), BASE_DIR_PATH);
+		case OFF_HEAP_MEMORY:
+			MemoryFSConfig config = new MemoryFSConfig().setConcurrent(true).setContentStore(new OffHeapContentStore(OFF_HEAP_CAPACITY));
+			return createWithBaseDir(new MemoryFS(environment, config), BASE_DIR_PATH);
+		case NATIVE:
+			File tempDir = Files.createTempDirectory("fsf_benchmark").toFile();
+			fs = new NativeFS();
+			return new BenchmarkFS(fs, fs.createByPath(tempDir.getAbsolutePath()).getChild(BASE_DIR_NAME).mkdirs(), tempDir);
+		case SUB_DIR:
+			innerFS = new MemoryFS(environment);
+			innerFS.createByPath(INNER_BASE_PATH).mkdirs();
+			return createWithBaseDir(new SubDirFS(innerFS, INNER_BASE_PATH, environment), BASE_DIR_PATH);
+		case ENCRYPTED:
+			innerFS = new MemoryFS(environment);
+			innerFS.createByPath(INNER_BASE_PATH).mkdirs();
+			return createWithBaseDir(new EncryptedFS(innerFS, PASSWORD, INNER_BASE_PATH, environment), BASE_DIR_PATH);
+		case HISTORY_NO_VERSIONS:
+			return createWithBaseDir(new HistoryFS(new MemoryFS(environment), false), BASE_DIR_PATH);
+		case HISTORY_WITH_VERSIONS:
+			return createWithBaseDir(new HistoryFS(new MemoryFS(environment), true), BASE_DIR_PATH);
+		case REMOTE:
+			return createWithBaseDir(createRemoteFS(environment, new MemoryFS(environment)), BASE_DIR_PATH);
+		case DATABASE:
+			return createWithBaseDir(new DatabaseFS(createDatabaseConfig(), environment), BASE_DIR_PATH);
+		case POOLED_DATABASE:
+			DatabaseFSConfig pooledConfig = createDatabaseConfig();
+			pooledConfig.setMaxPoolSize(DATABASE_POOL_SIZE);
+			return createWithBaseDir(new DatabaseFS(pooledConfig, environment), BASE_DIR_PATH);
+		case VFS_MEMORY:
+			return createWithBaseDir(new VfsMemoryFS(environment), BASE_DIR_PATH);
+		default:
+			throw new Exception("Unexpected type: " + this);
+		}
+	}
+
+	private static BenchmarkFS createWithBaseDir(FSFSystem fs, String baseDirPath) throws Exception {
+		return new BenchmarkFS(fs, fs.createByPath(baseDirPath).mkdirs(), null);
+	}
+
+	/**
+	 * the database is kept in memory (H2 in MySQL mode) so that the benchmark measures the DatabaseFS and the JDBC calls but no network or disk
+	 */
+	private static DatabaseFSConfig createDatabaseConfig() {
+		DatabaseFSConfig config = new DatabaseFSConfig();
+		config.setDbDriverClassName(DATABASE_DRIVER_CLASS_NAME);
+		config.setDbUrl(DATABASE_URL);
+		config.setDbUserName("sa");
+		config.setDbPassword("");
+		config.setAppName("benchmark");
+		config.setTenantName("tenant-" + System.nanoTime());
+		config.setAutoCreateTable(true);
+		config.setFileTableName(FILE_TABLE_NAME);
+		return config;
+	}
+	
+	/**
+	 * creates a RemoteFS which passes the requests in the same process to a RemoteFSResponder so that the benchmark measures the 
+	 * serialization of requests and responses but no network
+	 */
+	private static RemoteFS createRemoteFS(FSFEnvironment environment, final FSFSystem serverFS) {
+		final RemoteFSFSystemProvider fsProvider = new RemoteFSFSystemProvider() {
+			@Override
+			public FSFSystem getFSFFystem(String app, String tennant, String username, String password) throws RemoteFSAuthenticationException, Exception {
+				return serverFS;
+			}
+		};
+		
+		RemoteFSConnectionProvider connectionProvider = new RemoteFSConnectionProvider() {
+			private ByteArrayOutputStream responseStream;
+			
+			@Override
+			public OutputStream getOutputStream() throws Exception {
+				return new ByteArrayOutputStream() {
+					@Override
+					public void close() throws IOException {
+						super.close();
+						responseStream = new ByteArrayOutputStream();
+						try {
+							new RemoteFSResponder().respond(new ByteArrayInputStream(toByteArray()), responseStream, fsProvider);
+						} catch (Exception e) {
+							throw new IOException(e);
+						}
+					}
+				};
+			}
+			
+			@Override
+			public InputStream getInputStream() throws Exception {
+				return new ByteArrayInputStream(responseStream.toByteArray());
+			}
+			
+			@Override
+			public int compareLocation(RemoteFSConnectionProvider connectionProvider) {
+				return 0;
+			}
+		};
+		return new RemoteFS(environment, "/", "benchmarkApp", "benchmarkTennant", "benchmarkUser", "benchmarkPassword", connectionProvider);
+	}
+	
+}
@@ -0,0 +1,23 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * runs the benchmarks with the GC profiler so that the allocation rate (gc.alloc.rate.norm = bytes per operation) and the GC count are 
+ * reported next to the time. All JMH command line options can be passed, e.g. a regular expression to select benchmarks, 
+ * "-p fsType=MEMORY,NATIVE" to select file system types or "-rf json" to store the results for comparison.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class BenchmarkRunner {
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		Options options = new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
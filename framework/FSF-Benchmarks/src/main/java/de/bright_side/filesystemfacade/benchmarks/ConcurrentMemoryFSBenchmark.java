@@ -0,0 +1,114 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
+/**
+ * throughput of a MemoryFS in concurrent mode which is shared by multiple threads: reading shared files, writing a file per thread and 
+ * creating/deleting files in a shared directory. Run with "-t" to compare different numbers of threads.
+ * 
+ * @author Philip Heyse
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ConcurrentMemoryFSBenchmark {
+	private static final int NUMBER_OF_SHARED_FILES = 100;
+	private static final int DATA_SIZE = 1024;
+	
+	@Param({"CONCURRENT_MEMORY"})
+	public BenchmarkFSType fsType;
+	
+	private BenchmarkFS benchmarkFS;
+	private FSFFile sharedDir;
+	private FSFFile createDir;
+	private byte[] data;
+	private final AtomicInteger threadCounter = new AtomicInteger();
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		data = new byte[DATA_SIZE];
+		new Random(1).nextBytes(data);
+		benchmarkFS = fsType.create();
+		sharedDir = benchmarkFS.getBaseDir().getChild("shared").mkdirs();
+		for (int i = 0; i < NUMBER_OF_SHARED_FILES; i++) {
+			sharedDir.getChild("file" + i + ".bin").writeBytes(false, data);
+		}
+		createDir = benchmarkFS.getBaseDir().getChild("create").mkdirs();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		benchmarkFS.close();
+	}
+	
+	@State(Scope.Thread)
+	public static class ThreadState{
+		private Random random;
+		private FSFFile ownFile;
+		private int fileCounter;
+		
+		@Setup(Level.Trial)
+		public void setUp(ConcurrentMemoryFSBenchmark benchmark) throws Exception {
+			int threadIndex = benchmark.threadCounter.getAndIncrement();
+			random = new Random(threadIndex);
+			ownFile = benchmark.sharedDir.getChild("thread" + threadIndex + ".bin");
+		}
+	}
+	
+	@Benchmark
+	public byte[] readSharedFile(ThreadState state) throws Exception {
+		return sharedDir.getChild("file" + state.random.nextInt(NUMBER_OF_SHARED_FILES) + ".bin").readBytes();
+	}
+
+	@Benchmark
+	public FSFFileAttributes readAttributesOfSharedFile(ThreadState state) throws Exception {
+		return sharedDir.getChild("file" + state.random.nextInt(NUMBER_OF_SHARED_FILES) + ".bin").readAttributes();
+	}
+	
+	@Benchmark
+	public List<FSFFileAttributes> listSharedDir() throws Exception {
+		return sharedDir.listFilesWithAttributes();
+	}
+
+	@Benchmark
+	public FSFFile writeOwnFile(ThreadState state) throws Exception {
+		return state.ownFile.writeBytes(false, data);
+	}
+	
+	/**
+	 * creates and deletes a file in a directory shared by all threads, so each call changes the namespace twice
+	 */
+	@Benchmark
+	public void createAndDeleteInSharedDir(ThreadState state) throws Exception {
+		FSFFile file = createDir.getChild("file" + state.random.nextInt() + "_" + (state.fileCounter++) + ".bin");
+		file.writeBytes(false, data);
+		file.delete();
+	}
+
+}
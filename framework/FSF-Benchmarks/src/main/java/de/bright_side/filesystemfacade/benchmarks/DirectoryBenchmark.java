@@ -0,0 +1,117 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+/**
+ * listing of a wide directory, listing of a deep tree and copying of a tree
+ * 
+ * @author Philip Heyse
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectoryBenchmark {
+	private static final byte[] FILE_DATA = "benchmark file content".getBytes();
+	private static final int FILES_PER_TREE_DIR = 4;
+	private static final int SUB_DIRS_PER_TREE_DIR = 3;
+	
+	@Param
+	public BenchmarkFSType fsType;
+	
+	/** number of files in the wide directory */
+	@Param({"1000"})
+	public int wideDirSize;
+
+	/** number of directory levels of the tree */
+	@Param({"5"})
+	public int treeDepth;
+	
+	private BenchmarkFS benchmarkFS;
+	private FSFFile wideDir;
+	private FSFFile treeDir;
+	private FSFFile copiesDir;
+	private int copyCounter;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		benchmarkFS = fsType.create();
+		FSFFile baseDir = benchmarkFS.getBaseDir();
+		wideDir = baseDir.getChild("wide").mkdirs();
+		for (int i = 0; i < wideDirSize; i++) {
+			wideDir.getChild("file" + i + ".txt").writeBytes(false, FILE_DATA);
+		}
+		treeDir = baseDir.getChild("tree").mkdirs();
+		createTree(treeDir, treeDepth);
+		copiesDir = baseDir.getChild("copies");
+	}
+	
+	private void createTree(FSFFile dir, int levelsLeft) throws Exception {
+		for (int i = 0; i < FILES_PER_TREE_DIR; i++) {
+			dir.getChild("file" + i + ".txt").writeBytes(false, FILE_DATA);
+		}
+		if (levelsLeft <= 1) {
+			return;
+		}
+		for (int i = 0; i < SUB_DIRS_PER_TREE_DIR; i++) {
+			createTree(dir.getChild("dir" + i).mkdir(), levelsLeft - 1);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void createCopiesDir() throws Exception {
+		copiesDir.mkdirs();
+	}
+	
+	/**
+	 * the copies are deleted after each iteration so that the file system doesn't grow during the whole trial
+	 */
+	@TearDown(Level.Iteration)
+	public void deleteCopies() throws Exception {
+		FSFFileUtil.deleteTree(copiesDir);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		benchmarkFS.close();
+	}
+	
+	@Benchmark
+	public List<FSFFile> listFilesWideDir() throws Exception {
+		return wideDir.listFiles();
+	}
+
+	@Benchmark
+	public List<FSFFile> listFilesTreeDeep() throws Exception {
+		return treeDir.listFilesTree();
+	}
+	
+	@Benchmark
+	public FSFFile copyFilesTree() throws Exception {
+		FSFFile dest = copiesDir.getChild("copy" + (copyCounter++)).mkdir();
+		FSFFileUtil.copyFilesTree(treeDir, dest, false);
+		return dest;
+	}
+	
+}
@@ -0,0 +1,104 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.memoryfs.MemoryFS;
+import de.bright_side.filesystemfacade.memoryfs.MemoryFSImage;
+import de.bright_side.filesystemfacade.nativefs.NativeFS;
+
+/**
+ * time to preload a MemoryFS with a tree of files: copying the files from a directory of the NativeFS compared to loading a MemoryFS image
+ * of the same files.
+ *
+ * @author Philip Heyse
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryFSImageBenchmark {
+	private static final int NUMBER_OF_DIRS = 20;
+
+	@Param({"50"})
+	public int filesPerDir;
+
+	@Param({"4096"})
+	public int dataSize;
+
+	private File tempDir;
+	private FSFFile nativeDir;
+	private File imageFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		byte[] data = new byte[dataSize];
+		new Random(1).nextBytes(data);
+		tempDir = Files.createTempDirectory("fsf_benchmark").toFile();
+		nativeDir = new NativeFS().createByPath(tempDir.getAbsolutePath()).getChild("files").mkdirs();
+		for (int dirIndex = 0; dirIndex < NUMBER_OF_DIRS; dirIndex++) {
+			FSFFile dir = nativeDir.getChild("dir" + dirIndex).mkdirs();
+			for (int fileIndex = 0; fileIndex < filesPerDir; fileIndex++) {
+				dir.getChild("file" + fileIndex + ".bin").writeBytes(false, data);
+			}
+		}
+		imageFile = new File(tempDir, "files.img");
+		MemoryFSImage.write(copyFromNativeDir(), imageFile);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		new NativeFS().createByPath(tempDir.getAbsolutePath()).deleteTree();
+	}
+
+	private MemoryFS copyFromNativeDir() throws Exception {
+		MemoryFS result = new MemoryFS();
+		nativeDir.copyFilesTree(result.createByPath(""));
+		return result;
+	}
+
+	@Benchmark
+	public MemoryFS copyFilesTreeFromNativeFS() throws Exception {
+		return copyFromNativeDir();
+	}
+
+	@Benchmark
+	public MemoryFS loadImage() throws Exception {
+		return MemoryFSImage.load(imageFile);
+	}
+
+	/**
+	 * loads the image and reads all files, so the content is actually read from the mapping
+	 */
+	@Benchmark
+	public long loadImageAndReadAll() throws Exception {
+		long result = 0;
+		for (FSFFile i: MemoryFSImage.load(imageFile).createByPath("").listFilesTree()) {
+			if (i.isFile()) {
+				result += i.readBytes().length;
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,90 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+
+/**
+ * reading and writing of small and large files. Appending is benchmarked by AppendBenchmark because it does not depend on the file size
+ * 
+ * @author Philip Heyse
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadWriteBenchmark {
+	private static final int READ_BUFFER_SIZE = 8192;
+	
+	@Param
+	public BenchmarkFSType fsType;
+	
+	/** small file (1 KB) and large file (8 MB) */
+	@Param({"1024", "8388608"})
+	public int dataSize;
+	
+	private BenchmarkFS benchmarkFS;
+	private byte[] data;
+	private FSFFile readFile;
+	private FSFFile writeFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		Random random = new Random(1);
+		data = new byte[dataSize];
+		random.nextBytes(data);
+		
+		benchmarkFS = fsType.create();
+		FSFFile baseDir = benchmarkFS.getBaseDir();
+		readFile = baseDir.getChild("read.bin").writeBytes(false, data);
+		writeFile = baseDir.getChild("write.bin");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		benchmarkFS.close();
+	}
+	
+	@Benchmark
+	public byte[] readBytes() throws Exception {
+		return readFile.readBytes();
+	}
+
+	@Benchmark
+	public void readStream(Blackhole blackhole) throws Exception {
+		byte[] buffer = new byte[READ_BUFFER_SIZE];
+		try (InputStream inputStream = readFile.getInputStream()){
+			int length;
+			while ((length = inputStream.read(buffer)) >= 0) {
+				blackhole.consume(length);
+			}
+		}
+		blackhole.consume(buffer);
+	}
+	
+	@Benchmark
+	public FSFFile writeBytes() throws Exception {
+		return writeFile.writeBytes(false, data);
+	}
+
+}
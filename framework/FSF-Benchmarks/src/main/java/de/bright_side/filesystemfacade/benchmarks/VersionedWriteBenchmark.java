@@ -0,0 +1,72 @@
+package de.bright_side.filesystemfacade.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.VersionedData;
+
+/**
+ * writing the next version of a file. Only file systems that track versions are benchmarked by default, others can be chosen with "-p fsType=..."
+ * 
+ * @author Philip Heyse
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionedWriteBenchmark {
+	@Param({"HISTORY_WITH_VERSIONS"})
+	public BenchmarkFSType fsType;
+	
+	@Param({"1024"})
+	public int dataSize;
+	
+	private BenchmarkFS benchmarkFS;
+	private byte[] data;
+	private FSFFile file;
+	private long version;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		data = new byte[dataSize];
+		new Random(1).nextBytes(data);
+		benchmarkFS = fsType.create();
+		file = benchmarkFS.getBaseDir().getChild("versioned.bin").writeBytes(false, data);
+		version = file.getVersion();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		benchmarkFS.close();
+	}
+	
+	@Benchmark
+	public FSFFile writeBytesForVersion() throws Exception {
+		version++;
+		return file.writeBytesForVersion(false, data, version);
+	}
+
+	@Benchmark
+	public VersionedData<byte[]> readBytesAndVersion() throws Exception {
+		return file.readBytesAndVersion();
+	}
+	
+}
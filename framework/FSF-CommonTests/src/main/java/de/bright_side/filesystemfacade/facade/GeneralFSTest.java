@@ -6,11 +6,15 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +26,7 @@ import de.bright_side.filesystemfacade.historyfs.HistoryFS;
 import de.bright_side.filesystemfacade.historyfs.HistoryFile;
 import de.bright_side.filesystemfacade.memoryfs.MemoryFS;
 import de.bright_side.filesystemfacade.remotefs.RemoteFS;
+import de.bright_side.filesystemfacade.util.BinarySerializer;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
 import de.bright_side.filesystemfacade.util.ListDirFormatting.Style;
@@ -1617,6 +1622,28 @@ public abstract class GeneralFSTest {
 		assertEquals("Test", readObject);
 	}
 	
+	@Test
+	public void test_writeObject_compactJson() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		fs.createByPath("/myFile.txt").writeObject(Arrays.asList("a", "b"));
+		
+		//: perform check
+		assertEquals("[\"a\",\"b\"]", fs.createByPath("/myFile.txt").readString());
+	}
+	
+	@Test
+	public void test_writeObjectReadObject_binarySerializer() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		fs.setSerializer(new BinarySerializer());
+		ArrayList<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+		fs.createByPath("/myFile.txt").writeObject(list);
+		
+		//: perform check
+		assertEquals(list, fs.createByPath("/myFile.txt").readObject(ArrayList.class));
+	}
+	
 	@Test
 	public void test_getLength_normal() throws Exception {
 		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
@@ -1864,6 +1891,231 @@ public abstract class GeneralFSTest {
 		assertEquals(null, files); 
 	}
 	
+	@Test
+	public void test_readAttributes_normal() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile dir = fs.createByPath("/dir1").mkdirs();
+		FSFFile file = dir.getChild("file.txt").writeString("hello");
+		file.setTimeLastModified(TIME_002);
+		
+		//: perform check
+		FSFFileAttributes attributes = fs.createByPath("/dir1/file.txt").readAttributes();
+		assertEquals("/dir1/file.txt", attributes.getFile().getAbsolutePath());
+		assertEquals(true, attributes.exists());
+		assertEquals(true, attributes.isFile());
+		assertEquals(false, attributes.isDirectory());
+		assertEquals(5, attributes.getLength());
+		assertEquals(TIME_002, attributes.getTimeLastModified());
+		if (isTimeCreatedSupported()) {
+			assertEquals(TIME_001, attributes.getTimeCreated());
+		}
+		if (supportsVersioning()) {
+			assertEquals(1, attributes.getVersion());
+		}
+		
+		attributes = fs.createByPath("/dir1").readAttributes();
+		assertEquals(true, attributes.exists());
+		assertEquals(false, attributes.isFile());
+		assertEquals(true, attributes.isDirectory());
+		
+		attributes = fs.createByPath("/dir1/notExisting.txt").readAttributes();
+		assertEquals(false, attributes.exists());
+		assertEquals(false, attributes.isFile());
+		assertEquals(false, attributes.isDirectory());
+		assertEquals(0, attributes.getLength());
+		assertEquals(0, attributes.getVersion());
+	}
+	
+	@Test
+	public void test_listFilesWithAttributes_normal() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile dir = fs.createByPath("/dir1").mkdirs();
+		dir.getChild("dir2").mkdir();
+		dir.getChild("fileA.txt").writeString("hello");
+		dir.getChild("fileB.txt").writeString("one").writeString("three");
+		dir.getChild("fileB.txt").setTimeLastModified(TIME_003);
+		
+		//: perform check
+		List<FSFFileAttributes> result = fs.createByPath("/dir1").listFilesWithAttributes();
+		assertEquals(3, result.size());
+		
+		FSFFileAttributes attributes = result.get(0);
+		assertEquals("dir2", attributes.getFile().getName());
+		assertEquals("/dir1/dir2", attributes.getFile().getAbsolutePath());
+		assertEquals(true, attributes.isDirectory());
+		
+		attributes = result.get(1);
+		assertEquals("fileA.txt", attributes.getFile().getName());
+		assertEquals(true, attributes.isFile());
+		assertEquals(5, attributes.getLength());
+		if (supportsVersioning()) {
+			assertEquals(1, attributes.getVersion());
+		}
+		
+		attributes = result.get(2);
+		assertEquals("fileB.txt", attributes.getFile().getName());
+		assertEquals("/dir1/fileB.txt", attributes.getFile().getAbsolutePath());
+		assertEquals(true, attributes.isFile());
+		assertEquals(5, attributes.getLength());
+		assertEquals(TIME_003, attributes.getTimeLastModified());
+		if (supportsVersioning()) {
+			assertEquals(2, attributes.getVersion());
+		}
+		
+		assertEquals(null, fs.createByPath("/dir1/dir3").listFilesWithAttributes());
+	}
+	
+	@Test
+	public void test_openDirectoryStream_normal() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile dir = fs.createByPath("/dir1").mkdirs();
+		dir.getChild("dir2").mkdir().getChild("fileX.txt").writeString("x");
+		dir.getChild("fileA.txt").writeString("hello");
+		dir.getChild("fileB.txt").writeString("one");
+		dir.getChild("fileC.txt").writeString("two");
+		dir.getChild("fileD.txt").writeString("three");
+		
+		//: perform check
+		SortedMap<String, FSFFileAttributes> nameToAttributesMap = new TreeMap<>();
+		try (FSFDirectoryStream stream = fs.createByPath("/dir1").openDirectoryStream()){
+			for (FSFFileAttributes i: stream) {
+				nameToAttributesMap.put(i.getFile().getName(), i);
+			}
+		}
+		assertEquals("[dir2, fileA.txt, fileB.txt, fileC.txt, fileD.txt]", nameToAttributesMap.keySet().toString());
+		assertEquals(true, nameToAttributesMap.get("dir2").isDirectory());
+		assertEquals("/dir1/dir2", nameToAttributesMap.get("dir2").getFile().getAbsolutePath());
+		assertEquals(true, nameToAttributesMap.get("fileD.txt").isFile());
+		assertEquals(5, nameToAttributesMap.get("fileD.txt").getLength());
+		assertEquals("/dir1/fileD.txt", nameToAttributesMap.get("fileD.txt").getFile().getAbsolutePath());
+	}
+	
+	@Test
+	public void test_openDirectoryStream_dirDoesNotExist() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		fs.createByPath("/dir1").mkdirs().getChild("file.txt").writeString("hey");
+		
+		//: perform check
+		assertEquals(null, fs.createByPath("/dir1/dir2").openDirectoryStream());
+		assertEquals(null, fs.createByPath("/dir1/file.txt").openDirectoryStream());
+	}
+	
+	@Test
+	public void test_getInputStreamRange_normal() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile file = fs.createByPath("/dir1").mkdirs().getChild("file.txt").writeString("0123456789");
+		
+		//: perform check
+		assertEquals("234", FSFFileUtil.readString(file.getInputStream(2, 3)));
+		assertEquals("0123456789", FSFFileUtil.readString(file.getInputStream(0, 10)));
+		assertEquals("789", FSFFileUtil.readString(file.getInputStream(7, 100)));
+		assertEquals("", FSFFileUtil.readString(file.getInputStream(5, 0)));
+		assertEquals("", FSFFileUtil.readString(file.getInputStream(20, 5)));
+	}
+	
+	@Test
+	public void test_getInputStreamRange_negativeOffset() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile file = fs.createByPath("/dir1").mkdirs().getChild("file.txt").writeString("0123456789");
+		
+		//: perform check
+		Exception exception = null;
+		try {
+			file.getInputStream(-1, 3).close();
+		} catch (Exception e) {
+			exception = e;
+		}
+		assertNotNull(exception);
+	}
+	
+	@Test
+	public void test_getSeekableByteChannel_normal() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile file = fs.createByPath("/dir1").mkdirs().getChild("file.txt").writeString("0123456789");
+		
+		//: perform check
+		try (SeekableByteChannel channel = fs.createByPath("/dir1/file.txt").getSeekableByteChannel()){
+			assertEquals(10, channel.size());
+			ByteBuffer buffer = ByteBuffer.allocate(3);
+			channel.position(6);
+			assertEquals(3, channel.read(buffer));
+			assertEquals("678", new String(buffer.array(), "UTF-8"));
+			assertEquals(9, channel.position());
+			
+			buffer.clear();
+			assertEquals(1, channel.read(buffer));
+			assertEquals("9", new String(buffer.array(), 0, buffer.position(), "UTF-8"));
+			
+			buffer.clear();
+			assertEquals(-1, channel.read(buffer));
+			
+			channel.position(1);
+			buffer.clear();
+			assertEquals(3, channel.read(buffer));
+			assertEquals("123", new String(buffer.array(), "UTF-8"));
+		}
+		assertEquals("0123456789", file.readString());
+	}
+	
+	@Test
+	public void test_copyTo_normal() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile dir = fs.createByPath("/dir1").mkdirs();
+		FSFFile source = dir.getChild("source.txt").writeString("hello");
+		FSFFile dest = dir.getChild("dest.txt");
+		source.copyTo(dest);
+		
+		//: change source after copying
+		source.writeString("changed");
+		
+		//: perform check
+		assertEquals("hello", fs.createByPath("/dir1/dest.txt").readString());
+		assertEquals("changed", fs.createByPath("/dir1/source.txt").readString());
+	}
+	
+	@Test
+	public void test_copyTo_destExists() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile dir = fs.createByPath("/dir1").mkdirs();
+		FSFFile source = dir.getChild("source.txt").writeString("hello");
+		FSFFile dest = dir.getChild("dest.txt").writeString("old content which is longer");
+		source.copyTo(dest);
+		
+		//: perform check
+		assertEquals("hello", fs.createByPath("/dir1/dest.txt").readString());
+		assertEquals(5, fs.createByPath("/dir1/dest.txt").getLength());
+		assertEquals(2, fs.createByPath("/dir1").listFiles().size());
+	}
+	
+	@Test
+	public void test_copyTo_destIsEmptyDir() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(TIME_001);
+		FSFSystem fs = createFS(env);
+		FSFFile dir = fs.createByPath("/dir1").mkdirs();
+		FSFFile source = dir.getChild("source.txt").writeString("hello");
+		FSFFile dest = dir.getChild("dest").mkdirs();
+		
+		Exception exception = null;
+		try {
+			source.copyTo(dest);
+		} catch (Exception e) {
+			exception = e;
+		}
+		
+		//: perform check
+		assertNotNull(exception);
+		assertTrue(fs.createByPath("/dir1/dest").isDirectory());
+	}
+	
 	//   ===================================================================================================
 	//   ==================  V  E  R  S  I  O  N  S  =====================================================
 	//   ================================================================================================= 
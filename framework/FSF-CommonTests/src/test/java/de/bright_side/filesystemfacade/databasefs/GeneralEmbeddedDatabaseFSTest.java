@@ -0,0 +1,116 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.facade.GeneralFSTest;
+
+/**
+ * runs the general tests on an in-memory database which is embedded into the test, so no database server needs to be set up.
+ * The subclasses provide the configuration of the database of their dialect
+ */
+public abstract class GeneralEmbeddedDatabaseFSTest extends GeneralFSTest {
+	private long connectionsBeforeTest;
+
+	protected abstract DatabaseFSConfig createConfig();
+
+	protected DatabaseFSConfig createConfig(String dbUrl, String dbDriverClassName) {
+		DatabaseFSConfig result = new DatabaseFSConfig();
+		result.setDbUrl(dbUrl);
+		result.setDbDriverClassName(dbDriverClassName);
+		result.setDbUserName("SA");
+		result.setDbPassword("");
+		result.setAppName("myApp");
+		result.setTenantName("myTenant");
+		result.setFileTableName("FILESYSTEM");
+		result.setAutoCreateTable(true);
+		result.setSchemaName("PUBLIC");
+		return result;
+	}
+
+	private void dropFileTableIfExists() throws Exception {
+		DatabaseFSConfig config = createConfig();
+		if (DatabaseFSTestUtil.doesFileTableExist(config)) {
+			DatabaseFSTestUtil.dropFileTable(config);
+		}
+	}
+
+	@Override
+	public FSFSystem createFS(FSFEnvironment environment) throws Exception {
+		return new DatabaseFS(createConfig(), environment);
+	}
+
+	@Override
+	public String listDir(FSFSystem fs) throws Exception {
+		return fs.createByPath("").listDirAsString(LIST_DIR_FORMATTING_SIMPLE);
+	}
+
+	@Override
+	public void beforeClass() throws Exception {
+		dropFileTableIfExists();
+	}
+
+	@Override
+	public void afterClass() throws Exception {
+		dropFileTableIfExists();
+	}
+
+	@Override
+	public void beforeTest() throws Exception {
+		connectionsBeforeTest = DatabaseFSTestUtil.listOpenConnectionsOfCofingUser(createConfig());
+		dropFileTableIfExists();
+	}
+
+	@Override
+	public void afterTest() throws Exception {
+		long connectionsAfterTest = DatabaseFSTestUtil.listOpenConnectionsOfCofingUser(createConfig());
+		assertEquals(connectionsBeforeTest, connectionsAfterTest, "open connection remained");
+	}
+
+	@Override
+	public boolean supportsVersioning() throws Exception {
+		return false;
+	}
+
+	@Override
+	public boolean supportsHistory() throws Exception {
+		return false;
+	}
+
+	@Override
+	public boolean supportCopyHistoryFilesTree() {
+		return false;
+	}
+
+	@Override
+	public String listDirInnerFS(FSFSystem fs) throws Exception {
+		return null;
+	}
+
+	@Override
+	public void logStatus(String location) throws Exception {
+		log(location + ": open connections: " + DatabaseFSTestUtil.listOpenConnectionsOfCofingUser(createConfig()));
+	}
+
+	@Override
+	protected FSFSystem getInnerFS(FSFSystem fs) throws Exception{
+		throw new Exception("DatabaseFS has no inner FS");
+	}
+
+	@Override
+	public boolean hasInnerFS() throws Exception {
+		return false;
+	}
+
+	@Override
+	public boolean isInnerFSEncrypted() throws Exception {
+		return false;
+	}
+
+	@Override
+	public boolean isTimeCreatedSupported() throws Exception {
+		return true;
+	}
+
+}
@@ -0,0 +1,13 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+/**
+ * runs the general tests on an embedded H2 database (see H2Dialect)
+ */
+public class GeneralH2DatabaseFSTest extends GeneralEmbeddedDatabaseFSTest {
+
+	@Override
+	protected DatabaseFSConfig createConfig() {
+		return createConfig("jdbc:h2:mem:GeneralH2DatabaseFSTest;DB_CLOSE_DELAY=-1", "org.h2.Driver");
+	}
+
+}
@@ -0,0 +1,23 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.sql.DatabaseMetaData;
+
+/**
+ * runs the general tests on an embedded H2 database as if it did not support recursive queries like older MariaDB and MySQL versions,
+ * so that directory trees are listed, copied and deleted item by item
+ */
+public class GeneralH2WithoutRecursiveQueryDatabaseFSTest extends GeneralEmbeddedDatabaseFSTest {
+
+	@Override
+	protected DatabaseFSConfig createConfig() {
+		DatabaseFSConfig result = createConfig("jdbc:h2:mem:GeneralH2WithoutRecursiveQueryDatabaseFSTest;DB_CLOSE_DELAY=-1", "org.h2.Driver");
+		result.setDialect(new H2Dialect() {
+			@Override
+			public boolean isRecursiveQuerySupported(DatabaseMetaData metaData) {
+				return false;
+			}
+		});
+		return result;
+	}
+
+}
@@ -0,0 +1,13 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+/**
+ * runs the general tests on an embedded HSQLDB database (see HSQLDBDialect)
+ */
+public class GeneralHSQLDBDatabaseFSTest extends GeneralEmbeddedDatabaseFSTest {
+
+	@Override
+	protected DatabaseFSConfig createConfig() {
+		return createConfig("jdbc:hsqldb:mem:GeneralHSQLDBDatabaseFSTest", "org.hsqldb.jdbc.JDBCDriver");
+	}
+
+}
@@ -0,0 +1,82 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.facade.GeneralFSTest;
+
+public class GeneralOffHeapMemoryFSTest extends GeneralFSTest {
+	/** small chunks so that the content of most test files is spread over multiple chunks */
+	private static final int CHUNK_SIZE = 16;
+	private static final int SLAB_SIZE = 64 * 1024;
+	private static final long CAPACITY = 64 * 1024 * 1024;
+
+	@Override
+	public FSFSystem createFS(FSFEnvironment environment) {
+		return new MemoryFS(environment, new MemoryFSConfig().setContentStore(new OffHeapContentStore(CAPACITY, CHUNK_SIZE, SLAB_SIZE)));
+	}
+
+	@Override
+	public String listDir(FSFSystem fs) throws Exception {
+		return fs.createByPath("").listDirAsString(LIST_DIR_FORMATTING_SIMPLE);
+	}
+
+	@Override
+	public void beforeTest() {
+	}
+	
+	@Override
+	public void afterTest() throws Exception {
+	}
+
+	@Override
+	public void beforeClass() {
+	}
+
+	@Override
+	public boolean supportsVersioning() throws Exception {
+		return false;
+	}
+
+	@Override
+	public boolean supportsHistory() throws Exception {
+		return false;
+	}
+	
+	@Override
+	public boolean supportCopyHistoryFilesTree() {
+		return false;
+	}
+
+	@Override
+	public boolean hasInnerFS() throws Exception {
+		return false;
+	}
+
+	@Override
+	public String listDirInnerFS(FSFSystem fs) throws Exception {
+		return null;
+	}
+
+	@Override
+	public void logStatus(String location) throws Exception {
+	}
+
+	@Override
+	protected FSFSystem getInnerFS(FSFSystem fs) throws Exception{
+		throw new Exception("MemoryFS has no inner FS");
+	}
+
+	@Override
+	public void afterClass() throws Exception {
+	}
+
+	@Override
+	public boolean isInnerFSEncrypted() throws Exception {
+		return false;
+	}
+	
+	@Override
+	public boolean isTimeCreatedSupported() throws Exception {
+		return true;
+	}
+}
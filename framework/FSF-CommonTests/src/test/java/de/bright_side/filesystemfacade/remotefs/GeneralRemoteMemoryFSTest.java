@@ -1,15 +1,25 @@
 package de.bright_side.filesystemfacade.remotefs;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
 
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.GeneralFSTest;
 import de.bright_side.filesystemfacade.memoryfs.MemoryFS;
+import de.bright_side.filesystemfacade.util.SimpleFSFEnvironment;
 
 public class GeneralRemoteMemoryFSTest extends GeneralFSTest {
 	private ByteArrayOutputStream responderResponseStream;
@@ -18,6 +28,10 @@ public class GeneralRemoteMemoryFSTest extends GeneralFSTest {
 	
 	@Override
 	public FSFSystem createFS(FSFEnvironment environment) {
+		return createFS(environment, "myUser");
+	}
+	
+	private FSFSystem createFS(FSFEnvironment environment, String username) {
 		this.environment = environment; 
 		RemoteFSConnectionProvider connectionProvider = new RemoteFSConnectionProvider() {
 			
@@ -29,7 +43,7 @@ public class GeneralRemoteMemoryFSTest extends GeneralFSTest {
 						super.close();
 						byte[] bytes = toByteArray();
 						
-						RemoteFSResponder responder = new RemoteFSResponder();
+						RemoteFSResponder responder = new RemoteFSResponder(environment);
 						responderResponseStream = new ByteArrayOutputStream();
 						try {
 							responder.respond(new ByteArrayInputStream(bytes), responderResponseStream, createFSProvider());
@@ -52,7 +66,10 @@ public class GeneralRemoteMemoryFSTest extends GeneralFSTest {
 				return 0;
 			}
 		};
-		return new RemoteFS(environment, "/", "myApp", "myTennant", "myUser", "myPassword", connectionProvider);
+		RemoteFS result = new RemoteFS(environment, "/", "myApp", "myTennant", username, "myPassword", connectionProvider);
+		//: small chunks so that reading directory streams in multiple requests is also tested
+		result.setDirectoryStreamChunkSize(2);
+		return result;
 	}
 
 	private RemoteFSFSystemProvider createFSProvider() {
@@ -136,4 +153,94 @@ public class GeneralRemoteMemoryFSTest extends GeneralFSTest {
 	public boolean isTimeCreatedSupported() throws Exception {
 		return true;
 	}
+
+	@Test
+	public void test_openDirectoryStream_closedBeforeEnd_serverStreamClosed() throws Exception {
+		FSFSystem fs = createFS(new SimpleFSFEnvironment(System.currentTimeMillis()));
+		FSFFile dir = fs.createByPath("/streamDir").mkdirs();
+		for (int i = 0; i < 5; i++) {
+			dir.getChild("file" + i + ".txt").writeString("" + i);
+		}
+		int openCursorsBefore = RemoteFSResponder.getOpenDirectoryCursorCount();
+		
+		int items = 0;
+		try (FSFDirectoryStream stream = dir.openDirectoryStream()){
+			Iterator<FSFFileAttributes> iterator = stream.iterator();
+			for (int i = 0; i < 3; i++) {
+				iterator.next();
+				items ++;
+			}
+			assertEquals(openCursorsBefore + 1, RemoteFSResponder.getOpenDirectoryCursorCount());
+		}
+		assertEquals(3, items);
+		assertEquals(openCursorsBefore, RemoteFSResponder.getOpenDirectoryCursorCount());
+		
+		try (FSFDirectoryStream stream = dir.openDirectoryStream()){
+			items = 0;
+			for (@SuppressWarnings("unused") FSFFileAttributes i: stream) {
+				items ++;
+			}
+			assertEquals(5, items);
+			assertEquals(openCursorsBefore, RemoteFSResponder.getOpenDirectoryCursorCount());
+		}
+	}
+	
+	@Test
+	public void test_openDirectoryStream_abandoned_serverStreamClosedAfterTimeout() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(System.currentTimeMillis());
+		FSFSystem fs = createFS(env);
+		FSFFile dir = fs.createByPath("/streamDir").mkdirs();
+		for (int i = 0; i < 5; i++) {
+			dir.getChild("file" + i + ".txt").writeString("" + i);
+		}
+		int openCursorsBefore = RemoteFSResponder.getOpenDirectoryCursorCount();
+		
+		FSFDirectoryStream stream = dir.openDirectoryStream();
+		final Iterator<FSFFileAttributes> iterator = stream.iterator();
+		iterator.next();
+		iterator.next();
+		assertEquals(openCursorsBefore + 1, RemoteFSResponder.getOpenDirectoryCursorCount());
+		
+		//: any request closes the expired stream
+		env.setCurrentTime(env.getCurrentTimeMillis() + RemoteFSResponder.DIRECTORY_CURSOR_TIMEOUT_MILLIS + 1);
+		assertEquals(true, dir.exists());
+		assertEquals(openCursorsBefore, RemoteFSResponder.getOpenDirectoryCursorCount());
+		assertThrows(RuntimeException.class, () -> iterator.next());
+	}
+	
+	@Test
+	public void test_openDirectoryStream_manyAbandoned_leastRecentlyReadStreamsOfUserClosed() throws Exception {
+		SimpleFSFEnvironment env = new SimpleFSFEnvironment(System.currentTimeMillis());
+		FSFSystem fs = createFS(env);
+		FSFFile dir = fs.createByPath("/streamDir").mkdirs();
+		for (int i = 0; i < 5; i++) {
+			dir.getChild("file" + i + ".txt").writeString("" + i);
+		}
+		
+		Iterator<FSFFileAttributes> otherUserIterator = createFS(env, "otherUser").createByPath("/streamDir").openDirectoryStream().iterator();
+		otherUserIterator.next();
+		otherUserIterator.next();
+		
+		Iterator<FSFFileAttributes> firstIterator = null;
+		for (int i = 0; i <= RemoteFSResponder.MAX_OPEN_DIRECTORY_CURSORS_PER_OWNER; i++) {
+			Iterator<FSFFileAttributes> iterator = dir.openDirectoryStream().iterator();
+			iterator.next();
+			iterator.next();
+			if (firstIterator == null) {
+				firstIterator = iterator;
+			}
+		}
+		assertEquals(RemoteFSResponder.MAX_OPEN_DIRECTORY_CURSORS_PER_OWNER + 1, RemoteFSResponder.getOpenDirectoryCursorCount());
+		final Iterator<FSFFileAttributes> evictedIterator = firstIterator;
+		assertThrows(RuntimeException.class, () -> evictedIterator.next());
+		
+		//: the streams of one user don't close the streams of other users
+		otherUserIterator.next();
+		otherUserIterator.next();
+		
+		//: close the abandoned streams so that they don't count in other tests
+		env.setCurrentTime(env.getCurrentTimeMillis() + RemoteFSResponder.DIRECTORY_CURSOR_TIMEOUT_MILLIS + 1);
+		assertEquals(true, dir.exists());
+		assertEquals(0, RemoteFSResponder.getOpenDirectoryCursorCount());
+	}
 }
@@ -0,0 +1,108 @@
+package de.bright_side.filesystemfacade_it.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.databasefs.DatabaseFS;
+import de.bright_side.filesystemfacade.databasefs.DatabaseFSConfig;
+import de.bright_side.filesystemfacade.databasefs.DatabaseFSSchemaMigration;
+import de.bright_side.filesystemfacade.databasefs.DatabaseFSTestUtil;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+
+@Tag("IT")
+public class DatabaseFSSchemaMigrationIT {
+	private static final int NUMBER_OF_FILES = 25;
+
+	@BeforeEach
+	public void beforeTest() throws Exception {
+		GeneralDatabaseFSWithCredentialsIT.dropFileTableIfExists(GeneralDatabaseFSWithCredentialsIT.createConfig());
+	}
+
+	@AfterEach
+	public void afterTest() throws Exception {
+		GeneralDatabaseFSWithCredentialsIT.dropFileTableIfExists(GeneralDatabaseFSWithCredentialsIT.createConfig());
+	}
+
+	private DatabaseFSConfig createConfig(String tenantName) {
+		DatabaseFSConfig result = GeneralDatabaseFSWithCredentialsIT.createConfig();
+		result.setTenantName(tenantName);
+		return result;
+	}
+
+	private void createFiles(DatabaseFS fs) throws Exception {
+		FSFFile dir = fs.createByPath("/dir").mkdirs();
+		for (int i = 0; i < NUMBER_OF_FILES; i++) {
+			dir.getChild("file" + i + ".txt").writeString("content of file " + i);
+		}
+		dir.getChild("empty.txt").writeBytes(false, new byte[0]);
+	}
+
+	private void verifyFiles(DatabaseFS fs) throws Exception {
+		FSFFile dir = fs.createByPath("/dir");
+		assertEquals(NUMBER_OF_FILES + 1, dir.listFiles().size());
+		for (int i = 0; i < NUMBER_OF_FILES; i++) {
+			assertEquals("content of file " + i, dir.getChild("file" + i + ".txt").readString());
+		}
+		assertEquals(0, dir.getChild("empty.txt").readBytes().length);
+	}
+
+	private long readSchemaVersion(DatabaseFSConfig config) throws Exception {
+		String sql = "SELECT SCHEMA_VERSION FROM " + config.getSchemaName() + "." + config.getFileTableName() + "_VERSION";
+		return DatabaseFSTestUtil.processQueryAsValue(config, sql, Long.class);
+	}
+
+	@Test
+	public void migrate_twoTenants_dataReadableWithSchemaVersion2() throws Exception {
+		createFiles(new DatabaseFS(createConfig("tenant1")));
+		createFiles(new DatabaseFS(createConfig("tenant2")));
+
+		DatabaseFSSchemaMigration migration = new DatabaseFSSchemaMigration(createConfig("tenant1"));
+		migration.setRowsPerStep(7);
+		migration.migrate();
+
+		assertEquals(2 * NUMBER_OF_FILES + 2, migration.getMovedFiles());
+		assertEquals(DatabaseFSConfig.SCHEMA_VERSION_2, readSchemaVersion(createConfig("tenant1")));
+		verifyFiles(new DatabaseFS(createConfig("tenant1")));
+		verifyFiles(new DatabaseFS(createConfig("tenant2")));
+	}
+
+	@Test
+	public void migrateStep_interruptedAndFileWrittenInBetween_migrationContinued() throws Exception {
+		DatabaseFS fs = new DatabaseFS(createConfig("tenant1"));
+		createFiles(fs);
+
+		DatabaseFSSchemaMigration migration = new DatabaseFSSchemaMigration(createConfig("tenant1"));
+		migration.setRowsPerStep(5);
+		assertFalse(migration.migrateStep());
+		assertFalse(migration.migrateStep());
+		
+		//: the file system which was created before the migration keeps working
+		verifyFiles(fs);
+		fs.createByPath("/dir/file0.txt").writeString("content of file 0");
+
+		new DatabaseFSSchemaMigration(createConfig("tenant1")).migrate();
+
+		assertEquals(DatabaseFSConfig.SCHEMA_VERSION_2, readSchemaVersion(createConfig("tenant1")));
+		verifyFiles(new DatabaseFS(createConfig("tenant1")));
+	}
+
+	@Test
+	public void create_afterMigration_duplicateNameRejected() throws Exception {
+		createFiles(new DatabaseFS(createConfig("tenant1")));
+		new DatabaseFSSchemaMigration(createConfig("tenant1")).migrate();
+
+		DatabaseFSConfig config = createConfig("tenant1");
+		String sql = "INSERT INTO " + config.getSchemaName() + "." + config.getFileTableName() + " (APP, TENANT, ID, FILE_TYPE, NAME, FILE_LENGTH"
+				+ ", LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID) SELECT APP, TENANT, ID + 1000, FILE_TYPE, NAME, FILE_LENGTH"
+				+ ", LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID FROM " + config.getSchemaName() + "." + config.getFileTableName() 
+				+ " WHERE NAME = 'dir'";
+		assertThrows(Exception.class, () -> DatabaseFSTestUtil.processUpdate(config, sql));
+	}
+
+}
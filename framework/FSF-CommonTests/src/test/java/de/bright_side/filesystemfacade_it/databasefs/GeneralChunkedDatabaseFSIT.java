@@ -0,0 +1,24 @@
+package de.bright_side.filesystemfacade_it.databasefs;
+
+import org.junit.jupiter.api.Tag;
+
+import de.bright_side.filesystemfacade.databasefs.DatabaseFS;
+import de.bright_side.filesystemfacade.databasefs.DatabaseFSConfig;
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+
+/**
+ * runs the general tests with a small chunk size so that the data of most files is stored in several chunks
+ */
+@Tag("IT")
+public class GeneralChunkedDatabaseFSIT extends GeneralDatabaseFSWithCredentialsIT {
+	private static final int CHUNK_SIZE = 5;
+
+	@Override
+	public FSFSystem createFS(FSFEnvironment environment) throws Exception {
+		DatabaseFSConfig config = createConfig();
+		config.setChunkSize(CHUNK_SIZE);
+		return new DatabaseFS(config, environment);
+	}
+
+}
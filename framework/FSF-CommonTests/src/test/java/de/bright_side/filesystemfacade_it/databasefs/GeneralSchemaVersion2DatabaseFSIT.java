@@ -0,0 +1,23 @@
+package de.bright_side.filesystemfacade_it.databasefs;
+
+import org.junit.jupiter.api.Tag;
+
+import de.bright_side.filesystemfacade.databasefs.DatabaseFS;
+import de.bright_side.filesystemfacade.databasefs.DatabaseFSConfig;
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+
+/**
+ * runs the general tests with tables of schema version 2 which store the data of all files in the chunk table
+ */
+@Tag("IT")
+public class GeneralSchemaVersion2DatabaseFSIT extends GeneralDatabaseFSWithCredentialsIT {
+
+	@Override
+	public FSFSystem createFS(FSFEnvironment environment) throws Exception {
+		DatabaseFSConfig config = createConfig();
+		config.setSchemaVersion(DatabaseFSConfig.SCHEMA_VERSION_2);
+		return new DatabaseFS(config, environment);
+	}
+
+}
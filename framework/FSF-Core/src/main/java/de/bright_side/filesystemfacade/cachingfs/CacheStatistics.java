@@ -0,0 +1,79 @@
+package de.bright_side.filesystemfacade.cachingfs;
+
+/**
+ * the hit and miss counts of a CachingFS at the time the statistics were created
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class CacheStatistics {
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long invalidations;
+	private final int attributesEntries;
+	private final int listingEntries;
+
+	protected CacheStatistics(long hits, long misses, long evictions, long invalidations, int attributesEntries, int listingEntries) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.invalidations = invalidations;
+		this.attributesEntries = attributesEntries;
+		this.listingEntries = listingEntries;
+	}
+
+	/**
+	 * @return number of calls that were answered from the cache
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return number of calls that were passed to the inner file system because there was no valid entry
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return number of entries that were removed because the maximum number of entries was reached
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return number of entries that were removed because of a change made through the CachingFS
+	 */
+	public long getInvalidations() {
+		return invalidations;
+	}
+
+	public int getAttributesEntries() {
+		return attributesEntries;
+	}
+
+	public int getListingEntries() {
+		return listingEntries;
+	}
+	
+	/**
+	 * @return hits / (hits + misses) or 0 if there were no calls
+	 */
+	public double getHitRate() {
+		long total = hits + misses;
+		if (total == 0) {
+			return 0;
+		}
+		return (double)hits / total;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStatistics{hits=" + hits + ", misses=" + misses + ", hitRate=" + getHitRate() + ", evictions=" + evictions + ", invalidations=" 
+				+ invalidations + ", attributesEntries=" + attributesEntries + ", listingEntries=" + listingEntries + "}";
+	}
+	
+}
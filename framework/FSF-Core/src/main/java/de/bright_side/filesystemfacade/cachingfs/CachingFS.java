@@ -0,0 +1,128 @@
+package de.bright_side.filesystemfacade.cachingfs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+/**
+ * A file system which passes all calls to an inner file system and caches the metadata of the files: exists, isFile, isDirectory, getLength, 
+ * getTimeLastModified, readAttributes, listFiles and listFilesWithAttributes. This is useful for inner file systems where each of these calls
+ * is expensive such as a DatabaseFS, RemoteFS or SftpFS.
+ * 
+ * The cache is write-through: all changes made through the CachingFS (writing, setting times or versions, creating directories, deleting, renaming, 
+ * moving and copying) are passed to the inner file system and remove the entries of the changed files and their parent directories.
+ * Changes which are not made through the CachingFS (e.g. by other processes) are noticed once the cached entries are older than the time to live.
+ * 
+ * <code>
+ *		CachingFS cachingFS = new CachingFS(new DatabaseFS(config), new CachingFSConfig().setTimeToLiveMillis(5000));
+ *		List&lt;FSFFile&gt; files = cachingFS.createByPath("/data").listFiles();
+ *		System.out.println(cachingFS.getStatistics());
+ * </code>
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class CachingFS implements FSFSystem{
+	private final FSFSystem innerFS;
+	private final CachingFSConfig config;
+	private final MetadataCache cache;
+
+	/**
+	 * @param innerFS the file system of which the metadata is cached
+	 */
+	public CachingFS(FSFSystem innerFS) {
+		this(innerFS, new CachingFSConfig());
+	}
+
+	/**
+	 * @param innerFS the file system of which the metadata is cached
+	 * @param config configuration of the cache size and time to live
+	 */
+	public CachingFS(FSFSystem innerFS, CachingFSConfig config) {
+		this(innerFS, config, FSFFileUtil.createDefaultEnvironment());
+	}
+	
+	/**
+	 * @param innerFS the file system of which the metadata is cached
+	 * @param config configuration of the cache size and time to live
+	 * @param environment environment object to e.g. get the current time 
+	 */
+	public CachingFS(FSFSystem innerFS, CachingFSConfig config, FSFEnvironment environment) {
+		this.innerFS = innerFS;
+		this.config = config;
+		this.cache = new MetadataCache(config, environment, innerFS.getSeparator());
+	}
+	
+	@Override
+	public List<FSFFile> listRoots() {
+		List<FSFFile> result = new ArrayList<>();
+		for (FSFFile i : innerFS.listRoots()) {
+			result.add(new CachingFile(this, i));
+		}
+		return result;
+	}
+
+	@Override
+	public FSFFile createByPath(String path) throws Exception {
+		return new CachingFile(this, innerFS.createByPath(path));
+	}
+
+	@Override
+	public String getSeparator() {
+		return innerFS.getSeparator();
+	}
+
+	@Override
+	public FSFSerializer getSerializer() {
+		return innerFS.getSerializer();
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		innerFS.setSerializer(serializer);
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return innerFS.isConcurrent();
+	}
+
+	public FSFSystem getInnerFS() {
+		return innerFS;
+	}
+	
+	public CachingFSConfig getConfig() {
+		return config;
+	}
+	
+	protected MetadataCache getCache() {
+		return cache;
+	}
+	
+	/**
+	 * @return the hit and miss counts since the creation of the file system or the last reset and the current number of entries
+	 */
+	public CacheStatistics getStatistics() {
+		return cache.getStatistics();
+	}
+	
+	/**
+	 * sets the hit, miss, eviction and invalidation counts to 0
+	 */
+	public void resetStatistics() {
+		cache.resetStatistics();
+	}
+	
+	/**
+	 * removes all entries from the cache, e.g. after the inner file system has been changed by other means than this CachingFS
+	 */
+	public void clearCache() {
+		cache.clear();
+	}
+	
+}
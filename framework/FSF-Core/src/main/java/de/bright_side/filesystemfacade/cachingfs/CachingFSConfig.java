@@ -0,0 +1,60 @@
+package de.bright_side.filesystemfacade.cachingfs;
+
+/**
+ * @author Philip Heyse
+ *
+ */
+public class CachingFSConfig {
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+	public static final long DEFAULT_TIME_TO_LIVE_MILLIS = 10000;
+	
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+	private long timeToLiveMillis = DEFAULT_TIME_TO_LIVE_MILLIS;
+	private boolean cacheListings = true;
+	
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+	
+	/**
+	 * @param maxEntries maximum number of cached attributes and (separately) of cached directory listings. The least recently used entries are removed first
+	 * @return this object
+	 */
+	public CachingFSConfig setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+		return this;
+	}
+	
+	public long getTimeToLiveMillis() {
+		return timeToLiveMillis;
+	}
+	
+	/**
+	 * @param timeToLiveMillis time after which a cached entry is read again from the inner file system. This limits how long changes which are 
+	 * not made through the CachingFS (e.g. by other processes) stay unnoticed
+	 * @return this object
+	 */
+	public CachingFSConfig setTimeToLiveMillis(long timeToLiveMillis) {
+		this.timeToLiveMillis = timeToLiveMillis;
+		return this;
+	}
+	
+	public boolean isCacheListings() {
+		return cacheListings;
+	}
+	
+	/**
+	 * @param cacheListings true if the results of listFiles and listFilesWithAttributes are cached. The attributes of the listed items are cached in any case
+	 * @return this object
+	 */
+	public CachingFSConfig setCacheListings(boolean cacheListings) {
+		this.cacheListings = cacheListings;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "CachingFSConfig{maxEntries=" + maxEntries + ", timeToLiveMillis=" + timeToLiveMillis + ", cacheListings=" + cacheListings + "}";
+	}
+	
+}
@@ -0,0 +1,451 @@
+package de.bright_side.filesystemfacade.cachingfs;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+import de.bright_side.filesystemfacade.facade.FSFFileWithInnerFile;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.facade.WrongVersionException;
+import de.bright_side.filesystemfacade.util.AbstractDirectoryStream;
+
+/**
+ * file of a CachingFS: the metadata is read from the cache if there is a valid entry. Calls which change the file are passed to the inner file
+ * and remove the cache entries of the file and its parent.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class CachingFile extends FSFFileWithInnerFile{
+	private CachingFS fs;
+
+	protected CachingFile(CachingFS fs, FSFFile innerFile) {
+		super(innerFile);
+		this.fs = fs;
+	}
+	
+	@Override
+	protected FSFFile wrap(FSFFile innerFile) {
+		if (innerFile == null) {
+			return null;
+		}
+		return new CachingFile(fs, innerFile);
+	}
+	
+	/**
+	 * @return the inner file if the file is a CachingFile so that the inner file system can use its optimizations for its own file type
+	 */
+	private static FSFFile unwrap(FSFFile file) {
+		if (file instanceof CachingFile) {
+			return ((CachingFile)file).getInnerFile();
+		}
+		return file;
+	}
+	
+	@Override
+	public FSFSystem getFSFSystem() {
+		return fs;
+	}
+	
+	@Override
+	public int compareTo(FSFFile o) {
+		return getInnerFile().compareTo(unwrap(o));
+	}
+	
+	private String getInnerParentPath() {
+		FSFFile parent = getInnerFile().getParentFile();
+		if (parent == null) {
+			return null;
+		}
+		return parent.getAbsolutePath();
+	}
+	
+	/**
+	 * removes the entries of this file and its parent
+	 */
+	private void invalidate() {
+		fs.getCache().invalidate(getInnerFile().getAbsolutePath(), getInnerParentPath());
+	}
+
+	/**
+	 * removes the entries of this file, its parent and all its sub-items
+	 */
+	private void invalidateTree() {
+		fs.getCache().invalidateTree(getInnerFile().getAbsolutePath(), getInnerParentPath());
+	}
+	
+	/**
+	 * removes the entries of this file and all its ancestors which may have been created
+	 */
+	private void invalidateWithAncestors() {
+		FSFFile file = getInnerFile();
+		while (file != null) {
+			fs.getCache().invalidate(file.getAbsolutePath(), null);
+			file = file.getParentFile();
+		}
+	}
+	
+	private FSFFileAttributes getCachedAttributes() throws Exception {
+		String path = getInnerFile().getAbsolutePath();
+		FSFFileAttributes result = fs.getCache().getAttributes(path);
+		if (result == null) {
+			//: the generation is read before the inner file so that a change during the read is not cached
+			long generation = fs.getCache().getGeneration();
+			result = getInnerFile().readAttributes();
+			fs.getCache().putAttributes(path, result, generation);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the cached attributes or null if they could not be read so that the caller can pass the call to the inner file
+	 */
+	private FSFFileAttributes getCachedAttributesOrNull() {
+		try {
+			return getCachedAttributes();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+	
+	@Override
+	public FSFFileAttributes readAttributes() throws Exception {
+		FSFFileAttributes result = getCachedAttributes();
+		result.setFile(this);
+		return result;
+	}
+
+	@Override
+	public boolean exists() {
+		FSFFileAttributes attributes = getCachedAttributesOrNull();
+		if (attributes == null) {
+			return super.exists();
+		}
+		return attributes.exists();
+	}
+
+	@Override
+	public boolean isFile() {
+		FSFFileAttributes attributes = getCachedAttributesOrNull();
+		if (attributes == null) {
+			return super.isFile();
+		}
+		return attributes.isFile();
+	}
+
+	@Override
+	public boolean isDirectory() {
+		FSFFileAttributes attributes = getCachedAttributesOrNull();
+		if (attributes == null) {
+			return super.isDirectory();
+		}
+		return attributes.isDirectory();
+	}
+
+	@Override
+	public long getLength() {
+		FSFFileAttributes attributes = getCachedAttributesOrNull();
+		//: the behavior for files that don't exist depends on the inner file system (e.g. an exception), so the call is passed on
+		if ((attributes == null) || (!attributes.exists())) {
+			return super.getLength();
+		}
+		return attributes.getLength();
+	}
+
+	@Override
+	public long getTimeLastModified() throws Exception {
+		FSFFileAttributes attributes = getCachedAttributes();
+		if (!attributes.exists()) {
+			return super.getTimeLastModified();
+		}
+		return attributes.getTimeLastModified();
+	}
+
+	@Override
+	public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+		String path = getInnerFile().getAbsolutePath();
+		List<FSFFileAttributes> items = fs.getCache().getListing(path);
+		if (items == null) {
+			long generation = fs.getCache().getGeneration();
+			items = getInnerFile().listFilesWithAttributes();
+			if (items == null) {
+				return null;
+			}
+			fs.getCache().putListing(path, items, generation);
+		}
+		List<FSFFileAttributes> result = new ArrayList<>(items.size());
+		for (FSFFileAttributes i: items) {
+			i.setFile(wrap(i.getFile()));
+			result.add(i);
+		}
+		return result;
+	}
+
+	@Override
+	public List<FSFFile> listFiles() {
+		List<FSFFileAttributes> items;
+		try {
+			items = listFilesWithAttributes();
+		} catch (Exception e) {
+			return super.listFiles();
+		}
+		if (items == null) {
+			return null;
+		}
+		List<FSFFile> result = new ArrayList<>(items.size());
+		for (FSFFileAttributes i: items) {
+			result.add(i.getFile());
+		}
+		return result;
+	}
+
+	@Override
+	public FSFDirectoryStream openDirectoryStream() throws Exception {
+		//: the items of a directory stream are not cached as a listing, but their attributes are if the cache is not invalidated while reading
+		final long generation = fs.getCache().getGeneration();
+		final FSFDirectoryStream innerStream = getInnerFile().openDirectoryStream();
+		if (innerStream == null) {
+			return null;
+		}
+		final Iterator<FSFFileAttributes> innerIterator = innerStream.iterator();
+		return new AbstractDirectoryStream() {
+			@Override
+			protected FSFFileAttributes readNext() throws Exception {
+				if (!innerIterator.hasNext()) {
+					return null;
+				}
+				FSFFileAttributes result = innerIterator.next();
+				fs.getCache().putAttributes(result.getFile().getAbsolutePath(), result, generation);
+				return wrapAttributes(result);
+			}
+			
+			@Override
+			protected void closeResources() throws IOException {
+				innerStream.close();
+			}
+		};
+	}
+
+	@Override
+	public OutputStream getOutputStream(boolean append) throws Exception {
+		invalidate();
+		return wrapOutputStream(super.getOutputStream(append));
+	}
+
+	@Override
+	public OutputStream getOutputStreamForVersion(boolean append, long newVersion) throws WrongVersionException, Exception {
+		invalidate();
+		return wrapOutputStream(super.getOutputStreamForVersion(append, newVersion));
+	}
+
+	/**
+	 * wraps the stream so that the entries are removed again when the stream is closed as they may have been read while the stream was written
+	 */
+	private OutputStream wrapOutputStream(OutputStream outputStream) {
+		if (outputStream == null) {
+			return null;
+		}
+		return new FilterOutputStream(outputStream) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+			
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					invalidate();
+				}
+			}
+		};
+	}
+
+	@Override
+	public void rename(String newName) throws Exception {
+		//: the paths are read before the call as some inner files change their path when renamed
+		String path = getInnerFile().getAbsolutePath();
+		FSFFile innerParent = getInnerFile().getParentFile();
+		String parentPath = null;
+		String newPath = null;
+		if (innerParent != null) {
+			parentPath = innerParent.getAbsolutePath();
+			newPath = innerParent.getChild(newName).getAbsolutePath();
+		}
+		try {
+			super.rename(newName);
+		} finally {
+			fs.getCache().invalidateTree(path, parentPath);
+			if (newPath != null) {
+				fs.getCache().invalidateTree(newPath, null);
+			}
+		}
+	}
+
+	@Override
+	public FSFFile mkdirs() throws Exception {
+		try {
+			return super.mkdirs();
+		} finally {
+			invalidateWithAncestors();
+		}
+	}
+
+	@Override
+	public FSFFile mkdir() throws Exception {
+		try {
+			return super.mkdir();
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void delete() throws Exception {
+		try {
+			super.delete();
+		} finally {
+			//: some inner file systems also delete the sub-items of a directory
+			invalidateTree();
+		}
+	}
+
+	@Override
+	public void deleteTree() throws Exception {
+		try {
+			super.deleteTree();
+		} finally {
+			invalidateTree();
+		}
+	}
+
+	@Override
+	public <K> FSFFile writeObject(K objectToWrite) throws Exception {
+		try {
+			return super.writeObject(objectToWrite);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void moveTo(FSFFile otherFile) throws Exception {
+		String path = getInnerFile().getAbsolutePath();
+		String parentPath = getInnerParentPath();
+		try {
+			getInnerFile().moveTo(unwrap(otherFile));
+		} finally {
+			fs.getCache().invalidateTree(path, parentPath);
+			if (otherFile instanceof CachingFile) {
+				((CachingFile)otherFile).invalidateTree();
+			}
+		}
+	}
+
+	@Override
+	public void copyTo(FSFFile destFile) throws Exception {
+		try {
+			getInnerFile().copyTo(unwrap(destFile));
+		} finally {
+			if (destFile instanceof CachingFile) {
+				((CachingFile)destFile).invalidate();
+			}
+		}
+	}
+
+	@Override
+	public void setTimeLastModified(long timeLastModified) throws Exception {
+		try {
+			super.setTimeLastModified(timeLastModified);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public boolean setTimeCreated(long timeCreated) throws Exception {
+		try {
+			return super.setTimeCreated(timeCreated);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public FSFFile writeBytes(boolean append, byte[] bytes) throws Exception {
+		try {
+			return super.writeBytes(append, bytes);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public FSFFile writeString(String string) throws Exception {
+		try {
+			return super.writeString(string);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void copyHistoryFilesTree(FSFFile dest, long version) throws Exception {
+		try {
+			super.copyHistoryFilesTree(dest, version);
+		} finally {
+			if (dest instanceof CachingFile) {
+				((CachingFile)dest).invalidateTree();
+			}
+		}
+	}
+
+	@Override
+	public <K> FSFFile writeObjectForVersion(K objectToWrite, long newVersion) throws WrongVersionException, Exception {
+		try {
+			return super.writeObjectForVersion(objectToWrite, newVersion);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public FSFFile writeBytesForVersion(boolean append, byte[] bytes, long newVersion) throws WrongVersionException, Exception {
+		try {
+			return super.writeBytesForVersion(append, bytes, newVersion);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void setVersion(long version) throws Exception {
+		try {
+			super.setVersion(version);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public FSFFile writeStringForVersion(String string, long newVersion) throws WrongVersionException, Exception {
+		try {
+			return super.writeStringForVersion(string, newVersion);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CachingFile{innerFile=" + getInnerFile() + "}";
+	}
+	
+}
@@ -0,0 +1,209 @@
+package de.bright_side.filesystemfacade.cachingfs;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
+/**
+ * LRU cache with time to live for the attributes and the directory listings of the inner files of a CachingFS. The keys are the absolute paths
+ * of the inner files. The cached attributes refer to the inner files and are copied when they are put or read, so callers may modify them.
+ * 
+ * @author Philip Heyse
+ *
+ */
+class MetadataCache {
+	private final CachingFSConfig config;
+	private final FSFEnvironment environment;
+	private final String separator;
+	private final Map<String, CacheEntry<FSFFileAttributes>> attributesMap;
+	private final Map<String, CacheEntry<List<FSFFileAttributes>>> listingMap;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+	/** increased by each invalidation so that values which have been read from the inner file system before are not put into the cache */
+	private long generation;
+
+	public MetadataCache(CachingFSConfig config, FSFEnvironment environment, String separator) {
+		this.config = config;
+		this.environment = environment;
+		this.separator = separator;
+		attributesMap = createLruMap();
+		listingMap = createLruMap();
+	}
+	
+	private <V> Map<String, CacheEntry<V>> createLruMap(){
+		return new LinkedHashMap<String, CacheEntry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 4385601766329154218L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+				if (size() > config.getMaxEntries()) {
+					evictions ++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	private <V> V get(Map<String, CacheEntry<V>> map, String path) {
+		CacheEntry<V> entry = map.get(path);
+		if ((entry != null) && (environment.getCurrentTimeMillis() - entry.timeCreated >= config.getTimeToLiveMillis())) {
+			map.remove(path);
+			entry = null;
+		}
+		if (entry == null) {
+			misses ++;
+			return null;
+		}
+		hits ++;
+		return entry.value;
+	}
+	
+	/**
+	 * @return a copy of the cached attributes or null if there is no valid entry
+	 */
+	public synchronized FSFFileAttributes getAttributes(String path) {
+		FSFFileAttributes result = get(attributesMap, path);
+		if (result == null) {
+			return null;
+		}
+		return copy(result);
+	}
+
+	/**
+	 * @return the generation which is passed to the put-methods after the values have been read from the inner file system
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * @param generation result of getGeneration before the attributes were read. If the cache has been invalidated since then, the
+	 * attributes may be outdated and are not cached
+	 */
+	public synchronized void putAttributes(String path, FSFFileAttributes attributes, long generation) {
+		if (generation != this.generation) {
+			return;
+		}
+		attributesMap.put(path, new CacheEntry<FSFFileAttributes>(copy(attributes), environment.getCurrentTimeMillis()));
+	}
+	
+	/**
+	 * @return a copy of the cached listing or null if there is no valid entry
+	 */
+	public synchronized List<FSFFileAttributes> getListing(String path) {
+		List<FSFFileAttributes> result = get(listingMap, path);
+		if (result == null) {
+			return null;
+		}
+		return copy(result);
+	}
+	
+	/**
+	 * caches the listing of the directory and the attributes of each item
+	 * @param generation result of getGeneration before the listing was read. If the cache has been invalidated since then, the
+	 * listing may be outdated and is not cached
+	 */
+	public synchronized void putListing(String path, List<FSFFileAttributes> listing, long generation) {
+		if (generation != this.generation) {
+			return;
+		}
+		long time = environment.getCurrentTimeMillis();
+		if (config.isCacheListings()) {
+			listingMap.put(path, new CacheEntry<List<FSFFileAttributes>>(copy(listing), time));
+		}
+		for (FSFFileAttributes i: listing) {
+			attributesMap.put(i.getFile().getAbsolutePath(), new CacheEntry<FSFFileAttributes>(copy(i), time));
+		}
+	}
+	
+	/**
+	 * removes the entries of the path and of the parent whose listing, time and length may have changed
+	 * @param parentPath path of the parent or null if there is no parent
+	 */
+	public synchronized void invalidate(String path, String parentPath) {
+		generation ++;
+		remove(path);
+		if (parentPath != null) {
+			remove(parentPath);
+		}
+	}
+
+	/**
+	 * removes the entries of the path, the parent and all sub-items of the path
+	 * @param parentPath path of the parent or null if there is no parent
+	 */
+	public synchronized void invalidateTree(String path, String parentPath) {
+		invalidate(path, parentPath);
+		String prefix = path.endsWith(separator) ? path : path + separator;
+		removeByPrefix(attributesMap, prefix);
+		removeByPrefix(listingMap, prefix);
+	}
+
+	private void remove(String path) {
+		if (attributesMap.remove(path) != null) {
+			invalidations ++;
+		}
+		if (listingMap.remove(path) != null) {
+			invalidations ++;
+		}
+	}
+	
+	private <V> void removeByPrefix(Map<String, CacheEntry<V>> map, String prefix) {
+		Iterator<String> iterator = map.keySet().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().startsWith(prefix)) {
+				iterator.remove();
+				invalidations ++;
+			}
+		}
+	}
+	
+	public synchronized void clear() {
+		generation ++;
+		attributesMap.clear();
+		listingMap.clear();
+	}
+	
+	public synchronized CacheStatistics getStatistics() {
+		return new CacheStatistics(hits, misses, evictions, invalidations, attributesMap.size(), listingMap.size());
+	}
+	
+	public synchronized void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+		invalidations = 0;
+	}
+	
+	private static FSFFileAttributes copy(FSFFileAttributes attributes) {
+		return new FSFFileAttributes(attributes.getFile(), attributes.exists(), attributes.isDirectory(), attributes.getLength(), attributes.getTimeLastModified()
+				, attributes.getTimeCreated(), attributes.getVersion());
+	}
+
+	private static List<FSFFileAttributes> copy(List<FSFFileAttributes> listing) {
+		List<FSFFileAttributes> result = new ArrayList<>(listing.size());
+		for (FSFFileAttributes i: listing) {
+			result.add(copy(i));
+		}
+		return result;
+	}
+	
+	private static class CacheEntry<V>{
+		private final V value;
+		private final long timeCreated;
+		
+		public CacheEntry(V value, long timeCreated) {
+			this.value = value;
+			this.timeCreated = timeCreated;
+		}
+	}
+	
+}
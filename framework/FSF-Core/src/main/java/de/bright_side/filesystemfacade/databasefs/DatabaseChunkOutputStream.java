@@ -0,0 +1,251 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+
+/**
+ * writes the data of a file into the chunk table (see DatabaseFSConfig.setChunkSize). Only the current chunks are kept in memory: whenever
+ * CHUNKS_PER_BATCH chunks are complete, they are inserted as one batch. The entry of the file in the file table is inserted or updated
+ * when the stream is closed. If the connection is created for each action, all changes are done in one transaction which is committed
+ * when the stream is closed, so other actions see either the old or the new data.
+ * When appending, only the new chunks are inserted. Data of the file which is still stored in the FILE_DATA column is moved into a chunk first.
+ *
+ * @author Philip Heyse
+ *
+ */
+class DatabaseChunkOutputStream extends OutputStream {
+	private static final boolean LOGGING_ENABLED = false;
+	private static final int CHUNKS_PER_BATCH = 4;
+
+	private final DatabaseFSConfig config;
+	private final FSFEnvironment environment;
+	private final boolean fileExists;
+	private final long id;
+	private final long parentID;
+	private final String name;
+	private Connection connection;
+	private PreparedStatement insertChunkStatement;
+	private byte[] buffer;
+	private int bufferLength = 0;
+	private int chunksInBatch = 0;
+	private long nextSeq = 0;
+	/** length of the file including the data of the buffer */
+	private long length = 0;
+	private boolean closed = false;
+
+	/**
+	 * @param config configuration with a chunk size greater than 0
+	 * @param environment environment to get the time of the last modification
+	 * @param id ID of the existing file or a negative value if the file does not exist yet
+	 * @param parentID ID of the parent directory which is used if the file does not exist
+	 * @param name name of the file which is used if the file does not exist
+	 * @param append true to keep the existing data of the file
+	 * @throws Exception on general error
+	 */
+	public DatabaseChunkOutputStream(DatabaseFSConfig config, FSFEnvironment environment, long id, long parentID, String name, boolean append) throws Exception {
+		if (config.getChunkSize() <= 0) {
+			throw new Exception("The chunk size must be greater than 0 but is " + config.getChunkSize());
+		}
+		this.config = config;
+		this.environment = environment;
+		this.fileExists = id >= 0;
+		this.parentID = parentID;
+		this.name = name;
+		this.buffer = new byte[config.getChunkSize()];
+		//: the ID is allocated before the connection is taken so that a pooled action does not need two connections at the same time
+		this.id = fileExists ? id : DatabaseFSUtil.nextID(config);
+		try {
+			connection = DatabaseFSUtil.getConnection(config);
+			if (DatabaseFSUtil.isConnectionCreatedForEachAction(config)) {
+				connection.setAutoCommit(false);
+			}
+			if ((fileExists) && (append)) {
+				if (DatabaseFSUtil.isFileDataColumnAvailable(config)) {
+					moveFileDataToChunk();
+				}
+				readEndOfChunks();
+			} else if (fileExists) {
+				DatabaseFSUtil.deleteChunks(config, connection, this.id);
+			}
+			String sql = "INSERT INTO " + DatabaseFSUtil.getSchemaAndChunkTable(config)
+					+ " (APP, TENANT, FILE_ID, SEQ, CHUNK_OFFSET, CHUNK_LENGTH, CHUNK_DATA) VALUES (?, ?, ?, ?, ?, ?, ?)";
+			insertChunkStatement = connection.prepareStatement(sql);
+		} catch (Exception e) {
+			closeResources(false);
+			throw e;
+		}
+	}
+
+	/**
+	 * moves the data of a file which has been written without chunks into the first chunk. The data is copied by the database
+	 */
+	private void moveFileDataToChunk() throws Exception {
+		String fileTable = DatabaseFSUtil.getSchemaAndTable(config);
+		String sql = "INSERT INTO " + DatabaseFSUtil.getSchemaAndChunkTable(config) + " (APP, TENANT, FILE_ID, SEQ, CHUNK_OFFSET, CHUNK_LENGTH, CHUNK_DATA)"
+				+ " SELECT APP, TENANT, ID, 0, 0, FILE_LENGTH, FILE_DATA FROM " + fileTable
+				+ " WHERE APP = ? AND TENANT = ? AND ID = ? AND FILE_DATA IS NOT NULL AND FILE_LENGTH > 0";
+		DatabaseFSUtil.processUpdate(config, connection, sql, config.getAppName(), config.getTenantName(), id);
+		sql = "UPDATE " + fileTable + " SET FILE_DATA = NULL WHERE APP = ? AND TENANT = ? AND ID = ?";
+		DatabaseFSUtil.processUpdate(config, connection, sql, config.getAppName(), config.getTenantName(), id);
+	}
+
+	private void readEndOfChunks() throws Exception {
+		String sql = "SELECT MAX(SEQ), MAX(CHUNK_OFFSET + CHUNK_LENGTH) FROM " + DatabaseFSUtil.getSchemaAndChunkTable(config)
+				+ " WHERE APP = ? AND TENANT = ? AND FILE_ID = ?";
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				if (resultSet.next()) {
+					long maxSeq = resultSet.getLong(1);
+					if (!resultSet.wasNull()) {
+						nextSeq = maxSeq + 1;
+						length = resultSet.getLong(2);
+					}
+				}
+			}
+		};
+		DatabaseFSUtil.processQuery(config, true, connection, sql, processor, config.getAppName(), config.getTenantName(), id);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] {(byte)b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream is closed");
+		}
+		int position = off;
+		int end = off + len;
+		while (position < end) {
+			int bytesToCopy = Math.min(end - position, buffer.length - bufferLength);
+			System.arraycopy(b, position, buffer, bufferLength, bytesToCopy);
+			bufferLength += bytesToCopy;
+			length += bytesToCopy;
+			position += bytesToCopy;
+			if (bufferLength == buffer.length) {
+				try {
+					addChunk();
+				} catch (Exception e) {
+					closeResources(false);
+					throw new IOException("Could not write chunk", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * adds the buffer to the batch of chunks and executes the batch if it is complete
+	 */
+	private void addChunk() throws Exception {
+		insertChunkStatement.setString(1, config.getAppName());
+		insertChunkStatement.setString(2, config.getTenantName());
+		insertChunkStatement.setLong(3, id);
+		insertChunkStatement.setLong(4, nextSeq);
+		insertChunkStatement.setLong(5, length - bufferLength);
+		insertChunkStatement.setLong(6, bufferLength);
+		insertChunkStatement.setBinaryStream(7, new ByteArrayInputStream(buffer, 0, bufferLength), bufferLength);
+		insertChunkStatement.addBatch();
+		log("addChunk: id = " + id + ", seq = " + nextSeq + ", length = " + bufferLength);
+		nextSeq ++;
+		chunksInBatch ++;
+		//: the batch still references the buffer, so a new one is needed
+		buffer = new byte[buffer.length];
+		bufferLength = 0;
+		if (chunksInBatch >= CHUNKS_PER_BATCH) {
+			executeBatch();
+		}
+	}
+
+	private void executeBatch() throws Exception {
+		if (chunksInBatch > 0) {
+			insertChunkStatement.executeBatch();
+			chunksInBatch = 0;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		long time = environment.getCurrentTimeMillis();
+		try {
+			if (bufferLength > 0) {
+				addChunk();
+			}
+			executeBatch();
+			if (fileExists) {
+				String dataColumn = DatabaseFSUtil.isFileDataColumnAvailable(config) ? "FILE_DATA = NULL, " : "";
+				String sql = "UPDATE " + DatabaseFSUtil.getSchemaAndTable(config) + " SET " + dataColumn + "FILE_LENGTH = ?, LAST_MODIFICATION_TIME = ?"
+						+ " WHERE APP = ? AND TENANT = ? AND ID = ?";
+				DatabaseFSUtil.processUpdate(config, connection, sql, length, time, config.getAppName(), config.getTenantName(), id);
+			} else {
+				DatabaseFSUtil.insertEntry(config, connection, id, DatabaseFile.FILE_TYPE_FILE, name, length, time, time, parentID, null);
+			}
+		} catch (Exception e) {
+			closeResources(false);
+			throw new IOException("Could not write file data", e);
+		}
+		closeResources(true);
+		try {
+			written(id);
+		} catch (Exception e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * called after the data has been written and committed
+	 * @param id the ID of the file which has been allocated if the file did not exist before
+	 * @throws Exception on general error
+	 */
+	protected void written(long id) throws Exception {
+	}
+
+	private void closeResources(boolean commit) throws IOException {
+		closed = true;
+		Exception exception = null;
+		try {
+			if (insertChunkStatement != null) {
+				insertChunkStatement.close();
+			}
+		} catch (Exception e) {
+			exception = e;
+		}
+		if ((DatabaseFSUtil.isConnectionCreatedForEachAction(config)) && (connection != null)){
+			try {
+				if (commit) {
+					connection.commit();
+				} else {
+					connection.rollback();
+				}
+			} catch (Exception e) {
+				exception = e;
+			}
+			try {
+				connection.close();
+			} catch (Exception e) {
+				exception = e;
+			}
+		}
+		if ((commit) && (exception != null)) {
+			throw new IOException("Could not commit file data", exception);
+		}
+	}
+
+	private void log(String message) {
+		if (LOGGING_ENABLED) {
+			System.out.println("DatabaseChunkOutputStream> " + message);
+		}
+	}
+
+}
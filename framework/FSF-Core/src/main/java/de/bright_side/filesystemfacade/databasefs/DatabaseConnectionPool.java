@@ -0,0 +1,529 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+
+/**
+ * keeps the connections of a DatabaseFS open so that an action does not have to connect and login to the database. The pool may be used
+ * by multiple threads at the same time: each action takes a connection from the pool (see getConnection) and returns it by closing it.
+ *
+ * The connection returned by getConnection is a proxy of the actual connection. Closing it rolls back a transaction that has not been
+ * committed and puts the actual connection back into the pool. Each pooled connection keeps the statements prepared by
+ * prepareStatement(sql) open in a cache so that they are not prepared again when the same SQL is used by a later action.
+ *
+ * A connection that has been idle for the validation interval is validated before it is used again. Idle connections are closed after the
+ * idle timeout as long as there are more than the minimum number of connections. The idle timeout is checked whenever a connection is taken
+ * or returned, so there is no background thread.
+ *
+ * @author Philip Heyse
+ *
+ */
+public class DatabaseConnectionPool {
+	private static final boolean LOGGING_ENABLED = false;
+	private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+	private final DatabaseFSConfig config;
+	private final FSFEnvironment environment;
+	private final Lock lock = new ReentrantLock();
+	private final Condition connectionReturned = lock.newCondition();
+	/** the most recently returned connection first so that the connections at the end become idle long enough to be evicted if they are not needed */
+	private final Deque<PooledConnection> idleConnections = new ArrayDeque<PooledConnection>();
+	/** number of open connections including the ones in use and the ones being created */
+	private int openConnections = 0;
+	private boolean closed = false;
+
+	private final AtomicLong createdConnections = new AtomicLong();
+	private final AtomicLong closedConnections = new AtomicLong();
+	private final AtomicLong borrowedConnections = new AtomicLong();
+	private final AtomicLong waitsForConnection = new AtomicLong();
+	private final AtomicLong failedValidations = new AtomicLong();
+	private final AtomicLong evictedConnections = new AtomicLong();
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+
+	/**
+	 * creates the pool without opening connections (see fillToMinPoolSize)
+	 * @param config configuration with the database credentials and the pool settings (minPoolSize, maxPoolSize, ...)
+	 * @param environment environment object to get the current time for the idle timeout and the validation interval
+	 * @throws Exception if the pool settings are not valid
+	 */
+	public DatabaseConnectionPool(DatabaseFSConfig config, FSFEnvironment environment) throws Exception {
+		if (config.getMaxPoolSize() <= 0) {
+			throw new Exception("The maximum pool size must be greater than 0 but is " + config.getMaxPoolSize());
+		}
+		if (config.getMinPoolSize() > config.getMaxPoolSize()) {
+			throw new Exception("The minimum pool size (" + config.getMinPoolSize() + ") is greater than the maximum pool size (" + config.getMaxPoolSize() + ")");
+		}
+		this.config = config;
+		this.environment = environment;
+	}
+
+	/**
+	 * opens connections until the minimum number of connections is reached
+	 * @throws Exception on general error
+	 */
+	public void fillToMinPoolSize() throws Exception {
+		List<Connection> connections = new ArrayList<Connection>();
+		try {
+			while (getStatistics().getOpenConnections() < config.getMinPoolSize()) {
+				connections.add(getConnection());
+			}
+		} finally {
+			for (Connection i: connections) {
+				i.close();
+			}
+		}
+	}
+
+	/**
+	 * creates a new connection to the database
+	 * @return the connection
+	 * @throws Exception on general error
+	 */
+	protected Connection createConnection() throws Exception {
+		return DatabaseFSUtil.createConnection(config);
+	}
+
+	/**
+	 * takes a connection from the pool or opens a new one if all connections are in use and the maximum pool size has not been reached.
+	 * Otherwise it waits until a connection is returned.
+	 * @return a connection which must be closed to return it to the pool
+	 * @throws Exception if no connection is available within the maximum wait time or a new connection could not be opened
+	 */
+	public Connection getConnection() throws Exception {
+		long deadline = System.currentTimeMillis() + config.getPoolMaxWaitMillis();
+		boolean waiting = false;
+		while (true) {
+			PooledConnection candidate = null;
+			List<PooledConnection> evicted = null;
+			lock.lock();
+			try {
+				if (closed) {
+					throw new Exception("The connection pool has been closed");
+				}
+				evicted = removeEvictableConnections();
+				candidate = idleConnections.pollFirst();
+				if ((candidate == null) && (openConnections < config.getMaxPoolSize())) {
+					openConnections ++;
+				} else if (candidate == null) {
+					long waitTime = deadline - System.currentTimeMillis();
+					if (waitTime <= 0) {
+						throw new Exception("No database connection available within " + config.getPoolMaxWaitMillis() + " ms. All "
+								+ openConnections + " connections of the pool are in use");
+					}
+					if (!waiting) {
+						waitsForConnection.incrementAndGet();
+						waiting = true;
+					}
+					connectionReturned.await(waitTime, TimeUnit.MILLISECONDS);
+					continue;
+				}
+			} finally {
+				lock.unlock();
+				closeConnections(evicted);
+			}
+
+			if (candidate == null) {
+				return createPooledConnection().lease();
+			}
+			if (isValid(candidate)) {
+				borrowedConnections.incrementAndGet();
+				return candidate.lease();
+			}
+			failedValidations.incrementAndGet();
+			log("getConnection: connection is not valid any more");
+			discardConnection(candidate);
+		}
+	}
+
+	/**
+	 * must be called after the number of open connections has been increased for the new connection
+	 */
+	private PooledConnection createPooledConnection() throws Exception {
+		Connection connection;
+		try {
+			connection = createConnection();
+		} catch (Exception e) {
+			lock.lock();
+			try {
+				openConnections --;
+				connectionReturned.signal();
+			} finally {
+				lock.unlock();
+			}
+			throw e;
+		}
+		createdConnections.incrementAndGet();
+		borrowedConnections.incrementAndGet();
+		return new PooledConnection(connection, environment.getCurrentTimeMillis());
+	}
+
+	private boolean isValid(PooledConnection connection) {
+		if (environment.getCurrentTimeMillis() - connection.lastUsedTime < config.getPoolValidationIntervalMillis()) {
+			return true;
+		}
+		try {
+			return connection.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	/**
+	 * must be called while holding the lock
+	 * @return the connections which have been idle for longer than the idle timeout and which are removed from the pool. They need to be
+	 * closed after the lock has been released
+	 */
+	private List<PooledConnection> removeEvictableConnections() {
+		List<PooledConnection> result = null;
+		long now = environment.getCurrentTimeMillis();
+		while ((openConnections > config.getMinPoolSize()) && (!idleConnections.isEmpty())
+				&& (now - idleConnections.peekLast().lastUsedTime >= config.getPoolIdleTimeoutMillis())) {
+			if (result == null) {
+				result = new ArrayList<PooledConnection>();
+			}
+			result.add(idleConnections.pollLast());
+			openConnections --;
+			evictedConnections.incrementAndGet();
+		}
+		return result;
+	}
+
+	/**
+	 * closes the idle connections which have been idle for longer than the idle timeout. This happens automatically whenever a connection
+	 * is taken or returned, so this method is only needed to close connections of a pool that is not used any more
+	 */
+	public void evictIdleConnections() {
+		List<PooledConnection> evicted;
+		lock.lock();
+		try {
+			evicted = removeEvictableConnections();
+		} finally {
+			lock.unlock();
+		}
+		closeConnections(evicted);
+	}
+
+	private void returnConnection(PooledConnection connection) {
+		boolean reusable = connection.reset();
+		List<PooledConnection> toClose = null;
+		lock.lock();
+		try {
+			if ((closed) || (!reusable)) {
+				openConnections --;
+				toClose = Collections.singletonList(connection);
+			} else {
+				connection.lastUsedTime = environment.getCurrentTimeMillis();
+				idleConnections.addFirst(connection);
+				toClose = removeEvictableConnections();
+			}
+			connectionReturned.signal();
+		} finally {
+			lock.unlock();
+		}
+		closeConnections(toClose);
+	}
+
+	private void discardConnection(PooledConnection connection) {
+		lock.lock();
+		try {
+			openConnections --;
+			connectionReturned.signal();
+		} finally {
+			lock.unlock();
+		}
+		closeConnections(Collections.singletonList(connection));
+	}
+
+	private void closeConnections(List<PooledConnection> connections) {
+		if (connections == null) {
+			return;
+		}
+		for (PooledConnection i: connections) {
+			i.closeConnection();
+			closedConnections.incrementAndGet();
+		}
+	}
+
+	/**
+	 * closes all idle connections. Connections which are in use are closed when they are returned. The pool cannot be used afterwards
+	 */
+	public void close() {
+		List<PooledConnection> toClose;
+		lock.lock();
+		try {
+			closed = true;
+			toClose = new ArrayList<PooledConnection>(idleConnections);
+			openConnections -= idleConnections.size();
+			idleConnections.clear();
+			connectionReturned.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		closeConnections(toClose);
+	}
+
+	public DatabaseConnectionPoolStatistics getStatistics() {
+		int open;
+		int idle;
+		lock.lock();
+		try {
+			open = openConnections;
+			idle = idleConnections.size();
+		} finally {
+			lock.unlock();
+		}
+		return new DatabaseConnectionPoolStatistics(open, idle, createdConnections.get(), closedConnections.get(), borrowedConnections.get()
+				, waitsForConnection.get(), failedValidations.get(), evictedConnections.get(), statementCacheHits.get(), statementCacheMisses.get());
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static void log(String message) {
+		if (LOGGING_ENABLED) {
+			System.out.println("DatabaseConnectionPool> " + message);
+		}
+	}
+
+	/**
+	 * an open connection of the pool with its prepared statements. It is only used by one thread at a time: the one which has taken it
+	 * from the pool
+	 */
+	private class PooledConnection{
+		private final Connection connection;
+		private final Map<String, PreparedStatement> statementCache;
+		private final Set<PreparedStatement> statementsInUse = Collections.newSetFromMap(new IdentityHashMap<PreparedStatement, Boolean>());
+		private long lastUsedTime;
+
+		public PooledConnection(Connection connection, long lastUsedTime) {
+			this.connection = connection;
+			this.lastUsedTime = lastUsedTime;
+			//: access order so that the least recently used statement is removed when the cache is full
+			this.statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+					if (size() <= config.getStatementCacheSize()) {
+						return false;
+					}
+					//: a statement which is in use is closed when it is released (see releaseStatement)
+					if (!statementsInUse.contains(eldest.getValue())) {
+						closeStatement(eldest.getValue());
+					}
+					return true;
+				}
+			};
+		}
+
+		public Connection lease() {
+			return (Connection)Proxy.newProxyInstance(DatabaseConnectionPool.class.getClassLoader(), new Class<?>[] {Connection.class}
+					, new ConnectionHandler(this));
+		}
+
+		public PreparedStatement prepareStatement(String sql, ConnectionHandler connectionHandler, Connection connectionProxy) throws SQLException {
+			PreparedStatement result = statementCache.get(sql);
+			if ((result != null) && (!statementsInUse.contains(result))) {
+				statementCacheHits.incrementAndGet();
+			} else if ((result == null) && (config.getStatementCacheSize() > 0)) {
+				statementCacheMisses.incrementAndGet();
+				result = connection.prepareStatement(sql);
+				statementCache.put(sql, result);
+			} else {
+				//: the same SQL is already in use (e.g. by an open directory stream) or the cache is disabled
+				statementCacheMisses.incrementAndGet();
+				return connection.prepareStatement(sql);
+			}
+			statementsInUse.add(result);
+			return (PreparedStatement)Proxy.newProxyInstance(DatabaseConnectionPool.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}
+					, new StatementHandler(this, sql, result, connectionHandler, connectionProxy));
+		}
+
+		public void releaseStatement(String sql, PreparedStatement statement) {
+			statementsInUse.remove(statement);
+			if (statementCache.get(sql) != statement) {
+				closeStatement(statement);
+				return;
+			}
+			//: the next lease of the cached statement must not see parameters, batches or limits of this action
+			try {
+				statement.clearParameters();
+				statement.clearBatch();
+				statement.setFetchSize(0);
+				statement.setMaxRows(0);
+			} catch (Exception e) {
+				log("releaseStatement: statement cannot be reused: " + e);
+				statementCache.remove(sql);
+				closeStatement(statement);
+			}
+		}
+
+		/**
+		 * @return true if the connection may be used again
+		 */
+		public boolean reset() {
+			//: statements which have not been closed by the action are not reused because they might still be closed later
+			Iterator<PreparedStatement> iterator = statementCache.values().iterator();
+			while (iterator.hasNext()) {
+				if (statementsInUse.contains(iterator.next())) {
+					iterator.remove();
+				}
+			}
+			for (PreparedStatement i: statementsInUse) {
+				closeStatement(i);
+			}
+			statementsInUse.clear();
+			try {
+				if (connection.isClosed()) {
+					return false;
+				}
+				if (!connection.getAutoCommit()) {
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+				connection.clearWarnings();
+				return true;
+			} catch (Exception e) {
+				log("reset: connection cannot be reused: " + e);
+				return false;
+			}
+		}
+
+		public void closeConnection() {
+			for (PreparedStatement i: statementCache.values()) {
+				closeStatement(i);
+			}
+			statementCache.clear();
+			try {
+				connection.close();
+			} catch (Exception e) {
+				log("closeConnection: could not close connection: " + e);
+			}
+		}
+
+		private void closeStatement(PreparedStatement statement) {
+			try {
+				statement.close();
+			} catch (Exception e) {
+				log("closeStatement: could not close statement: " + e);
+			}
+		}
+	}
+
+	/**
+	 * handles the calls of the connection proxy which is used by one action
+	 */
+	private class ConnectionHandler implements InvocationHandler{
+		private final PooledConnection pooledConnection;
+		private boolean returned = false;
+
+		public ConnectionHandler(PooledConnection pooledConnection) {
+			this.pooledConnection = pooledConnection;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("close")) {
+				if (!returned) {
+					returned = true;
+					returnConnection(pooledConnection);
+				}
+				return null;
+			} else if (name.equals("isClosed")) {
+				return returned;
+			} else if (name.equals("equals")) {
+				return proxy == args[0];
+			} else if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			} else if (name.equals("toString")) {
+				return "pooled " + pooledConnection.connection;
+			}
+			if (returned) {
+				throw new SQLException("The connection has already been returned to the pool");
+			}
+			if ((name.equals("prepareStatement")) && (args.length == 1)) {
+				return pooledConnection.prepareStatement((String)args[0], this, (Connection)proxy);
+			}
+			return DatabaseConnectionPool.invoke(pooledConnection.connection, method, args);
+		}
+	}
+
+	/**
+	 * handles the calls of a cached statement which is released instead of closed
+	 */
+	private class StatementHandler implements InvocationHandler{
+		private final PooledConnection pooledConnection;
+		private final String sql;
+		private final PreparedStatement statement;
+		private final ConnectionHandler connectionHandler;
+		private final Connection connectionProxy;
+		private boolean released = false;
+
+		public StatementHandler(PooledConnection pooledConnection, String sql, PreparedStatement statement, ConnectionHandler connectionHandler
+				, Connection connectionProxy) {
+			this.pooledConnection = pooledConnection;
+			this.sql = sql;
+			this.statement = statement;
+			this.connectionHandler = connectionHandler;
+			this.connectionProxy = connectionProxy;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("close")) {
+				//: if the connection has already been returned, the statement has been closed by the pool
+				if ((!released) && (!connectionHandler.returned)) {
+					pooledConnection.releaseStatement(sql, statement);
+				}
+				released = true;
+				return null;
+			} else if (name.equals("isClosed")) {
+				return released;
+			} else if (name.equals("equals")) {
+				return proxy == args[0];
+			} else if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			} else if (name.equals("toString")) {
+				return "cached " + statement;
+			}
+			if ((released) || (connectionHandler.returned)) {
+				throw new SQLException("The statement has already been closed");
+			}
+			if (name.equals("getConnection")) {
+				return connectionProxy;
+			}
+			return DatabaseConnectionPool.invoke(statement, method, args);
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+/**
+ * the state of a DatabaseConnectionPool at the time the statistics were created and the counters since the pool was created
+ *
+ * @author Philip Heyse
+ *
+ */
+public class DatabaseConnectionPoolStatistics {
+	private final int openConnections;
+	private final int idleConnections;
+	private final long createdConnections;
+	private final long closedConnections;
+	private final long borrowedConnections;
+	private final long waitsForConnection;
+	private final long failedValidations;
+	private final long evictedConnections;
+	private final long statementCacheHits;
+	private final long statementCacheMisses;
+
+	protected DatabaseConnectionPoolStatistics(int openConnections, int idleConnections, long createdConnections, long closedConnections,
+			long borrowedConnections, long waitsForConnection, long failedValidations, long evictedConnections, long statementCacheHits,
+			long statementCacheMisses) {
+		this.openConnections = openConnections;
+		this.idleConnections = idleConnections;
+		this.createdConnections = createdConnections;
+		this.closedConnections = closedConnections;
+		this.borrowedConnections = borrowedConnections;
+		this.waitsForConnection = waitsForConnection;
+		this.failedValidations = failedValidations;
+		this.evictedConnections = evictedConnections;
+		this.statementCacheHits = statementCacheHits;
+		this.statementCacheMisses = statementCacheMisses;
+	}
+
+	/**
+	 * @return number of connections to the database which are currently open (idle or in use)
+	 */
+	public int getOpenConnections() {
+		return openConnections;
+	}
+
+	/**
+	 * @return number of open connections which are currently not in use
+	 */
+	public int getIdleConnections() {
+		return idleConnections;
+	}
+
+	/**
+	 * @return number of open connections which are currently in use
+	 */
+	public int getActiveConnections() {
+		return openConnections - idleConnections;
+	}
+
+	public long getCreatedConnections() {
+		return createdConnections;
+	}
+
+	public long getClosedConnections() {
+		return closedConnections;
+	}
+
+	/**
+	 * @return number of times a connection has been taken from the pool
+	 */
+	public long getBorrowedConnections() {
+		return borrowedConnections;
+	}
+
+	/**
+	 * @return number of times a connection could not be taken at once because all connections were in use
+	 */
+	public long getWaitsForConnection() {
+		return waitsForConnection;
+	}
+
+	/**
+	 * @return number of idle connections which were closed because they were not valid any more
+	 */
+	public long getFailedValidations() {
+		return failedValidations;
+	}
+
+	/**
+	 * @return number of connections which were closed because they were idle for longer than the idle timeout
+	 */
+	public long getEvictedConnections() {
+		return evictedConnections;
+	}
+
+	/**
+	 * @return number of prepared statements which were reused from the statement cache
+	 */
+	public long getStatementCacheHits() {
+		return statementCacheHits;
+	}
+
+	/**
+	 * @return number of prepared statements which had to be prepared by the database
+	 */
+	public long getStatementCacheMisses() {
+		return statementCacheMisses;
+	}
+
+	@Override
+	public String toString() {
+		return "DatabaseConnectionPoolStatistics [openConnections=" + openConnections + ", idleConnections=" + idleConnections
+				+ ", createdConnections=" + createdConnections + ", closedConnections=" + closedConnections + ", borrowedConnections="
+				+ borrowedConnections + ", waitsForConnection=" + waitsForConnection + ", failedValidations=" + failedValidations
+				+ ", evictedConnections=" + evictedConnections + ", statementCacheHits=" + statementCacheHits + ", statementCacheMisses="
+				+ statementCacheMisses + "]";
+	}
+
+}
@@ -0,0 +1,174 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * reads the data of a file while the stream is consumed. The data is either read from the FILE_DATA column or, if the file has been written
+ * in chunks (see DatabaseFSConfig.setChunkSize), chunk by chunk from a forward-only cursor so that only the current chunk is kept in memory.
+ * The connection (if it is created for each action), the statement and the result set stay open until the stream is closed.
+ *
+ * @author Philip Heyse
+ *
+ */
+class DatabaseDataInputStream extends InputStream {
+	private final DatabaseFSConfig config;
+	private Connection connection;
+	private PreparedStatement statement;
+	private ResultSet resultSet;
+	/** true if the rows of the result set are chunks. Otherwise the result set only has the FILE_DATA row */
+	private boolean readingChunks = false;
+	private InputStream currentStream;
+	private boolean closed = false;
+	private boolean streamingTransaction = false;
+
+	public DatabaseDataInputStream(DatabaseFSConfig config, long id) throws Exception {
+		this.config = config;
+		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "SELECT FILE_DATA FROM %1 WHERE APP = ? AND TENANT = ? AND ID = ?");
+		try {
+			connection = DatabaseFSUtil.getConnection(config);
+			streamingTransaction = DatabaseFSUtil.beginStreamingTransaction(config, connection);
+			if (DatabaseFSUtil.isFileDataColumnAvailable(config)) {
+				statement = DatabaseFSUtil.prepareForwardOnlyStatement(connection, sql, 1, config.getAppName(), config.getTenantName(), id);
+				resultSet = statement.executeQuery();
+				if (resultSet.next()) {
+					currentStream = resultSet.getBinaryStream(1);
+				}
+			}
+			if ((currentStream == null) && (DatabaseFSUtil.isChunkTableAvailableForReading(config))) {
+				//: the data is stored in chunks
+				closeStatement();
+				sql = "SELECT CHUNK_DATA FROM " + DatabaseFSUtil.getSchemaAndChunkTable(config) + " WHERE APP = ? AND TENANT = ? AND FILE_ID = ? ORDER BY SEQ";
+				statement = DatabaseFSUtil.prepareForwardOnlyStatement(connection, sql, 1, config.getAppName(), config.getTenantName(), id);
+				resultSet = statement.executeQuery();
+				readingChunks = true;
+			}
+		} catch (Exception e) {
+			try {
+				close();
+			} catch (Exception ignored) {
+			}
+			throw new Exception("Could not read data of file with ID " + id, e);
+		}
+	}
+
+	/**
+	 * @return false if there is no more data
+	 */
+	private boolean nextStream() throws Exception {
+		if (currentStream != null) {
+			currentStream.close();
+			currentStream = null;
+		}
+		if (!readingChunks) {
+			return false;
+		}
+		while (resultSet.next()) {
+			currentStream = resultSet.getBinaryStream(1);
+			if (currentStream != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] result = new byte[1];
+		if (read(result, 0, 1) < 0) {
+			return -1;
+		}
+		return result[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream is closed");
+		}
+		if (len == 0) {
+			return 0;
+		}
+		try {
+			while (true) {
+				if (currentStream != null) {
+					int result = currentStream.read(b, off, len);
+					if (result >= 0) {
+						return result;
+					}
+				}
+				if (!nextStream()) {
+					return -1;
+				}
+			}
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException("Could not read data", e);
+		}
+	}
+
+	private void closeStatement() throws Exception {
+		Exception exception = null;
+		try {
+			if (resultSet != null) {
+				resultSet.close();
+			}
+		} catch (Exception e) {
+			exception = e;
+		}
+		resultSet = null;
+		try {
+			if (statement != null) {
+				statement.close();
+			}
+		} catch (Exception e) {
+			exception = e;
+		}
+		statement = null;
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		Exception exception = null;
+		try {
+			if (currentStream != null) {
+				currentStream.close();
+			}
+		} catch (Exception e) {
+			exception = e;
+		}
+		try {
+			closeStatement();
+		} catch (Exception e) {
+			exception = e;
+		}
+		try {
+			if ((DatabaseFSUtil.isConnectionCreatedForEachAction(config)) && (connection != null)){
+				try {
+					if (streamingTransaction) {
+						DatabaseFSUtil.endStreamingTransaction(connection);
+					}
+				} finally {
+					connection.close();
+				}
+			}
+		} catch (Exception e) {
+			exception = e;
+		}
+		if (exception != null) {
+			throw new IOException("Could not close data stream", exception);
+		}
+	}
+
+}
@@ -0,0 +1,192 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the SQL which differs between databases. The DatabaseFS chooses the dialect by the JDBC URL unless a dialect is set in the
+ * DatabaseFSConfig (see DatabaseFSConfig.setDialect). The default implementations use standard SQL, so a subclass only needs to
+ * override what its database does differently or faster.
+ *
+ * @author Philip Heyse
+ *
+ */
+public abstract class DatabaseDialect {
+
+	/**
+	 * @param url JDBC URL, e.g. "jdbc:postgresql://127.0.0.1/dbfs001"
+	 * @return the dialect of the database of the URL or null if the database is not known
+	 */
+	public static DatabaseDialect forJdbcUrl(String url) {
+		if (url == null) {
+			return null;
+		}
+		String lowerCaseURL = url.toLowerCase();
+		if ((lowerCaseURL.startsWith("jdbc:mariadb:")) || (lowerCaseURL.startsWith("jdbc:mysql:"))) {
+			return new MariaDBDialect();
+		} else if (lowerCaseURL.startsWith("jdbc:postgresql:")) {
+			return new PostgreSQLDialect();
+		} else if (lowerCaseURL.startsWith("jdbc:h2:")) {
+			return new H2Dialect();
+		} else if (lowerCaseURL.startsWith("jdbc:hsqldb:")) {
+			return new HSQLDBDialect();
+		}
+		return null;
+	}
+
+	public String getBigIntType() {
+		return "BIGINT";
+	}
+
+	public String getIntType() {
+		return "INTEGER";
+	}
+
+	/**
+	 * @return type of the columns which contain the data of files
+	 */
+	public abstract String getBlobType();
+
+	/**
+	 * @return query with the user name as parameter which counts the open connections of the user
+	 */
+	public abstract String getOpenConnectionsSQL();
+
+	/**
+	 * @param column the blob column
+	 * @return expression with the position (counting from 1) and the length as parameters which selects a part of the blob or null if the
+	 * database cannot select a part of a blob by SQL so that the part is read via java.sql.Blob
+	 */
+	public String getBlobRangeSQL(String column) {
+		return "SUBSTRING(" + column + " FROM ? FOR ?)";
+	}
+
+	/**
+	 * @param maxRows maximum number of rows of a query
+	 * @return the clause which is appended to the query (before FOR UPDATE) to limit the number of rows
+	 */
+	public String getLimitClause(int maxRows) {
+		return " LIMIT " + maxRows;
+	}
+
+	/**
+	 * keyset pagination: selects the rows whose key is greater than the given key
+	 * @param columns the columns of the key in the order of the sort order
+	 * @param key values of the key
+	 * @param parameters list to which the parameters of the condition are added
+	 * @return the condition
+	 */
+	public String getAfterKeyCondition(String[] columns, Object[] key, List<Object> parameters) {
+		StringBuilder columnList = new StringBuilder();
+		StringBuilder placeholders = new StringBuilder();
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				columnList.append(", ");
+				placeholders.append(", ");
+			}
+			columnList.append(columns[i]);
+			placeholders.append("?");
+			parameters.add(key[i]);
+		}
+		return "((" + columnList + ") > (" + placeholders + "))";
+	}
+
+	/**
+	 * @param metaData meta data of a connection to the database
+	 * @return true if the database supports recursive common table expressions (see getTreeSQL). Otherwise the DatabaseFS lists, copies
+	 * and deletes directory trees item by item
+	 * @throws SQLException on database error
+	 */
+	public boolean isRecursiveQuerySupported(DatabaseMetaData metaData) throws SQLException {
+		return true;
+	}
+
+	/**
+	 * @param table schema and name of the file table
+	 * @param columns the columns to be selected, separated by commas
+	 * @return a query which lists all items below a directory recursively with the given columns and the column DEPTH (1 for the items
+	 * in the directory). The items are ordered by depth so that the parent of an item comes before the item.
+	 * Parameters: app, tenant, ID of the directory, app, tenant
+	 */
+	public String getTreeSQL(String table, String columns) {
+		return "WITH RECURSIVE TREE (" + columns + ", DEPTH) AS ("
+				+ "SELECT " + columns + ", 1 FROM " + table + " WHERE APP = ? AND TENANT = ? AND PARENT_ID = ? "
+				+ "UNION ALL "
+				+ "SELECT F." + columns.replace(", ", ", F.") + ", T.DEPTH + 1 "
+				+ "FROM " + table + " F JOIN TREE T ON F.PARENT_ID = T.ID WHERE F.APP = ? AND F.TENANT = ?"
+				+ ") SELECT " + columns + ", DEPTH FROM TREE ORDER BY DEPTH, PARENT_ID, NAME";
+	}
+
+	/**
+	 * @param version version of the database such as "10.4.12-MariaDB"
+	 * @param minimum the minimum major, minor and patch version
+	 * @return true if the version is at least the minimum. Missing parts of the version count as 0
+	 */
+	protected static boolean isVersionAtLeast(String version, int... minimum) {
+		String[] parts = version.split("[^0-9]+");
+		int index = 0;
+		for (int i = 0; i < minimum.length; i++) {
+			while ((index < parts.length) && (parts[index].isEmpty())) {
+				index ++;
+			}
+			int part = index < parts.length ? Integer.parseInt(parts[index]) : 0;
+			index ++;
+			if (part != minimum[i]) {
+				return part > minimum[i];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if a result set is only read while it is consumed if the connection is not in auto commit mode. The connections
+	 * which are used by streams then have auto commit switched off while the stream is open
+	 */
+	public boolean isTransactionNeededForStreaming() {
+		return false;
+	}
+
+	/**
+	 * reserves a block of IDs by incrementing the existing entry of the ID table with a single statement if the database supports it
+	 * (see DatabaseFSUtil.allocateIDBlock). The file table is not read so that concurrent inserts are not blocked
+	 * @param connection connection in auto commit mode
+	 * @param idTable schema and name of the ID table
+	 * @param app name of the app
+	 * @param tenant name of the tenant
+	 * @param size number of IDs to reserve
+	 * @return the first ID of the block or null if there is no entry for the app and tenant yet or if the block needs to be reserved by
+	 * reading and updating the ID table
+	 * @throws Exception on general error
+	 */
+	public Long allocateIDBlock(Connection connection, String idTable, String app, String tenant, int size) throws Exception {
+		return null;
+	}
+
+	/**
+	 * @return the expanded form of the key condition for databases which do not use an index for row value comparisons:
+	 * (A > ?) OR (A = ? AND B > ?) OR ...
+	 */
+	protected static String getExpandedAfterKeyCondition(String[] columns, Object[] key, List<Object> parameters) {
+		List<String> alternatives = new ArrayList<>();
+		for (int i = 0; i < columns.length; i++) {
+			StringBuilder alternative = new StringBuilder("(");
+			for (int j = 0; j < i; j++) {
+				alternative.append(columns[j]).append(" = ? AND ");
+				parameters.add(key[j]);
+			}
+			alternative.append(columns[i]).append(" > ?)");
+			parameters.add(key[i]);
+			alternatives.add(alternative.toString());
+		}
+		return "(" + String.join(" OR ", alternatives) + ")";
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+}
@@ -0,0 +1,85 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+import de.bright_side.filesystemfacade.util.AbstractDirectoryStream;
+
+/**
+ * reads the sub-items of a directory via a forward-only cursor. Only the rows of the current fetch are kept in memory.
+ * The connection (if it is created for each action), the statement and the result set stay open until the stream is closed.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class DatabaseDirectoryStream extends AbstractDirectoryStream{
+	private DatabaseFS databaseFS;
+	private DatabaseFSConfig config;
+	private DatabaseFile parent;
+	private Connection connection;
+	private PreparedStatement statement;
+	private ResultSet resultSet;
+	private boolean streamingTransaction = false;
+
+	protected DatabaseDirectoryStream(DatabaseFS databaseFS, DatabaseFile parent, String sql, Object... values) throws Exception {
+		this.databaseFS = databaseFS;
+		this.config = databaseFS.getConfig();
+		this.parent = parent;
+		try {
+			connection = DatabaseFSUtil.getConnection(config);
+			streamingTransaction = DatabaseFSUtil.beginStreamingTransaction(config, connection);
+			statement = DatabaseFSUtil.prepareForwardOnlyStatement(connection, sql, config.getDirectoryStreamFetchSize(), values);
+			resultSet = statement.executeQuery();
+		} catch (Exception e) {
+			closeResources();
+			throw new Exception("Could not execute SQL >>" + sql + "<<", e);
+		}
+	}
+
+	@Override
+	protected FSFFileAttributes readNext() throws Exception {
+		if (!resultSet.next()) {
+			return null;
+		}
+		return DatabaseFile.createAttributes(parent.createFile(databaseFS, resultSet, parent), resultSet);
+	}
+
+	@Override
+	protected void closeResources() throws IOException {
+		Exception exception = null;
+		try {
+			if (resultSet != null) {
+				resultSet.close();
+			}
+		} catch (Exception e) {
+			exception = e;
+		}
+		try {
+			if (statement != null) {
+				statement.close();
+			}
+		} catch (Exception e) {
+			exception = e;
+		}
+		try {
+			if ((DatabaseFSUtil.isConnectionCreatedForEachAction(config)) && (connection != null)){
+				try {
+					if (streamingTransaction) {
+						DatabaseFSUtil.endStreamingTransaction(connection);
+					}
+				} finally {
+					connection.close();
+				}
+			}
+		} catch (Exception e) {
+			exception = e;
+		}
+		if (exception != null) {
+			throw new IOException("Could not close directory stream", exception);
+		}
+	}
+
+}
@@ -3,6 +3,7 @@ package de.bright_side.filesystemfacade.databasefs;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
 
@@ -10,6 +11,7 @@ import com.google.gson.Gson;
 
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 
@@ -21,6 +23,10 @@ public class DatabaseFS implements FSFSystem{
 	private static final boolean LOGGING_ENABLED = false;
 
 	public static String SEPARATOR = "/";
+	/** a path with more names is resolved by multiple queries so that the number of joins in a query is limited */
+	private static final int MAX_NAMES_PER_PATH_QUERY = 16;
+	/** the files in the root directory have this parent ID */
+	private static final long ROOT_ID = 0;
 
 	//: https://support.microsoft.com/de-de/help/196271/when-you-try-to-connect-from-tcp-ports-greater-than-5000-you-receive-t
 	//: if the test opens and closes a lot of connections, on windows this is a problem for testing
@@ -47,6 +53,10 @@ public class DatabaseFS implements FSFSystem{
 	
 	private DatabaseFSConfig config;
 	private FSFEnvironment environment;
+	private FSFSerializer serializer = FSFFileUtil.DEFAULT_SERIALIZER;
+	private final DatabasePathCache pathCache;
+	/** path cache of the file system which created the batch if this is the file system of a batch. Otherwise null */
+	private final DatabasePathCache outerPathCache;
 	
 	public DatabaseFS(DatabaseFSConfig config) throws Exception{
 		this(config, FSFFileUtil.createDefaultEnvironment());
@@ -55,6 +65,8 @@ public class DatabaseFS implements FSFSystem{
 	public DatabaseFS(DatabaseFSConfig config, FSFEnvironment environment) throws Exception{
 		this.config = copyByValue(config);
 		this.environment = environment;
+		this.pathCache = new DatabasePathCache(config.getPathCacheSize());
+		this.outerPathCache = null;
 		if (config.getDbConnection() == null) {
 			List<String> drivers = getAvailableDBDrivers();
 			if (!drivers.contains(config.getDbDriverClassName())) {
@@ -68,6 +80,85 @@ public class DatabaseFS implements FSFSystem{
 			}
 		}
 		
+		if ((config.getDbConnection() == null) && (config.getMaxPoolSize() > 0)) {
+			DatabaseConnectionPool connectionPool = new DatabaseConnectionPool(this.config, environment);
+			this.config.setConnectionPool(connectionPool);
+		}
+		
+		try {
+			if (this.config.getConnectionPool() != null) {
+				this.config.getConnectionPool().fillToMinPoolSize();
+			}
+			//: chosen once so that the dialect is also known to the copies of the config, e.g. of a batch
+			DatabaseFSUtil.getDialect(this.config);
+			createFileTableIfNeeded(this.config);
+			readSchemaVersion(this.config);
+			this.config.setRecursiveQuerySupported(DatabaseFSUtil.isRecursiveQuerySupported(this.config));
+			if ((this.config.getIdBlockSize() > 0) && (createIDTableIfNeeded(this.config))) {
+				this.config.setIdAllocator(new DatabaseIDAllocator(this.config));
+			}
+			if (this.config.getChunkSize() > 0) {
+				createChunkTableIfNeeded(this.config);
+				this.config.setChunkTableAvailable(true);
+			} else {
+				//: files may have been written in chunks by another DatabaseFS with a chunk size
+				this.config.setChunkTableAvailable(DatabaseFSUtil.doesChunkTableExist(this.config));
+			}
+		} catch (Exception e) {
+			close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * file system of a batch: all actions use the connection of the batch. The tables, the ID allocator and the connection pool of the
+	 * file system which created the batch are used. The path cache is separate so that IDs of files which are created in the batch are only
+	 * visible to other file system instances after the batch has been committed
+	 */
+	private DatabaseFS(DatabaseFS outerFS, DatabaseFSBatch batch) {
+		this.config = copyByValue(outerFS.config);
+		this.config.setDbConnection(batch.getBatchConnection());
+		this.config.setIdAllocator(outerFS.config.getIdAllocator());
+		this.config.setChunkTableAvailable(outerFS.config.isChunkTableAvailable());
+		this.config.setTableSchemaVersion(outerFS.config.getTableSchemaVersion());
+		this.config.setRecursiveQuerySupported(outerFS.config.isRecursiveQuerySupported());
+		this.config.setBatch(batch);
+		this.environment = outerFS.environment;
+		this.serializer = outerFS.serializer;
+		this.pathCache = new DatabasePathCache(config.getPathCacheSize());
+		this.outerPathCache = outerFS.pathCache;
+	}
+	
+	/**
+	 * starts a batch which writes all changes made via the file system of the batch (see DatabaseFSBatch.getFS) in one transaction. Inserts
+	 * of many small files are sent to the database together. Files of this file system which are used while the batch is running may 
+	 * show outdated information if they are changed by the batch. If a connection pool is used, the batch keeps one connection until it is
+	 * committed or rolled back and new IDs are reserved with another connection, so the maximum pool size must be at least 2 if the ID table
+	 * is used.
+	 * Usage: try (DatabaseFSBatch batch = fs.beginBatch()) { ... batch.getFS() ...; batch.commit(); }
+	 * @return the new batch
+	 * @throws Exception on general error or if the connection pool is too small for a batch
+	 */
+	public DatabaseFSBatch beginBatch() throws Exception {
+		if (config.getBatch() != null) {
+			throw new Exception("Batches cannot be nested");
+		}
+		DatabaseFSBatch.verifyConnectionsAvailable(config);
+		Connection connection = DatabaseFSUtil.getConnection(config);
+		DatabaseFSBatch result;
+		try {
+			result = new DatabaseFSBatch(config, connection);
+		} catch (Exception e) {
+			if (connection != config.getDbConnection()) {
+				connection.close();
+			}
+			throw e;
+		}
+		result.setFS(new DatabaseFS(this, result));
+		return result;
+	}
+	
+	private static void createFileTableIfNeeded(DatabaseFSConfig config) throws Exception {
 		boolean tableExists = DatabaseFSUtil.doesFileTableExist(config);
 		if (!tableExists) {
 			if (!config.isAutoCreateTable()) {
@@ -84,6 +175,77 @@ public class DatabaseFS implements FSFSystem{
 		}
 	}
 	
+	/**
+	 * reads the schema version of the existing tables. Tables of schema version 2 store the data of all files in chunks
+	 */
+	private static void readSchemaVersion(DatabaseFSConfig config) throws Exception {
+		int schemaVersion = DatabaseFSUtil.readSchemaVersion(config);
+		if (schemaVersion > DatabaseFSConfig.SCHEMA_VERSION_2) {
+			throw new Exception("The file table has schema version " + schemaVersion + " which is not supported by this version of the DatabaseFS");
+		}
+		config.setTableSchemaVersion(schemaVersion);
+		if ((schemaVersion == DatabaseFSConfig.SCHEMA_VERSION_2) && (config.getChunkSize() <= 0)) {
+			config.setChunkSize(DatabaseFSConfig.DEFAULT_CHUNK_SIZE_OF_SCHEMA_VERSION_2);
+		}
+	}
+	
+	/**
+	 * @return false if the ID table does not exist and may not be created because autoCreateTable is false. The IDs are then the highest
+	 * existing ID + 1 as before the ID table was introduced so that existing tables keep working without the ID table
+	 */
+	private static boolean createIDTableIfNeeded(DatabaseFSConfig config) throws Exception {
+		if (!DatabaseFSUtil.doesIDTableExist(config)) {
+			if (!config.isAutoCreateTable()) {
+				return false;
+			}
+			try {
+				DatabaseFSUtil.createIDTable(config);
+			} catch (Exception e) {
+				throw new Exception("Could not create ID table", e);
+			}
+		}
+		return true;
+	}
+	
+	private static void createChunkTableIfNeeded(DatabaseFSConfig config) throws Exception {
+		if (!DatabaseFSUtil.doesChunkTableExist(config)) {
+			if (!config.isAutoCreateTable()) {
+				throw new Exception("The chunk table does not exist and autoCreateTable is set to false in the DatabaseFSConfig");
+			}
+			try {
+				DatabaseFSUtil.createChunkTable(config);
+			} catch (Exception e) {
+				throw new Exception("Could not create chunk table", e);
+			}
+		}
+	}
+	
+	/**
+	 * closes the connections of the connection pool (see DatabaseFSConfig.setMaxPoolSize). Connections which are in use are closed when 
+	 * the action that uses them has finished. The file system cannot be used afterwards if it uses a connection pool
+	 */
+	public void close() {
+		if (config.getConnectionPool() != null) {
+			config.getConnectionPool().close();
+		}
+	}
+	
+	/**
+	 * @return the statistics of the connection pool or null if the file system does not use a connection pool
+	 */
+	public DatabaseConnectionPoolStatistics getConnectionPoolStatistics() {
+		if (config.getConnectionPool() == null) {
+			return null;
+		}
+		return config.getConnectionPool().getStatistics();
+	}
+	
+	/**
+	 * @param config configuration with the credentials of the database
+	 * @return a connection with the credentials of the config. If the config has a connection, it is returned. Otherwise it is taken from the connection pool of the config
+	 * or a new connection is opened if no pool is set
+	 * @throws Exception on general error
+	 */
 	public static Connection createConnection(DatabaseFSConfig config) throws Exception {
 		return DatabaseFSUtil.getConnection(config);
 	}
@@ -94,12 +256,13 @@ public class DatabaseFS implements FSFSystem{
 		}
 	}
 
-	private DatabaseFSConfig copyByValue(DatabaseFSConfig config) {
+	private static DatabaseFSConfig copyByValue(DatabaseFSConfig config) {
 		DatabaseFSConfig result = null;
 		Gson gson = new Gson();
 		String json = gson.toJson(config);
 		result = gson.fromJson(json, DatabaseFSConfig.class);
 		result.setDbConnection(config.getDbConnection());
+		result.setDialect(config.getDialect());
 		return result;
 	}
 
@@ -140,6 +303,81 @@ public class DatabaseFS implements FSFSystem{
 		return file;
 	}
 	
+	/**
+	 * resolves the IDs of the names of a path. The longest path which is in the path cache is not read again so that only the names
+	 * below it are resolved by the database: the names are resolved by a single query unless the path is very long.
+	 * @param path absolute path of a file, e.g. "/dir/file.txt"
+	 * @return the IDs of the names of the path as far as they exist: the result is shorter than the number of names if a name does not exist.
+	 * The IDs of the directories above the longest cached path are -1 if they are not cached
+	 * @throws Exception on general error
+	 */
+	protected long[] readIDsOfPath(String path) throws Exception {
+		List<String> names = splitPath(path);
+		List<String> paths = new ArrayList<String>();
+		StringBuilder currentPath = new StringBuilder();
+		for (String i: names) {
+			currentPath.append(SEPARATOR).append(i);
+			paths.add(currentPath.toString());
+		}
+
+		long[] ids = new long[names.size()];
+		Arrays.fill(ids, -1);
+		int numberOfKnownIDs = 0;
+		for (int i = names.size(); i > 0; i--) {
+			Long cachedID = pathCache.getID(paths.get(i - 1));
+			if (cachedID != null) {
+				ids[i - 1] = cachedID;
+				numberOfKnownIDs = i;
+				break;
+			}
+		}
+		
+		while (numberOfKnownIDs < names.size()) {
+			long parentID = numberOfKnownIDs == 0 ? ROOT_ID : ids[numberOfKnownIDs - 1];
+			List<String> namesToResolve = names.subList(numberOfKnownIDs, Math.min(names.size(), numberOfKnownIDs + MAX_NAMES_PER_PATH_QUERY));
+			long[] readIDs = DatabaseFSUtil.readIDsOfPath(config, parentID, namesToResolve);
+			for (int i = 0; i < readIDs.length; i++) {
+				ids[numberOfKnownIDs] = readIDs[i];
+				pathCache.putID(paths.get(numberOfKnownIDs), readIDs[i]);
+				numberOfKnownIDs ++;
+			}
+			if (readIDs.length < namesToResolve.size()) {
+				break;
+			}
+		}
+		log("readIDsOfPath: path = '" + path + "', ids = " + Arrays.toString(ids));
+		return Arrays.copyOf(ids, numberOfKnownIDs);
+	}
+	
+	/**
+	 * @param path absolute path of a file, e.g. "/dir/file.txt"
+	 * @return the names of the directories and the file of the path
+	 */
+	protected static List<String> splitPath(String path) {
+		List<String> result = new ArrayList<String>();
+		for (String i: path.split(SEPARATOR)) {
+			if (!i.isEmpty()) {
+				result.add(i);
+			}
+		}
+		return result;
+	}
+	
+	protected void addToPathCache(String path, long id) {
+		pathCache.putID(path, id);
+	}
+
+	/**
+	 * must be called if a file is renamed, moved or deleted
+	 * @param path the path of the file whose entry and the entries of all sub-directories and files are removed from the path cache
+	 */
+	protected void removeFromPathCache(String path) {
+		pathCache.removeTree(path);
+		if (outerPathCache != null) {
+			outerPathCache.removeTree(path);
+		}
+	}
+	
 	public static List<String> getAvailableDBDrivers() {
 		List<String> result = new ArrayList<String>();
 		for (Enumeration<?> en = DriverManager.getDrivers(); en.hasMoreElements();){
@@ -161,4 +399,23 @@ public class DatabaseFS implements FSFSystem{
 		return SEPARATOR;
 	}
 
+	/**
+	 * @return true if each action uses its own connection (from the pool or created for the action). A single dbConnection (which is also
+	 * used by the file system of a batch) may not be shared by multiple threads
+	 */
+	@Override
+	public boolean isConcurrent() {
+		return DatabaseFSUtil.isConnectionCreatedForEachAction(config);
+	}
+
+	@Override
+	public FSFSerializer getSerializer() {
+		return serializer;
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		this.serializer = serializer;
+	}
+
 }
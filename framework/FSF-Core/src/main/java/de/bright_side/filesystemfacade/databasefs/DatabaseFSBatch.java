@@ -0,0 +1,295 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * collects the changes made via the file system of the batch (see getFS) and writes them on one connection in one transaction which is
+ * committed by commit(). Consecutive updates with the same SQL (e.g. inserting many files) are sent to the database together via JDBC batches.
+ * Pending updates are executed before the next query, so reads within the batch see the changes of the batch. The changes are not visible
+ * to other connections before the batch is committed and are discarded by rollback() or by close() without commit().
+ *
+ * The IDs of new entries are still reserved by the DatabaseFS itself, which needs a second connection if a connection pool is used, so
+ * DatabaseFS.beginBatch rejects pools with a maximum size of 1 if the ID table is used. If the batch uses the dbConnection of the config,
+ * the IDs are reserved within the transaction of the batch, so rollback() also discards the current ID block of the DatabaseFS.
+ * For directories created within the batch, the batch knows all sub-items so that the existence of a new file in such a directory does not
+ * need to be queried.
+ * A batch must only be used by one thread at a time.
+ *
+ * @author Philip Heyse
+ *
+ */
+public class DatabaseFSBatch implements AutoCloseable {
+	private static final boolean LOGGING_ENABLED = false;
+	private static final int MAX_UPDATES_PER_BATCH = 500;
+
+	private final DatabaseFSConfig outerConfig;
+	private final Connection connection;
+	private final boolean autoCommitBeforeBatch;
+	/** connection which is used by the file system of the batch */
+	private final Connection batchConnection;
+	private DatabaseFS fs;
+	private String pendingSQL;
+	private PreparedStatement pendingStatement;
+	private int pendingUpdates = 0;
+	private long executedBatches = 0;
+	private long batchedUpdates = 0;
+	private boolean finished = false;
+	/** the IDs of the sub-items by name of directories which have been created in this batch. null values mark deleted items */
+	private final Map<Long, Map<String, Long>> newDirItems = new HashMap<>();
+
+	/**
+	 * @param outerConfig configuration of the DatabaseFS which creates the batch
+	 * @param connection the connection to be used by the batch. It is closed when the batch is finished unless it is the dbConnection of the config
+	 * @throws Exception on general error
+	 */
+	protected DatabaseFSBatch(DatabaseFSConfig outerConfig, Connection connection) throws Exception {
+		this.outerConfig = outerConfig;
+		this.connection = connection;
+		this.autoCommitBeforeBatch = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		this.batchConnection = (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}
+				, new BatchConnectionHandler());
+	}
+
+	/**
+	 * the connection of the file system of the batch. Statements prepared on it execute the pending updates first. Closing and committing
+	 * it has no effect because the transaction is controlled by the batch
+	 */
+	private class BatchConnectionHandler implements InvocationHandler {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ((name.equals("close")) || (name.equals("commit")) || (name.equals("rollback")) || (name.equals("setAutoCommit"))) {
+				return null;
+			}
+			if ((name.equals("prepareStatement")) || (name.equals("prepareCall")) || (name.equals("createStatement"))) {
+				verifyNotFinished();
+				flush();
+			}
+			try {
+				return method.invoke(connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	/**
+	 * @param outerConfig configuration of the DatabaseFS which creates the batch
+	 * @throws Exception if the batch would wait for a second connection of the pool to reserve IDs while it holds the only connection
+	 */
+	protected static void verifyConnectionsAvailable(DatabaseFSConfig outerConfig) throws Exception {
+		if ((outerConfig.getDbConnection() == null) && (outerConfig.getConnectionPool() != null) && (outerConfig.getIdAllocator() != null) 
+				&& (outerConfig.getMaxPoolSize() < 2)) {
+			throw new Exception("A batch needs a maximum pool size of at least 2 because the batch keeps one connection and IDs are reserved "
+					+ "with another connection. Maximum pool size: " + outerConfig.getMaxPoolSize());
+		}
+	}
+
+	protected void setFS(DatabaseFS fs) {
+		this.fs = fs;
+	}
+
+	/**
+	 * @return the file system whose changes are part of this batch
+	 */
+	public DatabaseFS getFS() {
+		return fs;
+	}
+
+	protected Connection getBatchConnection() {
+		return batchConnection;
+	}
+
+	/**
+	 * adds the update to the JDBC batch. If the SQL differs from the SQL of the pending updates, the pending updates are executed first so
+	 * that the updates are executed in the order in which they were added
+	 * @param sql SQL of the update
+	 * @param values values of the parameters
+	 * @throws Exception on general error
+	 */
+	protected void addUpdate(String sql, Object... values) throws Exception {
+		verifyNotFinished();
+		if ((pendingStatement != null) && (!pendingSQL.equals(sql))) {
+			flush();
+		}
+		if (pendingStatement == null) {
+			pendingStatement = connection.prepareStatement(sql);
+			pendingSQL = sql;
+		}
+		DatabaseFSUtil.addBatch(pendingStatement, values);
+		pendingUpdates ++;
+		batchedUpdates ++;
+		if (pendingUpdates >= MAX_UPDATES_PER_BATCH) {
+			flush();
+		}
+	}
+
+	/**
+	 * executes the pending updates without committing them
+	 * @throws SQLException on database error
+	 */
+	public void flush() throws SQLException {
+		if (pendingStatement == null) {
+			return;
+		}
+		log("flush: executing " + pendingUpdates + " updates of SQL >>" + pendingSQL + "<<");
+		try {
+			pendingStatement.executeBatch();
+			executedBatches ++;
+		} finally {
+			closePendingStatement();
+		}
+	}
+
+	private void closePendingStatement() throws SQLException {
+		PreparedStatement statement = pendingStatement;
+		pendingStatement = null;
+		pendingSQL = null;
+		pendingUpdates = 0;
+		statement.close();
+	}
+
+	/**
+	 * executes the pending updates, commits all changes of the batch and ends the batch
+	 * @throws Exception on general error. The batch is rolled back in this case
+	 */
+	public void commit() throws Exception {
+		verifyNotFinished();
+		try {
+			flush();
+			connection.commit();
+		} catch (Exception e) {
+			rollback();
+			throw e;
+		}
+		finish();
+	}
+
+	/**
+	 * discards all changes of the batch and ends the batch
+	 * @throws SQLException on database error
+	 */
+	public void rollback() throws SQLException {
+		if (finished) {
+			return;
+		}
+		try {
+			if (pendingStatement != null) {
+				closePendingStatement();
+			}
+			connection.rollback();
+		} finally {
+			discardIDBlockReservedInTransaction();
+			finish();
+		}
+	}
+
+	/**
+	 * rolls back the batch if it has not been committed
+	 */
+	@Override
+	public void close() throws SQLException {
+		rollback();
+	}
+
+	/**
+	 * if the batch uses the dbConnection of the config, the ID block may have been reserved in the transaction of the batch. After the
+	 * rollback other DatabaseFS instances could reserve the same block again
+	 */
+	private void discardIDBlockReservedInTransaction() {
+		if ((connection == outerConfig.getDbConnection()) && (outerConfig.getIdAllocator() != null)) {
+			outerConfig.getIdAllocator().discardBlock();
+		}
+	}
+
+	private void finish() throws SQLException {
+		finished = true;
+		newDirItems.clear();
+		try {
+			connection.setAutoCommit(autoCommitBeforeBatch);
+		} finally {
+			if (connection != outerConfig.getDbConnection()) {
+				connection.close();
+			}
+		}
+	}
+
+	private void verifyNotFinished() throws SQLException {
+		if (finished) {
+			throw new SQLException("The batch has already been committed or rolled back");
+		}
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * @return number of JDBC batches which have been sent to the database
+	 */
+	public long getExecutedBatches() {
+		return executedBatches;
+	}
+
+	/**
+	 * @return number of updates which have been added to JDBC batches
+	 */
+	public long getBatchedUpdates() {
+		return batchedUpdates;
+	}
+
+	protected void entryInserted(long parentID, String name, long id, boolean isDir) {
+		Map<String, Long> items = newDirItems.get(parentID);
+		if (items != null) {
+			items.put(name, id);
+		}
+		if (isDir) {
+			newDirItems.put(id, new HashMap<String, Long>());
+		}
+	}
+
+	/**
+	 * must be called if items of the directory are renamed, deleted or created in another way than by DatabaseFSUtil.insertEntry so that
+	 * the sub-items of the directory are read from the database again
+	 * @param dirID ID of the directory or a negative value if the directory is unknown so that the sub-items of all directories are read again
+	 */
+	protected void dirItemsChanged(long dirID) {
+		if (dirID < 0) {
+			newDirItems.clear();
+		} else {
+			newDirItems.remove(dirID);
+		}
+	}
+
+	/**
+	 * @return the ID of the item if the directory has been created in this batch, a negative value if the directory has been created in this
+	 * batch but has no such item or null if the item needs to be read from the database
+	 */
+	protected Long getIDOfNewDirItem(long parentID, String name) {
+		Map<String, Long> items = newDirItems.get(parentID);
+		if (items == null) {
+			return null;
+		}
+		Long result = items.get(name);
+		if (result == null) {
+			return -1L;
+		}
+		return result;
+	}
+
+	private void log(String message) {
+		if (LOGGING_ENABLED) {
+			System.out.println("DatabaseFSBatch> " + message);
+		}
+	}
+
+}
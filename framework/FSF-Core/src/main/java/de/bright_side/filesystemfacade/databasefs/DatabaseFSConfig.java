@@ -8,6 +8,20 @@ import java.sql.Connection;
  *
  */
 public class DatabaseFSConfig {
+	public static final int DEFAULT_DIRECTORY_STREAM_FETCH_SIZE = 1000;
+	public static final long DEFAULT_POOL_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+	public static final long DEFAULT_POOL_VALIDATION_INTERVAL_MILLIS = 5 * 1000;
+	public static final long DEFAULT_POOL_MAX_WAIT_MILLIS = 30 * 1000;
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+	public static final int DEFAULT_PATH_CACHE_SIZE = 0;
+	public static final long DEFAULT_METADATA_MAX_AGE_MILLIS = 0;
+	public static final int DEFAULT_ID_BLOCK_SIZE = 100;
+	public static final int SCHEMA_VERSION_1 = 1;
+	public static final int SCHEMA_VERSION_2 = 2;
+	public static final int DEFAULT_SCHEMA_VERSION = SCHEMA_VERSION_1;
+	/** chunk size which is used for tables with schema version 2 if no chunk size is set */
+	public static final int DEFAULT_CHUNK_SIZE_OF_SCHEMA_VERSION_2 = 1024 * 1024;
+	
 	private String dbDriverClassName;
 	private String dbUrl;
 	private String dbUserName;
@@ -21,6 +35,25 @@ public class DatabaseFSConfig {
 	private boolean autoCreateTable;
 	private String fileTableName;
 	private String schemaName;
+	private int directoryStreamFetchSize = DEFAULT_DIRECTORY_STREAM_FETCH_SIZE;
+	private int minPoolSize;
+	private int maxPoolSize;
+	private long poolIdleTimeoutMillis = DEFAULT_POOL_IDLE_TIMEOUT_MILLIS;
+	private long poolValidationIntervalMillis = DEFAULT_POOL_VALIDATION_INTERVAL_MILLIS;
+	private long poolMaxWaitMillis = DEFAULT_POOL_MAX_WAIT_MILLIS;
+	private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+	private int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
+	private long metadataMaxAgeMillis = DEFAULT_METADATA_MAX_AGE_MILLIS;
+	private int idBlockSize = DEFAULT_ID_BLOCK_SIZE;
+	private int chunkSize;
+	private int schemaVersion = DEFAULT_SCHEMA_VERSION;
+	private transient DatabaseConnectionPool connectionPool; //: set by the DatabaseFS which owns the pool, transient like the dbConnection
+	private transient DatabaseIDAllocator idAllocator; //: set by the DatabaseFS, transient like the dbConnection
+	private transient boolean chunkTableAvailable; //: set by the DatabaseFS
+	private transient int tableSchemaVersion; //: set by the DatabaseFS. 0 if unknown
+	private transient boolean recursiveQuerySupported; //: set by the DatabaseFS
+	private transient DatabaseFSBatch batch; //: only set in the config of the file system of a batch
+	private transient DatabaseDialect dialect; //: transient like the dbConnection
 	
 	public String getDbDriverClassName() {
 		return dbDriverClassName;
@@ -120,12 +153,250 @@ public class DatabaseFSConfig {
 		this.schemaName = schemaName;
 	}
 
+	public int getDirectoryStreamFetchSize() {
+		return directoryStreamFetchSize;
+	}
+	
+	/**
+	 * @param directoryStreamFetchSize number of rows that are fetched from the database at once when a directory stream is read. 
+	 * This limits the memory used for directories with many entries. Default: DEFAULT_DIRECTORY_STREAM_FETCH_SIZE
+	 */
+	public void setDirectoryStreamFetchSize(int directoryStreamFetchSize) {
+		this.directoryStreamFetchSize = directoryStreamFetchSize;
+	}
+
+	public int getMinPoolSize() {
+		return minPoolSize;
+	}
+
+	/**
+	 * @param minPoolSize number of connections which are opened when the DatabaseFS is created and which are kept open even if they are idle.
+	 * Only used if the pool is enabled (see setMaxPoolSize). Default: 0
+	 */
+	public void setMinPoolSize(int minPoolSize) {
+		this.minPoolSize = minPoolSize;
+	}
+
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	/**
+	 * @param maxPoolSize maximum number of connections which are opened by the connection pool of the DatabaseFS. If more connections are needed
+	 * at the same time, the actions wait until a connection is returned. 0 disables the pool so that a new connection is opened for each action.
+	 * The pool is not used if a dbConnection is set. Default: 0
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	public long getPoolIdleTimeoutMillis() {
+		return poolIdleTimeoutMillis;
+	}
+
+	/**
+	 * @param poolIdleTimeoutMillis time after which an idle connection is closed as long as there are more than minPoolSize connections.
+	 * Default: DEFAULT_POOL_IDLE_TIMEOUT_MILLIS
+	 */
+	public void setPoolIdleTimeoutMillis(long poolIdleTimeoutMillis) {
+		this.poolIdleTimeoutMillis = poolIdleTimeoutMillis;
+	}
+
+	public long getPoolValidationIntervalMillis() {
+		return poolValidationIntervalMillis;
+	}
+
+	/**
+	 * @param poolValidationIntervalMillis a connection that has been idle for at least this time is validated before it is used again so that 
+	 * connections closed by the database server are replaced. Default: DEFAULT_POOL_VALIDATION_INTERVAL_MILLIS
+	 */
+	public void setPoolValidationIntervalMillis(long poolValidationIntervalMillis) {
+		this.poolValidationIntervalMillis = poolValidationIntervalMillis;
+	}
+
+	public long getPoolMaxWaitMillis() {
+		return poolMaxWaitMillis;
+	}
+
+	/**
+	 * @param poolMaxWaitMillis maximum time to wait for a connection if all connections of the pool are in use. Default: DEFAULT_POOL_MAX_WAIT_MILLIS
+	 */
+	public void setPoolMaxWaitMillis(long poolMaxWaitMillis) {
+		this.poolMaxWaitMillis = poolMaxWaitMillis;
+	}
+
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * @param statementCacheSize number of prepared statements which are kept open per pooled connection so that repeated SQL statements are 
+	 * not prepared again. 0 disables the cache. Default: DEFAULT_STATEMENT_CACHE_SIZE
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	public int getPathCacheSize() {
+		return pathCacheSize;
+	}
+
+	/**
+	 * @param pathCacheSize number of paths whose IDs are kept by the DatabaseFS so that a path that has been used before is not resolved by
+	 * the database again. Renaming, moving and deleting files removes their paths from the cache but changes of the same table by other
+	 * DatabaseFS instances or processes are not noticed, so the cache must only be enabled if this DatabaseFS is the only one which writes to
+	 * the app and tenant. Otherwise files may be written into a directory which has been moved or deleted by another writer. 
+	 * 0 disables the cache. Default: DEFAULT_PATH_CACHE_SIZE
+	 */
+	public void setPathCacheSize(int pathCacheSize) {
+		this.pathCacheSize = pathCacheSize;
+	}
+
+	public long getMetadataMaxAgeMillis() {
+		return metadataMaxAgeMillis;
+	}
+
+	/**
+	 * @param metadataMaxAgeMillis time for which a DatabaseFile uses the file type, length and times of its row after they have been read
+	 * (e.g. by listing the parent directory) instead of querying them again. Changes by the same DatabaseFile object are seen at once, changes
+	 * by other objects after this time or after DatabaseFile.refresh(). Like the path cache, this must only be enabled if outdated values
+	 * are acceptable or if this DatabaseFS is the only one which writes to the app and tenant. Directory listings are formatted with one
+	 * query without this setting because they use listFilesWithAttributes. 0 always queries the database. Default: DEFAULT_METADATA_MAX_AGE_MILLIS
+	 */
+	public void setMetadataMaxAgeMillis(long metadataMaxAgeMillis) {
+		this.metadataMaxAgeMillis = metadataMaxAgeMillis;
+	}
+
+	public int getIdBlockSize() {
+		return idBlockSize;
+	}
+
+	/**
+	 * @param idBlockSize number of IDs which a DatabaseFS reserves at once in the ID table (name of the file table + '_IDS') for new entries
+	 * so that inserts do not need to read the file table and several DatabaseFS instances can insert into the same table at the same time.
+	 * 0 disables the ID table and uses the highest existing ID + 1 which is only safe if there is a single DatabaseFS instance writing to
+	 * the app and tenant. If the ID table does not exist and autoCreateTable is false, the highest existing ID + 1 is used as well, so the
+	 * ID table needs to be created before several DatabaseFS instances write to an existing table. Default: DEFAULT_ID_BLOCK_SIZE
+	 */
+	public void setIdBlockSize(int idBlockSize) {
+		this.idBlockSize = idBlockSize;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @param chunkSize if greater than 0, the data of files is written in chunks of this number of bytes into the chunk table (name of the 
+	 * file table + '_CHUNKS') instead of the FILE_DATA column. Input and output streams then transfer the data chunk by chunk so that large
+	 * files do not need to fit into memory, and appending only inserts the new chunks. The input stream keeps its connection until it is 
+	 * closed. Files which have been written before with the FILE_DATA column can still be read and are moved into chunks when data is appended.
+	 * Default: 0
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public int getSchemaVersion() {
+		return schemaVersion;
+	}
+
+	/**
+	 * @param schemaVersion the schema version which is used if the DatabaseFS creates the tables. Existing tables keep their version which
+	 * is read from the schema table (name of the file table + '_VERSION'), and tables without schema table have version 1. 
+	 * SCHEMA_VERSION_1: the file table contains the data of the files in the FILE_DATA column unless a chunk size is set.
+	 * SCHEMA_VERSION_2: the file table only contains the metadata and has a unique index on the parent and name. The data is always
+	 * stored in the chunk table, so DEFAULT_CHUNK_SIZE_OF_SCHEMA_VERSION_2 is used if no chunk size is set. Tables of version 1 can be
+	 * converted with DatabaseFSSchemaMigration. Older versions of the library cannot read tables of version 2.
+	 * Default: DEFAULT_SCHEMA_VERSION
+	 */
+	public void setSchemaVersion(int schemaVersion) {
+		this.schemaVersion = schemaVersion;
+	}
+
+	protected DatabaseConnectionPool getConnectionPool() {
+		return connectionPool;
+	}
+
+	protected void setConnectionPool(DatabaseConnectionPool connectionPool) {
+		this.connectionPool = connectionPool;
+	}
+
+	protected DatabaseIDAllocator getIdAllocator() {
+		return idAllocator;
+	}
+
+	protected void setIdAllocator(DatabaseIDAllocator idAllocator) {
+		this.idAllocator = idAllocator;
+	}
+
+	/**
+	 * @return true if the chunk table exists so that the chunks of files need to be read, copied and deleted
+	 */
+	protected boolean isChunkTableAvailable() {
+		return chunkTableAvailable;
+	}
+
+	protected void setChunkTableAvailable(boolean chunkTableAvailable) {
+		this.chunkTableAvailable = chunkTableAvailable;
+	}
+
+	/**
+	 * @return the schema version of the existing tables or 0 if it has not been read
+	 */
+	protected int getTableSchemaVersion() {
+		return tableSchemaVersion;
+	}
+
+	protected void setTableSchemaVersion(int tableSchemaVersion) {
+		this.tableSchemaVersion = tableSchemaVersion;
+	}
+
+	/**
+	 * @return true if directory trees can be read by the recursive query of DatabaseDialect.getTreeSQL. Otherwise they are processed item by item
+	 */
+	protected boolean isRecursiveQuerySupported() {
+		return recursiveQuerySupported;
+	}
+
+	protected void setRecursiveQuerySupported(boolean recursiveQuerySupported) {
+		this.recursiveQuerySupported = recursiveQuerySupported;
+	}
+
+	/**
+	 * @return the batch which collects the updates if this is the config of the file system of a batch (see DatabaseFS.beginBatch) or null otherwise
+	 */
+	protected DatabaseFSBatch getBatch() {
+		return batch;
+	}
+
+	protected void setBatch(DatabaseFSBatch batch) {
+		this.batch = batch;
+	}
+
+	public DatabaseDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * @param dialect the SQL dialect of the database, e.g. for a database whose JDBC URL is not known to DatabaseDialect.forJdbcUrl or 
+	 * to use a subclass of one of the dialects. If no dialect is set, it is chosen by the JDBC URL of the config or of the dbConnection and
+	 * the MariaDB dialect is used if the database is unknown.
+	 * Default: null
+	 */
+	public void setDialect(DatabaseDialect dialect) {
+		this.dialect = dialect;
+	}
+
 	@Override
 	public String toString() {
 		return "DatabaseFSConfig [dbDriverClassName=" + dbDriverClassName + ", dbUrl=" + dbUrl + ", dbUserName="
 				+ dbUserName + ", dbPassword=" + dbPassword + ", appName=" + appName + ", tenantName=" + tenantName
 				+ ", autoCreateTable=" + autoCreateTable + ", fileTableName=" + fileTableName + ", schemaName="
-				+ schemaName + "]";
+				+ schemaName + ", directoryStreamFetchSize=" + directoryStreamFetchSize + ", minPoolSize=" + minPoolSize 
+				+ ", maxPoolSize=" + maxPoolSize + ", poolIdleTimeoutMillis=" + poolIdleTimeoutMillis + ", poolValidationIntervalMillis=" 
+				+ poolValidationIntervalMillis + ", poolMaxWaitMillis=" + poolMaxWaitMillis + ", statementCacheSize=" + statementCacheSize + ", pathCacheSize=" + pathCacheSize 
+				+ ", metadataMaxAgeMillis=" + metadataMaxAgeMillis + ", idBlockSize=" + idBlockSize + ", chunkSize=" + chunkSize + ", schemaVersion=" + schemaVersion + ", dialect=" + dialect + "]";
 	}
 
 	public Connection getDbConnection() {
@@ -0,0 +1,328 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * converts the tables of a DatabaseFS from schema version 1 to schema version 2 (see DatabaseFSConfig.setSchemaVersion) while the
+ * file system is in use. The migration consists of small steps which are each committed, and the progress is stored in the version table
+ * (name of the file table + '_VERSION'), so the migration can be interrupted and continued later, e.g. by another process.
+ * The steps are:
+ * 1. the data of the files is moved from the FILE_DATA column into the chunk table for rowsPerStep entries at a time in the order of the
+ *    primary key. The entries of a step are locked until the step is committed. The table is scanned again if files have been written to
+ *    the FILE_DATA column in the meantime
+ * 2. the unique index on parent and name is created. This fails if there are entries with the same name in a directory
+ * 3. the FILE_DATA column is removed and the schema version is set to 2. If files have been written to the FILE_DATA column since
+ *    step 1, the migration goes back to step 1 instead
+ *
+ * DatabaseFS instances keep working during step 1 because they read the data from the chunk table if the FILE_DATA column is empty.
+ * Instances without a chunk size lock the row of the version table when they write to the FILE_DATA column and refuse the write once the
+ * migration has reached step 3, so no data can be written between the check of step 3 and the removal of the column. They should therefore
+ * be configured with a chunk size before step 3.
+ * The instances must be created again after the migration because they read the schema version when they are created.
+ * Only one migration may run on a table at the same time. The migration covers all apps and tenants of the table.
+ *
+ * @author Philip Heyse
+ *
+ */
+public class DatabaseFSSchemaMigration {
+	private static final boolean LOGGING_ENABLED = false;
+	public static final int DEFAULT_ROWS_PER_STEP = 100;
+
+	private static final int STEP_MOVE_DATA = 0;
+	private static final int STEP_CREATE_NAME_INDEX = 1;
+	protected static final int STEP_DROP_DATA_COLUMN = 2;
+	private static final String[] KEY_COLUMNS = {"APP", "TENANT", "ID"};
+
+	private final DatabaseFSConfig config;
+	private int rowsPerStep = DEFAULT_ROWS_PER_STEP;
+	private long movedFiles = 0;
+
+	/**
+	 * progress of the migration as stored in the version table
+	 */
+	private static class MigrationState {
+		private int schemaVersion;
+		private int step;
+		private String app;
+		private String tenant;
+		private long id;
+	}
+
+	/**
+	 * @param config configuration with the credentials or connection of the database and the schema and name of the file table
+	 */
+	public DatabaseFSSchemaMigration(DatabaseFSConfig config) {
+		this.config = config;
+	}
+
+	public int getRowsPerStep() {
+		return rowsPerStep;
+	}
+
+	/**
+	 * @param rowsPerStep number of entries of the file table which are processed and locked in one transaction.
+	 * Default: DEFAULT_ROWS_PER_STEP
+	 */
+	public void setRowsPerStep(int rowsPerStep) {
+		this.rowsPerStep = rowsPerStep;
+	}
+
+	/**
+	 * @return number of files whose data has been moved into the chunk table by this object
+	 */
+	public long getMovedFiles() {
+		return movedFiles;
+	}
+
+	/**
+	 * runs all remaining steps of the migration
+	 * @throws Exception on general error. The migration can be continued by calling migrate or migrateStep again
+	 */
+	public void migrate() throws Exception {
+		while (!migrateStep()) {
+			//: the progress is stored after every step
+		}
+	}
+
+	/**
+	 * runs the next step of the migration
+	 * @return true if the tables have schema version 2 after the step
+	 * @throws Exception on general error. The migration can be continued by calling migrateStep again
+	 */
+	public boolean migrateStep() throws Exception {
+		if (rowsPerStep <= 0) {
+			throw new Exception("The rows per step must be greater than 0 but are " + rowsPerStep);
+		}
+		MigrationState state = readState();
+		if (state == null) {
+			if (!DatabaseFSUtil.doesFileTableExist(config)) {
+				throw new Exception("The file table does not exist");
+			}
+			if (!DatabaseFSUtil.doesChunkTableExist(config)) {
+				DatabaseFSUtil.createChunkTable(config);
+			}
+			DatabaseFSUtil.createVersionTable(config, DatabaseFSConfig.SCHEMA_VERSION_1);
+			state = readState();
+		}
+		if (state.schemaVersion >= DatabaseFSConfig.SCHEMA_VERSION_2) {
+			return true;
+		}
+		log("migrateStep: step = " + state.step + ", app = '" + state.app + "', tenant = '" + state.tenant + "', id = " + state.id);
+		switch (state.step) {
+		case STEP_MOVE_DATA:
+			moveData(state);
+			return false;
+		case STEP_CREATE_NAME_INDEX:
+			if (!doesNameIndexExist()) {
+				String sql = DatabaseFSUtil.getCreateNameIndexSQL(config);
+				try {
+					DatabaseFSUtil.processUpdate(config, sql);
+				} catch (Exception e) {
+					throw new Exception("Could not create unique index by SQL >>" + sql + "<<. There may be entries with the same name in a directory", e);
+				}
+			}
+			writeStep(STEP_DROP_DATA_COLUMN);
+			return false;
+		case STEP_DROP_DATA_COLUMN:
+			if (doesFileDataColumnExist()) {
+				//: instances without a chunk size may have written to the FILE_DATA column after the data has been moved
+				Long remainingFiles = DatabaseFSUtil.processQueryAsValue(config, true, getCountFilesWithDataSQL(), Long.class);
+				if ((remainingFiles != null) && (remainingFiles.longValue() > 0)) {
+					log("migrateStep: moving the data again because of " + remainingFiles + " remaining files");
+					DatabaseFSUtil.processUpdate(config, getUpdateStateSQL(), STEP_MOVE_DATA, "", "", -1L);
+					return false;
+				}
+				DatabaseFSUtil.processUpdate(config, DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "ALTER TABLE %1 DROP COLUMN FILE_DATA"));
+			}
+			DatabaseFSUtil.processUpdate(config, "UPDATE " + DatabaseFSUtil.getSchemaAndVersionTable(config) + " SET SCHEMA_VERSION = ?"
+					, DatabaseFSConfig.SCHEMA_VERSION_2);
+			return true;
+		default:
+			throw new Exception("Unknown migration step: " + state.step);
+		}
+	}
+
+	/**
+	 * @return the state or null if there is no version table
+	 */
+	private MigrationState readState() throws Exception {
+		if (!DatabaseFSUtil.doesVersionTableExist(config)) {
+			return null;
+		}
+		final List<MigrationState> result = new ArrayList<>();
+		String sql = "SELECT SCHEMA_VERSION, MIGRATION_STEP, MIGRATION_APP, MIGRATION_TENANT, MIGRATION_ID FROM " + DatabaseFSUtil.getSchemaAndVersionTable(config);
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				if (resultSet.next()) {
+					MigrationState state = new MigrationState();
+					state.schemaVersion = resultSet.getInt(1);
+					state.step = resultSet.getInt(2);
+					state.app = resultSet.getString(3);
+					state.tenant = resultSet.getString(4);
+					state.id = resultSet.getLong(5);
+					result.add(state);
+				}
+			}
+		};
+		DatabaseFSUtil.processQuery(config, true, sql, processor);
+		if (result.isEmpty()) {
+			throw new Exception("The version table is empty");
+		}
+		return result.get(0);
+	}
+
+	/**
+	 * @return SQL which sets the step and the position of the migration. Parameters: step, app, tenant, ID
+	 */
+	private String getUpdateStateSQL() {
+		return "UPDATE " + DatabaseFSUtil.getSchemaAndVersionTable(config) 
+				+ " SET MIGRATION_STEP = ?, MIGRATION_APP = ?, MIGRATION_TENANT = ?, MIGRATION_ID = ?";
+	}
+
+	private String getCountFilesWithDataSQL() {
+		return "SELECT COUNT(*) FROM " + DatabaseFSUtil.getSchemaAndTable(config) + " WHERE FILE_DATA IS NOT NULL";
+	}
+
+	private void writeStep(int step) throws Exception {
+		DatabaseFSUtil.processUpdate(config, "UPDATE " + DatabaseFSUtil.getSchemaAndVersionTable(config) + " SET MIGRATION_STEP = ?", step);
+	}
+
+	/**
+	 * moves the data of the next rowsPerStep entries after the position of the state into the chunk table in one transaction
+	 */
+	private void moveData(MigrationState state) throws Exception {
+		String fileTable = DatabaseFSUtil.getSchemaAndTable(config);
+		String chunkTable = DatabaseFSUtil.getSchemaAndChunkTable(config);
+		DatabaseDialect dialect = DatabaseFSUtil.getDialect(config);
+		List<Object> selectParameters = new ArrayList<>();
+		String selectSQL = "SELECT APP, TENANT, ID, CASE WHEN FILE_DATA IS NULL THEN 0 ELSE 1 END FROM " + fileTable
+				+ " WHERE " + dialect.getAfterKeyCondition(KEY_COLUMNS, new Object[] {state.app, state.tenant, state.id}, selectParameters)
+				+ " ORDER BY APP, TENANT, ID" + dialect.getLimitClause(rowsPerStep) + " FOR UPDATE";
+		String deleteChunksSQL = "DELETE FROM " + chunkTable + " WHERE APP = ? AND TENANT = ? AND FILE_ID = ?";
+		String insertChunkSQL = "INSERT INTO " + chunkTable + " (APP, TENANT, FILE_ID, SEQ, CHUNK_OFFSET, CHUNK_LENGTH, CHUNK_DATA)"
+				+ " SELECT APP, TENANT, ID, 0, 0, FILE_LENGTH, FILE_DATA FROM " + fileTable + " WHERE APP = ? AND TENANT = ? AND ID = ? AND FILE_LENGTH > 0";
+		String clearDataSQL = "UPDATE " + fileTable + " SET FILE_DATA = NULL WHERE APP = ? AND TENANT = ? AND ID = ?";
+		String updateStateSQL = getUpdateStateSQL();
+
+		Connection connection = DatabaseFSUtil.getConnection(config);
+		boolean autoCommit = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			int readRows = 0;
+			int movedFilesOfStep = 0;
+			String lastApp = state.app;
+			String lastTenant = state.tenant;
+			long lastID = state.id;
+			try (PreparedStatement selectStatement = DatabaseFSUtil.prepareForwardOnlyStatement(connection, selectSQL, rowsPerStep
+						, selectParameters.toArray());
+					PreparedStatement deleteChunksStatement = connection.prepareStatement(deleteChunksSQL);
+					PreparedStatement insertChunkStatement = connection.prepareStatement(insertChunkSQL);
+					PreparedStatement clearDataStatement = connection.prepareStatement(clearDataSQL)) {
+				selectStatement.setMaxRows(rowsPerStep);
+				try (ResultSet resultSet = selectStatement.executeQuery()) {
+					while ((readRows < rowsPerStep) && (resultSet.next())) {
+						readRows ++;
+						lastApp = resultSet.getString(1);
+						lastTenant = resultSet.getString(2);
+						lastID = resultSet.getLong(3);
+						if (resultSet.getInt(4) != 0) {
+							DatabaseFSUtil.addBatch(deleteChunksStatement, lastApp, lastTenant, lastID);
+							DatabaseFSUtil.addBatch(insertChunkStatement, lastApp, lastTenant, lastID);
+							DatabaseFSUtil.addBatch(clearDataStatement, lastApp, lastTenant, lastID);
+							movedFilesOfStep ++;
+						}
+					}
+				}
+				if (movedFilesOfStep > 0) {
+					deleteChunksStatement.executeBatch();
+					insertChunkStatement.executeBatch();
+					clearDataStatement.executeBatch();
+				}
+			}
+			int nextStep = STEP_MOVE_DATA;
+			if (readRows < rowsPerStep) {
+				//: the end of the table has been reached. Files may have been written to the FILE_DATA column behind the position in the meantime
+				Long remainingFiles = DatabaseFSUtil.processQueryAsValue(config, true, connection, getCountFilesWithDataSQL(), Long.class);
+				if ((remainingFiles == null) || (remainingFiles.longValue() == 0)) {
+					nextStep = STEP_CREATE_NAME_INDEX;
+				} else {
+					log("moveData: scanning again because of " + remainingFiles + " remaining files");
+					lastApp = "";
+					lastTenant = "";
+					lastID = -1;
+				}
+			}
+			DatabaseFSUtil.processUpdate(config, connection, updateStateSQL, nextStep, lastApp, lastTenant, lastID);
+			connection.commit();
+			movedFiles += movedFilesOfStep;
+			log("moveData: read rows = " + readRows + ", moved files = " + movedFilesOfStep);
+		} catch (Exception e) {
+			try {
+				connection.rollback();
+			} catch (Exception ignored) {
+			}
+			throw new Exception("Could not move data into chunk table", e);
+		} finally {
+			try {
+				connection.setAutoCommit(autoCommit);
+			} finally {
+				if (DatabaseFSUtil.isConnectionCreatedForEachAction(config)) {
+					connection.close();
+				}
+			}
+		}
+	}
+
+	private boolean doesFileDataColumnExist() {
+		try {
+			//: no error logging because if this fails it only means that the column doesn't exist
+			String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "SELECT COUNT(*) FROM %1 WHERE FILE_DATA IS NULL AND 1 = 0");
+			DatabaseFSUtil.processQueryAsValue(config, false, sql, Long.class);
+		} catch (Exception e) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * checks via the meta data of the connection whether the unique index has been created by a previous run which did not store its progress
+	 */
+	private boolean doesNameIndexExist() throws Exception {
+		String indexName = config.getFileTableName() + "_INDEX_APP_TENANT_PARENT_ID_NAME";
+		Connection connection = DatabaseFSUtil.getConnection(config);
+		try {
+			DatabaseMetaData metaData = connection.getMetaData();
+			//: depending on the database, the schema name is the catalog or the schema
+			String[][] catalogsAndSchemas = new String[][] {{config.getSchemaName(), null}, {null, config.getSchemaName()}};
+			for (String[] i: catalogsAndSchemas) {
+				for (String table: new String[] {config.getFileTableName(), config.getFileTableName().toUpperCase(), config.getFileTableName().toLowerCase()}) {
+					try (ResultSet resultSet = metaData.getIndexInfo(i[0], i[1], table, true, true)) {
+						while (resultSet.next()) {
+							if (indexName.equalsIgnoreCase(resultSet.getString("INDEX_NAME"))) {
+								return true;
+							}
+						}
+					}
+				}
+			}
+			return false;
+		} finally {
+			if (DatabaseFSUtil.isConnectionCreatedForEachAction(config)) {
+				connection.close();
+			}
+		}
+	}
+
+	private void log(String message) {
+		if (LOGGING_ENABLED) {
+			System.out.println("DatabaseFSSchemaMigration> " + message);
+		}
+	}
+
+}
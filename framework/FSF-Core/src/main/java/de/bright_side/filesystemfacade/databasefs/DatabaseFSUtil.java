@@ -1,16 +1,22 @@
 package de.bright_side.filesystemfacade.databasefs;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.net.BindException;
+import java.sql.Blob;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLNonTransientConnectionException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 
@@ -19,8 +25,12 @@ import de.bright_side.filesystemfacade.util.FSFFileUtil;
  *
  */
 public class DatabaseFSUtil {
-	private static final String CREATE_TABLE_SQL = getCreateTableSQL();
 	private static final String CREATE_INDEX_SQL = getCreateTableIndexSQL();
+	private static final String ID_TABLE_SUFFIX = "_IDS";
+	private static final String CHUNK_TABLE_SUFFIX = "_CHUNKS";
+	private static final String VERSION_TABLE_SUFFIX = "_VERSION";
+	private static final int TRIES_TO_ALLOCATE_ID_BLOCK = 100;
+	private static final int MAX_ROWS_PER_BATCH = 500;
 	private static final int TRIES_TO_GET_A_CONNECTION = 10;
 	private static final boolean LOGGING_ENABLED = false;
 	
@@ -28,6 +38,16 @@ public class DatabaseFSUtil {
 		if (config.getDbConnection() != null) {
 			return config.getDbConnection();
 		}
+		if (config.getConnectionPool() != null) {
+			return config.getConnectionPool().getConnection();
+		}
+		return createConnection(config);
+	}
+	
+	/**
+	 * opens a new connection with the credentials of the config
+	 */
+	protected static Connection createConnection(DatabaseFSConfig config) throws Exception {
 		Exception lastException = null;
 		for (int triesLeft = TRIES_TO_GET_A_CONNECTION; triesLeft >= 0; triesLeft --) {
 			try{
@@ -56,7 +76,53 @@ public class DatabaseFSUtil {
 		throw lastException;
 	}
 	
-	private static boolean isConnectionCreatedForEachAction(DatabaseFSConfig config) {
+	/**
+	 * @return the dialect of the config. If no dialect is set, it is chosen by the JDBC URL of the config or of the connection and then
+	 * kept in the config
+	 */
+	protected static DatabaseDialect getDialect(DatabaseFSConfig config) throws Exception {
+		if (config.getDialect() == null) {
+			config.setDialect(detectDialect(config));
+		}
+		return config.getDialect();
+	}
+	
+	private static DatabaseDialect detectDialect(DatabaseFSConfig config) throws Exception {
+		String url = config.getDbUrl();
+		if ((url == null) && (config.getDbConnection() != null)) {
+			url = config.getDbConnection().getMetaData().getURL();
+		}
+		DatabaseDialect result = DatabaseDialect.forJdbcUrl(url);
+		if (result == null) {
+			log("detectDialect: unknown database of URL >>" + url + "<<. Using the MariaDB dialect");
+			return new MariaDBDialect();
+		}
+		return result;
+	}
+	
+	/**
+	 * switches off auto commit of a connection which has been created for a stream if the dialect only reads result sets while they are
+	 * consumed within a transaction (see DatabaseDialect.isTransactionNeededForStreaming)
+	 * @return true if auto commit has been switched off so that endStreamingTransaction must be called before the connection is closed
+	 */
+	protected static boolean beginStreamingTransaction(DatabaseFSConfig config, Connection connection) throws Exception {
+		if ((!isConnectionCreatedForEachAction(config)) || (!getDialect(config).isTransactionNeededForStreaming()) || (!connection.getAutoCommit())) {
+			return false;
+		}
+		connection.setAutoCommit(false);
+		return true;
+	}
+	
+	protected static void endStreamingTransaction(Connection connection) throws SQLException {
+		//: the transaction has only been used for reading
+		connection.rollback();
+		connection.setAutoCommit(true);
+	}
+	
+	/**
+	 * @return true if the connection of an action must be closed at the end of the action. A pooled connection is returned to the pool by closing it
+	 */
+	protected static boolean isConnectionCreatedForEachAction(DatabaseFSConfig config) {
 		return config.getDbConnection() == null;
 	}
 	
@@ -64,33 +130,158 @@ public class DatabaseFSUtil {
 		return "CREATE INDEX %2_INDEX_APP_TENANT_PARENT_ID ON %1 (APP, TENANT, PARENT_ID)";
 	}
 	
+	/**
+	 * the index of schema version 2 which lets the database find an item by parent and name and prevents duplicate names in a directory
+	 */
+	protected static String getCreateNameIndexSQL(DatabaseFSConfig config) {
+		String sql = "CREATE UNIQUE INDEX %2_INDEX_APP_TENANT_PARENT_ID_NAME ON %1 (APP, TENANT, PARENT_ID, NAME)";
+		return replaceSchemaAndTable(config, "%1", sql).replace("%2", config.getFileTableName());
+	}
+	
+	/**
+	 * @return true if the file table has the FILE_DATA column which is the case for schema version 1. In schema version 2 the data is only
+	 * stored in the chunk table
+	 */
+	protected static boolean isFileDataColumnAvailable(DatabaseFSConfig config) {
+		return config.getTableSchemaVersion() < DatabaseFSConfig.SCHEMA_VERSION_2;
+	}
+	
+	/**
+	 * @return ", FILE_DATA" if the file table has the FILE_DATA column or an empty string otherwise so that statements which copy
+	 * entries can be used for both schema versions
+	 */
+	private static String getFileDataColumnIfAvailable(DatabaseFSConfig config) {
+		if (isFileDataColumnAvailable(config)) {
+			return ", FILE_DATA";
+		}
+		return "";
+	}
+	
 	protected static long insertEntry(DatabaseFSConfig config, int filetype, String name, long length, long lastModifiedTime, long creationTime, long parentID, byte[] data) throws Exception {
 		Connection connection = null;
+		boolean ownTransaction = false;
 		try {
+			//: the ID is allocated before the connection is taken so that a pooled action does not need two connections at the same time
+			long id = nextID(config);
 			connection = getConnection(config);
-			if (isConnectionCreatedForEachAction(config)) {
+			//: a write to the FILE_DATA column is checked within its transaction (see verifyFileDataWriteAllowed)
+			ownTransaction = (data != null) && (connection.getAutoCommit());
+			if (ownTransaction) {
+				connection.setAutoCommit(false);
+			}
+			insertEntry(config, connection, id, filetype, name, length, lastModifiedTime, creationTime, parentID, data);
+			if (ownTransaction) {
+				connection.commit();
+			}
+			return id;
+		} catch (Exception e) {
+			if (ownTransaction) {
+				connection.rollback();
+			}
+			throw e;
+		} finally {
+			if ((ownTransaction) && (connection != null)) {
+				connection.setAutoCommit(true);
+			}
+			if (connection != null) {
+				if (isConnectionCreatedForEachAction(config)) {
+					connection.close();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * inserts the entry with a single statement so that inserts of a batch can be sent together (see DatabaseFSBatch)
+	 * @param data the data of the file or null if FILE_DATA is to be left empty (directories and files stored in chunks)
+	 */
+	protected static void insertEntry(DatabaseFSConfig config, Connection connection, long id, int filetype, String name, long length, long lastModifiedTime
+			, long creationTime, long parentID, byte[] data) throws Exception {
+		String sql;
+		Object[] values;
+		if (data == null) {
+			sql = "INSERT INTO %1 (APP, TENANT, ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+			values = new Object[] {config.getAppName(), config.getTenantName(), id, filetype, name, length, lastModifiedTime, creationTime, parentID};
+		} else {
+			sql = "INSERT INTO %1 (APP, TENANT, ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID, FILE_DATA) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+			values = new Object[] {config.getAppName(), config.getTenantName(), id, filetype, name, length, lastModifiedTime, creationTime, parentID, data};
+		}
+		processUpdate(config, connection, replaceSchemaAndTable(config, "%1", sql), values);
+		if (data != null) {
+			verifyFileDataWriteAllowed(config, connection);
+		}
+		if (config.getBatch() != null) {
+			config.getBatch().entryInserted(parentID, name, id, filetype == DatabaseFile.FILE_TYPE_DIR);
+		}
+	}
+	
+	/**
+	 * @return true if both configurations point to the same file table in the same database so that data can be copied by the database
+	 */
+	protected static boolean isSameTable(DatabaseFSConfig config, DatabaseFSConfig otherConfig) {
+		if ((config.getDbConnection() != null) || (otherConfig.getDbConnection() != null)) {
+			if (config.getDbConnection() != otherConfig.getDbConnection()) {
+				return false;
+			}
+		} else if ((FSFFileUtil.compareString(config.getDbUrl(), otherConfig.getDbUrl()) != 0) 
+				|| (FSFFileUtil.compareString(config.getDbUserName(), otherConfig.getDbUserName()) != 0)) {
+			return false;
+		}
+		return FSFFileUtil.compareString(getSchemaAndTable(config), getSchemaAndTable(otherConfig)) == 0;
+	}
+	
+	/**
+	 * copies the data of a file to another file in the same table with INSERT ... SELECT so that the data is not transferred from the database.
+	 * If the dest file exists, its entry is replaced while the ID and creation time are kept. The dest file must not be a directory.
+	 * @param sourceConfig configuration of the source file system
+	 * @param sourceID ID of the source file
+	 * @param destConfig configuration of the dest file system which must use the same table (see isSameTable)
+	 * @param destID ID of the existing dest file or a negative value if the dest file does not exist
+	 * @param destName name of the dest file
+	 * @param destParentID ID of the parent directory of the dest file
+	 * @param time time to be used as last modification time (and as creation time for new files)
+	 * @return the ID of the dest file
+	 * @throws Exception on general error
+	 */
+	protected static long copyFileData(DatabaseFSConfig sourceConfig, long sourceID, DatabaseFSConfig destConfig, long destID, String destName, long destParentID, long time) throws Exception {
+		Connection connection = null;
+		try {
+			long id = destID;
+			if (destID < 0) {
+				id = nextID(destConfig);
+			}
+			connection = getConnection(destConfig);
+			if (isConnectionCreatedForEachAction(destConfig)) {
 				connection.setAutoCommit(false);
 			}
 		
 			String sql;
-			sql = replaceSchemaAndTable(config, "%1", "SELECT MAX(ID) FROM %1 WHERE APP=? AND TENANT=?");
-			Long id = processQueryAsValue(config, true, connection, sql, Long.class, config.getAppName(), config.getTenantName());
-			if (id == null) {
-				id = 1L;
-			} else {
-				id++;
+			long creationTime = time;
+			if (destID >= 0) {
+				sql = replaceSchemaAndTable(destConfig, "%1", "SELECT CREATION_TIME FROM %1 WHERE APP = ? AND TENANT = ? AND ID = ?");
+				Long readCreationTime = processQueryAsValue(destConfig, true, connection, sql, Long.class, destConfig.getAppName(), destConfig.getTenantName(), destID);
+				if (readCreationTime != null) {
+					creationTime = readCreationTime;
+				}
+				sql = replaceSchemaAndTable(destConfig, "%1", "DELETE FROM %1 WHERE APP = ? AND TENANT = ? AND ID = ?");
+				processUpdate(destConfig, connection, sql, destConfig.getAppName(), destConfig.getTenantName(), destID);
+				deleteChunks(destConfig, connection, destID);
 			}
 			
-			sql = replaceSchemaAndTable(config, "%1", "INSERT INTO %1 (APP, TENANT, ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
-			sql = sql.replace("%1", getSchemaAndTable(config));
-			Object[] values = new Object[] {config.getAppName(), config.getTenantName(), id, filetype, name, length, lastModifiedTime, creationTime, parentID};
-			processUpdate(config, connection, sql, values);
-			
-			if (data != null) {
-				writeData(config, connection, id, data);
+			String dataColumn = getFileDataColumnIfAvailable(destConfig);
+			sql = replaceSchemaAndTable(destConfig, "%1", "INSERT INTO %1 (APP, TENANT, ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID"
+					+ dataColumn + ") SELECT ?, ?, ?, FILE_TYPE, ?, FILE_LENGTH, ?, ?, ?" + dataColumn + " FROM %1 WHERE APP = ? AND TENANT = ? AND ID = ?");
+			processUpdate(destConfig, connection, sql, destConfig.getAppName(), destConfig.getTenantName(), id, destName, time, creationTime, destParentID
+					, sourceConfig.getAppName(), sourceConfig.getTenantName(), sourceID);
+			if (destConfig.isChunkTableAvailable()) {
+				sql = "INSERT INTO " + getSchemaAndChunkTable(destConfig) + " (APP, TENANT, FILE_ID, SEQ, CHUNK_OFFSET, CHUNK_LENGTH, CHUNK_DATA)"
+						+ " SELECT ?, ?, ?, SEQ, CHUNK_OFFSET, CHUNK_LENGTH, CHUNK_DATA FROM " + getSchemaAndChunkTable(destConfig) 
+						+ " WHERE APP = ? AND TENANT = ? AND FILE_ID = ?";
+				processUpdate(destConfig, connection, sql, destConfig.getAppName(), destConfig.getTenantName(), id, sourceConfig.getAppName()
+						, sourceConfig.getTenantName(), sourceID);
 			}
 			
-			if (isConnectionCreatedForEachAction(config)) {
+			if (isConnectionCreatedForEachAction(destConfig)) {
 				connection.commit();
 			}
 			return id;
@@ -98,39 +289,476 @@ public class DatabaseFSUtil {
 			throw e;
 		} finally {
 			if (connection != null) {
-				if (isConnectionCreatedForEachAction(config)) {
+				if (isConnectionCreatedForEachAction(destConfig)) {
 					connection.close();
 				}
 			}
 		}
 	}
 	
+	/**
+	 * resolves the IDs of a path below a directory with a single query which joins the table once per name. The joins are outer joins 
+	 * so that the IDs of the existing part of the path are known even if the complete path does not exist.
+	 * @param config the configuration
+	 * @param parentID ID of the directory which contains the first name
+	 * @param names the names of the path below the directory
+	 * @return the IDs of the names as far as they exist: the result is shorter than the list of names if a name does not exist
+	 * @throws Exception on general error
+	 */
+	protected static long[] readIDsOfPath(DatabaseFSConfig config, long parentID, List<String> names) throws Exception {
+		StringBuilder sql = new StringBuilder("SELECT T0.ID");
+		for (int i = 1; i < names.size(); i++) {
+			sql.append(", T" + i + ".ID");
+		}
+		sql.append(" FROM %1 T0");
+		for (int i = 1; i < names.size(); i++) {
+			sql.append(" LEFT JOIN %1 T" + i + " ON T" + i + ".APP = T0.APP AND T" + i + ".TENANT = T0.TENANT AND T" + i + ".PARENT_ID = T" 
+					+ (i - 1) + ".ID AND T" + i + ".NAME = ?");
+		}
+		sql.append(" WHERE T0.APP = ? AND T0.TENANT = ? AND T0.PARENT_ID = ? AND T0.NAME = ?");
+		
+		//: the parameters of the joins come before the parameters of the where clause
+		List<Object> values = new ArrayList<>();
+		values.addAll(names.subList(1, names.size()));
+		values.add(config.getAppName());
+		values.add(config.getTenantName());
+		values.add(parentID);
+		values.add(names.get(0));
+
+		final int numberOfNames = names.size();
+		final List<Long> result = new ArrayList<>();
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				if (!resultSet.next()) {
+					return;
+				}
+				for (int i = 1; i <= numberOfNames; i++) {
+					long id = resultSet.getLong(i);
+					if (resultSet.wasNull()) {
+						return;
+					}
+					result.add(id);
+				}
+			}
+		};
+		processQuery(config, true, replaceSchemaAndTable(config, "%1", sql.toString()), processor, values.toArray());
+		long[] ids = new long[result.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = result.get(i);
+		}
+		return ids;
+	}
+	
+	/**
+	 * @return the ID for a new entry from the ID allocator of the config or the highest existing ID + 1 if the ID table is disabled (see 
+	 * DatabaseFSConfig.setIdBlockSize)
+	 */
+	protected static long nextID(DatabaseFSConfig config) throws Exception {
+		if (config.getIdAllocator() != null) {
+			return config.getIdAllocator().nextID();
+		}
+		Connection connection = null;
+		try {
+			connection = getConnection(config);
+			return readMaxID(config, connection) + 1;
+		} finally {
+			if ((isConnectionCreatedForEachAction(config)) && (connection != null)){
+				connection.close();
+			}
+		}
+	}
+	
+	/**
+	 * @param count number of IDs needed
+	 * @return the first of count consecutive IDs for new entries
+	 */
+	private static long nextIDs(DatabaseFSConfig config, int count) throws Exception {
+		if (config.getIdAllocator() != null) {
+			return config.getIdAllocator().nextIDs(count);
+		}
+		return nextID(config);
+	}
+	
+	/**
+	 * @return the highest ID of the app and tenant or 0 (the ID of the root) if there are no entries
+	 */
+	private static long readMaxID(DatabaseFSConfig config, Connection connection) throws Exception {
+		String sql = replaceSchemaAndTable(config, "%1", "SELECT MAX(ID) FROM %1 WHERE APP=? AND TENANT=?");
+		Long id = processQueryAsValue(config, true, connection, sql, Long.class, config.getAppName(), config.getTenantName());
+		if (id == null) {
+			return 0L;
+		}
+		return id;
+	}
+	
+	/**
+	 * reserves a block of IDs for the app and tenant in the ID table. The next free ID is read and only replaced if it has not been changed
+	 * in the meantime so that concurrent DatabaseFS instances never get overlapping blocks without having to lock the table. If there is
+	 * no entry for the app and tenant yet, the first block starts after the highest existing ID of the file table.
+	 * If the dialect can reserve the block with a single statement (see DatabaseDialect.allocateIDBlock), that is used instead.
+	 * @param config the configuration
+	 * @param size number of IDs to reserve
+	 * @return the first ID of the reserved block
+	 * @throws Exception on general error or if the block could not be reserved because of too many concurrent reservations
+	 */
+	protected static long allocateIDBlock(DatabaseFSConfig config, int size) throws Exception {
+		String idTable = getSchemaAndIDTable(config);
+		String selectSQL = "SELECT NEXT_ID FROM " + idTable + " WHERE APP = ? AND TENANT = ?";
+		String updateSQL = "UPDATE " + idTable + " SET NEXT_ID = ? WHERE APP = ? AND TENANT = ? AND NEXT_ID = ?";
+		String insertSQL = "INSERT INTO " + idTable + " (APP, TENANT, NEXT_ID) VALUES (?, ?, ?)";
+		Connection connection = null;
+		try {
+			connection = getConnection(config);
+			Long firstIDOfBlock = getDialect(config).allocateIDBlock(connection, idTable, config.getAppName(), config.getTenantName(), size);
+			if (firstIDOfBlock != null) {
+				return firstIDOfBlock;
+			}
+			for (int triesLeft = TRIES_TO_ALLOCATE_ID_BLOCK; triesLeft > 0; triesLeft --) {
+				Long nextID = processQueryAsValue(config, true, connection, selectSQL, Long.class, config.getAppName(), config.getTenantName());
+				if (nextID == null) {
+					long firstID = readMaxID(config, connection) + 1;
+					try {
+						processUpdate(config, connection, insertSQL, config.getAppName(), config.getTenantName(), firstID + size);
+						return firstID;
+					} catch (Exception e) {
+						//: another DatabaseFS may have inserted the entry in the meantime. Otherwise the insert has failed for another reason
+						if (processQueryAsValue(config, true, connection, selectSQL, Long.class, config.getAppName(), config.getTenantName()) == null) {
+							throw new Exception("Could not create the entry in the ID table", e);
+						}
+					}
+				} else if (processUpdate(config, connection, updateSQL, nextID + size, config.getAppName(), config.getTenantName(), nextID) == 1) {
+					return nextID;
+				}
+				log("allocateIDBlock: block was reserved by another DatabaseFS. tries left: " + triesLeft);
+			}
+		} finally {
+			if ((isConnectionCreatedForEachAction(config)) && (connection != null)){
+				connection.close();
+			}
+		}
+		throw new Exception("Could not reserve IDs in the ID table after " + TRIES_TO_ALLOCATE_ID_BLOCK + " tries");
+	}
+	
+	/**
+	 * @return true if the database supports the recursive query of DatabaseDialect.getTreeSQL
+	 */
+	protected static boolean isRecursiveQuerySupported(DatabaseFSConfig config) throws Exception {
+		Connection connection = getConnection(config);
+		try {
+			return getDialect(config).isRecursiveQuerySupported(connection.getMetaData());
+		} finally {
+			if (isConnectionCreatedForEachAction(config)) {
+				connection.close();
+			}
+		}
+	}
+	
+	/**
+	 * lists all items below the directory with a single recursive query. Must only be used if config.isRecursiveQuerySupported()
+	 * @param config the configuration
+	 * @param dirID ID of the directory
+	 * @param processor processor of the result set with the columns of the file table except FILE_DATA. The parent of an item comes before the item
+	 * @throws Exception on general error
+	 */
+	protected static void processTreeQuery(DatabaseFSConfig config, long dirID, ResultSetProcessor processor) throws Exception {
+		String columns = "ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID";
+		String sql = getDialect(config).getTreeSQL(getSchemaAndTable(config), columns);
+		processQuery(config, true, sql, processor, config.getAppName(), config.getTenantName(), dirID, config.getAppName(), config.getTenantName());
+	}
+	
+	/**
+	 * @return the IDs of all items below the directory and their parent IDs (index 0: ID, index 1: parent ID, index 2: file type)
+	 */
+	private static List<long[]> readTreeIDs(DatabaseFSConfig config, long dirID) throws Exception {
+		final List<long[]> result = new ArrayList<>();
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				while (resultSet.next()) {
+					result.add(new long[] {resultSet.getLong("ID"), resultSet.getLong("PARENT_ID"), resultSet.getInt("FILE_TYPE")});
+				}
+			}
+		};
+		processTreeQuery(config, dirID, processor);
+		return result;
+	}
+	
+	/**
+	 * deletes the entry and all entries below it (and their chunks) in one transaction
+	 * @param config the configuration
+	 * @param id ID of the entry to be deleted
+	 * @throws Exception on general error
+	 */
+	protected static void deleteTree(DatabaseFSConfig config, long id) throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (long[] i: readTreeIDs(config, id)) {
+			ids.add(i[0]);
+		}
+		ids.add(id);
+		deleteEntriesWithChunks(config, ids);
+	}
+	
+	/**
+	 * deletes the entry and its chunks in one transaction so that no chunks remain which a new file with the same ID would inherit
+	 * @param config the configuration
+	 * @param id ID of the entry to be deleted
+	 * @throws Exception on general error
+	 */
+	protected static void deleteEntry(DatabaseFSConfig config, long id) throws Exception {
+		List<Long> ids = new ArrayList<>();
+		ids.add(id);
+		deleteEntriesWithChunks(config, ids);
+	}
+	
+	/**
+	 * deletes the entries and their chunks in one transaction. If the connection is already in a transaction (e.g. of a batch), the
+	 * entries are deleted within that transaction
+	 */
+	private static void deleteEntriesWithChunks(DatabaseFSConfig config, List<Long> ids) throws Exception {
+		Connection connection = null;
+		boolean ownTransaction = false;
+		try {
+			connection = getConnection(config);
+			ownTransaction = connection.getAutoCommit();
+			if (ownTransaction) {
+				connection.setAutoCommit(false);
+			}
+			deleteEntries(config, connection, getSchemaAndTable(config), "ID", ids);
+			if (config.isChunkTableAvailable()) {
+				deleteEntries(config, connection, getSchemaAndChunkTable(config), "FILE_ID", ids);
+			}
+			if (ownTransaction) {
+				connection.commit();
+			}
+		} catch (Exception e) {
+			if (ownTransaction) {
+				connection.rollback();
+			}
+			throw e;
+		} finally {
+			if ((ownTransaction) && (connection != null)) {
+				connection.setAutoCommit(true);
+			}
+			if ((isConnectionCreatedForEachAction(config)) && (connection != null)){
+				connection.close();
+			}
+		}
+	}
+	
+	/**
+	 * deletes the rows of the app and tenant with the given IDs by statements which each delete up to MAX_ROWS_PER_BATCH rows
+	 */
+	private static void deleteEntries(DatabaseFSConfig config, Connection connection, String table, String idColumn, List<Long> ids) throws Exception {
+		for (int start = 0; start < ids.size(); start += MAX_ROWS_PER_BATCH) {
+			List<Long> idsOfStatement = ids.subList(start, Math.min(ids.size(), start + MAX_ROWS_PER_BATCH));
+			StringBuilder sql = new StringBuilder("DELETE FROM " + table + " WHERE APP = ? AND TENANT = ? AND " + idColumn + " IN (?");
+			for (int i = 1; i < idsOfStatement.size(); i++) {
+				sql.append(", ?");
+			}
+			sql.append(")");
+			List<Object> values = new ArrayList<>();
+			values.add(config.getAppName());
+			values.add(config.getTenantName());
+			values.addAll(idsOfStatement);
+			processUpdate(config, connection, sql.toString(), values.toArray());
+		}
+	}
+	
+	/**
+	 * copies all items below the source directory into the dest directory with INSERT ... SELECT statements so that the data is not transferred
+	 * from the database. The new entries get new IDs and keep their last modification time. The dest directory must not contain items with
+	 * the same names and must use the same table (see isSameTable)
+	 * @param sourceConfig configuration of the source file system
+	 * @param sourceDirID ID of the source directory
+	 * @param destConfig configuration of the dest file system
+	 * @param destDirID ID of the dest directory
+	 * @param time time to be used as creation time of the new entries
+	 * @return number of copied entries
+	 * @throws Exception on general error
+	 */
+	protected static int copyTree(DatabaseFSConfig sourceConfig, long sourceDirID, DatabaseFSConfig destConfig, long destDirID, long time) throws Exception {
+		List<long[]> items = readTreeIDs(sourceConfig, sourceDirID);
+		if (items.isEmpty()) {
+			return 0;
+		}
+		long nextNewID = nextIDs(destConfig, items.size());
+		Map<Long, Long> sourceToDestIDMap = new HashMap<>();
+		sourceToDestIDMap.put(sourceDirID, destDirID);
+
+		String dataColumn = getFileDataColumnIfAvailable(destConfig);
+		String insertSQL = replaceSchemaAndTable(destConfig, "%1", "INSERT INTO %1 (APP, TENANT, ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME"
+				+ ", CREATION_TIME, PARENT_ID" + dataColumn + ") SELECT ?, ?, ?, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, ?, ?" + dataColumn + " FROM %1"
+				+ " WHERE APP = ? AND TENANT = ? AND ID = ?");
+		String chunkTable = getSchemaAndChunkTable(destConfig);
+		String insertChunksSQL = "INSERT INTO " + chunkTable + " (APP, TENANT, FILE_ID, SEQ, CHUNK_OFFSET, CHUNK_LENGTH, CHUNK_DATA)"
+				+ " SELECT ?, ?, ?, SEQ, CHUNK_OFFSET, CHUNK_LENGTH, CHUNK_DATA FROM " + chunkTable + " WHERE APP = ? AND TENANT = ? AND FILE_ID = ?";
+		Connection connection = null;
+		try {
+			connection = getConnection(destConfig);
+			if (isConnectionCreatedForEachAction(destConfig)) {
+				connection.setAutoCommit(false);
+			}
+			try (PreparedStatement insertStatement = connection.prepareStatement(insertSQL); 
+					PreparedStatement insertChunksStatement = destConfig.isChunkTableAvailable() ? connection.prepareStatement(insertChunksSQL) : null) {
+				int rowsInBatch = 0;
+				for (long[] i: items) {
+					long sourceID = i[0];
+					Long destParentID = sourceToDestIDMap.get(i[1]);
+					if (destParentID == null) {
+						throw new Exception("The parent of the entry with ID " + sourceID + " has not been copied");
+					}
+					long destID = nextNewID ++;
+					sourceToDestIDMap.put(sourceID, destID);
+					addBatch(insertStatement, destConfig.getAppName(), destConfig.getTenantName(), destID, time, destParentID
+							, sourceConfig.getAppName(), sourceConfig.getTenantName(), sourceID);
+					if ((insertChunksStatement != null) && (i[2] != DatabaseFile.FILE_TYPE_DIR)) {
+						addBatch(insertChunksStatement, destConfig.getAppName(), destConfig.getTenantName(), destID
+								, sourceConfig.getAppName(), sourceConfig.getTenantName(), sourceID);
+					}
+					rowsInBatch ++;
+					if (rowsInBatch >= MAX_ROWS_PER_BATCH) {
+						executeBatches(insertStatement, insertChunksStatement);
+						rowsInBatch = 0;
+					}
+				}
+				if (rowsInBatch > 0) {
+					executeBatches(insertStatement, insertChunksStatement);
+				}
+			}
+			if (isConnectionCreatedForEachAction(destConfig)) {
+				connection.commit();
+			}
+			return items.size();
+		} catch (Exception e) {
+			throw e;
+		} finally {
+			if ((isConnectionCreatedForEachAction(destConfig)) && (connection != null)){
+				connection.close();
+			}
+		}
+	}
+	
+	private static void executeBatches(PreparedStatement... statements) throws Exception {
+		for (PreparedStatement i: statements) {
+			if (i != null) {
+				i.executeBatch();
+			}
+		}
+	}
+	
+	protected static void addBatch(PreparedStatement statement, Object...values) throws Exception {
+		int index = 1;
+		for (Object i: values) {
+			setValue(statement, index, i);
+			index ++;
+		}
+		statement.addBatch();
+	}
+	
 	protected static void deleteAllItemsInFileTable(DatabaseFSConfig config) throws Exception {
 		String sql = replaceSchemaAndTable(config, "%1", "delete from %1");
 		processUpdate(config, sql);
+		if (doesChunkTableExist(config)) {
+			processUpdate(config, "delete from " + getSchemaAndChunkTable(config));
+		}
 	}
 	
 	protected static void dropFileTable(DatabaseFSConfig config) throws Exception {
 		String sql = replaceSchemaAndTable(config, "%1", "drop table %1");
 		processUpdate(config, sql);
+		if (doesIDTableExist(config)) {
+			processUpdate(config, "drop table " + getSchemaAndIDTable(config));
+		}
+		if (doesChunkTableExist(config)) {
+			processUpdate(config, "drop table " + getSchemaAndChunkTable(config));
+		}
+		if (doesVersionTableExist(config)) {
+			processUpdate(config, "drop table " + getSchemaAndVersionTable(config));
+		}
 	}
 	
+	public static void createChunkTable(DatabaseFSConfig config) throws Exception {
+		String sql = getCreateChunkTableSQL(getDialect(config)).replace("%1", getSchemaAndChunkTable(config));
+		try {
+			processUpdate(config, sql);
+		} catch (Exception e) {
+			throw new Exception("Could not create chunk table by SQL >>" + sql + "<<", e);
+		}
+	}
+	
+	public static void createIDTable(DatabaseFSConfig config) throws Exception {
+		String sql = getCreateIDTableSQL(getDialect(config)).replace("%1", getSchemaAndIDTable(config));
+		try {
+			processUpdate(config, sql);
+		} catch (Exception e) {
+			throw new Exception("Could not create ID table by SQL >>" + sql + "<<", e);
+		}
+	}
+	
+	/**
+	 * creates the file table in the schema version of the config (see DatabaseFSConfig.setSchemaVersion). For schema version 2 the version
+	 * table is created as well
+	 */
 	public static void createFileTable(DatabaseFSConfig config) throws Exception {
-		String sql;
-		sql = replaceSchemaAndTable(config, "%1", CREATE_TABLE_SQL);
+		int schemaVersion = config.getSchemaVersion();
+		if ((schemaVersion != DatabaseFSConfig.SCHEMA_VERSION_1) && (schemaVersion != DatabaseFSConfig.SCHEMA_VERSION_2)) {
+			throw new Exception("Unsupported schema version: " + schemaVersion);
+		}
+		boolean withFileData = schemaVersion == DatabaseFSConfig.SCHEMA_VERSION_1;
+		String sql = replaceSchemaAndTable(config, "%1", getCreateTableSQL(getDialect(config), withFileData));
 		try {
 			processUpdate(config, sql);
 		} catch (Exception e) {
 			throw new Exception("Could not create table by SQL >>" + sql + "<<", e);
 		}
 
-		sql = replaceSchemaAndTable(config, "%1", CREATE_INDEX_SQL);
-		sql = sql.replace("%2", config.getFileTableName());
+		if (schemaVersion == DatabaseFSConfig.SCHEMA_VERSION_2) {
+			sql = getCreateNameIndexSQL(config);
+		} else {
+			sql = replaceSchemaAndTable(config, "%1", CREATE_INDEX_SQL);
+			sql = sql.replace("%2", config.getFileTableName());
+		}
 		try {
 			processUpdate(config, sql);
 		} catch (Exception e) {
 			throw new Exception("Could not create table index by SQL >>" + sql + "<<");
 		}
+		
+		if (schemaVersion == DatabaseFSConfig.SCHEMA_VERSION_2) {
+			createVersionTable(config, schemaVersion);
+		}
+	}
+	
+	/**
+	 * creates the version table which marks the schema version of the file table. The version table also stores the progress of a
+	 * migration (see DatabaseFSSchemaMigration)
+	 */
+	protected static void createVersionTable(DatabaseFSConfig config, int schemaVersion) throws Exception {
+		String sql = getCreateVersionTableSQL(getDialect(config)).replace("%1", getSchemaAndVersionTable(config));
+		try {
+			processUpdate(config, sql);
+		} catch (Exception e) {
+			throw new Exception("Could not create version table by SQL >>" + sql + "<<", e);
+		}
+		//: the migration position is before the first entry
+		sql = "INSERT INTO " + getSchemaAndVersionTable(config) + " (SCHEMA_VERSION, MIGRATION_STEP, MIGRATION_APP, MIGRATION_TENANT, MIGRATION_ID)"
+				+ " VALUES (?, ?, ?, ?, ?)";
+		processUpdate(config, sql, schemaVersion, 0, "", "", -1L);
+	}
+	
+	/**
+	 * @return the schema version from the version table or 1 if there is no version table
+	 */
+	protected static int readSchemaVersion(DatabaseFSConfig config) throws Exception {
+		if (!doesVersionTableExist(config)) {
+			return DatabaseFSConfig.SCHEMA_VERSION_1;
+		}
+		Long result = processQueryAsValue(config, "SELECT MAX(SCHEMA_VERSION) FROM " + getSchemaAndVersionTable(config), Long.class);
+		if (result == null) {
+			return DatabaseFSConfig.SCHEMA_VERSION_1;
+		}
+		return result.intValue();
 	}
 	
 	private static void logException(String info, int triesLeft, Exception e) {
@@ -140,17 +768,32 @@ public class DatabaseFSUtil {
 
 
 	protected static Long listOpenConnectionsOfCofingUser(DatabaseFSConfig config) throws Exception {
-		return processQueryAsValue(config, true, "SELECT COUNT(*) FROM information_schema.PROCESSLIST where user = ?", Long.class, config.getDbUserName());
+		return processQueryAsValue(config, true, getDialect(config).getOpenConnectionsSQL(), Long.class, config.getDbUserName());
 	}
 	
 	protected static void writeData(DatabaseFSConfig config, long id, boolean append, byte[] data, long timeLastModified) throws Exception {
 		Connection connection = null;
+		boolean ownTransaction = false;
 		try {
 			connection = getConnection(config);
+			//: the write is checked within its transaction (see verifyFileDataWriteAllowed)
+			ownTransaction = connection.getAutoCommit();
+			if (ownTransaction) {
+				connection.setAutoCommit(false);
+			}
 			writeData(config, connection, id, append, data, timeLastModified);
+			if (ownTransaction) {
+				connection.commit();
+			}
 		} catch (Exception e) {
+			if (ownTransaction) {
+				connection.rollback();
+			}
 			throw e;
 		} finally {
+			if ((ownTransaction) && (connection != null)) {
+				connection.setAutoCommit(true);
+			}
 			if ((isConnectionCreatedForEachAction(config)) && (connection != null)){
 				connection.close();
 			}
@@ -171,7 +814,8 @@ public class DatabaseFSUtil {
 		}
 		
 		try (PreparedStatement statement = connection.prepareStatement(sql)) {
-			statement.setBinaryStream(1, new ByteArrayInputStream(useData));
+			//: with the length the driver does not need to buffer the stream to determine it
+			statement.setBinaryStream(1, new ByteArrayInputStream(useData), useData.length);
 			statement.setLong(2, timeLastModified);
 			statement.setLong(3, useData.length);
 			statement.setString(4, config.getAppName());
@@ -180,23 +824,48 @@ public class DatabaseFSUtil {
 			statement.executeUpdate();
 		} catch (Exception e) {
 			throw e;
-		}		
+		}
+		verifyFileDataWriteAllowed(config, connection);
+		//: the file may have been written in chunks before
+		deleteChunks(config, connection, id);
 	}
-
 	
-	protected static void writeData(DatabaseFSConfig config, Connection connection, long id, byte[] data) throws Exception {
-		String sql = "UPDATE %1 SET FILE_DATA = ? WHERE APP = ? AND TENANT = ? AND ID = ?";
-		sql = sql.replace("%1", getSchemaAndTable(config));
-
-		try (PreparedStatement statement = connection.prepareStatement(sql)) {
-			statement.setBinaryStream(1, new ByteArrayInputStream(data));
-			statement.setString(2, config.getAppName());
-			statement.setString(3, config.getTenantName());
-			statement.setLong(4, id);
-			statement.executeUpdate();
-		} catch (Exception e) {
-			throw e;
-		}		
+	/**
+	 * called after a write to the FILE_DATA column in the transaction of the write. If a DatabaseFSSchemaMigration is about to drop the column,
+	 * the write is refused. Otherwise the row of the version table stays locked until the write is committed, so the migration cannot
+	 * enter the step which drops the column before it can see the written data. The lock is taken after the write so that the locks are
+	 * acquired in the same order as by the migration which locks the version table after the rows of the file table
+	 * @throws Exception if the migration is in the step which drops the FILE_DATA column or has already dropped it
+	 */
+	private static void verifyFileDataWriteAllowed(DatabaseFSConfig config, Connection connection) throws Exception {
+		if (!doesTableExist(config, connection, config.getFileTableName() + VERSION_TABLE_SUFFIX)) {
+			return;
+		}
+		String sql = "SELECT MIGRATION_STEP FROM " + getSchemaAndVersionTable(config) + " FOR UPDATE";
+		Integer step = processQueryAsValue(config, true, connection, sql, Integer.class);
+		if ((step != null) && (step.intValue() >= DatabaseFSSchemaMigration.STEP_DROP_DATA_COLUMN)) {
+			throw new Exception("The FILE_DATA column is removed by the migration to schema version 2. A chunk size must be set so that "
+					+ "the data is written to the chunk table");
+		}
+	}
+	
+	/**
+	 * checks via the meta data of the connection whether the table exists so that a running transaction is not affected by a failing statement
+	 */
+	private static boolean doesTableExist(DatabaseFSConfig config, Connection connection, String tableName) throws Exception {
+		DatabaseMetaData metaData = connection.getMetaData();
+		//: depending on the database, the schema name is the catalog or the schema
+		String[][] catalogsAndSchemas = new String[][] {{config.getSchemaName(), null}, {null, config.getSchemaName()}};
+		for (String[] i: catalogsAndSchemas) {
+			for (String table: new String[] {tableName, tableName.toUpperCase(), tableName.toLowerCase()}) {
+				try (ResultSet resultSet = metaData.getTables(i[0], i[1], table, null)) {
+					if (resultSet.next()) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
 	}
 	
 	protected static byte[] readData(DatabaseFSConfig config, long id) throws Exception {
@@ -214,6 +883,9 @@ public class DatabaseFSUtil {
 	}
 	
 	protected static byte[] readData(DatabaseFSConfig config, Connection connection, long id) throws Exception {
+		if (!isFileDataColumnAvailable(config)) {
+			return readChunks(config, connection, id);
+		}
 		String sql = "SELECT FILE_DATA FROM %1 WHERE APP = ? AND TENANT = ? AND ID = ?";
 		sql = sql.replace("%1", getSchemaAndTable(config));
 		
@@ -226,6 +898,10 @@ public class DatabaseFSUtil {
 					return null;
 				}
 				InputStream inputStream = resultSet.getBinaryStream(1);
+				if (inputStream == null) {
+					//: the data is stored in chunks
+					return readChunks(config, connection, id);
+				}
 				return FSFFileUtil.readAllBytes(inputStream);
 			} catch (Exception e) {
 				throw e;
@@ -235,24 +911,259 @@ public class DatabaseFSUtil {
 		}		
 	}
 	
-	private static String getCreateTableSQL() {
+	private static byte[] readChunks(DatabaseFSConfig config, Connection connection, long id) throws Exception {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		if (!isChunkTableAvailableForReading(config)) {
+			return result.toByteArray();
+		}
+		String sql = "SELECT CHUNK_DATA FROM " + getSchemaAndChunkTable(config) + " WHERE APP = ? AND TENANT = ? AND FILE_ID = ? ORDER BY SEQ";
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				while (resultSet.next()) {
+					result.write(resultSet.getBytes(1));
+				}
+			}
+		};
+		processQuery(config, true, connection, sql, processor, config.getAppName(), config.getTenantName(), id);
+		return result.toByteArray();
+	}
+	
+	/**
+	 * reads only the chunks which overlap with the given range
+	 */
+	/**
+	 * reads the chunks of the range together with the entry of the file table so that the query also tells whether the entry exists
+	 * @return the data of the range or null if there is no entry with the ID
+	 */
+	private static byte[] readChunkRangeOfEntry(DatabaseFSConfig config, Connection connection, long id, final long offset, final long length) throws Exception {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final boolean[] entryFound = new boolean[1];
+		String sql = "SELECT C.CHUNK_OFFSET, C.CHUNK_DATA FROM " + getSchemaAndTable(config) + " F LEFT JOIN " + getSchemaAndChunkTable(config)
+				+ " C ON C.APP = F.APP AND C.TENANT = F.TENANT AND C.FILE_ID = F.ID AND C.CHUNK_OFFSET < ? AND C.CHUNK_OFFSET + C.CHUNK_LENGTH > ?"
+				+ " WHERE F.APP = ? AND F.TENANT = ? AND F.ID = ? ORDER BY C.SEQ";
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				while (resultSet.next()) {
+					entryFound[0] = true;
+					byte[] data = resultSet.getBytes(2);
+					if (data != null) {
+						long chunkOffset = resultSet.getLong(1);
+						int start = (int)Math.max(0, offset - chunkOffset);
+						int end = (int)Math.min(data.length, offset + length - chunkOffset);
+						result.write(data, start, end - start);
+					}
+				}
+			}
+		};
+		processQuery(config, true, connection, sql, processor, offset + length, offset, config.getAppName(), config.getTenantName(), id);
+		if (!entryFound[0]) {
+			return null;
+		}
+		return result.toByteArray();
+	}
+	
+	private static byte[] readChunkRange(DatabaseFSConfig config, Connection connection, long id, final long offset, final long length) throws Exception {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		if (!isChunkTableAvailableForReading(config)) {
+			return result.toByteArray();
+		}
+		String sql = "SELECT CHUNK_OFFSET, CHUNK_DATA FROM " + getSchemaAndChunkTable(config) + " WHERE APP = ? AND TENANT = ? AND FILE_ID = ?"
+				+ " AND CHUNK_OFFSET < ? AND CHUNK_OFFSET + CHUNK_LENGTH > ? ORDER BY SEQ";
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				while (resultSet.next()) {
+					long chunkOffset = resultSet.getLong(1);
+					byte[] data = resultSet.getBytes(2);
+					int start = (int)Math.max(0, offset - chunkOffset);
+					int end = (int)Math.min(data.length, offset + length - chunkOffset);
+					result.write(data, start, end - start);
+				}
+			}
+		};
+		processQuery(config, true, connection, sql, processor, config.getAppName(), config.getTenantName(), id, offset + length, offset);
+		return result.toByteArray();
+	}
+	
+	/**
+	 * @return true if the chunk table exists. If it did not exist when the DatabaseFS was created, the check is repeated because a 
+	 * migration (see DatabaseFSSchemaMigration) may have moved the data of files into the chunk table in the meantime
+	 */
+	protected static boolean isChunkTableAvailableForReading(DatabaseFSConfig config) throws Exception {
+		if (!config.isChunkTableAvailable()) {
+			config.setChunkTableAvailable(doesChunkTableExist(config));
+		}
+		return config.isChunkTableAvailable();
+	}
+	
+	/**
+	 * deletes the chunks of the file if there is a chunk table
+	 */
+	protected static void deleteChunks(DatabaseFSConfig config, Connection connection, long id) throws Exception {
+		if (!config.isChunkTableAvailable()) {
+			return;
+		}
+		processUpdate(config, connection, "DELETE FROM " + getSchemaAndChunkTable(config) + " WHERE APP = ? AND TENANT = ? AND FILE_ID = ?"
+				, config.getAppName(), config.getTenantName(), id);
+	}
+	
+	protected static byte[] readDataRange(DatabaseFSConfig config, long id, long offset, long length) throws Exception {
+		Connection connection = null;
+		try {
+			connection = getConnection(config);
+			return readDataRange(config, connection, id, offset, length);
+		} catch (Exception e) {
+			throw e;
+		} finally {
+			if ((isConnectionCreatedForEachAction(config)) && (connection != null)){
+				connection.close();
+			}
+		}
+	}
+	
+	/**
+	 * reads only the given range of the data so that the rest of the BLOB is not transferred from the database
+	 * @return the data of the range or null if there is no entry with the ID
+	 */
+	protected static byte[] readDataRange(DatabaseFSConfig config, Connection connection, long id, long offset, long length) throws Exception {
+		if (!isFileDataColumnAvailable(config)) {
+			return readChunkRangeOfEntry(config, connection, id, offset, length);
+		}
+		String rangeSQL = getDialect(config).getBlobRangeSQL("FILE_DATA");
+		if (rangeSQL == null) {
+			return readDataRangeFromBlob(config, connection, id, offset, length);
+		}
+		String sql = "SELECT " + rangeSQL + " FROM %1 WHERE APP = ? AND TENANT = ? AND ID = ?";
+		sql = sql.replace("%1", getSchemaAndTable(config));
+		
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			//: SUBSTRING counts from 1
+			statement.setLong(1, offset + 1);
+			statement.setLong(2, length);
+			statement.setString(3, config.getAppName());
+			statement.setString(4, config.getTenantName());
+			statement.setLong(5, id);
+			try (ResultSet resultSet = statement.executeQuery()){
+				if (!resultSet.next()) {
+					return null;
+				}
+				InputStream inputStream = resultSet.getBinaryStream(1);
+				if (inputStream == null) {
+					//: the data is stored in chunks
+					return readChunkRange(config, connection, id, offset, length);
+				}
+				return FSFFileUtil.readAllBytes(inputStream);
+			} catch (Exception e) {
+				throw e;
+			}
+		} catch (Exception e) {
+			throw e;
+		}		
+	}
+	
+	/**
+	 * reads the range via java.sql.Blob for dialects which cannot select a part of a BLOB by SQL (see DatabaseDialect.getBlobRangeSQL)
+	 */
+	private static byte[] readDataRangeFromBlob(DatabaseFSConfig config, Connection connection, long id, long offset, long length) throws Exception {
+		String sql = replaceSchemaAndTable(config, "%1", "SELECT FILE_DATA FROM %1 WHERE APP = ? AND TENANT = ? AND ID = ?");
+		try (PreparedStatement statement = prepareForwardOnlyStatement(connection, sql, 1, config.getAppName(), config.getTenantName(), id);
+				ResultSet resultSet = statement.executeQuery()){
+			if (!resultSet.next()) {
+				return null;
+			}
+			Blob blob = resultSet.getBlob(1);
+			if (blob == null) {
+				//: the data is stored in chunks
+				return readChunkRange(config, connection, id, offset, length);
+			}
+			try {
+				long useLength = Math.max(0, Math.min(length, blob.length() - offset));
+				if (useLength == 0) {
+					return new byte[0];
+				}
+				//: the position of getBinaryStream counts from 1
+				return FSFFileUtil.readAllBytes(blob.getBinaryStream(offset + 1, useLength));
+			} finally {
+				blob.free();
+			}
+		}
+	}
+	
+	/**
+	 * @param withFileData true for schema version 1 which stores the data in the file table
+	 */
+	private static String getCreateTableSQL(DatabaseDialect dialect, boolean withFileData) {
 		StringBuilder sb = new StringBuilder();
 		sb.append("CREATE TABLE %1 (\n");
 		sb.append("    APP VARCHAR(256) NOT NULL,\n");
 		sb.append("    TENANT VARCHAR(256) NOT NULL,\n");
-		sb.append("    ID BIGINT(20) NOT NULL,\n");
-		sb.append("    FILE_TYPE INT(10) NOT NULL,\n");
+		sb.append("    ID " + dialect.getBigIntType() + " NOT NULL,\n");
+		sb.append("    FILE_TYPE " + dialect.getIntType() + " NOT NULL,\n");
 		sb.append("    NAME VARCHAR(1024) NOT NULL,\n");
-		sb.append("    FILE_LENGTH BIGINT(20) NULL DEFAULT NULL,\n");
-		sb.append("    LAST_MODIFICATION_TIME BIGINT(20) NOT NULL,\n");
-		sb.append("    CREATION_TIME BIGINT(20) NOT NULL,\n");
-		sb.append("    PARENT_ID BIGINT(20) NOT NULL,\n");
-		sb.append("    FILE_DATA LONGBLOB,\n");
+		sb.append("    FILE_LENGTH " + dialect.getBigIntType() + " DEFAULT NULL,\n");
+		sb.append("    LAST_MODIFICATION_TIME " + dialect.getBigIntType() + " NOT NULL,\n");
+		sb.append("    CREATION_TIME " + dialect.getBigIntType() + " NOT NULL,\n");
+		sb.append("    PARENT_ID " + dialect.getBigIntType() + " NOT NULL,\n");
+		if (withFileData) {
+			sb.append("    FILE_DATA " + dialect.getBlobType() + ",\n");
+		}
 		sb.append("    PRIMARY KEY (APP, TENANT, ID)\n");
-		sb.append(");\n");
+		sb.append(")");
 		return sb.toString();
 	}
 
+	private static String getCreateIDTableSQL(DatabaseDialect dialect) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("CREATE TABLE %1 (\n");
+		sb.append("    APP VARCHAR(256) NOT NULL,\n");
+		sb.append("    TENANT VARCHAR(256) NOT NULL,\n");
+		sb.append("    NEXT_ID " + dialect.getBigIntType() + " NOT NULL,\n");
+		sb.append("    PRIMARY KEY (APP, TENANT)\n");
+		sb.append(")");
+		return sb.toString();
+	}
+	
+	private static String getCreateVersionTableSQL(DatabaseDialect dialect) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("CREATE TABLE %1 (\n");
+		sb.append("    SCHEMA_VERSION " + dialect.getIntType() + " NOT NULL,\n");
+		sb.append("    MIGRATION_STEP " + dialect.getIntType() + " NOT NULL,\n");
+		sb.append("    MIGRATION_APP VARCHAR(256) NOT NULL,\n");
+		sb.append("    MIGRATION_TENANT VARCHAR(256) NOT NULL,\n");
+		sb.append("    MIGRATION_ID " + dialect.getBigIntType() + " NOT NULL\n");
+		sb.append(")");
+		return sb.toString();
+	}
+	
+	private static String getCreateChunkTableSQL(DatabaseDialect dialect) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("CREATE TABLE %1 (\n");
+		sb.append("    APP VARCHAR(256) NOT NULL,\n");
+		sb.append("    TENANT VARCHAR(256) NOT NULL,\n");
+		sb.append("    FILE_ID " + dialect.getBigIntType() + " NOT NULL,\n");
+		sb.append("    SEQ " + dialect.getBigIntType() + " NOT NULL,\n");
+		sb.append("    CHUNK_OFFSET " + dialect.getBigIntType() + " NOT NULL,\n");
+		sb.append("    CHUNK_LENGTH " + dialect.getBigIntType() + " NOT NULL,\n");
+		sb.append("    CHUNK_DATA " + dialect.getBlobType() + ",\n");
+		sb.append("    PRIMARY KEY (APP, TENANT, FILE_ID, SEQ)\n");
+		sb.append(")");
+		return sb.toString();
+	}
+	
+	protected static String getSchemaAndChunkTable(DatabaseFSConfig config) {
+		return getSchemaAndTable(config) + CHUNK_TABLE_SUFFIX;
+	}
+	
+	protected static String getSchemaAndVersionTable(DatabaseFSConfig config) {
+		return getSchemaAndTable(config) + VERSION_TABLE_SUFFIX;
+	}
+	
+	protected static String getSchemaAndIDTable(DatabaseFSConfig config) {
+		return getSchemaAndTable(config) + ID_TABLE_SUFFIX;
+	}
+
 	protected static String getSchemaAndTable(DatabaseFSConfig config) {
 		if (config.getSchemaName() == null) {
 			return config.getFileTableName();
@@ -268,7 +1179,37 @@ public class DatabaseFSUtil {
 	protected static boolean doesFileTableExist(DatabaseFSConfig config) throws Exception{
 		try {
 			//: no error logging because if this fails it only means that the table doesn't exist
-			processQueryAsValue(config, false, "select count(*) from " + getSchemaAndTable(config), Long.class);
+			processQueryAsValue(config, false, "SELECT 1 FROM " + getSchemaAndTable(config) + getDialect(config).getLimitClause(1), Long.class);
+		} catch (Exception e) {
+			return false;
+		}
+		return true;
+	}
+	
+	protected static boolean doesChunkTableExist(DatabaseFSConfig config) throws Exception{
+		try {
+			//: no error logging because if this fails it only means that the table doesn't exist
+			processQueryAsValue(config, false, "SELECT 1 FROM " + getSchemaAndChunkTable(config) + getDialect(config).getLimitClause(1), Long.class);
+		} catch (Exception e) {
+			return false;
+		}
+		return true;
+	}
+	
+	protected static boolean doesVersionTableExist(DatabaseFSConfig config) throws Exception{
+		try {
+			//: no error logging because if this fails it only means that the table doesn't exist
+			processQueryAsValue(config, false, "SELECT 1 FROM " + getSchemaAndVersionTable(config) + getDialect(config).getLimitClause(1), Long.class);
+		} catch (Exception e) {
+			return false;
+		}
+		return true;
+	}
+	
+	protected static boolean doesIDTableExist(DatabaseFSConfig config) throws Exception{
+		try {
+			//: no error logging because if this fails it only means that the table doesn't exist
+			processQueryAsValue(config, false, "SELECT 1 FROM " + getSchemaAndIDTable(config) + getDialect(config).getLimitClause(1), Long.class);
 		} catch (Exception e) {
 			return false;
 		}
@@ -382,6 +1323,32 @@ public class DatabaseFSUtil {
 		}
 	}
 	
+	/**
+	 * prepares a forward-only and read-only statement which fetches the given number of rows at once so that large results can be read as a stream
+	 * @param connection the connection to be used
+	 * @param sql the SQL query
+	 * @param fetchSize number of rows to be fetched at once
+	 * @param values values for the parameters of the statement
+	 * @return the prepared statement with the values already set
+	 * @throws Exception on general error
+	 */
+	protected static PreparedStatement prepareForwardOnlyStatement(Connection connection, String sql, int fetchSize, Object...values) throws Exception {
+		log("prepareForwardOnlyStatement: sql = >>" + sql + "<<, values = " + values);
+		PreparedStatement result = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		try {
+			result.setFetchSize(fetchSize);
+			int index = 1;
+			for (Object i: values) {
+				setValue(result, index, i);
+				index ++;
+			}
+		} catch (Exception e) {
+			result.close();
+			throw e;
+		}
+		return result;
+	}
+	
 	protected static void processUpdate(DatabaseFSConfig config, String sql, Object...values) throws Exception {
 		Connection connection = null;
 		try {
@@ -396,11 +1363,19 @@ public class DatabaseFSUtil {
 		}
 	}
 
-	protected static void processUpdate(DatabaseFSConfig config, Connection connection, String sql, Object...values) throws Exception {
+	/**
+	 * @return number of changed rows or Statement.SUCCESS_NO_INFO if the update is part of a batch and will be executed later
+	 */
+	protected static int processUpdate(DatabaseFSConfig config, Connection connection, String sql, Object...values) throws Exception {
 		log("processUpdate: sql = >>" + sql + "<<, values = " + values);
+		if (config.getBatch() != null) {
+			config.getBatch().addUpdate(sql, values);
+			return Statement.SUCCESS_NO_INFO;
+		}
 		PreparedStatement statement = null;
 		ResultSet resultSet = null;
 		Exception exception = null;
+		int result = 0;
 		try {
 			log("processUpdate: preparing statement");
 			statement = connection.prepareStatement(sql);
@@ -411,7 +1386,7 @@ public class DatabaseFSUtil {
 				index ++;
 			}
 			log("processUpdate: executing update");
-			statement.executeUpdate();
+			result = statement.executeUpdate();
 		} catch (Exception e) {
 			throw e;
 		} finally {
@@ -432,9 +1407,10 @@ public class DatabaseFSUtil {
 				}
 			}
 		}
+		return result;
 	}
 
-	private static void setValue(PreparedStatement statement, int index, Object i) throws SQLException, Exception {
+	protected static void setValue(PreparedStatement statement, int index, Object i) throws SQLException, Exception {
 		log("setValue: index = " + index + ", value = " + i);
 		
 		if (i instanceof String) {
@@ -443,6 +1419,8 @@ public class DatabaseFSUtil {
 			statement.setLong(index, (Long)i);	
 		} else if (i instanceof Integer) {
 			statement.setLong(index, (Integer)i);	
+		} else if (i instanceof byte[]) {
+			statement.setBytes(index, (byte[])i);
 		} else {
 			String type = "?";
 			if (i == null) {
@@ -5,32 +5,46 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.VersionedData;
 import de.bright_side.filesystemfacade.facade.WrongVersionException;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
+import de.bright_side.filesystemfacade.util.RangeReadChannel;
 
 /**
+ * The file type, length and times of the row of a file are kept in the DatabaseFile when they are read (e.g. by listing the parent directory
+ * or by readAttributes). If DatabaseFSConfig.getMetadataMaxAgeMillis() is set, the loaded values are used for that many milliseconds so that
+ * the files of a listing don't need another query per file. Changes by this DatabaseFile object update or discard the loaded values at once,
+ * changes by other objects are seen when the loaded values are too old or after calling refresh(). By default the values are always read again.
+ * 
  * @author Philip Heyse
  *
  */
 public class DatabaseFile implements FSFFile{
 	private static final boolean LOGGING_ENABLED = false;
-	private static final int FILE_TYPE_DIR = 1;
-	private static final int FILE_TYPE_FILE = 2;
+	protected static final int FILE_TYPE_DIR = 1;
+	protected static final int FILE_TYPE_FILE = 2;
 	private static final long ID_VALUE_ID_ROOT = 0;
 	private static final long ID_VALUE_ID_UNKNOWN = -1;
 	private static final long ID_VALUE_FILE_DOES_NOT_EXIST = -2;
 	private static final long PARENT_ID_VALUE_PARENT_IS_ROOT = 0;
 	private static final long PARENT_ID_VALUE_UNKNOWN = -1;
+	private static final int FILE_TYPE_ROW_NOT_LOADED = 0;
 	private DatabaseFS databaseFS;
 	private DatabaseFSConfig config;
 	private long id = ID_VALUE_ID_UNKNOWN;
@@ -42,11 +56,18 @@ public class DatabaseFile implements FSFFile{
 	/** may be null if read from ResultSet. In this case parentID contains the ID of the parent*/
 	private DatabaseFile parent;
 	private String name;
-//	, long creationTime, long timeLastModified, long size, boolean isDirC
 
 	/** null as long as the value is unknown*/
 	private String cachedAbsolutePath = null;
 	
+	/** FILE_TYPE_ROW_NOT_LOADED as long as the values of the row have not been read. The other row values are only valid if the file type is known */
+	private int rowFileType = FILE_TYPE_ROW_NOT_LOADED;
+	private long rowFileLength;
+	private long rowTimeLastModified;
+	private long rowTimeCreated;
+	/** system time when the row values were read or written */
+	private long rowLoadTime;
+	
 	protected static DatabaseFile createDatabaseFile(DatabaseFS databaseFS, long id, DatabaseFile parent, boolean parentIsRoot, String name) {
 		DatabaseFile result = new DatabaseFile();
 		
@@ -101,9 +122,15 @@ public class DatabaseFile implements FSFFile{
 			return;
 		}
 		if (parentID == PARENT_ID_VALUE_UNKNOWN) {
-			parent.readIDIfNecessary();
-			if (parent.id >= 0) {
-				parentID = parent.id; 
+			readIDsOfPath();
+			return;
+		}
+		if (config.getBatch() != null) {
+			//: the sub-items of directories created in the batch are known without a query
+			Long newItemID = config.getBatch().getIDOfNewDirItem(parentID, name);
+			if (newItemID != null) {
+				id = newItemID >= 0 ? newItemID : ID_VALUE_FILE_DOES_NOT_EXIST;
+				return;
 			}
 		}
 		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select ID from %1 where APP = ? AND TENANT = ? AND PARENT_ID = ? AND NAME = ?");
@@ -113,6 +140,47 @@ public class DatabaseFile implements FSFFile{
 			id = ID_VALUE_FILE_DOES_NOT_EXIST;
 		} else {
 			id = readID;
+			addToPathCache();
+		}
+	}
+	
+	/**
+	 * resolves the ID of this file and of its parent by the absolute path instead of resolving the parents one by one
+	 */
+	private void readIDsOfPath() throws Exception {
+		String path = getAbsolutePath();
+		int numberOfNames = DatabaseFS.splitPath(path).size();
+		long[] ids = databaseFS.readIDsOfPath(path);
+		if ((numberOfNames >= 2) && (ids.length >= numberOfNames - 1) && (ids[numberOfNames - 2] >= 0)) {
+			parentID = ids[numberOfNames - 2];
+			if ((parent != null) && (parent.id < 0)) {
+				parent.id = parentID;
+			}
+		}
+		if (ids.length == numberOfNames) {
+			id = ids[numberOfNames - 1];
+		} else {
+			id = ID_VALUE_FILE_DOES_NOT_EXIST;
+		}
+	}
+	
+	/**
+	 * must be called if the items of a directory are changed without DatabaseFSUtil.insertEntry if the file system belongs to a batch
+	 * @param config the config of the file system which changes the items
+	 * @param dirID ID of the directory or a negative value if the directory is unknown
+	 */
+	private static void dirItemsChanged(DatabaseFSConfig config, long dirID) {
+		if (config.getBatch() != null) {
+			config.getBatch().dirItemsChanged(dirID);
+		}
+	}
+	
+	/**
+	 * adds the ID of this file to the path cache of the file system if the path is known without reading it from the database
+	 */
+	private void addToPathCache() {
+		if ((id > 0) && (cachedAbsolutePath != null)) {
+			databaseFS.addToPathCache(cachedAbsolutePath, id);
 		}
 	}
 	
@@ -125,7 +193,8 @@ public class DatabaseFile implements FSFFile{
 			if (parentID == PARENT_ID_VALUE_UNKNOWN) {
 				throw new Exception("File has no parent ID and no reference to a parent object"); 
 			}
-			String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select * from %1 where APP = ? AND TENANT = ? AND ID = ?");
+			String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID "
+					+ "from %1 where APP = ? AND TENANT = ? AND ID = ?");
 			final List<DatabaseFile> result = new ArrayList<>();
 			ResultSetProcessor processor = new ResultSetProcessor() {
 				
@@ -142,6 +211,10 @@ public class DatabaseFile implements FSFFile{
 			}
 		}
 		if (parentID == PARENT_ID_VALUE_UNKNOWN) {
+			//: resolving the path of this file also resolves the ID of the parent
+			readIDIfNecessary();
+		}
+		if ((parentID == PARENT_ID_VALUE_UNKNOWN) && (id >= 0)) {
 			if (parent != null) {
 				parent.readIDIfNecessary();
 				if ((parent.id != ID_VALUE_ID_UNKNOWN) && (parent.id != ID_VALUE_FILE_DOES_NOT_EXIST)){
@@ -178,31 +251,82 @@ public class DatabaseFile implements FSFFile{
 		if ((parent != null) && (parent.cachedAbsolutePath != null)){
 			result.cachedAbsolutePath = parent.cachedAbsolutePath + DatabaseFS.SEPARATOR + result.name;
 		}
-		
-//		result.timeLastModified = resultSet.getLong("LAST_MODIFICATION_TIME");
-//		result.creationTime = resultSet.getLong("CREATION_TIME");
-//		result.size = resultSet.getLong("FILE_LENGTH");
-//		result.isDir = resultSet.getInt("FILE_TYPE") == FILE_TYPE_DIR;
+		result.setRow(resultSet);
 		return result;
 	}
+	
+	private void setRow(ResultSet resultSet) throws Exception {
+		setRow(resultSet.getInt("FILE_TYPE"), resultSet.getLong("FILE_LENGTH"), resultSet.getLong("LAST_MODIFICATION_TIME"), resultSet.getLong("CREATION_TIME"));
+	}
+	
+	private void setRow(int fileType, long fileLength, long timeLastModified, long timeCreated) {
+		rowFileType = fileType;
+		rowFileLength = fileLength;
+		rowTimeLastModified = timeLastModified;
+		rowTimeCreated = timeCreated;
+		rowLoadTime = databaseFS.getEnvironment().getCurrentTimeMillis();
+	}
+	
+	private void clearRow() {
+		rowFileType = FILE_TYPE_ROW_NOT_LOADED;
+	}
+	
+	/**
+	 * @return true if the row values have been loaded and are not older than the maximum metadata age of the config
+	 */
+	private boolean isRowFresh() {
+		if (rowFileType == FILE_TYPE_ROW_NOT_LOADED) {
+			return false;
+		}
+		long age = databaseFS.getEnvironment().getCurrentTimeMillis() - rowLoadTime;
+		return (age >= 0) && (age < config.getMetadataMaxAgeMillis());
+	}
+	
+	/**
+	 * discards the loaded row values and the ID of the file so that the next call reads the current state from the database.
+	 * This is only needed to see changes by other DatabaseFile objects or DatabaseFS instances before the loaded values become too old.
+	 */
+	public void refresh() {
+		clearRow();
+		if (id > 0) {
+			id = ID_VALUE_ID_UNKNOWN;
+		}
+	}
 
 	@Override
 	public List<FSFFile> listFiles() {
+		List<FSFFileAttributes> items;
+		try {
+			items = listFilesWithAttributes();
+		} catch (Exception e) {
+			throw new RuntimeException("Could not list files of file with id " + id, e);
+		}
+		if (items == null) {
+			return null;
+		}
+		List<FSFFile> result = new ArrayList<>();
+		for (FSFFileAttributes i: items) {
+			result.add(i.getFile());
+		}
+		return result;
+	}
+
+	@Override
+	public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
 		if ((id < 0) && (id != ID_VALUE_ID_ROOT)){
 			if (!exists()) {
 				return null;
 			}
 		}
-		final List<FSFFile> result = new ArrayList<>();
+		final List<FSFFileAttributes> result = new ArrayList<>();
 		
-		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID from %1 "
-				+ "where APP = ? AND TENANT = ? AND PARENT_ID = ? order by NAME, ID");
+		String sql = getListFilesSQL();
 		
 		ResultSetProcessor processor = new ResultSetProcessor() {
 			@Override
 			public void process(ResultSet resultSet) throws Exception {
 				while (resultSet.next()) {
-					result.add(createFile(databaseFS, resultSet, DatabaseFile.this));
+					result.add(createAttributes(createFile(databaseFS, resultSet, DatabaseFile.this), resultSet));
 				}
 			}
 
@@ -210,10 +334,64 @@ public class DatabaseFile implements FSFFile{
 		try {
 			DatabaseFSUtil.processQuery(config, true, sql, processor, config.getAppName(), config.getTenantName(), id);
 		} catch (Exception e) {
-			throw new RuntimeException("Could not list files of file with id " + id, e);
+			throw new Exception("Could not list files of file with id " + id, e);
 		}
 		return result;
 	}
+	
+	@Override
+	public FSFDirectoryStream openDirectoryStream() throws Exception {
+		//: reading the attributes also reads the ID and is false for directory if the file doesn't exist
+		if ((id != ID_VALUE_ID_ROOT) && (!readAttributes().isDirectory())){
+			return null;
+		}
+		return new DatabaseDirectoryStream(databaseFS, this, getListFilesSQL(), config.getAppName(), config.getTenantName(), id);
+	}
+	
+	private String getListFilesSQL() {
+		return DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select ID, FILE_TYPE, NAME, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME, PARENT_ID from %1 "
+				+ "where APP = ? AND TENANT = ? AND PARENT_ID = ? order by NAME, ID");
+	}
+	
+	@Override
+	public FSFFileAttributes readAttributes() throws Exception {
+		if (id == ID_VALUE_ID_ROOT) {
+			return new FSFFileAttributes(this, true, true, 0, 0, 0, 0);
+		}
+		if (isRowFresh()) {
+			return new FSFFileAttributes(this, true, rowFileType == FILE_TYPE_DIR, rowFileLength, rowTimeLastModified, rowTimeCreated, 0);
+		}
+		readParentIfNecessary();
+		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select ID, FILE_TYPE, FILE_LENGTH, LAST_MODIFICATION_TIME, CREATION_TIME from %1 "
+				+ "where APP = ? AND TENANT = ? AND PARENT_ID = ? AND NAME = ?");
+		final List<FSFFileAttributes> result = new ArrayList<>();
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				if (resultSet.next()) {
+					if (id < 0) {
+						id = resultSet.getLong("ID");
+					}
+					setRow(resultSet);
+					result.add(createAttributes(DatabaseFile.this, resultSet));
+				}
+			}
+		};
+		try {
+			DatabaseFSUtil.processQuery(config, true, sql, processor, config.getAppName(), config.getTenantName(), parentID, name);
+		} catch (Exception e) {
+			throw new Exception("Could not read details from table", e);
+		}
+		if (result.isEmpty()) {
+			return FSFFileAttributes.createNonExisting(this);
+		}
+		return result.get(0);
+	}
+	
+	protected static FSFFileAttributes createAttributes(DatabaseFile file, ResultSet resultSet) throws Exception {
+		boolean isDir = resultSet.getInt("FILE_TYPE") == FILE_TYPE_DIR;
+		return new FSFFileAttributes(file, true, isDir, resultSet.getLong("FILE_LENGTH"), resultSet.getLong("LAST_MODIFICATION_TIME"), resultSet.getLong("CREATION_TIME"), 0);
+	}
 
 	@Override
 	public String getName() {
@@ -222,6 +400,9 @@ public class DatabaseFile implements FSFFile{
 
 	@Override
 	public long getTimeLastModified() throws Exception {
+		if (isRowFresh()) {
+			return rowTimeLastModified;
+		}
 		readParentIfNecessary();
 		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select LAST_MODIFICATION_TIME from %1 where APP = ? AND TENANT = ? AND PARENT_ID = ? AND NAME = ?");
 		Long result;
@@ -239,6 +420,9 @@ public class DatabaseFile implements FSFFile{
 
 	@Override
 	public long getTimeCreated() throws Exception{
+		if (isRowFresh()) {
+			return rowTimeCreated;
+		}
 		readParentIfNecessary();
 		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select CREATION_TIME from %1 where APP = ? AND TENANT = ? AND PARENT_ID = ? AND NAME = ?");
 		Long result;
@@ -255,6 +439,9 @@ public class DatabaseFile implements FSFFile{
 	}
 	
 	private Integer getType() throws Exception {
+		if (isRowFresh()) {
+			return rowFileType;
+		}
 		readParentIfNecessary();
 		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select FILE_TYPE from %1 where APP = ? AND TENANT = ? AND PARENT_ID = ? AND NAME = ?");
 		Integer result;
@@ -328,6 +515,7 @@ public class DatabaseFile implements FSFFile{
 		if (!exists()) {
 			throw new Exception("The file does not exist");
 		}
+		databaseFS.removeFromPathCache(getAbsolutePath());
 		cachedAbsolutePath = null;
 		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select count(*) from %1 where APP = ? AND TENANT = ? AND PARENT_ID = ? AND NAME = ?");
 		long existingNames = DatabaseFSUtil.processQueryAsValue(config, sql, Long.class, config.getAppName(), config.getTenantName(), parentID, newName);
@@ -337,12 +525,14 @@ public class DatabaseFile implements FSFFile{
 		
 		sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "update %1 set name = ? where APP = ? AND TENANT = ? AND ID = ?");
 		DatabaseFSUtil.processUpdate(config, sql, newName, config.getAppName(), config.getTenantName(), id);
+		dirItemsChanged(config, parentID);
 
 		if ((parent != null) && (parent.cachedAbsolutePath != null)) {
 			cachedAbsolutePath = parent.cachedAbsolutePath + DatabaseFS.SEPARATOR + newName;
 		}
 
 		name = newName;
+		addToPathCache();
 	}
 
 	@Override
@@ -367,6 +557,8 @@ public class DatabaseFile implements FSFFile{
 		
 		long time = databaseFS.getEnvironment().getCurrentTimeMillis();
 		id = DatabaseFSUtil.insertEntry(config, FILE_TYPE_DIR, name, 0, time, time, parentID, null);
+		setRow(FILE_TYPE_DIR, 0, time, time);
+		addToPathCache();
 		return this;
 	}
 
@@ -402,7 +594,10 @@ public class DatabaseFile implements FSFFile{
 			return cachedAbsolutePath;
 		}
 		try {
-			readParentIfNecessary();
+			//: the parent object is sufficient to build the path, so its ID does not need to be read
+			if (parent == null) {
+				readParentIfNecessary();
+			}
 			cachedAbsolutePath = parent.getAbsolutePath() + DatabaseFS.SEPARATOR + name; 
 			return cachedAbsolutePath;
 		} catch (Exception e) {
@@ -420,12 +615,14 @@ public class DatabaseFile implements FSFFile{
 		if (!exists()) {
 			return;
 		}
-		String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "DELETE FROM %1 where APP = ? AND TENANT = ? AND ID = ?");
 		try {
-			DatabaseFSUtil.processUpdate(config, sql, config.getAppName(), config.getTenantName(), id);
+			DatabaseFSUtil.deleteEntry(config, id);
 		} catch (Exception e) {
 			throw new Exception("Could not delete entry from table", e);
 		}
+		dirItemsChanged(config, parentID);
+		databaseFS.removeFromPathCache(getAbsolutePath());
+		clearRow();
 		//: after delete the id still contains a value which looks like the id is known. However there is no entry with this ID anymore
 		id = ID_VALUE_FILE_DOES_NOT_EXIST;
 	}
@@ -447,7 +644,24 @@ public class DatabaseFile implements FSFFile{
 	@Override
 	public void copyTo(FSFFile destFile) throws Exception {
 		FSFFileUtil.verifyCopyPossible(this, destFile);
-		FSFFileUtil.copyViaStreams(this, destFile);
+		if ((destFile instanceof DatabaseFile) && (DatabaseFSUtil.isSameTable(config, ((DatabaseFile)destFile).config))) {
+			copyWithinTable((DatabaseFile)destFile);
+		} else {
+			FSFFileUtil.copyViaStreams(this, destFile);
+		}
+	}
+	
+	/**
+	 * lets the database copy the data so that it is not transferred to the client and back
+	 */
+	private void copyWithinTable(DatabaseFile destFile) throws Exception {
+		readIDIfNecessary();
+		destFile.readIDIfNecessary();
+		long time = destFile.databaseFS.getEnvironment().getCurrentTimeMillis();
+		long destID = destFile.exists() ? destFile.id : -1;
+		destFile.id = DatabaseFSUtil.copyFileData(config, id, destFile.config, destID, destFile.name, destFile.parentID, time);
+		dirItemsChanged(destFile.config, destFile.parentID);
+		destFile.clearRow();
 	}
 
 	@Override
@@ -456,6 +670,9 @@ public class DatabaseFile implements FSFFile{
 			return 0;
 		}
 		
+		if (isRowFresh()) {
+			return rowFileLength;
+		}
 		try {
 			readParentIfNecessary();
 			String sql = DatabaseFSUtil.replaceSchemaAndTable(config, "%1", "select FILE_LENGTH from %1 where APP = ? AND TENANT = ? AND PARENT_ID = ? AND NAME = ?");
@@ -482,17 +699,104 @@ public class DatabaseFile implements FSFFile{
 
 	@Override
 	public void copyFilesTree(FSFFile dest) throws Exception {
-		FSFFileUtil.copyFilesTree(this, dest);
+		if (!isCopyTreeWithinTablePossible(dest)) {
+			FSFFileUtil.copyFilesTree(this, dest);
+			return;
+		}
+		DatabaseFile destDir = (DatabaseFile)dest;
+		destDir.mkdirs();
+		long time = destDir.databaseFS.getEnvironment().getCurrentTimeMillis();
+		DatabaseFSUtil.copyTree(config, id, destDir.config, destDir.id, time);
+		dirItemsChanged(destDir.config, destDir.id);
+	}
+	
+	/**
+	 * @return true if the sub-items can be copied by the database (see DatabaseFSUtil.copyTree). This is the case if this is an existing 
+	 * directory, the dest is an empty or non-existing directory in the same table and the dest is not within this directory and if the
+	 * database supports recursive queries
+	 */
+	private boolean isCopyTreeWithinTablePossible(FSFFile dest) throws Exception {
+		if ((!(dest instanceof DatabaseFile)) || (!config.isRecursiveQuerySupported())) {
+			return false;
+		}
+		DatabaseFile destFile = (DatabaseFile)dest;
+		if (!DatabaseFSUtil.isSameTable(config, destFile.config)) {
+			return false;
+		}
+		readIDIfNecessary();
+		if ((!exists()) || (!isDirectory()) || (id == ID_VALUE_ID_ROOT)) {
+			return false;
+		}
+		String sourcePath = getAbsolutePath();
+		String destPath = destFile.getAbsolutePath();
+		if ((destPath.equals(sourcePath)) || (destPath.startsWith(sourcePath + DatabaseFS.SEPARATOR))) {
+			return false;
+		}
+		if (destFile.exists()) {
+			//: existing items of the dest directory would need to be merged with the copied items
+			if (!destFile.isDirectory()) {
+				return false;
+			}
+			List<FSFFile> destItems = destFile.listFiles();
+			if ((destItems == null) || (!destItems.isEmpty())) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
 	public void deleteTree() throws Exception {
-		FSFFileUtil.deleteTree(this);
+		if ((id == ID_VALUE_ID_ROOT) || (!config.isRecursiveQuerySupported())) {
+			FSFFileUtil.deleteTree(this);
+			return;
+		}
+		readIDIfNecessary();
+		if (!exists()) {
+			return;
+		}
+		if (!isDirectory()) {
+			delete();
+			return;
+		}
+		String path = getAbsolutePath();
+		DatabaseFSUtil.deleteTree(config, id);
+		//: the deleted directories may contain directories which have been created in the batch
+		dirItemsChanged(config, -1);
+		databaseFS.removeFromPathCache(path);
+		clearRow();
+		id = ID_VALUE_FILE_DOES_NOT_EXIST;
 	}
 
 	@Override
 	public List<FSFFile> listFilesTree() throws Exception {
-		return FSFFileUtil.listFilesTree(this);
+		readIDIfNecessary();
+		if ((!exists()) || (!isDirectory()) || (!config.isRecursiveQuerySupported())) {
+			return FSFFileUtil.listFilesTree(this);
+		}
+		//: the path is needed so that the paths of the sub-items are known without reading their parents
+		getAbsolutePath();
+		final Map<Long, DatabaseFile> dirsByID = new HashMap<>();
+		dirsByID.put(id, this);
+		final SortedMap<String, FSFFile> pathToItemMap = new TreeMap<>();
+		ResultSetProcessor processor = new ResultSetProcessor() {
+			@Override
+			public void process(ResultSet resultSet) throws Exception {
+				while (resultSet.next()) {
+					DatabaseFile item = createFile(databaseFS, resultSet, dirsByID.get(resultSet.getLong("PARENT_ID")));
+					if (resultSet.getInt("FILE_TYPE") == FILE_TYPE_DIR) {
+						dirsByID.put(item.id, item);
+					}
+					pathToItemMap.put(item.getAbsolutePath(), item);
+				}
+			}
+		};
+		try {
+			DatabaseFSUtil.processTreeQuery(config, id, processor);
+		} catch (Exception e) {
+			throw new Exception("Could not list files tree of file with id " + id, e);
+		}
+		return new ArrayList<FSFFile>(pathToItemMap.values());
 	}
 
 	@Override
@@ -507,6 +811,7 @@ public class DatabaseFile implements FSFFile{
 		} catch (Exception e) {
 			throw new Exception("Could not write details to table", e);
 		}
+		clearRow();
 	}
 
 	@Override
@@ -521,6 +826,7 @@ public class DatabaseFile implements FSFFile{
 		} catch (Exception e) {
 			throw new Exception("Could not write details to table", e);
 		}
+		clearRow();
 		return true;
 	}
 	
@@ -541,6 +847,18 @@ public class DatabaseFile implements FSFFile{
 
 	@Override
 	public OutputStream getOutputStream(final boolean append) throws Exception {
+		if (config.getChunkSize() > 0) {
+			readIDIfNecessary();
+			long existingID = exists() ? id : -1;
+			return new DatabaseChunkOutputStream(config, databaseFS.getEnvironment(), existingID, parentID, name, append) {
+				@Override
+				protected void written(long id) throws Exception {
+					DatabaseFile.this.id = id;
+					clearRow();
+					addToPathCache();
+				}
+			};
+		}
 		return new ByteArrayOutputStream() {
 			@Override
 			public void close() throws IOException {
@@ -556,18 +874,44 @@ public class DatabaseFile implements FSFFile{
 
 	@Override
 	public InputStream getInputStream() throws Exception {
+		if (config.getChunkSize() > 0) {
+			readIDIfNecessary();
+			if (!exists()) {
+				throw new Exception("File does not exist");
+			}
+			return new DatabaseDataInputStream(config, id);
+		}
 		return new ByteArrayInputStream(readBytes());
 	}
+	
+	@Override
+	public InputStream getInputStream(long offset, long length) throws Exception {
+		FSFFileUtil.verifyRange(offset, length);
+		readIDIfNecessary();
+		if (id == ID_VALUE_FILE_DOES_NOT_EXIST) {
+			throw new Exception("File does not exist");
+		}
+		//: no separate existence check because it would add a query to every range read (e.g. of a RangeReadChannel)
+		byte[] data = DatabaseFSUtil.readDataRange(config, id, offset, length);
+		if (data == null) {
+			throw new Exception("File does not exist");
+		}
+		return new ByteArrayInputStream(data);
+	}
+	
+	@Override
+	public SeekableByteChannel getSeekableByteChannel() throws Exception {
+		return new RangeReadChannel(this);
+	}
 
 	@Override
 	public <K> K readObject(Class<K> classType) throws Exception {
-		return FSFFileUtil.objectFromByteArray(readBytes(), classType);
+		return FSFFileUtil.readObject(this, classType);
 	}
 
 	@Override
 	public <K> FSFFile writeObject(K objectToWrite) throws Exception {
-		writeBytes(false, FSFFileUtil.objectToByteArray(objectToWrite));
-		return this;
+		return FSFFileUtil.writeObject(this, objectToWrite);
 	}
 
 	@Override
@@ -581,6 +925,12 @@ public class DatabaseFile implements FSFFile{
 
 	@Override
 	public FSFFile writeBytes(boolean append, byte[] bytes) throws Exception {
+		if (config.getChunkSize() > 0) {
+			try (OutputStream outputStream = getOutputStream(append)) {
+				outputStream.write(bytes);
+			}
+			return this;
+		}
 		readIDIfNecessary();
 		log("writeBytes: " + listDetails());
 		long time = databaseFS.getEnvironment().getCurrentTimeMillis();
@@ -588,9 +938,12 @@ public class DatabaseFile implements FSFFile{
 		if (!exists()) {
 			log("writeBytes: does not exist. Insert entry");
 			id = DatabaseFSUtil.insertEntry(config, FILE_TYPE_FILE, name, bytes.length, time, time, parentID, bytes);
+			setRow(FILE_TYPE_FILE, bytes.length, time, time);
+			addToPathCache();
 		} else {
 			log("writeBytes: exists update");
 			DatabaseFSUtil.writeData(config, id, append, bytes, time);
+			clearRow();
 		}
 		return this;
 	}
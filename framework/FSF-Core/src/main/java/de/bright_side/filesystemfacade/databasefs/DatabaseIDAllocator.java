@@ -0,0 +1,63 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+/**
+ * hands out the IDs for new entries of the file table of a DatabaseFS. The IDs are reserved in blocks in the ID table (see
+ * DatabaseFSUtil.allocateIDBlock) so that an insert does not need to read the table and so that several DatabaseFS instances (e.g. on
+ * different servers) can insert into the same table without choosing the same ID. IDs of a block that are not used before the DatabaseFS
+ * is discarded are never used, so the IDs have gaps.
+ * The allocator may be used by multiple threads at the same time.
+ *
+ * @author Philip Heyse
+ *
+ */
+class DatabaseIDAllocator {
+	private final DatabaseFSConfig config;
+	private final int blockSize;
+	private long nextID = 0;
+	/** first ID which is not part of the current block */
+	private long blockEnd = 0;
+
+	public DatabaseIDAllocator(DatabaseFSConfig config) throws Exception {
+		if (config.getIdBlockSize() <= 0) {
+			throw new Exception("The ID block size must be greater than 0 but is " + config.getIdBlockSize());
+		}
+		this.config = config;
+		this.blockSize = config.getIdBlockSize();
+	}
+
+	public synchronized long nextID() throws Exception {
+		if (nextID >= blockEnd) {
+			nextID = allocateBlock(blockSize);
+			blockEnd = nextID + blockSize;
+		}
+		return nextID++;
+	}
+
+	/**
+	 * forgets the current block so that the next ID is taken from a new block. Must be called if the reservation of the current block
+	 * may have been rolled back because then other DatabaseFS instances can reserve the same block
+	 */
+	public synchronized void discardBlock() {
+		nextID = 0;
+		blockEnd = 0;
+	}
+
+	/**
+	 * @param count number of IDs
+	 * @return the first ID of a range of count consecutive IDs which is reserved apart from the current block
+	 * @throws Exception on general error
+	 */
+	public long nextIDs(int count) throws Exception {
+		return allocateBlock(count);
+	}
+
+	/**
+	 * @param size number of IDs to reserve
+	 * @return the first ID of the reserved block
+	 * @throws Exception on general error
+	 */
+	protected long allocateBlock(int size) throws Exception {
+		return DatabaseFSUtil.allocateIDBlock(config, size);
+	}
+
+}
@@ -0,0 +1,66 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * keeps the IDs of the most recently resolved paths of a DatabaseFS so that the path of a new DatabaseFile instance does not have to be
+ * resolved by the database again. Only existing paths are cached. The entries of a path and the paths below it are removed when the
+ * file is renamed, moved or deleted. Changes by other DatabaseFS instances (e.g. in another process) are not noticed.
+ * The cache may be used by multiple threads at the same time.
+ *
+ * @author Philip Heyse
+ *
+ */
+class DatabasePathCache {
+	private final int maxSize;
+	/** access order so that the least recently used path is removed if the cache is full */
+	private final Map<String, Long> idsByPath;
+
+	public DatabasePathCache(final int maxSize) {
+		this.maxSize = maxSize;
+		this.idsByPath = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param path absolute path of the file
+	 * @return the ID of the file or null if the path is not cached
+	 */
+	public synchronized Long getID(String path) {
+		return idsByPath.get(path);
+	}
+
+	public synchronized void putID(String path, long id) {
+		if (maxSize > 0) {
+			idsByPath.put(path, id);
+		}
+	}
+
+	/**
+	 * removes the path and all paths below it
+	 * @param path absolute path of the file
+	 */
+	public synchronized void removeTree(String path) {
+		idsByPath.remove(path);
+		String prefix = path + DatabaseFS.SEPARATOR;
+		Iterator<String> iterator = idsByPath.keySet().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().startsWith(prefix)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	public synchronized int size() {
+		return idsByPath.size();
+	}
+
+}
@@ -0,0 +1,53 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * dialect of the H2 database which can be embedded into the application, e.g. for tests and benchmarks ("jdbc:h2:mem:...")
+ *
+ * @author Philip Heyse
+ *
+ */
+public class H2Dialect extends DatabaseDialect {
+
+	@Override
+	public String getBlobType() {
+		return "BLOB";
+	}
+
+	@Override
+	public String getOpenConnectionsSQL() {
+		return "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE UPPER(USER_NAME) = UPPER(?)";
+	}
+
+	/**
+	 * H2 cannot select a part of a BLOB, so the part is read via java.sql.Blob which only reads the requested part
+	 */
+	@Override
+	public String getBlobRangeSQL(String column) {
+		return null;
+	}
+
+	/**
+	 * increments the entry of the ID table and reads the new next ID in one statement with FINAL TABLE. If there is no entry yet, it is
+	 * inserted by the generic implementation
+	 */
+	@Override
+	public Long allocateIDBlock(Connection connection, String idTable, String app, String tenant, int size) throws Exception {
+		String sql = "SELECT NEXT_ID FROM FINAL TABLE (UPDATE " + idTable + " SET NEXT_ID = NEXT_ID + ? WHERE APP = ? AND TENANT = ?)";
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setLong(1, size);
+			statement.setString(2, app);
+			statement.setString(3, tenant);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				if (!resultSet.next()) {
+					return null;
+				}
+				return resultSet.getLong(1) - size;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+/**
+ * dialect of the HSQLDB database which can be embedded into the application, e.g. for tests and benchmarks ("jdbc:hsqldb:mem:...").
+ * The IDs are reserved by the generic implementation of the DatabaseFS because HSQLDB cannot return the values of an update
+ *
+ * @author Philip Heyse
+ *
+ */
+public class HSQLDBDialect extends DatabaseDialect {
+
+	@Override
+	public String getBlobType() {
+		return "BLOB";
+	}
+
+	@Override
+	public String getOpenConnectionsSQL() {
+		return "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SYSTEM_SESSIONS WHERE UPPER(USER_NAME) = UPPER(?)";
+	}
+
+	/**
+	 * the result of SUBSTRING on a BLOB cannot be read by HSQLDB 2.5 (ClassCastException), so the part is read via java.sql.Blob
+	 */
+	@Override
+	public String getBlobRangeSQL(String column) {
+		return null;
+	}
+
+}
@@ -0,0 +1,89 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * dialect of MariaDB and MySQL. This is the SQL which the DatabaseFS used before the dialects were introduced, so it is also used
+ * if the database cannot be determined by the JDBC URL
+ *
+ * @author Philip Heyse
+ *
+ */
+public class MariaDBDialect extends DatabaseDialect {
+
+	@Override
+	public String getBigIntType() {
+		return "BIGINT(20)";
+	}
+
+	@Override
+	public String getIntType() {
+		return "INT(10)";
+	}
+
+	@Override
+	public String getBlobType() {
+		return "LONGBLOB";
+	}
+
+	@Override
+	public String getOpenConnectionsSQL() {
+		return "SELECT COUNT(*) FROM information_schema.PROCESSLIST where user = ?";
+	}
+
+	@Override
+	public String getBlobRangeSQL(String column) {
+		return "SUBSTRING(" + column + ", ?, ?)";
+	}
+
+	/**
+	 * uses the expanded condition because MariaDB does not use the primary key index for row value comparisons
+	 */
+	@Override
+	public String getAfterKeyCondition(String[] columns, Object[] key, List<Object> parameters) {
+		return getExpandedAfterKeyCondition(columns, key, parameters);
+	}
+
+	/**
+	 * recursive common table expressions are supported since MariaDB 10.2.2 and MySQL 8.0.1. MySQL drivers report MariaDB versions
+	 * as e.g. "5.5.5-10.4.12-MariaDB"
+	 */
+	@Override
+	public boolean isRecursiveQuerySupported(DatabaseMetaData metaData) throws SQLException {
+		String version = metaData.getDatabaseProductVersion();
+		if (version.contains("MariaDB")) {
+			return isVersionAtLeast(version.replaceFirst("^5\\.5\\.5-", ""), 10, 2, 2);
+		}
+		return isVersionAtLeast(version, 8, 0, 1);
+	}
+
+	/**
+	 * increments the entry of the ID table. The new next ID is stored by LAST_INSERT_ID(expr) which is kept per connection, so it can be read
+	 * afterwards without a transaction. If there is no entry yet, it is inserted by the generic implementation so that the file table is
+	 * only read (and locked) for the first block
+	 */
+	@Override
+	public Long allocateIDBlock(Connection connection, String idTable, String app, String tenant, int size) throws Exception {
+		String sql = "UPDATE " + idTable + " SET NEXT_ID = LAST_INSERT_ID(NEXT_ID + ?) WHERE APP = ? AND TENANT = ?";
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setLong(1, size);
+			statement.setString(2, app);
+			statement.setString(3, tenant);
+			if (statement.executeUpdate() == 0) {
+				return null;
+			}
+		}
+		try (PreparedStatement statement = connection.prepareStatement("SELECT LAST_INSERT_ID()"); ResultSet resultSet = statement.executeQuery()) {
+			if (!resultSet.next()) {
+				throw new Exception("Could not read the next ID");
+			}
+			return resultSet.getLong(1) - size;
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * dialect of PostgreSQL. The data of files is stored in BYTEA columns
+ *
+ * @author Philip Heyse
+ *
+ */
+public class PostgreSQLDialect extends DatabaseDialect {
+
+	@Override
+	public String getBlobType() {
+		return "BYTEA";
+	}
+
+	@Override
+	public String getOpenConnectionsSQL() {
+		return "SELECT COUNT(*) FROM pg_stat_activity WHERE usename = ?";
+	}
+
+	/**
+	 * the parameters are cast because SUBSTRING is not defined for BIGINT parameters
+	 */
+	@Override
+	public String getBlobRangeSQL(String column) {
+		return "SUBSTRING(" + column + " FROM CAST(? AS INTEGER) FOR CAST(? AS INTEGER))";
+	}
+
+	/**
+	 * the PostgreSQL driver only fetches the rows of a result set in portions (see setFetchSize) within a transaction
+	 */
+	@Override
+	public boolean isTransactionNeededForStreaming() {
+		return true;
+	}
+
+	/**
+	 * increments the entry of the ID table and reads the new next ID with RETURNING. If there is no entry yet, it is inserted by the generic
+	 * implementation so that the file table is only read for the first block
+	 */
+	@Override
+	public Long allocateIDBlock(Connection connection, String idTable, String app, String tenant, int size) throws Exception {
+		String sql = "UPDATE " + idTable + " SET NEXT_ID = NEXT_ID + ? WHERE APP = ? AND TENANT = ? RETURNING NEXT_ID";
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setLong(1, size);
+			statement.setString(2, app);
+			statement.setString(3, tenant);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				if (!resultSet.next()) {
+					return null;
+				}
+				return resultSet.getLong(1) - size;
+			}
+		}
+	}
+
+}
@@ -10,6 +10,7 @@ import de.bright_side.beam.Beam;
 import de.bright_side.beam.BeamProgressListener;
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 
@@ -44,6 +45,7 @@ public class EncryptedFS implements FSFSystem{
 	private String basePath;
 	private FSFFile baseDir;
 	private FSFSystem innerFS;
+	private FSFSerializer serializer = FSFFileUtil.DEFAULT_SERIALIZER;
 	
 	/**
 	 * 
@@ -151,6 +153,22 @@ public class EncryptedFS implements FSFSystem{
 		return SEPARATOR;
 	}
 
+	@Override
+	public FSFSerializer getSerializer() {
+		return serializer;
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		this.serializer = serializer;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		//: the processors for data and file names keep mutable state and are shared by all files of this file system
+		return false;
+	}
+
 	protected String createEncodedFilename(String filename, long plainDataLength) {
 		try {
 			String result = filenameProcessor.encrypt(filename);
@@ -2,18 +2,21 @@ package de.bright_side.filesystemfacade.encryptedfs;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFFileWithInnerFile;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.VersionedData;
 import de.bright_side.filesystemfacade.facade.WrongVersionException;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
+import de.bright_side.filesystemfacade.util.RangeReadChannel;
 
 public class EncryptedFile extends FSFFileWithInnerFile{
 	private EncryptedFS fs;
@@ -52,6 +55,46 @@ public class EncryptedFile extends FSFFileWithInnerFile{
 
 		return new ArrayList<FSFFile>(pathToItemMap.values());
 	}
+	
+	@Override
+	public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+		List<FSFFileAttributes> innerUnsortedResult = getInnerFile().listFilesWithAttributes();
+		if (innerUnsortedResult == null) {
+			return null;
+		}
+		
+		//: sort by the plain absolute path for the same reason as in listFiles()
+		SortedMap<String, FSFFileAttributes> pathToItemMap = new TreeMap<>();
+		for (FSFFileAttributes i: innerUnsortedResult) {
+			FSFFileAttributes item = wrapAttributes(i);
+			pathToItemMap.put(item.getFile().getAbsolutePath(), item);
+		}
+		
+		return new ArrayList<FSFFileAttributes>(pathToItemMap.values());
+	}
+	
+	@Override
+	protected FSFFileAttributes wrapAttributes(FSFFileAttributes innerAttributes) throws Exception {
+		String parentAbsolutePath = FSFFileUtil.removeIfEndsWith(getAbsolutePath(), EncryptedFS.SEPARATOR);
+		String innerName = innerAttributes.getFile().getName();
+		String absolutePath = parentAbsolutePath + EncryptedFS.SEPARATOR + fs.readPlainFilename(innerName);
+		innerAttributes.setFile(new EncryptedFile(fs, innerAttributes.getFile(), absolutePath));
+		innerAttributes.setLength(fs.readPlainDataLength(innerName));
+		return innerAttributes;
+	}
+	
+	@Override
+	public FSFFileAttributes readAttributes() throws Exception {
+		setInnerFile(fs.toExistingInnerFileIfPossible(getInnerFile()));
+		FSFFileAttributes result = getInnerFile().readAttributes();
+		result.setFile(this);
+		if ((fs.isRoot(this)) || (!result.exists())) {
+			result.setLength(0);
+		} else {
+			result.setLength(fs.readPlainDataLength(getInnerFile().getName()));
+		}
+		return result;
+	}
 
 	@Override
 	public String getName() {
@@ -196,6 +239,17 @@ public class EncryptedFile extends FSFFileWithInnerFile{
 		}
 	}
 	
+	@Override
+	public InputStream getInputStream(long offset, long length) throws Exception{
+		//: the encrypted data can only be decrypted from the beginning
+		return FSFFileUtil.getInputStreamViaFullStream(this, offset, length);
+	}
+	
+	@Override
+	public SeekableByteChannel getSeekableByteChannel() throws Exception{
+		return new RangeReadChannel(this);
+	}
+	
 	@Override
 	public byte[] readBytes() throws Exception{
 		setInnerFile(fs.toExistingInnerFileIfPossible(getInnerFile()));
@@ -218,12 +272,13 @@ public class EncryptedFile extends FSFFileWithInnerFile{
 	
 	@Override
 	public <K> K readObject(Class<K> classType) throws Exception {
-		return FSFFileUtil.objectFromByteArray(readBytes(), classType);
+		//: the data is encrypted and decrypted as a whole, so the serializer works on the complete bytes and not on a stream of the file
+		return FSFFileUtil.objectFromByteArray(fs.getSerializer(), readBytes(), classType);
 	}
 
 	@Override
 	public <K> FSFFile writeObject(K objectToWrite) throws Exception {
-		writeBytes(false, FSFFileUtil.objectToByteArray(objectToWrite));
+		writeBytes(false, FSFFileUtil.objectToByteArray(fs.getSerializer(), objectToWrite));
 		return this;
 	}
 
@@ -270,13 +325,13 @@ public class EncryptedFile extends FSFFileWithInnerFile{
 		byte[] encryptedBytes = bytesAndVersion.getData();
 		byte[] decryptedBytes = fs.decryptData(encryptedBytes);
 
-		K resultObject = FSFFileUtil.objectFromByteArray(decryptedBytes, classType); 
+		K resultObject = FSFFileUtil.objectFromByteArray(fs.getSerializer(), decryptedBytes, classType); 
 		return new VersionedData<K>(bytesAndVersion.getVersion(), resultObject);
 	}
 	
 	@Override
 	public <K> FSFFile writeObjectForVersion(K objectToWrite, long newVersion) throws WrongVersionException, Exception{
-		return writeBytesForVersion(false, FSFFileUtil.objectToByteArray(objectToWrite), newVersion);
+		return writeBytesForVersion(false, FSFFileUtil.objectToByteArray(fs.getSerializer(), objectToWrite), newVersion);
 	}
 
 	@Override
@@ -0,0 +1,15 @@
+package de.bright_side.filesystemfacade.facade;
+
+import java.io.Closeable;
+
+/**
+ * stream of the sub-items of a directory together with their attributes. The items are read lazily from the file system while iterating 
+ * so that large directories don't need to be kept in memory completely.
+ * The iterator may only be requested once and the stream must be closed after use (e.g. via try-with-resources) to release the resources of the file system.
+ * The items are not necessarily sorted.
+ *
+ * @author Philip Heyse
+ *
+ */
+public interface FSFDirectoryStream extends Closeable, Iterable<FSFFileAttributes>{
+}
@@ -2,10 +2,13 @@ package de.bright_side.filesystemfacade.facade;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.List;
 import java.util.SortedSet;
 
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
+import de.bright_side.filesystemfacade.util.RangeReadChannel;
 
 /**
  * @author Philip Heyse
@@ -14,6 +17,35 @@ import de.bright_side.filesystemfacade.util.ListDirFormatting;
 public interface FSFFile extends Comparable<FSFFile>{
 	/** @return null if the object is not a directory*/
 	public List<FSFFile> listFiles();
+	
+	/**
+	 * @return the sub-items together with a snapshot of their attributes or null if the object is not a directory. 
+	 * Depending on the file system this is much faster than calling listFiles() and reading the attributes of each file separately.
+	 * The default implementation reads the attributes of each file separately.
+	 * @throws Exception on error
+	 */
+	public default List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+		return FSFFileUtil.listFilesWithAttributesOneByOne(this);
+	}
+	
+	/**
+	 * @return a snapshot of type, length, time last modified, time created, version and existence of the file which is read in one operation.
+	 * If the file doesn't exist, all values are false or 0. The default implementation calls the single getter methods.
+	 * @throws Exception on error
+	 */
+	public default FSFFileAttributes readAttributes() throws Exception {
+		return FSFFileUtil.readAttributesOneByOne(this);
+	}
+	
+	/**
+	 * @return a stream of the sub-items together with their attributes which are read lazily while iterating or null if the object is not a directory.
+	 * The stream must be closed after use. In contrast to listFiles() the items are not necessarily sorted.
+	 * The default implementation reads the whole directory via listFilesWithAttributes().
+	 * @throws Exception on error
+	 */
+	public default FSFDirectoryStream openDirectoryStream() throws Exception {
+		return FSFFileUtil.openDirectoryStreamViaList(this);
+	}
 	public String getName();
 	public long getTimeLastModified() throws Exception;
 	/** 
@@ -111,6 +143,25 @@ public interface FSFFile extends Comparable<FSFFile>{
 	public OutputStream getOutputStream(boolean append) throws Exception;
 	public InputStream getInputStream() throws Exception;
 	
+	/**
+	 * @param offset position of the first byte to be read
+	 * @param length maximum number of bytes to be read. If the file ends before, fewer bytes are provided
+	 * @return input stream to the given range of the file data. Depending on the file system only the range is read instead of the whole file.
+	 * The default implementation skips the bytes before the offset in the full input stream.
+	 * @throws Exception if the file doesn't exist, offset or length are negative or on general error
+	 */
+	public default InputStream getInputStream(long offset, long length) throws Exception {
+		return FSFFileUtil.getInputStreamViaFullStream(this, offset, length);
+	}
+	
+	/**
+	 * @return a read-only channel to the file data which allows reading at arbitrary positions. The channel must be closed after use
+	 * @throws Exception if the file doesn't exist or on general error
+	 */
+	public default SeekableByteChannel getSeekableByteChannel() throws Exception {
+		return new RangeReadChannel(this);
+	}
+	
 	public <K> K readObject(Class<K> classType) throws Exception;
 	public <K> FSFFile writeObject(K objectToWrite) throws Exception;
 
@@ -0,0 +1,115 @@
+package de.bright_side.filesystemfacade.facade;
+
+/**
+ * snapshot of the attributes of a file (type, length, times, version and existence) as read in a single operation from the file system.
+ * The values are not updated if the file changes afterwards.
+ *
+ * @author Philip Heyse
+ *
+ */
+public class FSFFileAttributes {
+	private transient FSFFile file;
+	private boolean exists;
+	private boolean directory;
+	private long length;
+	private long timeLastModified;
+	private long timeCreated;
+	private long version;
+
+	public FSFFileAttributes(FSFFile file, boolean exists, boolean directory, long length, long timeLastModified, long timeCreated, long version) {
+		this.file = file;
+		this.exists = exists;
+		this.directory = directory;
+		this.length = length;
+		this.timeLastModified = timeLastModified;
+		this.timeCreated = timeCreated;
+		this.version = version;
+	}
+
+	/**
+	 * @param file the file which does not exist
+	 * @return attributes of a file that does not exist: all values are false or 0
+	 */
+	public static FSFFileAttributes createNonExisting(FSFFile file) {
+		return new FSFFileAttributes(file, false, false, 0, 0, 0, 0);
+	}
+
+	/**
+	 * @return the file that the attributes belong to
+	 */
+	public FSFFile getFile() {
+		return file;
+	}
+
+	public void setFile(FSFFile file) {
+		this.file = file;
+	}
+
+	public boolean exists() {
+		return exists;
+	}
+
+	public void setExists(boolean exists) {
+		this.exists = exists;
+	}
+
+	public boolean isDirectory() {
+		return exists && directory;
+	}
+
+	public boolean isFile() {
+		return exists && !directory;
+	}
+
+	public void setDirectory(boolean directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @return the length in bytes or 0 for directories and files that don't exist
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	public void setLength(long length) {
+		this.length = length;
+	}
+
+	public long getTimeLastModified() {
+		return timeLastModified;
+	}
+
+	public void setTimeLastModified(long timeLastModified) {
+		this.timeLastModified = timeLastModified;
+	}
+
+	/**
+	 * @return the time created or 0 if this is not supported by the file system or Java version
+	 */
+	public long getTimeCreated() {
+		return timeCreated;
+	}
+
+	public void setTimeCreated(long timeCreated) {
+		this.timeCreated = timeCreated;
+	}
+
+	/**
+	 * @return the version of the file or 0 if the file system doesn't support versions
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	@Override
+	public String toString() {
+		return "FSFFileAttributes{file=" + file + ", exists=" + exists + ", directory=" + directory + ", length=" + length + ", timeLastModified="
+				+ timeLastModified + ", timeCreated=" + timeCreated + ", version=" + version + "}";
+	}
+
+}
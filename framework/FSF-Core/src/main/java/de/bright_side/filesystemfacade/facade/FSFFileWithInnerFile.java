@@ -1,11 +1,15 @@
 package de.bright_side.filesystemfacade.facade;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.SortedSet;
 
+import de.bright_side.filesystemfacade.util.AbstractDirectoryStream;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
 
@@ -38,6 +42,67 @@ abstract public class FSFFileWithInnerFile implements FSFFile{
 		return result;
 	}
 
+	@Override
+	public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+		List<FSFFileAttributes> innerResult = innerFile.listFilesWithAttributes();
+		if (innerResult == null) {
+			return null;
+		}
+		List<FSFFileAttributes> result = new ArrayList<FSFFileAttributes>();
+		for (FSFFileAttributes i: innerResult) {
+			FSFFileAttributes item = wrapAttributes(i);
+			if (item != null) {
+				result.add(item);
+			}
+		}
+		return result;
+	}
+	
+	@Override
+	public FSFDirectoryStream openDirectoryStream() throws Exception {
+		final FSFDirectoryStream innerStream = innerFile.openDirectoryStream();
+		if (innerStream == null) {
+			return null;
+		}
+		final Iterator<FSFFileAttributes> innerIterator = innerStream.iterator();
+		return new AbstractDirectoryStream() {
+			@Override
+			protected FSFFileAttributes readNext() throws Exception {
+				while (innerIterator.hasNext()) {
+					FSFFileAttributes result = wrapAttributes(innerIterator.next());
+					if (result != null) {
+						return result;
+					}
+				}
+				return null;
+			}
+			
+			@Override
+			protected void closeResources() throws IOException {
+				innerStream.close();
+			}
+		};
+	}
+	
+	/**
+	 * converts the attributes of a sub-item of the inner file into the attributes of the wrapped sub-item.
+	 * Subclasses may override this method to change values or to skip items.
+	 * @param innerAttributes attributes as provided by the inner file system
+	 * @return the attributes of the wrapped file or null if the item should be skipped
+	 * @throws Exception on general error
+	 */
+	protected FSFFileAttributes wrapAttributes(FSFFileAttributes innerAttributes) throws Exception {
+		innerAttributes.setFile(wrap(innerAttributes.getFile()));
+		return innerAttributes;
+	}
+	
+	@Override
+	public FSFFileAttributes readAttributes() throws Exception {
+		FSFFileAttributes result = innerFile.readAttributes();
+		result.setFile(this);
+		return result;
+	}
+
 	@Override
 	public String getName() {
 		return innerFile.getName();
@@ -83,6 +148,16 @@ abstract public class FSFFileWithInnerFile implements FSFFile{
 		return innerFile.getInputStream();
 	}
 
+	@Override
+	public InputStream getInputStream(long offset, long length) throws Exception {
+		return innerFile.getInputStream(offset, length);
+	}
+
+	@Override
+	public SeekableByteChannel getSeekableByteChannel() throws Exception {
+		return innerFile.getSeekableByteChannel();
+	}
+
 	@Override
 	public void rename(String newName) throws Exception {
 		innerFile.rename(newName);
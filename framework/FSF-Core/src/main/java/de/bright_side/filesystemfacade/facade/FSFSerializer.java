@@ -0,0 +1,30 @@
+package de.bright_side.filesystemfacade.facade;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * converts objects to and from the data of a file. It is used by readObject and writeObject of the files and can be set per file system 
+ * (see FSFSystem.setSerializer). Implementations must be thread safe.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public interface FSFSerializer {
+	/**
+	 * writes the object to the stream. The stream is not closed
+	 * @param object object to be written
+	 * @param outputStream stream to write to
+	 * @throws Exception on general error
+	 */
+	<K> void write(K object, OutputStream outputStream) throws Exception;
+	
+	/**
+	 * reads an object from the stream. The stream is not closed
+	 * @param inputStream stream to read from
+	 * @param classType class of the object to be read
+	 * @return the object that was read
+	 * @throws Exception on general error
+	 */
+	<K> K read(InputStream inputStream, Class<K> classType) throws Exception;
+}
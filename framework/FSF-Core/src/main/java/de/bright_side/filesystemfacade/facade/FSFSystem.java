@@ -10,4 +10,23 @@ public interface FSFSystem {
 	List<FSFFile> listRoots();
 	FSFFile createByPath(String path) throws Exception;
 	String getSeparator();
+	
+	/**
+	 * @return the serializer which is used by readObject and writeObject of the files. By default this is compact JSON (see FSFFileUtil.DEFAULT_SERIALIZER).
+	 */
+	FSFSerializer getSerializer();
+	
+	/**
+	 * sets the serializer which is used by readObject and writeObject of the files. Objects must be read with the same serializer that they were written with.
+	 * @param serializer the serializer to be used
+	 */
+	void setSerializer(FSFSerializer serializer);
+	
+	/**
+	 * @return true if the file system may be used by multiple threads at the same time. Utilities such as the TreeCopier only use multiple threads
+	 * if this is the case. The default implementation returns false so that file systems need to state explicitly that they are thread-safe
+	 */
+	default boolean isConcurrent() {
+		return false;
+	}
 }
@@ -5,6 +5,7 @@ import java.util.List;
 
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 
@@ -131,4 +132,20 @@ public class HistoryFS implements FSFSystem{
 	public String getSeparator() {
 		return innerFS.getSeparator();
 	}
+
+	@Override
+	public FSFSerializer getSerializer() {
+		return innerFS.getSerializer();
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		innerFS.setSerializer(serializer);
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		//: a HistoryFile keeps the current version in an unsynchronized field
+		return false;
+	}
 }
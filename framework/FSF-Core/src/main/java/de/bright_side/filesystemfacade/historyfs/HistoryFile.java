@@ -13,6 +13,7 @@ import java.util.TreeSet;
 
 import de.bright_side.filesystemfacade.databasefs.DatabaseFile;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFFileWithInnerFile;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.IllegalPathItemNameException;
@@ -69,6 +70,26 @@ public class HistoryFile extends FSFFileWithInnerFile{
 		return result;
 	}
 	
+	@Override
+	protected FSFFileAttributes wrapAttributes(FSFFileAttributes innerAttributes) throws Exception {
+		if (getTechnicalDirNames().contains(innerAttributes.getFile().getName())) {
+			return null;
+		}
+		HistoryFile file = wrap(innerAttributes.getFile());
+		innerAttributes.setFile(file);
+		innerAttributes.setVersion(file.getVersionInternally(innerAttributes.exists()));
+		return innerAttributes;
+	}
+	
+	@Override
+	public FSFFileAttributes readAttributes() throws Exception {
+		FSFFileAttributes result = getInnerFile().readAttributes();
+		result.setFile(this);
+		result.setVersion(getVersionInternally(result.exists()));
+		cachedVersion = result.getVersion();
+		return result;
+	}
+	
 	private void assertNameAllowed(String name) throws IllegalPathItemNameException {
 		if (name == null) {
 			throw new IllegalPathItemNameException("The name may not be null");
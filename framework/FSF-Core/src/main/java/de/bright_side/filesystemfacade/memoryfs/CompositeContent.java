@@ -0,0 +1,271 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * content which consists of a list of parts so that appending only needs to store the appended bytes. The parts are kept in an array
+ * which is shared by the content before and after an append: the appended part is put into the next free slot of the array if no other
+ * content has used that slot yet, otherwise (and if the array is full) the array is copied with double the size. So an append needs amortized
+ * constant time besides storing the new bytes.
+ * 
+ * Streams read the parts one after the other. For random access (reads at an offset) the content can be compacted into one part.
+ * 
+ * @author Philip Heyse
+ *
+ */
+class CompositeContent extends MemoryFSContent{
+	/** number of parts from which on the content is compacted before reading at an offset */
+	public static final int MAX_PARTS_FOR_RANDOM_ACCESS = 16;
+	private static final int MIN_CAPACITY = 8;
+	
+	private final PartList partList;
+	private final int numberOfParts;
+	private final long length;
+
+	private CompositeContent(PartList partList, int numberOfParts, long length) {
+		this.partList = partList;
+		this.numberOfParts = numberOfParts;
+		this.length = length;
+		partList.views.incrementAndGet();
+	}
+	
+	/**
+	 * creates content which consists of the current content followed by the appended content
+	 * @param currentContent the current content which must not be freed while this method runs. The reference of the caller is kept
+	 * @param appendedContent the content to append. The reference of the caller is taken over
+	 * @return the new content
+	 */
+	public static MemoryFSContent append(MemoryFSContent currentContent, MemoryFSContent appendedContent) {
+		if (appendedContent.getLength() == 0) {
+			appendedContent.release();
+			currentContent.tryRetain();
+			return currentContent;
+		}
+		if (currentContent instanceof CompositeContent) {
+			return ((CompositeContent)currentContent).append(appendedContent);
+		}
+		PartList partList = new PartList(MIN_CAPACITY);
+		currentContent.tryRetain();
+		partList.parts[0] = currentContent;
+		partList.ends[0] = currentContent.getLength();
+		partList.parts[1] = appendedContent;
+		partList.ends[1] = currentContent.getLength() + appendedContent.getLength();
+		partList.size.set(2);
+		return new CompositeContent(partList, 2, partList.ends[1]);
+	}
+	
+	private MemoryFSContent append(MemoryFSContent appendedContent) {
+		long newLength = length + appendedContent.getLength();
+		//: the slot is only used if no other content (e.g. of a copied file which shares this content) has appended in the meantime
+		if ((numberOfParts < partList.parts.length) && (partList.size.compareAndSet(numberOfParts, numberOfParts + 1))) {
+			partList.parts[numberOfParts] = appendedContent;
+			partList.ends[numberOfParts] = newLength;
+			return new CompositeContent(partList, numberOfParts + 1, newLength);
+		}
+		PartList newPartList = new PartList(Math.max(MIN_CAPACITY, numberOfParts * 2));
+		for (int i = 0; i < numberOfParts; i++) {
+			partList.parts[i].tryRetain();
+			newPartList.parts[i] = partList.parts[i];
+			newPartList.ends[i] = partList.ends[i];
+		}
+		newPartList.parts[numberOfParts] = appendedContent;
+		newPartList.ends[numberOfParts] = newLength;
+		newPartList.size.set(numberOfParts + 1);
+		return new CompositeContent(newPartList, numberOfParts + 1, newLength);
+	}
+	
+	public int getNumberOfParts() {
+		return numberOfParts;
+	}
+	
+	/**
+	 * @param store store in which the result is created
+	 * @return new content with one part that contains all bytes of this content
+	 * @throws IOException on general error
+	 */
+	public MemoryFSContent compact(MemoryFSContentStore store) throws IOException {
+		try (MemoryFSContentBuilder builder = store.createBuilder()){
+			writeTo(builder);
+			return builder.build();
+		}
+	}
+
+	@Override
+	public long getLength() {
+		return length;
+	}
+
+	@Override
+	protected InputStream createInputStream(long offset, long length) {
+		long end = offset;
+		if (offset < this.length) {
+			end = offset + Math.min(length, this.length - offset);
+		}
+		return new PartsInputStream(offset, end);
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		byte[] result = new byte[(int)length];
+		int position = 0;
+		for (int i = 0; i < numberOfParts; i++) {
+			byte[] partData = partList.parts[i].toByteArray();
+			System.arraycopy(partData, 0, result, position, partData.length);
+			position += partData.length;
+		}
+		return result;
+	}
+
+	@Override
+	public void writeTo(OutputStream outputStream) throws IOException {
+		for (int i = 0; i < numberOfParts; i++) {
+			partList.parts[i].writeTo(outputStream);
+		}
+	}
+
+	@Override
+	protected void free() {
+		if (partList.views.decrementAndGet() == 0) {
+			for (int i = 0; i < partList.size.get(); i++) {
+				partList.parts[i].release();
+			}
+		}
+	}
+	
+	/**
+	 * @return index of the part which contains the byte at the given position
+	 */
+	private int getPartIndex(long position) {
+		int result = Arrays.binarySearch(partList.ends, 0, numberOfParts, position);
+		//: the end is exclusive, so a position equal to an end belongs to the next part
+		if (result >= 0) {
+			return result + 1;
+		}
+		return -result - 1;
+	}
+	
+	private long getPartStart(int index) {
+		if (index == 0) {
+			return 0;
+		}
+		return partList.ends[index - 1];
+	}
+	
+	/**
+	 * array of parts which is shared by the contents that were created by appending. Each content uses the parts up to its number of parts.
+	 * The parts are released when no content uses the list anymore.
+	 */
+	private static class PartList{
+		private final MemoryFSContent[] parts;
+		private final long[] ends;
+		/** number of slots which are used by any content */
+		private final AtomicInteger size = new AtomicInteger();
+		/** number of contents which use the list and have not been freed yet */
+		private final AtomicInteger views = new AtomicInteger();
+		
+		public PartList(int capacity) {
+			parts = new MemoryFSContent[capacity];
+			ends = new long[capacity];
+		}
+	}
+
+	/**
+	 * reads the parts one after the other with the streams of the parts
+	 */
+	private class PartsInputStream extends InputStream{
+		private long position;
+		private final long end;
+		private int partIndex;
+		private InputStream partInputStream;
+		private boolean closed = false;
+		
+		public PartsInputStream(long offset, long end) {
+			this.position = offset;
+			this.end = end;
+			partIndex = getPartIndex(offset);
+		}
+		
+		/**
+		 * @return the stream of the part which contains the current position or null if the end has been reached
+		 */
+		private InputStream getPartInputStream() throws IOException {
+			if (position >= end) {
+				return null;
+			}
+			if (partInputStream == null) {
+				MemoryFSContent part = partList.parts[partIndex];
+				long partStart = getPartStart(partIndex);
+				//: the part is used by this content which is retained by the stream, so the part cannot have been freed
+				part.tryRetain();
+				partInputStream = part.createInputStream(position - partStart, end - position);
+			}
+			return partInputStream;
+		}
+		
+		private void nextPart() throws IOException {
+			partInputStream.close();
+			partInputStream = null;
+			partIndex ++;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			while (true) {
+				InputStream inputStream = getPartInputStream();
+				if (inputStream == null) {
+					return -1;
+				}
+				int result = inputStream.read();
+				if (result >= 0) {
+					position ++;
+					return result;
+				}
+				nextPart();
+			}
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (true) {
+				InputStream inputStream = getPartInputStream();
+				if (inputStream == null) {
+					return -1;
+				}
+				int result = inputStream.read(b, off, (int)Math.min(len, end - position));
+				if (result > 0) {
+					position += result;
+					return result;
+				}
+				nextPart();
+			}
+		}
+		
+		@Override
+		public int available() throws IOException {
+			return (int)Math.min(Integer.MAX_VALUE, Math.max(0, end - position));
+		}
+		
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				if (partInputStream != null) {
+					partInputStream.close();
+				}
+			} finally {
+				release();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * keeps the content of each file in a byte array on the Java heap. This is the default content store of the MemoryFS.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class HeapContentStore implements MemoryFSContentStore{
+	
+	@Override
+	public MemoryFSContentBuilder createBuilder() {
+		return new HeapContentBuilder();
+	}
+	
+	@Override
+	public String toString() {
+		return "HeapContentStore{}";
+	}
+
+	private static class HeapContentBuilder extends MemoryFSContentBuilder{
+		private final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			byteArrayOutputStream.write(b, off, len);
+		}
+		
+		@Override
+		public MemoryFSContent build() {
+			return new HeapContent(byteArrayOutputStream.toByteArray());
+		}
+	}
+	
+	private static class HeapContent extends MemoryFSContent{
+		private final byte[] data;
+
+		public HeapContent(byte[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public long getLength() {
+			return data.length;
+		}
+
+		@Override
+		protected InputStream createInputStream(long offset, long length) {
+			if (offset >= data.length) {
+				return new ByteArrayInputStream(new byte[0]);
+			}
+			//: the stream reads directly from the slice of the array without copying it
+			return new ByteArrayInputStream(data, (int)offset, (int)Math.min(length, data.length - offset));
+		}
+
+		@Override
+		public byte[] toByteArray() {
+			return Arrays.copyOf(data, data.length);
+		}
+
+		@Override
+		public void writeTo(OutputStream outputStream) throws IOException {
+			outputStream.write(data);
+		}
+
+		/**
+		 * the array is collected by the garbage collector, so the references don't need to be counted and streams don't need to be closed
+		 */
+		@Override
+		public boolean tryRetain() {
+			return true;
+		}
+		
+		@Override
+		public void release() {
+		}
+
+		@Override
+		protected void free() {
+		}
+	}
+	
+}
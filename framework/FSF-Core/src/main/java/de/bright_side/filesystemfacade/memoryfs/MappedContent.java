@@ -0,0 +1,117 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * content which is read directly from a part of a memory-mapped MemoryFS image (see MemoryFSImage). The bytes are only loaded by the
+ * operating system when they are read. The mapping is removed by the garbage collector when no content uses it any more, so the references
+ * don't need to be counted.
+ *
+ * @author Philip Heyse
+ *
+ */
+class MappedContent extends MemoryFSContent{
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+	/** the bytes of the content from position 0 to the limit */
+	private final ByteBuffer buffer;
+
+	public MappedContent(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	@Override
+	public long getLength() {
+		return buffer.limit();
+	}
+
+	@Override
+	protected InputStream createInputStream(long offset, long length) {
+		ByteBuffer result = buffer.duplicate();
+		if (offset >= result.limit()) {
+			result.position(result.limit());
+		} else {
+			result.position((int)offset);
+			result.limit((int)Math.min(result.limit(), offset + length));
+		}
+		return new ByteBufferInputStream(result);
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		byte[] result = new byte[buffer.limit()];
+		buffer.duplicate().get(result);
+		return result;
+	}
+
+	@Override
+	public void writeTo(OutputStream outputStream) throws IOException {
+		ByteBuffer source = buffer.duplicate();
+		byte[] copyBuffer = new byte[Math.min(COPY_BUFFER_SIZE, source.remaining())];
+		while (source.hasRemaining()) {
+			int bytesToCopy = Math.min(copyBuffer.length, source.remaining());
+			source.get(copyBuffer, 0, bytesToCopy);
+			outputStream.write(copyBuffer, 0, bytesToCopy);
+		}
+	}
+
+	@Override
+	public boolean tryRetain() {
+		return true;
+	}
+
+	@Override
+	public void release() {
+	}
+
+	@Override
+	protected void free() {
+	}
+
+	/**
+	 * reads from the buffer into the array of the caller without an intermediate copy
+	 */
+	private static class ByteBufferInputStream extends InputStream{
+		private final ByteBuffer buffer;
+
+		public ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			return buffer.get() & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int result = Math.min(len, buffer.remaining());
+			buffer.get(b, off, result);
+			return result;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			int result = (int)Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + result);
+			return result;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return buffer.remaining();
+		}
+	}
+
+}
@@ -3,43 +3,176 @@ package de.bright_side.filesystemfacade.memoryfs;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.SortedSet;
+import java.util.NavigableMap;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 
 /**
+ * A file system which keeps all files in memory.
+ *
+ * The items form a tree: each directory item maps the names of its children to their items. A path is resolved by walking from the root
+ * item, so the full paths are not stored and moving or renaming a directory only moves the reference to its item to another parent
+ * regardless of the number of sub-items.
+ *
+ * By default the MemoryFS may only be used by one thread at a time. In concurrent mode (see constructor) it may be shared between threads:
+ * the children are kept in concurrent sorted maps so that reading (exists, listFiles, readBytes, ...) needs no lock. Changes of the namespace
+ * (creating, deleting, renaming, moving and copying items, mkdirs) are made while holding the namespace lock so that each of them is atomic
+ * with respect to the other changes. The data of a file is replaced as a whole when an output stream is closed, so readers see either the
+ * old or the new content.
+ *
+ * A snapshot (see snapshot()) is a read-only view of the file system at the time it was taken. It shares the tree of items and the content
+ * with the file system: an item that is shared with a snapshot is copied before it is changed and so are the directories on the path to it.
+ *
  * @author Philip Heyse
  *
  */
 public class MemoryFS implements FSFSystem{
 	protected static final String SEPARATOR = "/";
-	
-	/** if an entry is a dir, it at least contains the key with an empty list. The list items are full paths (and not just names)*/
-	private Map<String, SortedSet<String>> pathToChildrenMap = new TreeMap<>();
-	private Map<String, MemoryFSItem> pathToItemsMap = new TreeMap<>();
-	
+
+	private final boolean concurrent;
+	private final MemoryFSContentStore contentStore;
+	private final Lock namespaceLock = new ReentrantLock();
+	private final boolean snapshot;
+	/** replaced by a copy on the first change after a snapshot has been taken. Readers which don't hold the lock may still read the previous root which is not changed any more */
+	private volatile MemoryFSItem root;
+	private boolean released = false;
+
 	private FSFEnvironment environment;
-	
-	public MemoryFS(FSFEnvironment environment) {
+	private volatile FSFSerializer serializer = FSFFileUtil.DEFAULT_SERIALIZER;
+
+	/**
+	 * @param environment environment object to e.g. get the current time
+	 * @param config configuration of the concurrent mode and the storage of the content
+	 */
+	public MemoryFS(FSFEnvironment environment, MemoryFSConfig config) {
 		this.environment = environment;
-		pathToItemsMap.put("", new MemoryFSItem(this, true, 0L, 0L));
-		pathToChildrenMap.put("", new TreeSet<String>());
+		this.concurrent = config.isConcurrent();
+		this.contentStore = config.getContentStore();
+		this.snapshot = false;
+		root = new MemoryFSItem(this, true, 0L, 0L);
+	}
+
+	/**
+	 * creates a snapshot of the original file system
+	 */
+	private MemoryFS(MemoryFS original, MemoryFSItem root) {
+		this.environment = original.environment;
+		this.serializer = original.serializer;
+		this.concurrent = original.concurrent;
+		this.contentStore = original.contentStore;
+		this.snapshot = true;
+		this.root = root;
+	}
+
+	/**
+	 * @param environment environment object to e.g. get the current time
+	 * @param concurrent true if the file system may be used by multiple threads at the same time. False for a file system that is only used by
+	 * one thread at a time which is slightly faster
+	 */
+	public MemoryFS(FSFEnvironment environment, boolean concurrent) {
+		this(environment, new MemoryFSConfig().setConcurrent(concurrent));
 	}
-	
+
+	public MemoryFS(FSFEnvironment environment) {
+		this(environment, false);
+	}
+
 	public MemoryFS(){
 		this(FSFFileUtil.createDefaultEnvironment());
 	}
-	
+
+	/**
+	 * @param entries the entries of the new map. The map is copied in linear time because it is already sorted
+	 * @return a map for the children of a directory item
+	 */
+	protected NavigableMap<String, MemoryFSItem> createChildMap(NavigableMap<String, MemoryFSItem> entries){
+		if (concurrent) {
+			return new ConcurrentSkipListMap<String, MemoryFSItem>(entries);
+		}
+		return new TreeMap<String, MemoryFSItem>(entries);
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * @return true if this file system is a read-only snapshot of another MemoryFS
+	 */
+	public boolean isSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * creates a read-only view of the current state of the file system in constant time. The snapshot is not affected by later changes of this
+	 * file system and may be read while other threads change this file system (in concurrent mode). Changing files of the snapshot fails with
+	 * an exception. Nothing is copied when taking the snapshot: when this file system changes an item afterwards, the item and the directories
+	 * on the path to it are copied (but not the content). The content itself is never copied but shared as long as it is in use.
+	 * To fork a file system (e.g. a test fixture), copy the files of the snapshot to a new MemoryFS that uses the same content store:
+	 * the content is then shared as well.
+	 * @return the snapshot
+	 */
+	public MemoryFS snapshot() {
+		namespaceLock.lock();
+		try {
+			MemoryFSItem currentRoot = root;
+			currentRoot.share();
+			return new MemoryFS(this, currentRoot);
+		} finally {
+			namespaceLock.unlock();
+		}
+	}
+
+	/**
+	 * releases the content that is only used by this snapshot. This is only necessary for content stores which don't rely on the garbage
+	 * collection such as the OffHeapContentStore. The snapshot must not be used afterwards
+	 */
+	public void releaseSnapshot() {
+		if (!snapshot) {
+			throw new IllegalStateException("Only snapshots can be released");
+		}
+		namespaceLock.lock();
+		try {
+			if (released) {
+				return;
+			}
+			released = true;
+			root.unshare();
+		} finally {
+			namespaceLock.unlock();
+		}
+	}
+
+	/**
+	 * must be called while holding the namespace lock
+	 * @return the root item which may be changed. If the current root is shared with a snapshot, it is replaced by a copy
+	 */
+	private MemoryFSItem getExclusiveRoot() {
+		if (snapshot) {
+			throw new IllegalStateException("A snapshot cannot be changed");
+		}
+		MemoryFSItem currentRoot = root;
+		if (!currentRoot.isShared()) {
+			return currentRoot;
+		}
+		MemoryFSItem result = currentRoot.createUnsharedCopy();
+		root = result;
+		currentRoot.unshare();
+		return result;
+	}
+
 	@Override
 	public List<FSFFile> listRoots() {
-		return Collections.singletonList((FSFFile)pathToItemsMap.get(""));
+		return Collections.singletonList((FSFFile)new MemoryFile(this, ""));
 	}
 
 	@Override
@@ -47,63 +180,197 @@ public class MemoryFS implements FSFSystem{
 		return new MemoryFile(this, MemoryFSUtil.normalize(path));
 	}
 
-	
+	/**
+	 * @param path path of the item
+	 * @return the item or null if there is no item at the path
+	 */
 	protected MemoryFSItem getItem(String path){
-		return pathToItemsMap.get(path);
+		if (path.isEmpty()) {
+			return root;
+		}
+		if (!path.startsWith(SEPARATOR)) {
+			return null;
+		}
+		MemoryFSItem result = root;
+		int start = SEPARATOR.length();
+		while (true) {
+			int end = path.indexOf(SEPARATOR, start);
+			result = result.getChild(getName(path, start, end));
+			if ((result == null) || (end < 0)) {
+				return result;
+			}
+			start = end + SEPARATOR.length();
+		}
 	}
 
-	protected List<MemoryFSItem> getChildItemsOrEmpty(String path){
-		List<MemoryFSItem> result = new ArrayList<>();
-		Set<String> children = pathToChildrenMap.get(path);
-		if (children == null){
+	/**
+	 * must be called while holding the namespace lock
+	 * @param path path of the item
+	 * @return the item which may be changed or null if there is no item at the path. If the item or a directory on the path to it is shared
+	 * with a snapshot, it is replaced by a copy
+	 */
+	protected MemoryFSItem getItemForChange(String path){
+		MemoryFSItem result = getExclusiveRoot();
+		if (path.isEmpty()) {
 			return result;
 		}
-		
-		for (String i: children){
-			result.add(pathToItemsMap.get(i));
+		if (!path.startsWith(SEPARATOR)) {
+			return null;
 		}
-		
-		return result;
-	}
-	
-	public void setExistenceInParentDir(String path, boolean exists) {
-		String parentPath = MemoryFSUtil.getParentPath(path);
-		if (!exists){
-			if (pathToChildrenMap.containsKey(parentPath)){
-				pathToChildrenMap.get(parentPath).remove(path);
+		int start = SEPARATOR.length();
+		while (true) {
+			int end = path.indexOf(SEPARATOR, start);
+			String name = getName(path, start, end);
+			MemoryFSItem child = result.getChild(name);
+			if (child == null) {
+				return null;
+			}
+			if (child.isShared()) {
+				MemoryFSItem copy = child.createUnsharedCopy();
+				result.getChildren().put(name, copy);
+				child.unshare();
+				child = copy;
 			}
-		} else {
-			if (!pathToChildrenMap.containsKey(parentPath)){
-				pathToChildrenMap.put(parentPath, new TreeSet<String>());
+			result = child;
+			if (end < 0) {
+				return result;
 			}
-			pathToChildrenMap.get(parentPath).add(path);
+			start = end + SEPARATOR.length();
+		}
+	}
+
+	private static String getName(String path, int start, int end) {
+		if (end < 0) {
+			return path.substring(start);
+		}
+		return path.substring(start, end);
+	}
+
+	/**
+	 * must be called while holding the namespace lock
+	 * @return the parent directory item which may be changed or null if the parent directory does not exist
+	 */
+	private MemoryFSItem getParentDirForChange(String path) {
+		String parentPath = MemoryFSUtil.getParentPath(path);
+		if (parentPath == null) {
+			return null;
+		}
+		MemoryFSItem result = getItemForChange(parentPath);
+		if ((result == null) || (!result.isDir())) {
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * @param path path of the directory
+	 * @return the items of the children of the directory by their names or an empty map if there is no directory at the path.
+	 */
+	protected NavigableMap<String, MemoryFSItem> getChildrenOrEmpty(String path){
+		MemoryFSItem item = getItem(path);
+		if ((item == null) || (!item.isDir())){
+			return Collections.emptyNavigableMap();
 		}
+		return Collections.unmodifiableNavigableMap(item.getChildren());
 	}
 
+	protected List<MemoryFSItem> getChildItemsOrEmpty(String path){
+		return new ArrayList<>(getChildrenOrEmpty(path).values());
+	}
 
 	protected List<String> getChildPathsOrEmpty(String path){
-		Set<String> children = pathToChildrenMap.get(path);
-		if (children == null){
-			return new ArrayList<>();
+		List<String> result = new ArrayList<>();
+		for (String i: getChildrenOrEmpty(path).keySet()){
+			result.add(path + SEPARATOR + i);
 		}
-		return new ArrayList<String>(children);
+		return result;
 	}
 
-	public void setItem(String path, MemoryFSItem item) {
-		pathToItemsMap.put(path, item);
-		if (item.isDir()){ 
-			if (!pathToChildrenMap.containsKey(path)){
-				pathToChildrenMap.put(path, new TreeSet<String>());
-			}
-		} else {
-			pathToChildrenMap.remove(path);
+	/**
+	 * @param path path of the directory
+	 * @param previousChildName name of the previously read child or null to read the first child
+	 * @return the name of the next child in the sort order or null if there are no more children.
+	 * The children may be modified between the calls.
+	 */
+	protected String getNextChildName(String path, String previousChildName){
+		MemoryFSItem item = getItem(path);
+		if ((item == null) || (!item.isDir())){
+			return null;
+		}
+		if (previousChildName == null){
+			//: not firstKey() which throws an exception if the last child has been removed by another thread after checking that the map is not empty
+			return item.getChildren().ceilingKey("");
+		}
+		return item.getChildren().higherKey(previousChildName);
+	}
+
+	/**
+	 * adds the item to its parent directory or replaces the existing item. Must be called while holding the namespace lock
+	 * @param path path of the item
+	 * @param item the item
+	 * @return false if the parent directory does not exist so that the item could not be added
+	 */
+	public boolean setItem(String path, MemoryFSItem item) {
+		MemoryFSItem parent = getParentDirForChange(path);
+		if (parent == null) {
+			return false;
 		}
-		
+		//: the names are interned so that items with the same name in different directories share the string
+		MemoryFSItem previousItem = parent.getChildren().put(MemoryFSUtil.getName(path).intern(), item);
+		if ((previousItem != null) && (previousItem != item)) {
+			previousItem.unshare();
+		}
+		return true;
 	}
 
+	/**
+	 * removes the item (including all sub-items) from its parent directory. Must be called while holding the namespace lock
+	 * @param path path of the item
+	 */
 	public void removeItem(String path) {
-		pathToItemsMap.remove(path);
-		pathToChildrenMap.remove(path);
+		MemoryFSItem parent = getParentDirForChange(path);
+		if (parent == null) {
+			return;
+		}
+		MemoryFSItem item = parent.getChildren().remove(MemoryFSUtil.getName(path));
+		if (item != null) {
+			//: frees the storage of the content (unless it is still used by a snapshot or read by a stream)
+			item.unshare();
+		}
+	}
+
+	/**
+	 * moves the item (including all sub-items) to another path by moving the reference to it from the source parent to the dest parent.
+	 * An existing item at the dest path is replaced. Must be called while holding the namespace lock
+	 * @param sourcePath path of the item to be moved
+	 * @param destPath new path of the item
+	 * @throws Exception if the item does not exist, the parent directory of the dest path does not exist or the dest path is inside of the source path
+	 */
+	public void moveItem(String sourcePath, String destPath) throws Exception {
+		if (sourcePath.equals(destPath)) {
+			return;
+		}
+		if (destPath.startsWith(sourcePath + SEPARATOR)) {
+			throw new Exception("Cannot move '" + sourcePath + "' into its own sub-directory '" + destPath + "'");
+		}
+		MemoryFSItem sourceParent = getParentDirForChange(sourcePath);
+		String sourceName = MemoryFSUtil.getName(sourcePath);
+		MemoryFSItem item = null;
+		if (sourceParent != null) {
+			item = sourceParent.getChild(sourceName);
+		}
+		if (item == null) {
+			throw new Exception("There is no file at path '" + sourcePath + "'");
+		}
+		MemoryFSItem destParent = getParentDirForChange(destPath);
+		if (destParent == null) {
+			throw new Exception("The parent directory of '" + destPath + "' does not exist");
+		}
+		MemoryFSItem previousItem = destParent.getChildren().put(MemoryFSUtil.getName(destPath).intern(), item);
+		sourceParent.getChildren().remove(sourceName);
+		if (previousItem != null) {
+			previousItem.unshare();
+		}
 	}
 
 	public void setEnvironment(FSFEnvironment environment) {
@@ -114,10 +381,30 @@ public class MemoryFS implements FSFSystem{
 		return environment;
 	}
 
+	public MemoryFSContentStore getContentStore() {
+		return contentStore;
+	}
+
+	/**
+	 * @return the lock which must be held while the namespace is changed (items created, removed or replaced)
+	 */
+	protected Lock getNamespaceLock() {
+		return namespaceLock;
+	}
+
 	@Override
 	public String getSeparator() {
 		return SEPARATOR;
 	}
-	
-	
+
+	@Override
+	public FSFSerializer getSerializer() {
+		return serializer;
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		this.serializer = serializer;
+	}
+
 }
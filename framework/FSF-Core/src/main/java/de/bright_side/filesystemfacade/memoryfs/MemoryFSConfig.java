@@ -0,0 +1,43 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+/**
+ * @author Philip Heyse
+ *
+ */
+public class MemoryFSConfig {
+	private boolean concurrent = false;
+	private MemoryFSContentStore contentStore = new HeapContentStore();
+	
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+	
+	/**
+	 * @param concurrent true if the file system may be used by multiple threads at the same time. False for a file system that is only used by 
+	 * one thread at a time which is slightly faster
+	 * @return this object
+	 */
+	public MemoryFSConfig setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+		return this;
+	}
+	
+	public MemoryFSContentStore getContentStore() {
+		return contentStore;
+	}
+	
+	/**
+	 * @param contentStore storage of the file content, e.g. HeapContentStore (default) or OffHeapContentStore to keep the content outside of the Java heap
+	 * @return this object
+	 */
+	public MemoryFSConfig setContentStore(MemoryFSContentStore contentStore) {
+		this.contentStore = contentStore;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "MemoryFSConfig{concurrent=" + concurrent + ", contentStore=" + contentStore + "}";
+	}
+	
+}
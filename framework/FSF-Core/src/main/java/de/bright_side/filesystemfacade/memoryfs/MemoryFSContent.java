@@ -0,0 +1,74 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * immutable content of a file in a MemoryFS. The content is reference counted so that the storage can be freed (or reused) as soon as 
+ * neither an item nor an open input stream uses it. A new content has one reference which belongs to the creator.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public abstract class MemoryFSContent {
+	private final AtomicInteger references = new AtomicInteger(1);
+	
+	/**
+	 * @return the number of bytes
+	 */
+	public abstract long getLength();
+	
+	/**
+	 * creates a stream which reads directly from the storage. The stream takes over one reference to the content and releases it when the stream
+	 * is closed, so the caller must have retained the content for the stream.
+	 * @param offset position of the first byte to read
+	 * @param length maximum number of bytes to read
+	 * @return the stream
+	 */
+	protected abstract InputStream createInputStream(long offset, long length);
+	
+	/**
+	 * @return a copy of the content on the heap
+	 */
+	public abstract byte[] toByteArray();
+
+	/**
+	 * writes the whole content to the stream. The stream is not closed
+	 * @param outputStream stream to write to
+	 * @throws IOException on general error
+	 */
+	public abstract void writeTo(OutputStream outputStream) throws IOException;
+	
+	/**
+	 * frees the storage. Called when the last reference has been released
+	 */
+	protected abstract void free();
+	
+	/**
+	 * adds a reference unless the content has already been freed
+	 * @return true if the reference was added, false if the content has already been freed 
+	 */
+	public boolean tryRetain() {
+		while (true) {
+			int current = references.get();
+			if (current <= 0) {
+				return false;
+			}
+			if (references.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+	
+	/**
+	 * removes a reference and frees the storage if it was the last one
+	 */
+	public void release() {
+		if (references.decrementAndGet() == 0) {
+			free();
+		}
+	}
+	
+}
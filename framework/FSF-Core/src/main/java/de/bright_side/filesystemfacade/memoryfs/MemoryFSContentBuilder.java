@@ -0,0 +1,27 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * collects the bytes of new content. After all bytes have been written, build() creates the content. If close() is called without calling
+ * build() first, the storage which was used for the written bytes is freed.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public abstract class MemoryFSContentBuilder extends OutputStream{
+	/**
+	 * @return the content with all bytes written so far. The builder may not be used afterwards
+	 * @throws IOException on general error
+	 */
+	public abstract MemoryFSContent build() throws IOException;
+	
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] {(byte)b}, 0, 1);
+	}
+	
+	@Override
+	public abstract void write(byte[] b, int off, int len) throws IOException;
+}
@@ -0,0 +1,14 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+/**
+ * storage engine of the file content of a MemoryFS. Implementations must be thread safe.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public interface MemoryFSContentStore {
+	/**
+	 * @return a builder to which the bytes of new content are written
+	 */
+	MemoryFSContentBuilder createBuilder();
+}
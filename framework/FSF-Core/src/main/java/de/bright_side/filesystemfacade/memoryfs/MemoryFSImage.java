@@ -0,0 +1,307 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map.Entry;
+
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+/**
+ * writes the files of a MemoryFS to a binary image and loads a MemoryFS from such an image. This is much faster than copying the files
+ * from a directory of the NativeFS to a MemoryFS (e.g. to preload test fixtures or caches at startup): the image is a single file
+ * which is memory-mapped when it is loaded. Only the tree of items is created while loading. The content of the files is read from the
+ * mapping by the operating system when it is accessed and it is only kept in the content store of the MemoryFS when the file is written.
+ *
+ * The image consists of the magic bytes and the version followed by the records of the items in pre-order starting with the root
+ * directory. Each record starts with the type (directory or file), the length and the UTF-8 bytes of the name and the modification and
+ * creation time. The record of a file continues with the length and the bytes of the content. The records of the children of a directory
+ * are followed by an end-of-directory marker.
+ *
+ * @author Philip Heyse
+ *
+ */
+public class MemoryFSImage {
+	private static final boolean LOGGING_ENABLED = false;
+	private static final byte[] MAGIC = new byte[] {'F', 'S', 'F', 'M', 'E', 'M', 'F', 'S'};
+	private static final int VERSION = 1;
+	private static final byte TYPE_END_OF_DIR = 0;
+	private static final byte TYPE_DIR = 1;
+	private static final byte TYPE_FILE = 2;
+	private static final Charset NAME_CHARSET = Charset.forName("UTF-8");
+	private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+	/** a single mapping may not exceed 2 GB, so larger images are mapped in segments */
+	private static final long DEFAULT_SEGMENT_SIZE = 1024L * 1024L * 1024L;
+
+	/**
+	 * writes all files and directories of the file system to the image file. The file system may be changed by other threads in the meantime
+	 * (in concurrent mode) because the image is written from a snapshot.
+	 * @param memoryFS the file system to be written
+	 * @param imageFile the file to which the image is written. An existing file is replaced
+	 * @throws Exception on general error
+	 */
+	public static void write(MemoryFS memoryFS, File imageFile) throws Exception {
+		try (OutputStream outputStream = new FileOutputStream(imageFile)){
+			write(memoryFS, outputStream);
+		}
+	}
+
+	/**
+	 * writes all files and directories of the file system as an image to the output stream. The file system may be changed by other threads
+	 * in the meantime (in concurrent mode) because the image is written from a snapshot.
+	 * @param memoryFS the file system to be written
+	 * @param outputStream the stream to write the image to. It is not closed
+	 * @throws Exception on general error
+	 */
+	public static void write(MemoryFS memoryFS, OutputStream outputStream) throws Exception {
+		MemoryFS snapshot = memoryFS.isSnapshot() ? memoryFS : memoryFS.snapshot();
+		try {
+			DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(outputStream, WRITE_BUFFER_SIZE));
+			dataOutputStream.write(MAGIC);
+			dataOutputStream.writeInt(VERSION);
+			writeItem(dataOutputStream, "", snapshot.getItem(""));
+			dataOutputStream.flush();
+		} finally {
+			if (snapshot != memoryFS) {
+				snapshot.releaseSnapshot();
+			}
+		}
+	}
+
+	private static void writeItem(DataOutputStream outputStream, String name, MemoryFSItem item) throws IOException {
+		byte[] nameBytes = name.getBytes(NAME_CHARSET);
+		outputStream.writeByte(item.isDir() ? TYPE_DIR : TYPE_FILE);
+		outputStream.writeInt(nameBytes.length);
+		outputStream.write(nameBytes);
+		outputStream.writeLong(item.getTimeLastModified());
+		outputStream.writeLong(item.getTimeCreated());
+		if (item.isDir()) {
+			for (Entry<String, MemoryFSItem> i: item.getChildren().entrySet()) {
+				writeItem(outputStream, i.getKey(), i.getValue());
+			}
+			outputStream.writeByte(TYPE_END_OF_DIR);
+			return;
+		}
+		MemoryFSContent content = item.retainContent();
+		try {
+			if (content == null) {
+				outputStream.writeLong(0);
+			} else {
+				outputStream.writeLong(content.getLength());
+				content.writeTo(outputStream);
+			}
+		} finally {
+			if (content != null) {
+				content.release();
+			}
+		}
+	}
+
+	/**
+	 * loads a file system from an image file which has been written by the write method. The content of the files is read from the
+	 * memory-mapped image file until it is replaced, so the image file must not be changed while the file system is in use.
+	 * @param imageFile the image file
+	 * @param environment environment object to e.g. get the current time
+	 * @param config configuration of the new file system. Its content store is used for the content that is written after loading
+	 * @return the loaded file system
+	 * @throws Exception on general error or if the file is not a valid image
+	 */
+	public static MemoryFS load(File imageFile, FSFEnvironment environment, MemoryFSConfig config) throws Exception {
+		return load(imageFile, environment, config, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * loads a file system with the default environment and configuration from an image file which has been written by the write method.
+	 * @param imageFile the image file
+	 * @return the loaded file system
+	 * @throws Exception on general error or if the file is not a valid image
+	 */
+	public static MemoryFS load(File imageFile) throws Exception {
+		return load(imageFile, FSFFileUtil.createDefaultEnvironment(), new MemoryFSConfig());
+	}
+
+	/**
+	 * @param segmentSize maximum size of the parts of the image file which are mapped at once
+	 */
+	protected static MemoryFS load(File imageFile, FSFEnvironment environment, MemoryFSConfig config, long segmentSize) throws Exception {
+		long startTime = System.currentTimeMillis();
+		MemoryFS result = new MemoryFS(environment, config);
+		try (RandomAccessFile file = new RandomAccessFile(imageFile, "r"); FileChannel channel = file.getChannel()){
+			ImageReader reader = new ImageReader(channel, segmentSize);
+			byte[] magic = reader.readBytes(MAGIC.length);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw new Exception("File '" + imageFile.getAbsolutePath() + "' is not a MemoryFS image");
+			}
+			int version = reader.readInt();
+			if (version != VERSION) {
+				throw new Exception("Unsupported MemoryFS image version " + version + " in file '" + imageFile.getAbsolutePath() + "'");
+			}
+			if (reader.readByte() != TYPE_DIR) {
+				throw new Exception("MemoryFS image '" + imageFile.getAbsolutePath() + "' does not start with the root directory");
+			}
+			reader.readBytes(reader.readInt());
+			MemoryFSItem root = result.getItem("");
+			root.setTimeLastModified(reader.readLong());
+			root.setTimeCreated(reader.readLong());
+			readChildren(reader, result, root);
+		}
+		log("load: loaded image '" + imageFile.getAbsolutePath() + "' in " + (System.currentTimeMillis() - startTime) + " ms");
+		return result;
+	}
+
+	/**
+	 * reads the records of the items up to the end of the root directory. The directories are kept in a stack instead of using recursion
+	 * so that deep trees don't exceed the stack size
+	 */
+	private static void readChildren(ImageReader reader, MemoryFS memoryFS, MemoryFSItem root) throws Exception {
+		Deque<MemoryFSItem> dirStack = new ArrayDeque<MemoryFSItem>();
+		dirStack.push(root);
+		while (!dirStack.isEmpty()) {
+			byte type = reader.readByte();
+			if (type == TYPE_END_OF_DIR) {
+				dirStack.pop();
+				continue;
+			}
+			if ((type != TYPE_DIR) && (type != TYPE_FILE)) {
+				throw new Exception("Unknown item type " + type + " in MemoryFS image");
+			}
+			//: the names are interned so that items with the same name in different directories share the string (see MemoryFS.setItem)
+			String name = new String(reader.readBytes(reader.readInt()), NAME_CHARSET).intern();
+			long timeLastModified = reader.readLong();
+			long timeCreated = reader.readLong();
+			MemoryFSItem item = new MemoryFSItem(memoryFS, type == TYPE_DIR, timeLastModified, timeCreated);
+			dirStack.peek().getChildren().put(name, item);
+			if (type == TYPE_DIR) {
+				dirStack.push(item);
+			} else {
+				item.setContent(reader.readContent(reader.readLong()));
+			}
+		}
+	}
+
+	private static void log(String message) {
+		if (LOGGING_ENABLED) {
+			System.out.println("MemoryFSImage> " + message);
+		}
+	}
+
+	/**
+	 * reads the image file sequentially from mappings of its segments
+	 */
+	private static class ImageReader{
+		private final FileChannel channel;
+		private final long segmentSize;
+		private final long fileSize;
+		/** position of the current segment in the file */
+		private long segmentStart = 0;
+		private ByteBuffer segment;
+
+		public ImageReader(FileChannel channel, long segmentSize) throws IOException {
+			this.channel = channel;
+			this.segmentSize = segmentSize;
+			this.fileSize = channel.size();
+			segment = ByteBuffer.allocate(0);
+		}
+
+		/**
+		 * maps the next segment if the current segment has been read completely
+		 */
+		private void ensureRemaining() throws Exception {
+			if (segment.hasRemaining()) {
+				return;
+			}
+			segmentStart += segment.limit();
+			if (segmentStart >= fileSize) {
+				throw new Exception("Unexpected end of MemoryFS image");
+			}
+			segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, Math.min(segmentSize, fileSize - segmentStart));
+		}
+
+		public byte readByte() throws Exception {
+			ensureRemaining();
+			return segment.get();
+		}
+
+		public int readInt() throws Exception {
+			if (segment.remaining() >= 4) {
+				return segment.getInt();
+			}
+			return (int)readNumber(4);
+		}
+
+		public long readLong() throws Exception {
+			if (segment.remaining() >= 8) {
+				return segment.getLong();
+			}
+			return readNumber(8);
+		}
+
+		/**
+		 * reads a big-endian number which spans two segments
+		 */
+		private long readNumber(int numberOfBytes) throws Exception {
+			long result = 0;
+			for (int i = 0; i < numberOfBytes; i++) {
+				result = (result << 8) | (readByte() & 0xff);
+			}
+			return result;
+		}
+
+		public byte[] readBytes(int length) throws Exception {
+			if (length < 0) {
+				throw new Exception("Invalid length " + length + " in MemoryFS image");
+			}
+			byte[] result = new byte[length];
+			int position = 0;
+			while (position < length) {
+				ensureRemaining();
+				int bytesToRead = Math.min(length - position, segment.remaining());
+				segment.get(result, position, bytesToRead);
+				position += bytesToRead;
+			}
+			return result;
+		}
+
+		/**
+		 * @return content which reads the bytes from the mapping. Content that spans multiple segments consists of one part per segment
+		 */
+		public MemoryFSContent readContent(long length) throws Exception {
+			if (length < 0) {
+				throw new Exception("Invalid content length " + length + " in MemoryFS image");
+			}
+			MemoryFSContent result = null;
+			long remaining = length;
+			while ((remaining > 0) || (result == null)) {
+				if (remaining > 0) {
+					ensureRemaining();
+				}
+				int partLength = (int)Math.min(remaining, segment.remaining());
+				ByteBuffer part = segment.slice();
+				part.limit(partLength);
+				segment.position(segment.position() + partLength);
+				remaining -= partLength;
+				MappedContent partContent = new MappedContent(part);
+				if (result == null) {
+					result = partContent;
+				} else {
+					MemoryFSContent appended = CompositeContent.append(result, partContent);
+					result.release();
+					result = appended;
+				}
+			}
+			return result;
+		}
+	}
+
+}
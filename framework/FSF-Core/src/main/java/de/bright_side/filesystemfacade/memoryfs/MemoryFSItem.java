@@ -1,24 +1,116 @@
 package de.bright_side.filesystemfacade.memoryfs;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * contains the actual data and properties of the file while MemoryFile will be reading from this. It is required because it is possible to create a MemoryFile instance which does not exist in the FileSystem.
  * Also there may be multiple MemoryFile instances which point to the same MemoryFSItem and the MemoryFSItem may change.
+ * The item of a directory contains the items of its children by their names, so the items form a tree. The item does not know its own name or path.
+ * An item may be shared by a MemoryFS and its snapshots. Such an item must not be changed but is replaced by a copy (see MemoryFS.getItemForChange).
  *
  * @author Philip Heyse
  *
  */
 public class MemoryFSItem{
-	private MemoryFS memoryFS;
-	private boolean isDir;
-	private long timeLastModified;
-	private long timeCreated;
-	private byte[] dataAsBytes;
+	private volatile MemoryFS memoryFS;
+	private final boolean isDir;
+	/** items of the children by their names if the item is a directory or null for a file */
+	private final NavigableMap<String, MemoryFSItem> children;
+	private volatile long timeLastModified;
+	private volatile long timeCreated;
+	/** the content is immutable and replaced as a whole so that it may be read without locking. The item holds one reference to the content */
+	private volatile MemoryFSContent content;
+	/** identifies the file so that the copy which replaces a shared item is recognized as the same file (e.g. by an output stream) */
+	private final Object fileKey;
+	/** number of parent directory items (of a MemoryFS and its snapshots) which contain the item. The content is released when the last one removes the item */
+	private final AtomicInteger parentCount = new AtomicInteger(1);
 	
 	public MemoryFSItem(MemoryFS memoryFS,  boolean isDir, long timeLastModified, long timeCreated){
+		this(memoryFS, isDir, timeLastModified, timeCreated, new Object(), new TreeMap<String, MemoryFSItem>());
+	}
+	
+	private MemoryFSItem(MemoryFS memoryFS,  boolean isDir, long timeLastModified, long timeCreated, Object fileKey, NavigableMap<String, MemoryFSItem> children){
 		this.memoryFS = memoryFS;
 		this.isDir = isDir;
 		this.timeLastModified = timeLastModified;
 		this.timeCreated = timeCreated;
+		this.fileKey = fileKey;
+		this.children = isDir ? memoryFS.createChildMap(children) : null;
+	}
+	
+	/**
+	 * @return a copy of the item for the same file which shares the content and the child items with this item and is contained in one directory
+	 */
+	protected MemoryFSItem createUnsharedCopy() {
+		MemoryFSItem result = new MemoryFSItem(memoryFS, isDir, timeLastModified, timeCreated, fileKey, children);
+		if (isDir) {
+			for (MemoryFSItem i: children.values()) {
+				i.share();
+			}
+		}
+		result.setContent(retainContent());
+		return result;
+	}
+	
+	/**
+	 * @return the items of the children by their names or null if the item is a file. The map may only be changed while holding the namespace 
+	 * lock and if the item is not shared
+	 */
+	protected NavigableMap<String, MemoryFSItem> getChildren() {
+		return children;
+	}
+	
+	/**
+	 * @param name name of the child
+	 * @return the item of the child or null if there is no such child or this item is a file
+	 */
+	protected MemoryFSItem getChild(String name) {
+		if (children == null) {
+			return null;
+		}
+		return children.get(name);
+	}
+	
+	/**
+	 * @param other other item
+	 * @return true if both items belong to the same file, i.e. one is a copy that has replaced the other one because it was shared
+	 */
+	protected boolean isSameFile(MemoryFSItem other) {
+		return (other != null) && (other.fileKey == fileKey);
+	}
+	
+	/**
+	 * @return true if the item is contained in more than one directory (of a MemoryFS and its snapshots) and must therefore not be changed
+	 */
+	protected boolean isShared() {
+		return parentCount.get() > 1;
+	}
+	
+	/**
+	 * to be called when the item is added to another directory which is a copy of its parent
+	 */
+	protected void share() {
+		parentCount.incrementAndGet();
+	}
+	
+	/**
+	 * to be called when the item is removed from a directory. The content is released when the item is not contained in any directory any 
+	 * more and so are the child items of a directory
+	 */
+	protected void unshare() {
+		if (parentCount.decrementAndGet() > 0) {
+			return;
+		}
+		setContent(null);
+		if (isDir) {
+			for (MemoryFSItem i: children.values()) {
+				i.unshare();
+			}
+		}
 	}
 
 	public MemoryFS getMemoryFS() {
@@ -33,10 +125,6 @@ public class MemoryFSItem{
 		return isDir;
 	}
 
-	public void setDir(boolean isDir) {
-		this.isDir = isDir;
-	}
-
 	public long getTimeLastModified() {
 		return timeLastModified;
 	}
@@ -53,12 +141,78 @@ public class MemoryFSItem{
 		this.timeCreated = timeCreated;
 	}
 	
-	public byte[] getDataAsBytes() {
-		return dataAsBytes;
+	/**
+	 * @return the content or null if the item has no content. The content may be freed at any time by another thread replacing the content, so 
+	 * only its length may be read. Use retainContent to read the data
+	 */
+	public MemoryFSContent getContent() {
+		return content;
+	}
+	
+	/**
+	 * @return the length of the content or 0 if there is no content
+	 */
+	public long getLength() {
+		MemoryFSContent currentContent = content;
+		if (currentContent == null) {
+			return 0;
+		}
+		return currentContent.getLength();
+	}
+	
+	/**
+	 * @return the content with an additional reference that must be released by the caller or null if there is no content 
+	 */
+	public MemoryFSContent retainContent() {
+		while (true) {
+			MemoryFSContent result = content;
+			if ((result == null) || (result.tryRetain())) {
+				return result;
+			}
+			//: the content has been replaced and freed in the meantime. The new content is read in the next loop
+		}
 	}
 
-	public void setDataAsBytes(byte[] dataAsBytes) {
-		this.dataAsBytes = dataAsBytes;
+	/**
+	 * replaces the content and releases the reference to the previous content
+	 * @param content the new content of which the reference is taken over by the item or null to remove the content
+	 */
+	public void setContent(MemoryFSContent content) {
+		MemoryFSContent previousContent;
+		synchronized (this) {
+			previousContent = this.content;
+			this.content = content;
+		}
+		if (previousContent != null) {
+			previousContent.release();
+		}
+	}
+	
+	/**
+	 * replaces content which consists of many parts (because it has been appended to) by content with a single part so that reading at an
+	 * offset doesn't need to find the part first. Content with few parts is not changed
+	 * @param store store in which the compacted content is created
+	 * @throws IOException on general error
+	 */
+	public void compactContent(MemoryFSContentStore store) throws IOException {
+		synchronized (this) {
+			if ((content instanceof CompositeContent) && (((CompositeContent)content).getNumberOfParts() >= CompositeContent.MAX_PARTS_FOR_RANDOM_ACCESS)) {
+				setContent(((CompositeContent)content).compact(store));
+			}
+		}
+	}
+	
+	/**
+	 * @param offset position of the first byte to read
+	 * @param length maximum number of bytes to read
+	 * @return a stream which reads the content or null if there is no content
+	 */
+	public InputStream getInputStream(long offset, long length) {
+		MemoryFSContent retainedContent = retainContent();
+		if (retainedContent == null) {
+			return null;
+		}
+		return retainedContent.createInputStream(offset, length);
 	}
 
 }
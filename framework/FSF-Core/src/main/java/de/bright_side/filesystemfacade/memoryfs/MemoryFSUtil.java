@@ -1,8 +1,7 @@
 package de.bright_side.filesystemfacade.memoryfs;
 
-import java.util.Arrays;
-
-import de.bright_side.filesystemfacade.util.FSFFileUtil;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * @author Philip Heyse
@@ -10,19 +9,39 @@ import de.bright_side.filesystemfacade.util.FSFFileUtil;
  */
 public class MemoryFSUtil {
 	public static <K> K readObject(MemoryFSItem item, Class<K> classType) throws Exception{
-		if (item.getDataAsBytes() != null){
-			return FSFFileUtil.objectFromByteArray(item.getDataAsBytes(), classType);
+		try (InputStream inputStream = item.getInputStream(0, Long.MAX_VALUE)){
+			if (inputStream == null) {
+				throw new Exception("item contains no data");
+			}
+			return item.getMemoryFS().getSerializer().read(inputStream, classType);
 		}
-		throw new Exception("item contains no data");
 	}
 
+	/**
+	 * creates a copy of the item which shares the content with the original item. This is possible because the content is never 
+	 * modified: writing to a file always sets new content (see MemoryFileOutputStream) and readBytes provides a copy.
+	 * @param item item to be copied
+	 * @return the copy
+	 * @throws Exception on general error
+	 */
 	public static MemoryFSItem copy(MemoryFSItem item) throws Exception {
 		MemoryFSItem result = new MemoryFSItem(item.getMemoryFS(), item.isDir(), item.getTimeLastModified(), item.getTimeCreated());
-		if (item.getDataAsBytes() != null){
-			result.setDataAsBytes(Arrays.copyOf(item.getDataAsBytes(), item.getDataAsBytes().length));
-		}
+		result.setContent(item.retainContent());
 		return result;
 	}
+	
+	/**
+	 * @param store store in which the result is created
+	 * @param data the bytes of the content
+	 * @return new content with the given bytes
+	 * @throws IOException on general error
+	 */
+	public static MemoryFSContent createContent(MemoryFSContentStore store, byte[] data) throws IOException {
+		try (MemoryFSContentBuilder builder = store.createBuilder()){
+			builder.write(data);
+			return builder.build();
+		}
+	}
 
 	public static String getParentPath(String path){
 		int pos = path.lastIndexOf(MemoryFS.SEPARATOR);
@@ -32,6 +51,14 @@ public class MemoryFSUtil {
 		return path.substring(0, pos);
 	}
 
+	/**
+	 * @param path path of the item
+	 * @return the last segment of the path
+	 */
+	public static String getName(String path){
+		return path.substring(path.lastIndexOf(MemoryFS.SEPARATOR) + 1);
+	}
+
 	public static String normalize(String path) {
 		String result = path;
 		if (result.endsWith(MemoryFS.SEPARATOR)){
@@ -3,18 +3,23 @@ package de.bright_side.filesystemfacade.memoryfs;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.VersionedData;
 import de.bright_side.filesystemfacade.facade.WrongVersionException;
+import de.bright_side.filesystemfacade.util.AbstractDirectoryStream;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
+import de.bright_side.filesystemfacade.util.RangeReadChannel;
 
 /**
  * @author Philip Heyse
@@ -23,12 +28,28 @@ import de.bright_side.filesystemfacade.util.ListDirFormatting;
 public class MemoryFile implements FSFFile{
 	private static final boolean LOGGING_ENABLED = false;
 	private MemoryFS memoryFS;
+	/** created on first use for the files of a directory listing (see getAbsolutePath) */
 	private String path;
+	private String parentPath;
+	private String name;
 
 	public MemoryFile(MemoryFS memoryFS, String path){
 		this.memoryFS = memoryFS;
 		this.path = MemoryFSUtil.normalize(path);
 	}
+	
+	/**
+	 * creates the file of a child in a directory listing. The path is only created if it is needed, so listing a directory does not create 
+	 * a path string for each child
+	 * @param memoryFS the file system
+	 * @param parentPath path of the directory
+	 * @param name name of the child
+	 */
+	protected MemoryFile(MemoryFS memoryFS, String parentPath, String name){
+		this.memoryFS = memoryFS;
+		this.parentPath = parentPath;
+		this.name = name;
+	}
 
 	private void log(String message) {
 		if (LOGGING_ENABLED) {
@@ -36,6 +57,12 @@ public class MemoryFile implements FSFFile{
 		}
 	}
 	
+	private void verifyChangeable() throws Exception{
+		if (memoryFS.isSnapshot()) {
+			throw new Exception("Cannot change '" + getAbsolutePath() + "' because the file system is a read-only snapshot");
+		}
+	}
+	
 	@Override
 	public int compareTo(FSFFile other) {
 		if (other == null){
@@ -51,28 +78,87 @@ public class MemoryFile implements FSFFile{
 	@Override
 	public List<FSFFile> listFiles() {
 		List<FSFFile> result = new ArrayList<FSFFile>();
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if ((item == null) || (!item.isDir())){
 			return null;
 		}
-		for (String i: memoryFS.getChildPathsOrEmpty(path)){
-			result.add(new MemoryFile(memoryFS, i));
+		for (String i: item.getChildren().keySet()){
+			result.add(new MemoryFile(memoryFS, getAbsolutePath(), i));
 		}
 		return result;
 	}
 
+	@Override
+	public List<FSFFileAttributes> listFilesWithAttributes() {
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
+		if ((item == null) || (!item.isDir())){
+			return null;
+		}
+		List<FSFFileAttributes> result = new ArrayList<FSFFileAttributes>();
+		for (Map.Entry<String, MemoryFSItem> i: item.getChildren().entrySet()){
+			result.add(createAttributes(new MemoryFile(memoryFS, getAbsolutePath(), i.getKey()), i.getValue()));
+		}
+		return result;
+	}
+	
+	@Override
+	public FSFFileAttributes readAttributes() {
+		return createAttributes(this, memoryFS.getItem(getAbsolutePath()));
+	}
+	
+	@Override
+	public FSFDirectoryStream openDirectoryStream() {
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
+		if ((item == null) || (!item.isDir())){
+			return null;
+		}
+		return new AbstractDirectoryStream() {
+			private String previousChildName = null;
+			
+			@Override
+			protected FSFFileAttributes readNext() {
+				//: the next child is determined by the previous name so that the directory may be changed while iterating
+				String childName = memoryFS.getNextChildName(getAbsolutePath(), previousChildName);
+				if (childName == null){
+					return null;
+				}
+				previousChildName = childName;
+				MemoryFile child = new MemoryFile(memoryFS, getAbsolutePath(), childName);
+				return createAttributes(child, memoryFS.getItem(child.getAbsolutePath()));
+			}
+			
+			@Override
+			protected void closeResources() {
+			}
+		};
+	}
+	
+	private static FSFFileAttributes createAttributes(MemoryFile file, MemoryFSItem item) {
+		if (item == null){
+			return FSFFileAttributes.createNonExisting(file);
+		}
+		long length = 0;
+		if (!item.isDir()){
+			length = item.getLength();
+		}
+		return new FSFFileAttributes(file, true, item.isDir(), length, item.getTimeLastModified(), item.getTimeCreated(), 0);
+	}
+
 	@Override
 	public String getName() {
-		int pos = path.lastIndexOf(MemoryFS.SEPARATOR);
+		if (name != null) {
+			return name;
+		}
+		int pos = getAbsolutePath().lastIndexOf(MemoryFS.SEPARATOR);
 		if (pos < 0){
 			return "";
 		}
-		return path.substring(pos + 1);
+		return getAbsolutePath().substring(pos + 1);
 	}
 
 	@Override
 	public boolean isFile() {
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if (item == null){
 			return false;
 		}
@@ -81,7 +167,7 @@ public class MemoryFile implements FSFFile{
 
 	@Override
 	public boolean isDirectory() {
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if (item == null){
 			return false;
 		}
@@ -90,12 +176,12 @@ public class MemoryFile implements FSFFile{
 
 	@Override
 	public boolean exists() {
-		return memoryFS.getItem(path) != null;
+		return memoryFS.getItem(getAbsolutePath()) != null;
 	}
 	
 	@Override
 	public FSFFile getParentFile() {
-		String parentPath = MemoryFSUtil.getParentPath(path);
+		String parentPath = MemoryFSUtil.getParentPath(getAbsolutePath());
 		if (parentPath == null){
 			return null;
 		}
@@ -104,120 +190,183 @@ public class MemoryFile implements FSFFile{
 
 	@Override
 	public OutputStream getOutputStream(boolean append) throws Exception {
-		MemoryFSItem item = memoryFS.getItem(path);
-		if ((item != null) && (item.isDir())){
-			throw new Exception("path '" + path + "' is a directory");
-		}
-		
-		if (getParentFile() == null) {
-			throw new Exception("file's parent directory does not exist. File path = '" + getAbsolutePath() + "'"); 
-		}
-		
-		long time = getCurrentTime();
-		if (item == null){
-			item = new MemoryFSItem(memoryFS, false, time, time);
-		}
-		if (append){
-			if (item.getDataAsBytes() == null){
-				item.setDataAsBytes(new byte[0]);
+		verifyChangeable();
+		MemoryFSItem item;
+		memoryFS.getNamespaceLock().lock();
+		try {
+			item = memoryFS.getItemForChange(getAbsolutePath());
+			if ((item != null) && (item.isDir())){
+				throw new Exception("path '" + getAbsolutePath() + "' is a directory");
 			}
-		} else {
-			item.setDataAsBytes(new byte[0]);
+			
+			if (getParentFile() == null) {
+				throw new Exception("file's parent directory does not exist. File path = '" + getAbsolutePath() + "'"); 
+			}
+			
+			long time = getCurrentTime();
+			if (item == null){
+				item = new MemoryFSItem(memoryFS, false, time, time);
+				if (!memoryFS.setItem(getAbsolutePath(), item)) {
+					throw new Exception("file's parent directory does not exist. File path = '" + getAbsolutePath() + "'"); 
+				}
+				item.setContent(MemoryFSUtil.createContent(memoryFS.getContentStore(), new byte[0]));
+			}
+			item.setTimeLastModified(time);
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
 		}
-		memoryFS.setItem(path, item);
-		memoryFS.setExistenceInParentDir(path, true);
-		item.setTimeLastModified(time);
 		
-		return new MemoryFileOutputStream(item, item.getDataAsBytes());
+		//: the data of an existing file is replaced when the stream is closed so that other threads never read partly written data
+		return new MemoryFileOutputStream(memoryFS, getAbsolutePath(), item, append);
 	}
 
 	@Override
 	public InputStream getInputStream() throws Exception {
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if (item == null){
-			throw new Exception("There is no file at path '" + path + "'");
+			throw new Exception("There is no file at path '" + getAbsolutePath() + "'");
 		}
 		if (item.isDir()){
-			throw new Exception("Path '" + path + "' points to a directory");
+			throw new Exception("Path '" + getAbsolutePath() + "' points to a directory");
 		}
-		if (item.getDataAsBytes() == null){
+		InputStream result = item.getInputStream(0, Long.MAX_VALUE);
+		if (result == null){
 			return new ByteArrayInputStream(new byte[]{});
 		}
-		return new ByteArrayInputStream(item.getDataAsBytes());
+		return result;
 	}
-
+	
 	@Override
-	public void rename(String newName) throws Exception {
-		MemoryFSItem item = memoryFS.getItem(path);
+	public InputStream getInputStream(long offset, long length) throws Exception {
+		FSFFileUtil.verifyRange(offset, length);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if (item == null){
-			throw new Exception("There is no file at path '" + path + "'");
+			throw new Exception("There is no file at path '" + getAbsolutePath() + "'");
 		}
-		
-		FSFFile parent = getParentFile();
-		if ((parent == null) || (!parent.exists())){
-			throw new Exception("The parent path does not exist: '" + parent.getAbsolutePath() + "'");
+		if (item.isDir()){
+			throw new Exception("Path '" + getAbsolutePath() + "' points to a directory");
+		}
+		//: the stream reads directly from the content without copying it
+		item.compactContent(memoryFS.getContentStore());
+		InputStream result = item.getInputStream(offset, length);
+		if (result == null){
+			return new ByteArrayInputStream(new byte[]{});
+		}
+		return result;
+	}
+	
+	@Override
+	public SeekableByteChannel getSeekableByteChannel() throws Exception {
+		return new RangeReadChannel(this);
+	}
+
+	@Override
+	public void rename(String newName) throws Exception {
+		verifyChangeable();
+		memoryFS.getNamespaceLock().lock();
+		try {
+			MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
+			if (item == null){
+				throw new Exception("There is no file at path '" + getAbsolutePath() + "'");
+			}
+			
+			FSFFile parent = getParentFile();
+			if ((parent == null) || (!parent.exists())){
+				throw new Exception("The parent path does not exist: '" + parent.getAbsolutePath() + "'");
+			}
+			
+			moveTo(parent.getChild(newName));
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
 		}
-		
-		moveTo(parent.getChild(newName));
 		
 		path = getParentFile().getChild(newName).getAbsolutePath();
+		parentPath = null;
+		name = null;
 	}
 
 	@Override
 	public FSFFile getChild(String name) {
-		return new MemoryFile(memoryFS, path + MemoryFS.SEPARATOR + name);
+		return new MemoryFile(memoryFS, getAbsolutePath() + MemoryFS.SEPARATOR + name);
 	}
 
 	@Override
 	public FSFFile mkdirs() {
-		MemoryFSItem item = memoryFS.getItem(path);
-		if (item == null){
-			MemoryFile parentItem = (MemoryFile) getParentFile();
-			if (parentItem != null){
-				if (!parentItem.exists()){
-					parentItem.mkdirs();
-				} else {
-					if (parentItem.isFile()){
-						//: cannot make any more dirs if a file is in the middle of the path
-						return this;
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
+		if (item != null){
+			return this;
+		}
+		memoryFS.getNamespaceLock().lock();
+		try {
+			item = memoryFS.getItem(getAbsolutePath());
+			if (item == null){
+				MemoryFile parentItem = (MemoryFile) getParentFile();
+				if (parentItem != null){
+					if (!parentItem.exists()){
+						parentItem.mkdirs();
+					} else {
+						if (parentItem.isFile()){
+							//: cannot make any more dirs if a file is in the middle of the path
+							return this;
+						}
 					}
+				} else {
+					new MemoryFile(memoryFS, MemoryFSUtil.getParentPath(getAbsolutePath())).mkdirs();
 				}
-			} else {
-				new MemoryFile(memoryFS, MemoryFSUtil.getParentPath(path)).mkdirs();
+				mkdir();
 			}
-			mkdir();
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
 		}
 		return this;
 	}
 
 	@Override
 	public FSFFile mkdir() {
-		MemoryFSItem item = memoryFS.getItem(path);
-		if (item == null){
-			long time = getCurrentTime();
-			item = new MemoryFSItem(memoryFS, true, time, time);
-			memoryFS.setItem(path, item);
-			memoryFS.setExistenceInParentDir(path, true);
+		if (memoryFS.isSnapshot()) {
+			//: like a directory without write permission in a native file system: nothing is created which the caller may check with exists()
+			return this;
+		}
+		memoryFS.getNamespaceLock().lock();
+		try {
+			MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
+			FSFFile parent = getParentFile();
+			//: like in a native file system nothing is created if the parent directory does not exist
+			if ((item == null) && (parent != null) && (parent.isDirectory())){
+				long time = getCurrentTime();
+				item = new MemoryFSItem(memoryFS, true, time, time);
+				memoryFS.setItem(getAbsolutePath(), item);
+			}
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
 		}
 		return this;
 	}
 
 	@Override
 	public String getAbsolutePath() {
+		if (path == null) {
+			path = parentPath + MemoryFS.SEPARATOR + name;
+		}
 		return path;
 	}
 
 	@Override
 	public void delete() throws Exception {
-		MemoryFSItem item = memoryFS.getItem(path);
-		if (item == null){
-			return;
-		}
-		if ((exists()) && (isDirectory()) && (!listFiles().isEmpty())){
-			throw new Exception("Cannot delete '" + getAbsolutePath() + "' because it is a non-empty directory");
+		verifyChangeable();
+		memoryFS.getNamespaceLock().lock();
+		try {
+			MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
+			if (item == null){
+				return;
+			}
+			if ((exists()) && (isDirectory()) && (!listFiles().isEmpty())){
+				throw new Exception("Cannot delete '" + getAbsolutePath() + "' because it is a non-empty directory");
+			}
+			memoryFS.removeItem(getAbsolutePath());
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
 		}
-		memoryFS.removeItem(path);
-		memoryFS.setExistenceInParentDir(path, false);
 	}
 
 	@Override
@@ -227,66 +376,95 @@ public class MemoryFile implements FSFFile{
 
 	@Override
 	public <K> K readObject(Class<K> classType) throws Exception {
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if (item == null){
-			throw new Exception("No file at path '" + path + "'");
+			throw new Exception("No file at path '" + getAbsolutePath() + "'");
 		}
 		if (item.isDir()){
-			throw new Exception("Cannot read object data from directory. Path: '" + path + "'");
+			throw new Exception("Cannot read object data from directory. Path: '" + getAbsolutePath() + "'");
 		}
 		try{
 			return MemoryFSUtil.readObject(item, classType);
 		} catch (Exception e){
-			throw new Exception("Could not read object of type '" + classType.getName() + "' in file '" + path + "'", e);
+			throw new Exception("Could not read object of type '" + classType.getName() + "' in file '" + getAbsolutePath() + "'", e);
 		}
 	}
 
 	@Override
 	public <K> FSFFile writeObject(K objectToWrite) throws Exception {
-		FSFFile parentFile = getParentFile();
-		if (!parentFile.exists()){
-			throw new Exception("Parent directory '" + parentFile.getAbsolutePath() + "' does not exist");
+		verifyChangeable();
+		MemoryFSContent content;
+		try (MemoryFSContentBuilder builder = memoryFS.getContentStore().createBuilder()){
+			memoryFS.getSerializer().write(objectToWrite, builder);
+			content = builder.build();
 		}
-		
-		MemoryFSItem item = memoryFS.getItem(path);
-		long time = getCurrentTime();
-		if (item == null){
-			item = new MemoryFSItem(memoryFS, false, time, time);
-		}
-		item.setDataAsBytes(FSFFileUtil.objectToByteArray(objectToWrite));
-		memoryFS.setItem(path, item);
-		memoryFS.setExistenceInParentDir(path, true);
-		item.setTimeLastModified(time);
-		
+		writeContent(content);
 		return this;
 	}
+	
+	/**
+	 * sets the content of the file and creates the file if it doesn't exist
+	 * @param content the content of which the reference is taken over (also in case of an exception)
+	 * @throws Exception if the parent directory does not exist
+	 */
+	private void writeContent(MemoryFSContent content) throws Exception {
+		memoryFS.getNamespaceLock().lock();
+		try {
+			MemoryFSItem item = memoryFS.getItemForChange(getAbsolutePath());
+			long time = getCurrentTime();
+			if (item == null){
+				item = new MemoryFSItem(memoryFS, false, time, time);
+				if (!memoryFS.setItem(getAbsolutePath(), item)) {
+					content.release();
+					throw new Exception("Parent directory '" + getParentFile().getAbsolutePath() + "' does not exist");
+				}
+			}
+			item.setContent(content);
+			item.setTimeLastModified(time);
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
+		}
+	}
 
 	@Override
 	public void moveTo(FSFFile otherFile) throws Exception {
-		if ((otherFile.exists()) && (otherFile.isDirectory()) && (!otherFile.listFiles().isEmpty())){
-			throw new Exception("Cannot move to '" + otherFile.getAbsolutePath() + "' because destination is non-empty directory");
-		}
-		MemoryFSItem item = memoryFS.getItem(path);
-		if (item == null){
-			throw new Exception("The file to be moved does not exist: '" + path + "'");
+		verifyChangeable();
+		//: the lock is only held for moves within this file system. Holding it while writing to another MemoryFS could cause a dead lock
+		boolean sameFS = otherFile.getFSFSystem() == memoryFS;
+		if (sameFS) {
+			memoryFS.getNamespaceLock().lock();
+		}
+		try {
+			if ((otherFile.exists()) && (otherFile.isDirectory()) && (!otherFile.listFiles().isEmpty())){
+				throw new Exception("Cannot move to '" + otherFile.getAbsolutePath() + "' because destination is non-empty directory");
+			}
+			MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
+			if (item == null){
+				throw new Exception("The file to be moved does not exist: '" + getAbsolutePath() + "'");
+			}
+			
+			if (sameFS) {
+				//: the item is moved with all sub-items without copying them
+				memoryFS.moveItem(getAbsolutePath(), otherFile.getAbsolutePath());
+			} else {
+				copyFilesTree(otherFile);
+				deleteTree();
+			}
+		} finally {
+			if (sameFS) {
+				memoryFS.getNamespaceLock().unlock();
+			}
 		}
-		
-		copyFilesTree(otherFile);
-		deleteTree();
 //		path = otherFile.getAbsolutePath();
 	}
 
 	@Override
 	public long getLength() {
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if ((item == null) || (item.isDir())){
 			return 0;
 		}
-		if (item.getDataAsBytes() != null){
-			return item.getDataAsBytes().length;
-		}
-		
-		return 0;
+		return item.getLength();
 	}
 
 	/**
@@ -304,14 +482,22 @@ public class MemoryFile implements FSFFile{
 
 	@Override
 	public byte[] readBytes() throws Exception {
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if (item == null){
-			throw new Exception("path '" + path + "' does not exist");
+			throw new Exception("path '" + getAbsolutePath() + "' does not exist");
 		}
 		if (item.isDir()){
-			throw new Exception("path '" + path + "' is a directory");
+			throw new Exception("path '" + getAbsolutePath() + "' is a directory");
+		}
+		MemoryFSContent content = item.retainContent();
+		if (content == null){
+			return new byte[0];
+		}
+		try {
+			return content.toByteArray();
+		} finally {
+			content.release();
 		}
-		return Arrays.copyOf(item.getDataAsBytes(), item.getDataAsBytes().length);
 	}
 
 	@Override
@@ -319,26 +505,80 @@ public class MemoryFile implements FSFFile{
 		log("copyTo: from '" + getAbsolutePath() + "' to '" + destFile.getAbsolutePath() + "'");
 		FSFFileUtil.verifyCopyPossible(this, destFile);
 		if (getFSFSystem() == destFile.getFSFSystem()){
-			MemoryFSItem item = memoryFS.getItem(path);
+			verifyChangeable();
+			memoryFS.getNamespaceLock().lock();
+			try {
+				MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
+				if (item == null){
+					throw new Exception("The file to be copied does not exist: '" + getAbsolutePath() + "'");
+				}
+				MemoryFSItem copy = MemoryFSUtil.copy(item);
+				if (!memoryFS.setItem(destFile.getAbsolutePath(), copy)) {
+					copy.unshare();
+					throw new Exception("The parent directory of '" + destFile.getAbsolutePath() + "' does not exist");
+				}
+			} finally {
+				memoryFS.getNamespaceLock().unlock();
+			}
+		} else if (isContentShareable(destFile)) {
+			MemoryFile destMemoryFile = (MemoryFile)destFile;
+			destMemoryFile.verifyChangeable();
+			MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 			if (item == null){
-				throw new Exception("The file to be copied does not exist: '" + path + "'");
+				throw new Exception("The file to be copied does not exist: '" + getAbsolutePath() + "'");
+			}
+			MemoryFSContent content = item.retainContent();
+			if (content == null) {
+				content = MemoryFSUtil.createContent(memoryFS.getContentStore(), new byte[0]);
 			}
-			memoryFS.setItem(destFile.getAbsolutePath(), MemoryFSUtil.copy(item));
-			memoryFS.setExistenceInParentDir(destFile.getAbsolutePath(), true);
+			destMemoryFile.writeContent(content);
 		} else {
 			FSFFileUtil.copyViaStreams(this, destFile);
 		}
 		
 	}
+	
+	/**
+	 * @return true if this file and the dest file are files in different MemoryFS instances that use the same content store (e.g. a snapshot and
+	 * the file system of which it was taken) so that the content can be shared instead of being copied
+	 */
+	private boolean isContentShareable(FSFFile destFile) {
+		if (!(destFile instanceof MemoryFile)) {
+			return false;
+		}
+		if (((MemoryFS)destFile.getFSFSystem()).getContentStore() != memoryFS.getContentStore()) {
+			return false;
+		}
+		return (isFile()) && (!destFile.isDirectory());
+	}
 
 	@Override
 	public void copyFilesTree(FSFFile dest) throws Exception {
-		FSFFileUtil.copyFilesTree(this, dest);
+		if ((dest instanceof MemoryFile) && (((MemoryFS)dest.getFSFSystem()).isSnapshot())) {
+			((MemoryFile)dest).verifyChangeable();
+		}
+		boolean sameFS = dest.getFSFSystem() == memoryFS;
+		if (sameFS) {
+			memoryFS.getNamespaceLock().lock();
+		}
+		try {
+			FSFFileUtil.copyFilesTree(this, dest);
+		} finally {
+			if (sameFS) {
+				memoryFS.getNamespaceLock().unlock();
+			}
+		}
 	}
 
 	@Override
 	public void deleteTree() throws Exception {
-		FSFFileUtil.deleteTree(this);
+		verifyChangeable();
+		memoryFS.getNamespaceLock().lock();
+		try {
+			FSFFileUtil.deleteTree(this);
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
+		}
 	}
 
 	@Override
@@ -348,7 +588,7 @@ public class MemoryFile implements FSFFile{
 
 	@Override
 	public long getTimeLastModified() {
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if (item == null){
 			return 0;
 		}
@@ -357,7 +597,7 @@ public class MemoryFile implements FSFFile{
 
 	@Override
 	public long getTimeCreated() {
-		MemoryFSItem item = memoryFS.getItem(path);
+		MemoryFSItem item = memoryFS.getItem(getAbsolutePath());
 		if (item == null){
 			return 0;
 		}
@@ -366,21 +606,34 @@ public class MemoryFile implements FSFFile{
 	
 	@Override
 	public void setTimeLastModified(long timeLastModified) {
-		MemoryFSItem item = memoryFS.getItem(path);
-		if (item == null){
+		if ((memoryFS.isSnapshot()) || (memoryFS.getItem(getAbsolutePath()) == null)){
 			return;
 		}
-		item.setTimeLastModified(timeLastModified);
+		memoryFS.getNamespaceLock().lock();
+		try {
+			MemoryFSItem item = memoryFS.getItemForChange(getAbsolutePath());
+			if (item != null){
+				item.setTimeLastModified(timeLastModified);
+			}
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
+		}
 	}
 	
 	@Override
 	public boolean setTimeCreated(long timeCreated) throws Exception {
-		MemoryFSItem item = memoryFS.getItem(path);
-		if (item == null){
-			return false;
+		verifyChangeable();
+		memoryFS.getNamespaceLock().lock();
+		try {
+			MemoryFSItem item = memoryFS.getItemForChange(getAbsolutePath());
+			if (item == null){
+				return false;
+			}
+			item.setTimeCreated(timeCreated);
+			return true;
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
 		}
-		item.setTimeCreated(timeCreated);
-		return true;
 	}
 
 	@Override
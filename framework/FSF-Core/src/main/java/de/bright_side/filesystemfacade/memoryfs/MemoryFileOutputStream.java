@@ -1,46 +1,86 @@
 package de.bright_side.filesystemfacade.memoryfs;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
 /**
+ * writes the bytes to new content in the content store and sets it as the content of the item when the stream is closed. If the stream appends, 
+ * the bytes are appended to the content the item has at the time of closing so that appends of multiple threads are not lost. Appending
+ * doesn't copy the current content but adds the new bytes as a part (see CompositeContent). If the file has been deleted or replaced 
+ * while writing, the written bytes are discarded.
+ * 
  * @author Philip Heyse
  *
  */
 public class MemoryFileOutputStream extends OutputStream {
+	private MemoryFS memoryFS;
+	private String path;
 	private MemoryFSItem item;
-	private ByteArrayOutputStream byteArrayOutputStream;
+	private boolean append;
+	private MemoryFSContentBuilder builder;
+	private boolean closed = false;
 
-	public MemoryFileOutputStream(MemoryFSItem item, byte[] currentBytes) throws IOException {
+	/**
+	 * @param memoryFS file system of the file
+	 * @param path path of the file
+	 * @param item the item of the file when the stream is opened. When the stream is closed the content is only set if the path still points to the same file 
+	 * @param append true to append the bytes to the content
+	 */
+	public MemoryFileOutputStream(MemoryFS memoryFS, String path, MemoryFSItem item, boolean append) {
+		this.memoryFS = memoryFS;
+		this.path = path;
 		this.item = item;
-		byteArrayOutputStream = new ByteArrayOutputStream();
-		if (currentBytes != null){
-			byteArrayOutputStream.write(currentBytes);
-		}
+		this.append = append;
+		builder = memoryFS.getContentStore().createBuilder();
 	}
 
 	@Override
 	public void write(int b) throws IOException {
-		byteArrayOutputStream.write(b);
+		builder.write(b);
 	}
 	
 	@Override
 	public void write(byte[] b) throws IOException {
-		byteArrayOutputStream.write(b);
+		builder.write(b, 0, b.length);
 	}
 	
 	@Override
 	public void write(byte[] b, int off, int len) throws IOException {
-		byteArrayOutputStream.write(b, off, len);
+		builder.write(b, off, len);
 	}
 	
 	@Override
 	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
 		super.close();
-		item.setDataAsBytes(byteArrayOutputStream.toByteArray());
+		MemoryFSContent writtenContent;
+		try {
+			writtenContent = builder.build();
+		} finally {
+			builder.close();
+		}
+		memoryFS.getNamespaceLock().lock();
+		try {
+			if (!item.isSameFile(memoryFS.getItem(path))) {
+				writtenContent.release();
+				return;
+			}
+			//: the item may have been replaced by a copy if it is shared with a snapshot
+			MemoryFSItem currentItem = memoryFS.getItemForChange(path);
+			synchronized (currentItem) {
+				MemoryFSContent currentContent = currentItem.getContent();
+				if ((!append) || (currentContent == null) || (currentContent.getLength() == 0)) {
+					currentItem.setContent(writtenContent);
+					return;
+				}
+				currentItem.setContent(CompositeContent.append(currentContent, writtenContent));
+			}
+		} finally {
+			memoryFS.getNamespaceLock().unlock();
+		}
 	}
-	
-	
 
 }
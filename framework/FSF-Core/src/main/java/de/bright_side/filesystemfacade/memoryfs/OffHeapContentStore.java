@@ -0,0 +1,292 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * keeps the content of the files outside of the Java heap so that large amounts of content don't cause long garbage collection pauses.
+ * Direct byte buffers (slabs) are allocated up to the configured capacity and divided into chunks of equal size. Each file uses as many chunks as 
+ * needed for its content. The chunks of content which is no longer used are kept in a free list and reused for new content; slabs are never
+ * returned to the operating system.
+ * 
+ * Input streams read directly from the chunks. The chunks of a file are only reused after all input streams reading them have been closed, 
+ * so input streams must always be closed.
+ * 
+ * <code>
+ *		OffHeapContentStore store = new OffHeapContentStore(4L * 1024 * 1024 * 1024);
+ *		MemoryFS fs = new MemoryFS(environment, new MemoryFSConfig().setConcurrent(true).setContentStore(store));
+ *		...
+ *		System.out.println(store.getStatistics());
+ * </code>
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class OffHeapContentStore implements MemoryFSContentStore{
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	public static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+	
+	private final long capacity;
+	private final int chunkSize;
+	private final int slabSize;
+	private final Deque<ByteBuffer> freeChunks = new ArrayDeque<>();
+	private ByteBuffer currentSlab;
+	private long reservedBytes;
+	private int numberOfSlabs;
+	private long usedChunks;
+	private long storedBytes;
+
+	/**
+	 * @param capacity maximum number of bytes that are allocated outside of the heap
+	 */
+	public OffHeapContentStore(long capacity) {
+		this(capacity, DEFAULT_CHUNK_SIZE, DEFAULT_SLAB_SIZE);
+	}
+
+	/**
+	 * @param capacity maximum number of bytes that are allocated outside of the heap
+	 * @param chunkSize size of the chunks that are assigned to files. Smaller chunks waste less space for small files, larger chunks need less 
+	 * management for large files
+	 * @param slabSize size of the direct byte buffers which are allocated at once and divided into chunks. Must be a multiple of the chunk size
+	 * @throws IllegalArgumentException if the sizes don't fit to each other
+	 */
+	public OffHeapContentStore(long capacity, int chunkSize, int slabSize) {
+		if ((chunkSize <= 0) || (slabSize < chunkSize) || (slabSize % chunkSize != 0)) {
+			throw new IllegalArgumentException("The slab size (" + slabSize + ") must be a positive multiple of the chunk size (" + chunkSize + ")");
+		}
+		this.capacity = capacity;
+		this.chunkSize = chunkSize;
+		this.slabSize = slabSize;
+	}
+	
+	@Override
+	public MemoryFSContentBuilder createBuilder() {
+		return new OffHeapContentBuilder();
+	}
+	
+	/**
+	 * @return a free chunk of which position is 0 and limit is the chunk size
+	 * @throws IOException if the capacity is exhausted
+	 */
+	private synchronized ByteBuffer allocateChunk() throws IOException{
+		ByteBuffer result = freeChunks.poll();
+		if (result == null) {
+			if ((currentSlab == null) || (!currentSlab.hasRemaining())) {
+				int newSlabSize = (int)Math.min(slabSize, (capacity - reservedBytes) / chunkSize * chunkSize);
+				if (newSlabSize <= 0) {
+					throw new IOException("The off-heap capacity of " + capacity + " bytes is exhausted");
+				}
+				currentSlab = ByteBuffer.allocateDirect(newSlabSize);
+				reservedBytes += newSlabSize;
+				numberOfSlabs ++;
+			}
+			currentSlab.limit(currentSlab.position() + chunkSize);
+			result = currentSlab.slice();
+			currentSlab.position(currentSlab.limit());
+			currentSlab.limit(currentSlab.capacity());
+		}
+		result.clear();
+		usedChunks ++;
+		return result;
+	}
+	
+	private synchronized void freeChunks(List<ByteBuffer> chunks, long contentLength) {
+		for (ByteBuffer i: chunks) {
+			freeChunks.push(i);
+		}
+		usedChunks -= chunks.size();
+		storedBytes -= contentLength;
+	}
+	
+	private synchronized void addStoredBytes(long length) {
+		storedBytes += length;
+	}
+	
+	/**
+	 * @return the current allocation of the chunks
+	 */
+	public synchronized OffHeapStatistics getStatistics() {
+		return new OffHeapStatistics(capacity, chunkSize, numberOfSlabs, reservedBytes, usedChunks, freeChunks.size(), storedBytes);
+	}
+
+	@Override
+	public String toString() {
+		return "OffHeapContentStore{capacity=" + capacity + ", chunkSize=" + chunkSize + ", slabSize=" + slabSize + "}";
+	}
+	
+	private class OffHeapContentBuilder extends MemoryFSContentBuilder{
+		private List<ByteBuffer> chunks = new ArrayList<>();
+		private ByteBuffer currentChunk;
+		private long length;
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (chunks == null) {
+				throw new IOException("The builder has already been closed");
+			}
+			int position = off;
+			int end = off + len;
+			while (position < end) {
+				if ((currentChunk == null) || (!currentChunk.hasRemaining())) {
+					currentChunk = allocateChunk();
+					chunks.add(currentChunk);
+				}
+				int bytesToWrite = Math.min(end - position, currentChunk.remaining());
+				currentChunk.put(b, position, bytesToWrite);
+				position += bytesToWrite;
+				length += bytesToWrite;
+			}
+		}
+		
+		@Override
+		public MemoryFSContent build() throws IOException {
+			if (chunks == null) {
+				throw new IOException("The builder has already been closed");
+			}
+			OffHeapContent result = new OffHeapContent(chunks, length);
+			addStoredBytes(length);
+			chunks = null;
+			return result;
+		}
+		
+		@Override
+		public void close() {
+			if (chunks != null) {
+				freeChunks(chunks, 0);
+				chunks = null;
+			}
+		}
+	}
+	
+	private class OffHeapContent extends MemoryFSContent{
+		private final List<ByteBuffer> chunks;
+		private final long length;
+
+		public OffHeapContent(List<ByteBuffer> chunks, long length) {
+			this.chunks = chunks;
+			this.length = length;
+		}
+
+		@Override
+		public long getLength() {
+			return length;
+		}
+
+		@Override
+		protected InputStream createInputStream(long offset, long length) {
+			long end = offset;
+			if (offset < this.length) {
+				end = offset + Math.min(length, this.length - offset);
+			}
+			return new ChunkInputStream(offset, end);
+		}
+
+		@Override
+		public byte[] toByteArray() {
+			byte[] result = new byte[(int)length];
+			int position = 0;
+			for (ByteBuffer i: chunks) {
+				int bytesToCopy = (int)Math.min(chunkSize, length - position);
+				ByteBuffer chunk = i.duplicate();
+				chunk.clear();
+				chunk.get(result, position, bytesToCopy);
+				position += bytesToCopy;
+			}
+			return result;
+		}
+
+		@Override
+		public void writeTo(OutputStream outputStream) throws IOException {
+			byte[] buffer = new byte[(int)Math.min(chunkSize, length)];
+			long position = 0;
+			for (ByteBuffer i: chunks) {
+				int bytesToCopy = (int)Math.min(chunkSize, length - position);
+				ByteBuffer chunk = i.duplicate();
+				chunk.clear();
+				chunk.get(buffer, 0, bytesToCopy);
+				outputStream.write(buffer, 0, bytesToCopy);
+				position += bytesToCopy;
+			}
+		}
+
+		@Override
+		protected void free() {
+			freeChunks(chunks, length);
+		}
+
+		/**
+		 * reads from the chunks into the array of the caller without an intermediate copy
+		 */
+		private class ChunkInputStream extends InputStream{
+			private long position;
+			private final long end;
+			private boolean closed = false;
+			
+			public ChunkInputStream(long offset, long end) {
+				this.position = offset;
+				this.end = end;
+			}
+
+			@Override
+			public int read() throws IOException {
+				if (position >= end) {
+					return -1;
+				}
+				ByteBuffer chunk = chunks.get((int)(position / chunkSize));
+				int result = chunk.get((int)(position % chunkSize)) & 0xff;
+				position ++;
+				return result;
+			}
+			
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (len == 0) {
+					return 0;
+				}
+				if (position >= end) {
+					return -1;
+				}
+				int bytesToRead = (int)Math.min(len, end - position);
+				int bytesRead = 0;
+				while (bytesRead < bytesToRead) {
+					ByteBuffer chunk = chunks.get((int)(position / chunkSize)).duplicate();
+					int positionInChunk = (int)(position % chunkSize);
+					int bytesFromChunk = Math.min(bytesToRead - bytesRead, chunkSize - positionInChunk);
+					chunk.clear();
+					chunk.position(positionInChunk);
+					chunk.get(b, off + bytesRead, bytesFromChunk);
+					bytesRead += bytesFromChunk;
+					position += bytesFromChunk;
+				}
+				return bytesRead;
+			}
+			
+			@Override
+			public long skip(long n) throws IOException {
+				long result = Math.max(0, Math.min(n, end - position));
+				position += result;
+				return result;
+			}
+			
+			@Override
+			public int available() throws IOException {
+				return (int)Math.min(Integer.MAX_VALUE, Math.max(0, end - position));
+			}
+			
+			@Override
+			public void close() throws IOException {
+				if (!closed) {
+					closed = true;
+					release();
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+/**
+ * the allocation of an OffHeapContentStore at the time the statistics were created
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class OffHeapStatistics {
+	private final long capacity;
+	private final int chunkSize;
+	private final int numberOfSlabs;
+	private final long reservedBytes;
+	private final long usedChunks;
+	private final long freeChunks;
+	private final long storedBytes;
+	
+	protected OffHeapStatistics(long capacity, int chunkSize, int numberOfSlabs, long reservedBytes, long usedChunks, long freeChunks, long storedBytes) {
+		this.capacity = capacity;
+		this.chunkSize = chunkSize;
+		this.numberOfSlabs = numberOfSlabs;
+		this.reservedBytes = reservedBytes;
+		this.usedChunks = usedChunks;
+		this.freeChunks = freeChunks;
+		this.storedBytes = storedBytes;
+	}
+
+	public long getCapacity() {
+		return capacity;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public int getNumberOfSlabs() {
+		return numberOfSlabs;
+	}
+
+	/**
+	 * @return number of bytes of the slabs which have been allocated so far
+	 */
+	public long getReservedBytes() {
+		return reservedBytes;
+	}
+
+	/**
+	 * @return number of chunks which are assigned to content
+	 */
+	public long getUsedChunks() {
+		return usedChunks;
+	}
+
+	/**
+	 * @return number of chunks in the free list which are reused before new chunks are taken from the slabs
+	 */
+	public long getFreeChunks() {
+		return freeChunks;
+	}
+
+	/**
+	 * @return number of bytes of all content
+	 */
+	public long getStoredBytes() {
+		return storedBytes;
+	}
+
+	/**
+	 * @return number of bytes of the chunks which are assigned to content
+	 */
+	public long getUsedBytes() {
+		return usedChunks * chunkSize;
+	}
+
+	/**
+	 * @return number of bytes which can still be used for content: the free chunks and the capacity which has not been allocated yet
+	 */
+	public long getFreeBytes() {
+		return capacity - getUsedBytes();
+	}
+	
+	/**
+	 * @return the part of the used bytes that is not filled with content (as the last chunk of a file is usually only partly filled), 
+	 * from 0 (none) to 1. 0 if no chunks are used
+	 */
+	public double getFragmentation() {
+		long usedBytes = getUsedBytes();
+		if (usedBytes == 0) {
+			return 0;
+		}
+		return (double)(usedBytes - storedBytes) / usedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "OffHeapStatistics{capacity=" + capacity + ", chunkSize=" + chunkSize + ", numberOfSlabs=" + numberOfSlabs + ", reservedBytes=" 
+				+ reservedBytes + ", usedChunks=" + usedChunks + ", freeChunks=" + freeChunks + ", storedBytes=" + storedBytes + ", usedBytes=" 
+				+ getUsedBytes() + ", freeBytes=" + getFreeBytes() + ", fragmentation=" + getFragmentation() + "}";
+	}
+	
+}
@@ -0,0 +1,86 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * lock-free histogram of latencies in nanoseconds. Values are counted in buckets with a relative width of 1/8 of the value (log-linear: 
+ * 8 buckets per power of 2), so percentiles have a precision of 12.5% while recording is only a few bit operations and one atomic increment.
+ * 
+ * @author Philip Heyse
+ *
+ */
+class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	protected static final int NUMBER_OF_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+	public void record(long nanos) {
+		bucketCounts.incrementAndGet(getBucketIndex(Math.max(0, nanos)));
+	}
+	
+	/**
+	 * @return copy of the counts of all buckets
+	 */
+	public long[] getBucketCounts() {
+		long[] result = new long[NUMBER_OF_BUCKETS];
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			result[i] = bucketCounts.get(i);
+		}
+		return result;
+	}
+	
+	public void reset() {
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			bucketCounts.set(i, 0);
+		}
+	}
+	
+	protected static int getBucketIndex(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int)value;
+		}
+		int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+		int subBucket = (int)((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+	
+	/**
+	 * @return the highest value which is counted in the bucket
+	 */
+	protected static long getBucketUpperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = index % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+	}
+	
+	/**
+	 * @param bucketCounts counts as provided by getBucketCounts
+	 * @param percentile value between 0 and 100
+	 * @return the upper bound of the bucket which contains the value at the percentile or 0 if there are no values
+	 */
+	protected static long getValueAtPercentile(long[] bucketCounts, double percentile) {
+		long total = 0;
+		for (long i: bucketCounts) {
+			total += i;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long countAtPercentile = Math.max(1, (long)Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100.0));
+		long count = 0;
+		for (int i = 0; i < bucketCounts.length; i++) {
+			count += bucketCounts[i];
+			if (count >= countAtPercentile) {
+				return getBucketUpperBound(i);
+			}
+		}
+		return getBucketUpperBound(bucketCounts.length - 1);
+	}
+	
+}
@@ -0,0 +1,46 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+/**
+ * measures one call of an operation: the time is taken when the object is created and the call is recorded by end(). 
+ * If success was not called before end() the call is counted as an error.
+ * 
+ * @author Philip Heyse
+ *
+ */
+class MetricsCall {
+	private final OperationMetrics operationMetrics;
+	private final long startTime;
+	private boolean success;
+	
+	public MetricsCall(OperationMetrics operationMetrics) {
+		this.operationMetrics = operationMetrics;
+		startTime = System.nanoTime();
+	}
+	
+	public void success() {
+		success = true;
+	}
+
+	public <K> K success(K result) {
+		success = true;
+		return result;
+	}
+
+	public boolean success(boolean result) {
+		success = true;
+		return result;
+	}
+
+	public long success(long result) {
+		success = true;
+		return result;
+	}
+	
+	public OperationMetrics getOperationMetrics() {
+		return operationMetrics;
+	}
+	
+	public void end() {
+		operationMetrics.recordCall(System.nanoTime() - startTime, !success);
+	}
+}
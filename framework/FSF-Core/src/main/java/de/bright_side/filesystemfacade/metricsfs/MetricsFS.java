@@ -0,0 +1,164 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+/**
+ * A file system which passes all calls to an inner file system and records per operation type the number of calls and errors, the bytes 
+ * read and written and the latency (as a histogram with percentiles). As file systems can be stacked, a MetricsFS can be put at any layer, e.g.
+ * on top of an EncryptedFS and between the EncryptedFS and the inner HistoryFS to see how much time is spent in each layer.
+ * 
+ * The metrics can be read with getSnapshot() or via JMX after calling registerMBean.
+ * 
+ * <code>
+ *		MetricsFS metricsFS = new MetricsFS(new NativeFS());
+ *		metricsFS.createByPath("/home/me/myFile.txt").writeString("My text");
+ *		System.out.println(metricsFS.getSnapshot().toReport());
+ * </code>
+ * 
+ * Latencies include the time of nested calls, e.g. copyFilesTree also records the calls to the files that are copied.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class MetricsFS implements FSFSystem{
+	private static final String MBEAN_DOMAIN = "de.bright_side.filesystemfacade";
+	
+	private final FSFSystem innerFS;
+	private final FSFEnvironment environment;
+	private final Map<MetricsOperation, OperationMetrics> operationMetricsMap = new EnumMap<>(MetricsOperation.class);
+	private volatile long timeStarted;
+	private ObjectName mbeanName;
+
+	/**
+	 * @param innerFS the file system of which the calls are recorded
+	 */
+	public MetricsFS(FSFSystem innerFS) {
+		this(innerFS, FSFFileUtil.createDefaultEnvironment());
+	}
+
+	/**
+	 * @param innerFS the file system of which the calls are recorded
+	 * @param environment environment object to e.g. get the current time 
+	 */
+	public MetricsFS(FSFSystem innerFS, FSFEnvironment environment) {
+		this.innerFS = innerFS;
+		this.environment = environment;
+		//: all entries are created here so that the map is only read afterwards and needs no synchronization
+		for (MetricsOperation i: MetricsOperation.values()) {
+			operationMetricsMap.put(i, new OperationMetrics(i));
+		}
+		timeStarted = environment.getCurrentTimeMillis();
+	}
+	
+	@Override
+	public List<FSFFile> listRoots() {
+		List<FSFFile> result = new ArrayList<>();
+		for (FSFFile i : innerFS.listRoots()) {
+			result.add(new MetricsFile(this, i));
+		}
+		return result;
+	}
+
+	@Override
+	public FSFFile createByPath(String path) throws Exception {
+		return new MetricsFile(this, innerFS.createByPath(path));
+	}
+
+	@Override
+	public String getSeparator() {
+		return innerFS.getSeparator();
+	}
+
+	@Override
+	public FSFSerializer getSerializer() {
+		return innerFS.getSerializer();
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		innerFS.setSerializer(serializer);
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return innerFS.isConcurrent();
+	}
+
+	public FSFSystem getInnerFS() {
+		return innerFS;
+	}
+	
+	protected OperationMetrics getOperationMetrics(MetricsOperation operation) {
+		return operationMetricsMap.get(operation);
+	}
+	
+	/**
+	 * @return the metrics recorded since the creation of the file system or the last reset
+	 */
+	public MetricsSnapshot getSnapshot() {
+		Map<MetricsOperation, OperationMetricsSnapshot> operations = new LinkedHashMap<>();
+		for (OperationMetrics i: operationMetricsMap.values()) {
+			OperationMetricsSnapshot snapshot = i.createSnapshot();
+			if (snapshot.getCalls() > 0) {
+				operations.put(snapshot.getOperation(), snapshot);
+			}
+		}
+		return new MetricsSnapshot(timeStarted, environment.getCurrentTimeMillis(), operations);
+	}
+	
+	/**
+	 * sets all metrics to 0. Calls which are running during the reset may be partly counted
+	 */
+	public void reset() {
+		for (OperationMetrics i: operationMetricsMap.values()) {
+			i.reset();
+		}
+		timeStarted = environment.getCurrentTimeMillis();
+	}
+	
+	/**
+	 * registers a MetricsMXBean for this file system in the platform MBean server
+	 * @param name name to tell the file systems apart, e.g. the name of the layer. Used as the "name" key of the object name
+	 * @return the object name "de.bright_side.filesystemfacade:type=MetricsFS,name=..."
+	 * @throws Exception if an MBean is already registered for this file system or the name is already used
+	 */
+	public synchronized ObjectName registerMBean(String name) throws Exception {
+		if (mbeanName != null) {
+			throw new Exception("MBean is already registered as '" + mbeanName + "'");
+		}
+		ObjectName objectName = new ObjectName(MBEAN_DOMAIN + ":type=MetricsFS,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(this), objectName);
+		mbeanName = objectName;
+		return objectName;
+	}
+	
+	/**
+	 * unregisters the MBean registered by registerMBean. Does nothing if no MBean is registered
+	 * @throws Exception on general error
+	 */
+	public synchronized void unregisterMBean() throws Exception {
+		if (mbeanName == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		if (server.isRegistered(mbeanName)) {
+			server.unregisterMBean(mbeanName);
+		}
+		mbeanName = null;
+	}
+	
+}
@@ -0,0 +1,579 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+import java.util.SortedSet;
+
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+import de.bright_side.filesystemfacade.facade.FSFFileWithInnerFile;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.facade.VersionedData;
+import de.bright_side.filesystemfacade.facade.WrongVersionException;
+import de.bright_side.filesystemfacade.util.ListDirFormatting;
+
+/**
+ * file of a MetricsFS: each call is passed to the inner file and recorded. Bytes are counted for byte arrays and streams (when the stream is 
+ * read or written), but not for strings, objects and seekable byte channels.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class MetricsFile extends FSFFileWithInnerFile{
+	private MetricsFS fs;
+
+	protected MetricsFile(MetricsFS fs, FSFFile innerFile) {
+		super(innerFile);
+		this.fs = fs;
+	}
+	
+	@Override
+	protected FSFFile wrap(FSFFile innerFile) {
+		if (innerFile == null) {
+			return null;
+		}
+		return new MetricsFile(fs, innerFile);
+	}
+	
+	/**
+	 * @return the inner file if the file is a MetricsFile so that the inner file system can use its optimizations for its own file type
+	 */
+	private static FSFFile unwrap(FSFFile file) {
+		if (file instanceof MetricsFile) {
+			return ((MetricsFile)file).getInnerFile();
+		}
+		return file;
+	}
+	
+	private MetricsCall start(MetricsOperation operation) {
+		return new MetricsCall(fs.getOperationMetrics(operation));
+	}
+
+	@Override
+	public FSFSystem getFSFSystem() {
+		return fs;
+	}
+	
+	@Override
+	public int compareTo(FSFFile o) {
+		return getInnerFile().compareTo(unwrap(o));
+	}
+
+	@Override
+	public List<FSFFile> listFiles() {
+		MetricsCall call = start(MetricsOperation.LIST_FILES);
+		try {
+			return call.success(super.listFiles());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+		MetricsCall call = start(MetricsOperation.LIST_FILES_WITH_ATTRIBUTES);
+		try {
+			return call.success(super.listFilesWithAttributes());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public FSFDirectoryStream openDirectoryStream() throws Exception {
+		MetricsCall call = start(MetricsOperation.OPEN_DIRECTORY_STREAM);
+		try {
+			return call.success(super.openDirectoryStream());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public FSFFileAttributes readAttributes() throws Exception {
+		MetricsCall call = start(MetricsOperation.READ_ATTRIBUTES);
+		try {
+			return call.success(super.readAttributes());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public long getTimeLastModified() throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_TIME_LAST_MODIFIED);
+		try {
+			return call.success(super.getTimeLastModified());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public long getTimeCreated() throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_TIME_CREATED);
+		try {
+			return call.success(super.getTimeCreated());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public boolean isFile() {
+		MetricsCall call = start(MetricsOperation.IS_FILE);
+		try {
+			return call.success(super.isFile());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public boolean isDirectory() {
+		MetricsCall call = start(MetricsOperation.IS_DIRECTORY);
+		try {
+			return call.success(super.isDirectory());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public boolean exists() {
+		MetricsCall call = start(MetricsOperation.EXISTS);
+		try {
+			return call.success(super.exists());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public OutputStream getOutputStream(boolean append) throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_OUTPUT_STREAM);
+		try {
+			return call.success(wrapOutputStream(super.getOutputStream(append), call));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public InputStream getInputStream() throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_INPUT_STREAM);
+		try {
+			return call.success(wrapInputStream(super.getInputStream(), call));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public InputStream getInputStream(long offset, long length) throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_INPUT_STREAM_RANGE);
+		try {
+			return call.success(wrapInputStream(super.getInputStream(offset, length), call));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public SeekableByteChannel getSeekableByteChannel() throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_SEEKABLE_BYTE_CHANNEL);
+		try {
+			return call.success(super.getSeekableByteChannel());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void rename(String newName) throws Exception {
+		MetricsCall call = start(MetricsOperation.RENAME);
+		try {
+			super.rename(newName);
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public FSFFile mkdirs() throws Exception {
+		MetricsCall call = start(MetricsOperation.MKDIRS);
+		try {
+			return call.success(super.mkdirs());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public FSFFile mkdir() throws Exception {
+		MetricsCall call = start(MetricsOperation.MKDIR);
+		try {
+			return call.success(super.mkdir());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void delete() throws Exception {
+		MetricsCall call = start(MetricsOperation.DELETE);
+		try {
+			super.delete();
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public <K> K readObject(Class<K> classType) throws Exception {
+		MetricsCall call = start(MetricsOperation.READ_OBJECT);
+		try {
+			return call.success(super.readObject(classType));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public <K> FSFFile writeObject(K objectToWrite) throws Exception {
+		MetricsCall call = start(MetricsOperation.WRITE_OBJECT);
+		try {
+			return call.success(super.writeObject(objectToWrite));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void moveTo(FSFFile otherFile) throws Exception {
+		MetricsCall call = start(MetricsOperation.MOVE_TO);
+		try {
+			getInnerFile().moveTo(unwrap(otherFile));
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void copyTo(FSFFile destFile) throws Exception {
+		MetricsCall call = start(MetricsOperation.COPY_TO);
+		try {
+			getInnerFile().copyTo(unwrap(destFile));
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public long getLength() {
+		MetricsCall call = start(MetricsOperation.GET_LENGTH);
+		try {
+			return call.success(super.getLength());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public String listDirAsString(ListDirFormatting formatting) {
+		MetricsCall call = start(MetricsOperation.LIST_DIR_AS_STRING);
+		try {
+			return call.success(super.listDirAsString(formatting));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public byte[] readBytes() throws Exception {
+		MetricsCall call = start(MetricsOperation.READ_BYTES);
+		try {
+			byte[] result = super.readBytes();
+			addBytesRead(call, result);
+			return call.success(result);
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void copyFilesTree(FSFFile dest) throws Exception {
+		MetricsCall call = start(MetricsOperation.COPY_FILES_TREE);
+		try {
+			super.copyFilesTree(dest);
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void deleteTree() throws Exception {
+		MetricsCall call = start(MetricsOperation.DELETE_TREE);
+		try {
+			super.deleteTree();
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public List<FSFFile> listFilesTree() throws Exception {
+		MetricsCall call = start(MetricsOperation.LIST_FILES_TREE);
+		try {
+			return call.success(super.listFilesTree());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void setTimeLastModified(long timeLastModified) throws Exception {
+		MetricsCall call = start(MetricsOperation.SET_TIME_LAST_MODIFIED);
+		try {
+			super.setTimeLastModified(timeLastModified);
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public boolean setTimeCreated(long timeCreated) throws Exception {
+		MetricsCall call = start(MetricsOperation.SET_TIME_CREATED);
+		try {
+			return call.success(super.setTimeCreated(timeCreated));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public FSFFile writeBytes(boolean append, byte[] bytes) throws Exception {
+		MetricsCall call = start(MetricsOperation.WRITE_BYTES);
+		try {
+			FSFFile result = super.writeBytes(append, bytes);
+			addBytesWritten(call, bytes);
+			return call.success(result);
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public FSFFile writeString(String string) throws Exception {
+		MetricsCall call = start(MetricsOperation.WRITE_STRING);
+		try {
+			return call.success(super.writeString(string));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public String readString() throws Exception {
+		MetricsCall call = start(MetricsOperation.READ_STRING);
+		try {
+			return call.success(super.readString());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public SortedSet<Long> getHistoryTimes() throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_HISTORY_TIMES);
+		try {
+			return call.success(super.getHistoryTimes());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void copyHistoryFilesTree(FSFFile dest, long version) throws Exception {
+		MetricsCall call = start(MetricsOperation.COPY_HISTORY_FILES_TREE);
+		try {
+			super.copyHistoryFilesTree(dest, version);
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public InputStream getHistoryInputStream(long version) throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_HISTORY_INPUT_STREAM);
+		try {
+			return call.success(wrapInputStream(super.getHistoryInputStream(version), call));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public VersionedData<InputStream> getInputStreamAndVersion() throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_INPUT_STREAM_AND_VERSION);
+		try {
+			VersionedData<InputStream> result = super.getInputStreamAndVersion();
+			if ((result != null) && (result.getData() != null)) {
+				result = new VersionedData<InputStream>(result.getVersion(), wrapInputStream(result.getData(), call));
+			}
+			return call.success(result);
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public OutputStream getOutputStreamForVersion(boolean append, long newVersion) throws WrongVersionException, Exception {
+		MetricsCall call = start(MetricsOperation.GET_OUTPUT_STREAM_FOR_VERSION);
+		try {
+			return call.success(wrapOutputStream(super.getOutputStreamForVersion(append, newVersion), call));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public <K> VersionedData<K> readObjectAndVersion(Class<K> classType) throws Exception {
+		MetricsCall call = start(MetricsOperation.READ_OBJECT_AND_VERSION);
+		try {
+			return call.success(super.readObjectAndVersion(classType));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public <K> FSFFile writeObjectForVersion(K objectToWrite, long newVersion) throws WrongVersionException, Exception {
+		MetricsCall call = start(MetricsOperation.WRITE_OBJECT_FOR_VERSION);
+		try {
+			return call.success(super.writeObjectForVersion(objectToWrite, newVersion));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public VersionedData<byte[]> readBytesAndVersion() throws Exception {
+		MetricsCall call = start(MetricsOperation.READ_BYTES_AND_VERSION);
+		try {
+			VersionedData<byte[]> result = super.readBytesAndVersion();
+			if (result != null) {
+				addBytesRead(call, result.getData());
+			}
+			return call.success(result);
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public FSFFile writeBytesForVersion(boolean append, byte[] bytes, long newVersion) throws WrongVersionException, Exception {
+		MetricsCall call = start(MetricsOperation.WRITE_BYTES_FOR_VERSION);
+		try {
+			FSFFile result = super.writeBytesForVersion(append, bytes, newVersion);
+			addBytesWritten(call, bytes);
+			return call.success(result);
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public long getVersion() throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_VERSION);
+		try {
+			return call.success(super.getVersion());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public long getVersion(boolean allowCache) throws Exception {
+		MetricsCall call = start(MetricsOperation.GET_VERSION);
+		try {
+			return call.success(super.getVersion(allowCache));
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public void setVersion(long version) throws Exception {
+		MetricsCall call = start(MetricsOperation.SET_VERSION);
+		try {
+			super.setVersion(version);
+			call.success();
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public VersionedData<String> readStringAndVersion() throws Exception {
+		MetricsCall call = start(MetricsOperation.READ_STRING_AND_VERSION);
+		try {
+			return call.success(super.readStringAndVersion());
+		} finally {
+			call.end();
+		}
+	}
+
+	@Override
+	public FSFFile writeStringForVersion(String string, long newVersion) throws WrongVersionException, Exception {
+		MetricsCall call = start(MetricsOperation.WRITE_STRING_FOR_VERSION);
+		try {
+			return call.success(super.writeStringForVersion(string, newVersion));
+		} finally {
+			call.end();
+		}
+	}
+	
+	private InputStream wrapInputStream(InputStream inputStream, MetricsCall call) {
+		if (inputStream == null) {
+			return null;
+		}
+		return new MetricsInputStream(inputStream, call.getOperationMetrics());
+	}
+
+	private OutputStream wrapOutputStream(OutputStream outputStream, MetricsCall call) {
+		if (outputStream == null) {
+			return null;
+		}
+		return new MetricsOutputStream(outputStream, call.getOperationMetrics());
+	}
+	
+	private void addBytesRead(MetricsCall call, byte[] bytes) {
+		if (bytes != null) {
+			call.getOperationMetrics().addBytesRead(bytes.length);
+		}
+	}
+
+	private void addBytesWritten(MetricsCall call, byte[] bytes) {
+		if (bytes != null) {
+			call.getOperationMetrics().addBytesWritten(bytes.length);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MetricsFile{innerFile=" + getInnerFile() + "}";
+	}
+	
+}
@@ -0,0 +1,39 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * counts the bytes read from the inner stream as bytes read of an operation
+ * 
+ * @author Philip Heyse
+ *
+ */
+class MetricsInputStream extends FilterInputStream{
+	private final OperationMetrics operationMetrics;
+
+	public MetricsInputStream(InputStream inputStream, OperationMetrics operationMetrics) {
+		super(inputStream);
+		this.operationMetrics = operationMetrics;
+	}
+	
+	@Override
+	public int read() throws IOException {
+		int result = super.read();
+		if (result >= 0) {
+			operationMetrics.addBytesRead(1);
+		}
+		return result;
+	}
+	
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		int result = super.read(bytes, offset, length);
+		if (result > 0) {
+			operationMetrics.addBytesRead(result);
+		}
+		return result;
+	}
+
+}
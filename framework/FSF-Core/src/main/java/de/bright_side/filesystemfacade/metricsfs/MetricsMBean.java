@@ -0,0 +1,119 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * implementation of the MetricsMXBean which reads a new snapshot of the MetricsFS for each attribute
+ * 
+ * @author Philip Heyse
+ *
+ */
+class MetricsMBean implements MetricsMXBean{
+	private static final int NANOS_PER_MICRO = 1000;
+	
+	private enum Value {CALLS, ERRORS, BYTES_READ, BYTES_WRITTEN, MEAN_MICROS, MEDIAN_MICROS, P99_MICROS, MAX_MICROS}
+	
+	private final MetricsFS fs;
+
+	public MetricsMBean(MetricsFS fs) {
+		this.fs = fs;
+	}
+	
+	private Map<String, Long> getValues(Value value){
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (OperationMetricsSnapshot i: fs.getSnapshot().getOperations().values()) {
+			result.put(i.getOperation().name(), getValue(i, value));
+		}
+		return result;
+	}
+
+	private long getValue(OperationMetricsSnapshot snapshot, Value value) {
+		switch (value) {
+		case CALLS:
+			return snapshot.getCalls();
+		case ERRORS:
+			return snapshot.getErrors();
+		case BYTES_READ:
+			return snapshot.getBytesRead();
+		case BYTES_WRITTEN:
+			return snapshot.getBytesWritten();
+		case MEAN_MICROS:
+			return snapshot.getMeanNanos() / NANOS_PER_MICRO;
+		case MEDIAN_MICROS:
+			return snapshot.getMedianNanos() / NANOS_PER_MICRO;
+		case P99_MICROS:
+			return snapshot.getPercentileNanos(99) / NANOS_PER_MICRO;
+		case MAX_MICROS:
+			return snapshot.getMaxNanos() / NANOS_PER_MICRO;
+		default:
+			throw new RuntimeException("Unexpected value: " + value);
+		}
+	}
+
+	@Override
+	public long getTimeStarted() {
+		return fs.getSnapshot().getTimeStarted();
+	}
+
+	@Override
+	public long getTotalCalls() {
+		return fs.getSnapshot().getTotalCalls();
+	}
+
+	@Override
+	public long getTotalErrors() {
+		return fs.getSnapshot().getTotalErrors();
+	}
+
+	@Override
+	public Map<String, Long> getCalls() {
+		return getValues(Value.CALLS);
+	}
+
+	@Override
+	public Map<String, Long> getErrors() {
+		return getValues(Value.ERRORS);
+	}
+
+	@Override
+	public Map<String, Long> getBytesRead() {
+		return getValues(Value.BYTES_READ);
+	}
+
+	@Override
+	public Map<String, Long> getBytesWritten() {
+		return getValues(Value.BYTES_WRITTEN);
+	}
+
+	@Override
+	public Map<String, Long> getMeanMicros() {
+		return getValues(Value.MEAN_MICROS);
+	}
+
+	@Override
+	public Map<String, Long> getMedianMicros() {
+		return getValues(Value.MEDIAN_MICROS);
+	}
+
+	@Override
+	public Map<String, Long> getP99Micros() {
+		return getValues(Value.P99_MICROS);
+	}
+
+	@Override
+	public Map<String, Long> getMaxMicros() {
+		return getValues(Value.MAX_MICROS);
+	}
+
+	@Override
+	public String getReport() {
+		return fs.getSnapshot().toReport();
+	}
+
+	@Override
+	public void reset() {
+		fs.reset();
+	}
+
+}
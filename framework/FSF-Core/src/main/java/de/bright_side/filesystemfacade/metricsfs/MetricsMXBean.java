@@ -0,0 +1,25 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.util.Map;
+
+/**
+ * JMX view of a MetricsFS (see MetricsFS.registerMBean). The maps contain one entry per operation type that was called. Latencies are in microseconds.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public interface MetricsMXBean {
+	long getTimeStarted();
+	long getTotalCalls();
+	long getTotalErrors();
+	Map<String, Long> getCalls();
+	Map<String, Long> getErrors();
+	Map<String, Long> getBytesRead();
+	Map<String, Long> getBytesWritten();
+	Map<String, Long> getMeanMicros();
+	Map<String, Long> getMedianMicros();
+	Map<String, Long> getP99Micros();
+	Map<String, Long> getMaxMicros();
+	String getReport();
+	void reset();
+}
@@ -0,0 +1,19 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+/**
+ * the operations of a file which are recorded by the MetricsFS. Operations which only work on the path (getName, getChild, getAbsolutePath, ...) are not recorded.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public enum MetricsOperation {
+	EXISTS, IS_FILE, IS_DIRECTORY, GET_LENGTH, GET_TIME_LAST_MODIFIED, GET_TIME_CREATED, READ_ATTRIBUTES, 
+	LIST_FILES, LIST_FILES_WITH_ATTRIBUTES, OPEN_DIRECTORY_STREAM, LIST_FILES_TREE, LIST_DIR_AS_STRING,
+	MKDIR, MKDIRS, DELETE, DELETE_TREE, RENAME, MOVE_TO, COPY_TO, COPY_FILES_TREE, 
+	SET_TIME_LAST_MODIFIED, SET_TIME_CREATED, 
+	GET_INPUT_STREAM, GET_INPUT_STREAM_RANGE, GET_SEEKABLE_BYTE_CHANNEL, GET_OUTPUT_STREAM, 
+	READ_BYTES, WRITE_BYTES, READ_STRING, WRITE_STRING, READ_OBJECT, WRITE_OBJECT,
+	GET_HISTORY_TIMES, GET_HISTORY_INPUT_STREAM, COPY_HISTORY_FILES_TREE, 
+	GET_VERSION, SET_VERSION, GET_INPUT_STREAM_AND_VERSION, GET_OUTPUT_STREAM_FOR_VERSION, READ_BYTES_AND_VERSION, WRITE_BYTES_FOR_VERSION, 
+	READ_STRING_AND_VERSION, WRITE_STRING_FOR_VERSION, READ_OBJECT_AND_VERSION, WRITE_OBJECT_FOR_VERSION
+}
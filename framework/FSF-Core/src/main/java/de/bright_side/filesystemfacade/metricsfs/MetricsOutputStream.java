@@ -0,0 +1,34 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * counts the bytes written to the inner stream as bytes written of an operation
+ * 
+ * @author Philip Heyse
+ *
+ */
+class MetricsOutputStream extends FilterOutputStream{
+	private final OperationMetrics operationMetrics;
+
+	public MetricsOutputStream(OutputStream outputStream, OperationMetrics operationMetrics) {
+		super(outputStream);
+		this.operationMetrics = operationMetrics;
+	}
+	
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		operationMetrics.addBytesWritten(1);
+	}
+	
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		//: FilterOutputStream would write each byte separately
+		out.write(bytes, offset, length);
+		operationMetrics.addBytesWritten(length);
+	}
+
+}
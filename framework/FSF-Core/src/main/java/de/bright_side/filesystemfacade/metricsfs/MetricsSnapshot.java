@@ -0,0 +1,88 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * the metrics of all operation types of a MetricsFS at the time the snapshot was created
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class MetricsSnapshot {
+	private final long timeStarted;
+	private final long timeCreated;
+	private final Map<MetricsOperation, OperationMetricsSnapshot> operations;
+	
+	protected MetricsSnapshot(long timeStarted, long timeCreated, Map<MetricsOperation, OperationMetricsSnapshot> operations) {
+		this.timeStarted = timeStarted;
+		this.timeCreated = timeCreated;
+		this.operations = Collections.unmodifiableMap(operations);
+	}
+
+	/**
+	 * @return the time when the recording started: the time of the creation of the MetricsFS or the last reset
+	 */
+	public long getTimeStarted() {
+		return timeStarted;
+	}
+
+	public long getTimeCreated() {
+		return timeCreated;
+	}
+
+	/**
+	 * @return the metrics of all operation types that were called at least once in the order of MetricsOperation
+	 */
+	public Map<MetricsOperation, OperationMetricsSnapshot> getOperations() {
+		return operations;
+	}
+	
+	/**
+	 * @param operation operation type
+	 * @return the metrics of the operation type. If the operation was not called all values are 0
+	 */
+	public OperationMetricsSnapshot getOperation(MetricsOperation operation) {
+		OperationMetricsSnapshot result = operations.get(operation);
+		if (result == null) {
+			return new OperationMetricsSnapshot(operation, 0, 0, 0, 0, 0, 0, new long[LatencyHistogram.NUMBER_OF_BUCKETS]);
+		}
+		return result;
+	}
+	
+	public long getTotalCalls() {
+		long result = 0;
+		for (OperationMetricsSnapshot i: operations.values()) {
+			result += i.getCalls();
+		}
+		return result;
+	}
+
+	public long getTotalErrors() {
+		long result = 0;
+		for (OperationMetricsSnapshot i: operations.values()) {
+			result += i.getErrors();
+		}
+		return result;
+	}
+	
+	/**
+	 * @return a table with one line per operation type. Latencies are in microseconds
+	 */
+	public String toReport() {
+		StringBuilder result = new StringBuilder();
+		result.append(String.format("%-30s %10s %8s %14s %14s %10s %10s %10s %10s%n", "operation", "calls", "errors", "bytes read", "bytes written", "mean us"
+				, "p50 us", "p99 us", "max us"));
+		for (OperationMetricsSnapshot i: operations.values()) {
+			result.append(String.format("%-30s %10d %8d %14d %14d %10d %10d %10d %10d%n", i.getOperation(), i.getCalls(), i.getErrors(), i.getBytesRead()
+					, i.getBytesWritten(), i.getMeanNanos() / 1000, i.getMedianNanos() / 1000, i.getPercentileNanos(99) / 1000, i.getMaxNanos() / 1000));
+		}
+		return result.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "MetricsSnapshot{timeStarted=" + timeStarted + ", timeCreated=" + timeCreated + ", operations=" + operations.values() + "}";
+	}
+	
+}
@@ -0,0 +1,62 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * thread safe counters of one operation type
+ * 
+ * @author Philip Heyse
+ *
+ */
+class OperationMetrics {
+	private final MetricsOperation operation;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder bytesRead = new LongAdder();
+	private final LongAdder bytesWritten = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+	
+	public OperationMetrics(MetricsOperation operation) {
+		this.operation = operation;
+	}
+
+	public void recordCall(long nanos, boolean error) {
+		calls.increment();
+		if (error) {
+			errors.increment();
+		}
+		totalNanos.add(nanos);
+		latencyHistogram.record(nanos);
+		long currentMax = maxNanos.get();
+		while ((nanos > currentMax) && (!maxNanos.compareAndSet(currentMax, nanos))) {
+			currentMax = maxNanos.get();
+		}
+	}
+	
+	public void addBytesRead(long numberOfBytes) {
+		bytesRead.add(numberOfBytes);
+	}
+
+	public void addBytesWritten(long numberOfBytes) {
+		bytesWritten.add(numberOfBytes);
+	}
+	
+	public OperationMetricsSnapshot createSnapshot() {
+		return new OperationMetricsSnapshot(operation, calls.sum(), errors.sum(), bytesRead.sum(), bytesWritten.sum(), totalNanos.sum(), maxNanos.get()
+				, latencyHistogram.getBucketCounts());
+	}
+	
+	public void reset() {
+		calls.reset();
+		errors.reset();
+		bytesRead.reset();
+		bytesWritten.reset();
+		totalNanos.reset();
+		maxNanos.set(0);
+		latencyHistogram.reset();
+	}
+	
+}
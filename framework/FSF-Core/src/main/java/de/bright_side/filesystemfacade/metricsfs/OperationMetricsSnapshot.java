@@ -0,0 +1,97 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+/**
+ * the metrics of one operation type at the time the snapshot was created. Latencies are in nanoseconds and include the time of all inner file systems. 
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class OperationMetricsSnapshot {
+	private final MetricsOperation operation;
+	private final long calls;
+	private final long errors;
+	private final long bytesRead;
+	private final long bytesWritten;
+	private final long totalNanos;
+	private final long maxNanos;
+	private final long[] latencyBucketCounts;
+
+	protected OperationMetricsSnapshot(MetricsOperation operation, long calls, long errors, long bytesRead, long bytesWritten, long totalNanos, long maxNanos,
+			long[] latencyBucketCounts) {
+		this.operation = operation;
+		this.calls = calls;
+		this.errors = errors;
+		this.bytesRead = bytesRead;
+		this.bytesWritten = bytesWritten;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+		this.latencyBucketCounts = latencyBucketCounts;
+	}
+
+	public MetricsOperation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @return number of calls including the calls that failed
+	 */
+	public long getCalls() {
+		return calls;
+	}
+
+	/**
+	 * @return number of calls that threw an exception
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return number of bytes read by the operation. For streams the bytes are counted when they are read from the stream
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * @return number of bytes written by the operation. For streams the bytes are counted when they are written to the stream
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public long getMeanNanos() {
+		if (calls == 0) {
+			return 0;
+		}
+		return totalNanos / calls;
+	}
+	
+	/**
+	 * @param percentile value between 0 and 100, e.g. 99.9
+	 * @return latency at the percentile with a precision of 12.5% (but never more than the max latency) or 0 if there were no calls
+	 */
+	public long getPercentileNanos(double percentile) {
+		return Math.min(maxNanos, LatencyHistogram.getValueAtPercentile(latencyBucketCounts, percentile));
+	}
+	
+	public long getMedianNanos() {
+		return getPercentileNanos(50);
+	}
+	
+	@Override
+	public String toString() {
+		return "OperationMetricsSnapshot{operation=" + operation + ", calls=" + calls + ", errors=" + errors + ", bytesRead=" + bytesRead + ", bytesWritten="
+				+ bytesWritten + ", meanNanos=" + getMeanNanos() + ", medianNanos=" + getMedianNanos() + ", p99Nanos=" + getPercentileNanos(99) 
+				+ ", maxNanos=" + maxNanos + "}";
+	}
+	
+}
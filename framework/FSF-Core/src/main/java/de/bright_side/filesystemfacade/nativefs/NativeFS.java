@@ -5,13 +5,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
 
 /**
  * @author Philip Heyse
  *
  */
 public class NativeFS implements FSFSystem{
+	private FSFSerializer serializer = FSFFileUtil.DEFAULT_SERIALIZER;
 	
 	@Override
 	public List<FSFFile> listRoots() {
@@ -32,4 +35,19 @@ public class NativeFS implements FSFSystem{
 		return File.separator;
 	}
 
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
+	@Override
+	public FSFSerializer getSerializer() {
+		return serializer;
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		this.serializer = serializer;
+	}
+
 }
@@ -1,33 +1,38 @@
 package de.bright_side.filesystemfacade.nativefs;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.VersionedData;
 import de.bright_side.filesystemfacade.facade.WrongVersionException;
+import de.bright_side.filesystemfacade.util.AbstractDirectoryStream;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
+import de.bright_side.filesystemfacade.util.RangeInputStream;
 
 /**
  * @author Philip Heyse
@@ -37,7 +42,6 @@ public class NativeFile implements FSFFile{
 	private static final boolean LOGGING_ENABLED = false;
 	private File file;
 	private FSFSystem fsfSystem;
-	private static final String ENCODING = "UTF-8";
 	
 	protected NativeFile(FSFSystem fsfSystem, File file) {
 		this.fsfSystem = fsfSystem;
@@ -67,6 +71,68 @@ public class NativeFile implements FSFFile{
 		return result;
 	}
 
+	@Override
+	public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+		if (!file.isDirectory()){
+			return null;
+		}
+		List<FSFFileAttributes> result = new ArrayList<FSFFileAttributes>();
+		for (File i: file.listFiles()){
+			result.add(new NativeFile(fsfSystem, i).readAttributes());
+		}
+		return result;
+	}
+	
+	@Override
+	public FSFFileAttributes readAttributes() throws Exception {
+		BasicFileAttributes attr;
+		try{
+			attr = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			return FSFFileAttributes.createNonExisting(this);
+		} catch (NoSuchMethodError e) { 
+			//: File.toPath is not supported in all Java versions, e.g. not in Android before 8.0
+			//: In this case read the attributes one by one
+			return FSFFileUtil.readAttributesOneByOne(this);
+		}
+		long length = attr.isDirectory() ? 0 : attr.size();
+		long timeCreated = 0;
+		if (attr.creationTime() != null) {
+			timeCreated = attr.creationTime().toMillis();
+		}
+		return new FSFFileAttributes(this, true, attr.isDirectory(), length, attr.lastModifiedTime().toMillis(), timeCreated, 0);
+	}
+
+	@Override
+	public FSFDirectoryStream openDirectoryStream() throws Exception {
+		if (!file.isDirectory()){
+			return null;
+		}
+		final DirectoryStream<Path> directoryStream;
+		try {
+			directoryStream = Files.newDirectoryStream(file.toPath());
+		} catch (NoSuchMethodError e) {
+			//: File.toPath is not supported in all Java versions, e.g. not in Android before 8.0
+			//: In this case the directory is read completely
+			return FSFFileUtil.openDirectoryStreamViaList(this);
+		}
+		final Iterator<Path> iterator = directoryStream.iterator();
+		return new AbstractDirectoryStream() {
+			@Override
+			protected FSFFileAttributes readNext() throws Exception {
+				if (!iterator.hasNext()) {
+					return null;
+				}
+				return new NativeFile(fsfSystem, iterator.next().toFile()).readAttributes();
+			}
+			
+			@Override
+			protected void closeResources() throws IOException {
+				directoryStream.close();
+			}
+		};
+	}
+
 	@Override
 	public String getName() {
 		return file.getName();
@@ -140,6 +206,24 @@ public class NativeFile implements FSFFile{
 	public InputStream getInputStream() throws Exception {
 		return new FileInputStream(file);
 	}
+	
+	@Override
+	public InputStream getInputStream(long offset, long length) throws Exception {
+		FSFFileUtil.verifyRange(offset, length);
+		FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+		try {
+			channel.position(offset);
+		} catch (Exception e) {
+			channel.close();
+			throw e;
+		}
+		return new RangeInputStream(Channels.newInputStream(channel), length, channel);
+	}
+	
+	@Override
+	public SeekableByteChannel getSeekableByteChannel() throws Exception {
+		return new RandomAccessFile(file, "r").getChannel();
+	}
 
 	@Override
 	public void rename(String newName) throws Exception {
@@ -187,35 +271,17 @@ public class NativeFile implements FSFFile{
 	
 	@Override
 	public <K> K readObject(Class<K> classType) throws Exception {
-		BufferedReader reader = null;
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		Gson gson = gsonBuilder.create();
-		try{
-			reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
-			return gson.fromJson(reader, classType);
-		} catch (Exception e){
-			throw e;
-		} finally {
-			if (reader != null){
-				reader.close();
-			}
+		try (InputStream inputStream = new FileInputStream(file)){
+			return fsfSystem.getSerializer().read(inputStream, classType);
 		}
 	}
 
 	@Override
 	public <K> FSFFile writeObject(K objectToWrite) throws Exception {
-		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		String json = gson.toJson(objectToWrite);
-		BufferedWriter writer = null;
-		try{
-			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
-			writer.append(json);
+		try (OutputStream outputStream = new FileOutputStream(file)){
+			fsfSystem.getSerializer().write(objectToWrite, outputStream);
 		}catch (IOException e){
 			throw new Exception("Could not save file '" + file.getAbsolutePath() + "'", e);
-		} finally {
-			if (writer != null){
-				writer.close();
-			}
 		}
 		return this;
 	}
@@ -301,7 +367,11 @@ public class NativeFile implements FSFFile{
 	@Override
 	public void copyTo(FSFFile destFile) throws Exception {
 		FSFFileUtil.verifyCopyPossible(this, destFile);
-		FSFFileUtil.copyViaStreams(this, destFile);
+		if (destFile instanceof NativeFile) {
+			copyViaChannels(((NativeFile)destFile).file);
+		} else {
+			FSFFileUtil.copyViaStreams(this, destFile);
+		}
 		
 //		if (!(destFile.getFSFSystem() instanceof NativeFS)){
 //			throw new Exception("Cannot copy from Native File System to a different File System");
@@ -320,6 +390,25 @@ public class NativeFile implements FSFFile{
 //	 	}
 	}
 
+	/**
+	 * copies the data with FileChannel.transferTo so that the operating system can copy the data without passing it through a Java buffer
+	 */
+	private void copyViaChannels(File destFile) throws Exception {
+		try (FileChannel sourceChannel = new FileInputStream(file).getChannel(); FileChannel destChannel = new FileOutputStream(destFile).getChannel()){
+			long size = sourceChannel.size();
+			long position = 0;
+			while (position < size) {
+				long transferred = sourceChannel.transferTo(position, size - position, destChannel);
+				if (transferred <= 0) {
+					break;
+				}
+				position += transferred;
+			}
+		} catch (Exception e){
+			throw new Exception("Could not copy from file '" + getAbsolutePath() + "' to '" + destFile.getAbsolutePath() + "'", e);
+		}
+	}
+
 	@Override
 	public void copyFilesTree(FSFFile dest) throws Exception {
 		FSFFileUtil.copyFilesTree(this, dest);
@@ -8,6 +8,7 @@ import java.util.zip.GZIPOutputStream;
 
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.WrongVersionException;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
@@ -23,6 +24,7 @@ public class RemoteFS implements FSFSystem{
 	protected static final String COMMAND_IS_DIRECTORY = "isDirectory";
 	protected static final String COMMAND_EXISTS = "exists";
 	protected static final String COMMAND_READ_BYTES = "readBytes";
+	protected static final String COMMAND_READ_BYTES_RANGE = "readBytesRange";
 	protected static final String COMMAND_READ_HISTORY_BYTES = "readHistoryBytes";
 	protected static final String COMMAND_WRITE_BYTES = "writeBytes";
 	protected static final String COMMAND_READ_BYTES_AND_VERSION =  "readBytesAndVersion";
@@ -35,12 +37,18 @@ public class RemoteFS implements FSFSystem{
 	protected static final String COMMAND_MKDIR = "mkdir";
 	protected static final String COMMAND_DELETE = "delete";
 	protected static final String COMMAND_MOVE_TO = "moveTo";
+	protected static final String COMMAND_COPY_TO = "copyTo";
 	protected static final String COMMAND_GET_LENGTH = "getLength";
 	protected static final String COMMAND_SET_TIME_LAST_MODIFIED = "setTimeLastModified";
 	protected static final String COMMAND_SET_TIME_CREATED = "setTimeCreated";
 	protected static final String COMMAND_LIST_ROOTS = "listRoots";
 	protected static final String COMMAND_DELETE_TREE = "deleteTree";
 	protected static final String COMMAND_GET_HISTORY_TIMES = "getHistoryTimes";
+	protected static final String COMMAND_READ_ATTRIBUTES = "readAttributes";
+	protected static final String COMMAND_LIST_FILES_WITH_ATTRIBUTES = "listFilesWithAttributes";
+	protected static final String COMMAND_LIST_FILES_WITH_ATTRIBUTES_CHUNK = "listFilesWithAttributesChunk";
+	protected static final String COMMAND_CLOSE_DIRECTORY_STREAM = "closeDirectoryStream";
+	public static final int DEFAULT_DIRECTORY_STREAM_CHUNK_SIZE = 1000;
 
 	protected static final String VERSION_SEPARATOR = ";";
 	private static final boolean LOGGING_ENABLED = false;
@@ -52,6 +60,8 @@ public class RemoteFS implements FSFSystem{
 	private String username;
 	private String password;
 	private RemoteFSConnectionProvider connectionProvider;
+	private int directoryStreamChunkSize = DEFAULT_DIRECTORY_STREAM_CHUNK_SIZE;
+	private FSFSerializer serializer = FSFFileUtil.DEFAULT_SERIALIZER;
 
 
 	public RemoteFS(FSFEnvironment environment, String separator, String app, String tennant, String username, String password, RemoteFSConnectionProvider connectionProvider) {
@@ -131,10 +141,31 @@ public class RemoteFS implements FSFSystem{
 		return separator;
 	}
 
+	@Override
+	public FSFSerializer getSerializer() {
+		return serializer;
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		this.serializer = serializer;
+	}
+
 	public FSFEnvironment getEnvironment() {
 		return environment;
 	}
 	
+	public int getDirectoryStreamChunkSize() {
+		return directoryStreamChunkSize;
+	}
+
+	/**
+	 * @param directoryStreamChunkSize number of directory items that are transferred per request when a directory stream is read
+	 */
+	public void setDirectoryStreamChunkSize(int directoryStreamChunkSize) {
+		this.directoryStreamChunkSize = directoryStreamChunkSize;
+	}
+
 	public boolean isSameLocation(RemoteFS otherRemoteFS) {
 		return compareLocation(otherRemoteFS) == 0;
 	}
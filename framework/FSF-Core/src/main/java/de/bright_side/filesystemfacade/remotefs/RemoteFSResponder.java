@@ -4,11 +4,19 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
+import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.VersionedData;
 import de.bright_side.filesystemfacade.facade.WrongVersionException;
@@ -19,7 +27,46 @@ import de.bright_side.filesystemfacade.util.FSFFileUtil;
  *
  */
 public class RemoteFSResponder {
+	/** time after which a directory stream which is read in several requests is closed if it is not read any further */
+	public static final long DIRECTORY_CURSOR_TIMEOUT_MILLIS = 60 * 1000;
+	/** maximum number of directory streams which are kept open per owner (app, tenant and user). If the owner opens another one, the stream of 
+	 * the owner which was read least recently is closed */
+	public static final int MAX_OPEN_DIRECTORY_CURSORS_PER_OWNER = 1000;
+	
+	/** the open directory streams by owner and cursor ID. Static because a new responder may be created for each request.
+	 * A cursor gets a new ID on each request, so the insertion order is the order of the last access */
+	private static final Map<String, Map<String, DirectoryCursor>> DIRECTORY_CURSORS = new HashMap<>();
+	
+	private final FSFEnvironment environment;
+	
+	/**
+	 * a directory stream which is read in several requests (see RemoteFile.openDirectoryStream)
+	 */
+	private static class DirectoryCursor {
+		private final FSFDirectoryStream stream;
+		private final Iterator<FSFFileAttributes> iterator;
+		private long lastAccessTime;
+
+		public DirectoryCursor(FSFDirectoryStream stream) {
+			this.stream = stream;
+			this.iterator = stream.iterator();
+		}
+	}
+	
+	public RemoteFSResponder() {
+		this(FSFFileUtil.createDefaultEnvironment());
+	}
+	
+	/**
+	 * @param environment provides the time which is used to close directory streams that are not read any further
+	 */
+	public RemoteFSResponder(FSFEnvironment environment) {
+		this.environment = environment;
+	}
+	
 	public void respond(InputStream input, OutputStream output, RemoteFSFSystemProvider fsProvider) throws Exception {
+		//: expired directory streams are closed on each request so that abandoned streams don't keep their resources until the next stream is read
+		closeExpiredDirectoryCursors();
         GZIPInputStream gzipin = new GZIPInputStream(input);
 
 		
@@ -36,7 +83,7 @@ public class RemoteFSResponder {
 			if (request.getVersion() != 1) {
 				throw new Exception("Unexpected version: " + request.getVersion());
 			}
-			response = process(fsfSystem, request, gzipin);
+			response = process(fsfSystem, request, gzipin, app + "/" + tennant + "/" + username);
 		} catch (WrongVersionException e) {
 			response = createWrongVersionExceptionResponse(e);
 		} catch (RemoteFSAuthenticationException e) {
@@ -85,7 +132,22 @@ public class RemoteFSResponder {
 		return result;
 	}
 	
-	private RemoteFSResponse process(FSFSystem fsfSystem, RemoteFSRequest request, InputStream payload) throws Exception {
+	private void setAttributesListResult(RemoteFSResponse response, List<FSFFileAttributes> attributesList) throws Exception {
+		if (attributesList == null) {
+			return;
+		}
+		List<String> fileListResult = new ArrayList<>();
+		for (FSFFileAttributes i: attributesList){
+			fileListResult.add("" + i.getVersion() + RemoteFS.VERSION_SEPARATOR + i.getFile().getAbsolutePath());
+		}
+		response.setFileListResult(fileListResult);
+		response.setAttributesListResponse(attributesList);
+	}
+	
+	/**
+	 * @param owner app, tenant and user of the request so that a directory stream can only be continued by its owner
+	 */
+	private RemoteFSResponse process(FSFSystem fsfSystem, RemoteFSRequest request, InputStream payload, String owner) throws Exception {
 		String command = "?";
 		String absolutePath = "?";
 		try {
@@ -106,6 +168,20 @@ public class RemoteFSResponder {
 			case RemoteFS.COMMAND_LIST_FILES:
 				result.setFileListResult(toVersionAndAbsolutePathList(file.listFiles()));
 				break;
+			case RemoteFS.COMMAND_LIST_FILES_WITH_ATTRIBUTES:
+				setAttributesListResult(result, file.listFilesWithAttributes());
+				break;
+			case RemoteFS.COMMAND_LIST_FILES_WITH_ATTRIBUTES_CHUNK:
+				readDirectoryStreamChunk(result, file, owner, "" + parameters[0], Integer.valueOf("" + parameters[1]));
+				break;
+			case RemoteFS.COMMAND_CLOSE_DIRECTORY_STREAM:
+				closeDirectoryCursor(removeDirectoryCursor(owner, "" + parameters[0]));
+				break;
+			case RemoteFS.COMMAND_READ_ATTRIBUTES:
+				List<FSFFileAttributes> attributesList = new ArrayList<>();
+				attributesList.add(file.readAttributes());
+				setAttributesListResult(result, attributesList);
+				break;
 			case RemoteFS.COMMAND_GET_TIME_LAST_MODIFIED:
 				result.setNumberResponse(file.getTimeLastModified());
 				break;
@@ -151,6 +227,10 @@ public class RemoteFSResponder {
 			case RemoteFS.COMMAND_READ_BYTES:
 				result.setByteResponseInputStream(new ByteArrayInputStream(file.readBytes()));
 				break;
+			case RemoteFS.COMMAND_READ_BYTES_RANGE:
+				bytes = FSFFileUtil.readAllBytes(file.getInputStream(Long.valueOf("" + parameters[0]), Long.valueOf("" + parameters[1])));
+				result.setByteResponseInputStream(new ByteArrayInputStream(bytes));
+				break;
 			case RemoteFS.COMMAND_READ_HISTORY_BYTES:
 				result.setByteResponseInputStream(new ByteArrayInputStream(readHistoryBytes(file, Long.valueOf("" + parameters[0]))));
 				break;
@@ -173,6 +253,11 @@ public class RemoteFSResponder {
 			case RemoteFS.COMMAND_MOVE_TO:
 				file.moveTo(fsfSystem.createByPath((String)parameters[0]));
 				break;
+			case RemoteFS.COMMAND_COPY_TO:
+				FSFFile destFile = fsfSystem.createByPath((String)parameters[0]);
+				file.copyTo(destFile);
+				destFile.setVersion(file.getVersion(false));
+				break;
 			case RemoteFS.COMMAND_GET_HISTORY_TIMES:
 				result.setNumberListResponse(new ArrayList<>(file.getHistoryTimes()));
 				break;
@@ -187,6 +272,132 @@ public class RemoteFSResponder {
 		}
 	}
 
+	/**
+	 * reads the next items of a directory stream. The stream is opened by the first request (empty cursor ID) and kept open on the server
+	 * so that each item is only read once. If there are more items, the cursor ID for the next request is set as the file result. Otherwise
+	 * the stream is closed
+	 * @param cursorID the cursor ID returned by the previous request of the stream or an empty string to open the stream
+	 */
+	private void readDirectoryStreamChunk(RemoteFSResponse response, FSFFile file, String owner, String cursorID, int maxItems) throws Exception {
+		DirectoryCursor cursor;
+		if (cursorID.isEmpty()) {
+			FSFDirectoryStream stream = file.openDirectoryStream();
+			if (stream == null) {
+				return;
+			}
+			cursor = new DirectoryCursor(stream);
+		} else {
+			cursor = removeDirectoryCursor(owner, cursorID);
+		}
+		
+		List<FSFFileAttributes> items = new ArrayList<>();
+		try {
+			while ((items.size() < maxItems) && (cursor.iterator.hasNext())) {
+				items.add(cursor.iterator.next());
+			}
+			if (cursor.iterator.hasNext()) {
+				String nextCursorID = UUID.randomUUID().toString();
+				cursor.lastAccessTime = environment.getCurrentTimeMillis();
+				addDirectoryCursor(owner, nextCursorID, cursor);
+				response.setFileResult(nextCursorID);
+				cursor = null;
+			}
+		} finally {
+			closeDirectoryCursor(cursor);
+		}
+		setAttributesListResult(response, items);
+	}
+	
+	/**
+	 * @return the cursor which is removed from the open cursors so that it is only used by one request at a time
+	 * @throws Exception if the cursor is unknown, has expired or belongs to another owner
+	 */
+	private DirectoryCursor removeDirectoryCursor(String owner, String cursorID) throws Exception {
+		synchronized (DIRECTORY_CURSORS) {
+			Map<String, DirectoryCursor> ownerCursors = DIRECTORY_CURSORS.get(owner);
+			DirectoryCursor result = ownerCursors == null ? null : ownerCursors.remove(cursorID);
+			if (result == null) {
+				throw new Exception("The directory stream with cursor ID '" + cursorID + "' is unknown or has expired after " 
+						+ DIRECTORY_CURSOR_TIMEOUT_MILLIS + " ms without a request or because more than " + MAX_OPEN_DIRECTORY_CURSORS_PER_OWNER 
+						+ " streams of the same app, tenant and user were open");
+			}
+			if (ownerCursors.isEmpty()) {
+				DIRECTORY_CURSORS.remove(owner);
+			}
+			return result;
+		}
+	}
+	
+	/**
+	 * adds the cursor for the next request. If the maximum number of open cursors of the owner is reached, the cursor of the owner which was 
+	 * read least recently is closed
+	 */
+	private void addDirectoryCursor(String owner, String cursorID, DirectoryCursor cursor) {
+		List<DirectoryCursor> evictedCursors = new ArrayList<>();
+		synchronized (DIRECTORY_CURSORS) {
+			Map<String, DirectoryCursor> ownerCursors = DIRECTORY_CURSORS.computeIfAbsent(owner, k -> new LinkedHashMap<>());
+			Iterator<DirectoryCursor> iterator = ownerCursors.values().iterator();
+			while ((ownerCursors.size() >= MAX_OPEN_DIRECTORY_CURSORS_PER_OWNER) && (iterator.hasNext())) {
+				evictedCursors.add(iterator.next());
+				iterator.remove();
+			}
+			ownerCursors.put(cursorID, cursor);
+		}
+		closeAbandonedDirectoryCursors(evictedCursors);
+	}
+	
+	private void closeExpiredDirectoryCursors() {
+		long minAccessTime = environment.getCurrentTimeMillis() - DIRECTORY_CURSOR_TIMEOUT_MILLIS;
+		List<DirectoryCursor> expiredCursors = new ArrayList<>();
+		synchronized (DIRECTORY_CURSORS) {
+			Iterator<Map<String, DirectoryCursor>> ownerIterator = DIRECTORY_CURSORS.values().iterator();
+			while (ownerIterator.hasNext()) {
+				Map<String, DirectoryCursor> ownerCursors = ownerIterator.next();
+				Iterator<DirectoryCursor> iterator = ownerCursors.values().iterator();
+				while (iterator.hasNext()) {
+					DirectoryCursor cursor = iterator.next();
+					if (cursor.lastAccessTime < minAccessTime) {
+						expiredCursors.add(cursor);
+						iterator.remove();
+					}
+				}
+				if (ownerCursors.isEmpty()) {
+					ownerIterator.remove();
+				}
+			}
+		}
+		closeAbandonedDirectoryCursors(expiredCursors);
+	}
+	
+	private void closeAbandonedDirectoryCursors(List<DirectoryCursor> cursors) {
+		for (DirectoryCursor i: cursors) {
+			try {
+				closeDirectoryCursor(i);
+			} catch (Exception ignored) {
+				//: the stream has been abandoned by the client, so there is nobody to report the error to
+			}
+		}
+	}
+	
+	private void closeDirectoryCursor(DirectoryCursor cursor) throws Exception {
+		if (cursor != null) {
+			cursor.stream.close();
+		}
+	}
+	
+	/**
+	 * @return number of directory streams which are kept open for further requests
+	 */
+	public static int getOpenDirectoryCursorCount() {
+		synchronized (DIRECTORY_CURSORS) {
+			int result = 0;
+			for (Map<String, DirectoryCursor> i: DIRECTORY_CURSORS.values()) {
+				result += i.size();
+			}
+			return result;
+		}
+	}
+
 	private byte[] readHistoryBytes(FSFFile file, long historyTime) throws Exception {
 		return FSFFileUtil.readAllBytes(file.getHistoryInputStream(historyTime));
 	}
@@ -3,6 +3,8 @@ package de.bright_side.filesystemfacade.remotefs;
 import java.io.InputStream;
 import java.util.List;
 
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
 /**
  * @author Philip Heyse
  *
@@ -17,6 +19,7 @@ public class RemoteFSResponse {
 	private long numberResponse;
 	private List<Long> numberListResponse;
 	private boolean booleanResponse;
+	private List<FSFFileAttributes> attributesListResponse;
 	private InputStream byteResponseInputStream;
 	
 	public List<String> getFileListResult() {
@@ -76,6 +79,12 @@ public class RemoteFSResponse {
 	public void setNumberListResponse(List<Long> numberListResponse) {
 		this.numberListResponse = numberListResponse;
 	}
+	public List<FSFFileAttributes> getAttributesListResponse() {
+		return attributesListResponse;
+	}
+	public void setAttributesListResponse(List<FSFFileAttributes> attributesListResponse) {
+		this.attributesListResponse = attributesListResponse;
+	}
 	public String getRemoteWrongVersionException() {
 		return remoteWrongVersionException;
 	}
@@ -88,7 +97,7 @@ public class RemoteFSResponse {
 				+ ", remoteGeneralException=" + remoteGeneralException + ", remoteAuthenticationException="
 				+ remoteAuthenticationException + ", remoteWrongVersionException=" + remoteWrongVersionException
 				+ ", localException=" + localException + ", numberResponse=" + numberResponse + ", numberListResponse="
-				+ numberListResponse + ", booleanResponse=" + booleanResponse + "]";
+				+ numberListResponse + ", booleanResponse=" + booleanResponse + ", attributesListResponse=" + attributesListResponse + "]";
 	}
 	
 }
@@ -9,6 +9,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 
 /**
@@ -30,6 +31,18 @@ public class RemoteFSUtil {
 		return result;
 	}
 	
+	public static List<FSFFileAttributes> toFileAttributesList(RemoteFS remoteFS, RemoteFSResponse response) {
+		List<FSFFile> files = toFileList(remoteFS, response);
+		if ((files == null) || (response.getAttributesListResponse() == null)) {
+			return null;
+		}
+		List<FSFFileAttributes> result = response.getAttributesListResponse();
+		for (int i = 0; i < result.size(); i++) {
+			result.get(i).setFile(files.get(i));
+		}
+		return result;
+	}
+	
 	public static SortedSet<Long> toLongSortedSet(RemoteFSResponse response) {
 		if (response.getNumberListResponse() == null) {
 			return null;
@@ -5,15 +5,20 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.List;
 import java.util.SortedSet;
 
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.VersionedData;
 import de.bright_side.filesystemfacade.facade.WrongVersionException;
+import de.bright_side.filesystemfacade.util.AbstractDirectoryStream;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.util.ListDirFormatting;
+import de.bright_side.filesystemfacade.util.RangeReadChannel;
 
 /**
  * @author Philip Heyse
@@ -61,6 +66,71 @@ public class RemoteFile implements FSFFile{
 		}
 	}
 
+	@Override
+	public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+		return RemoteFSUtil.toFileAttributesList(remoteFS, performRemotely(RemoteFS.COMMAND_LIST_FILES_WITH_ATTRIBUTES));
+	}
+	
+	@Override
+	public FSFDirectoryStream openDirectoryStream() throws Exception {
+		final int chunkSize = remoteFS.getDirectoryStreamChunkSize();
+		//: the server keeps the stream open while there are more items and returns the cursor ID to continue it as the file result
+		final RemoteFSResponse firstResponse = performRemotely(RemoteFS.COMMAND_LIST_FILES_WITH_ATTRIBUTES_CHUNK, "", "" + chunkSize);
+		final List<FSFFileAttributes> firstChunk = RemoteFSUtil.toFileAttributesList(remoteFS, firstResponse);
+		if (firstChunk == null) {
+			return null;
+		}
+		return new AbstractDirectoryStream() {
+			private List<FSFFileAttributes> chunk = firstChunk;
+			private String cursorID = firstResponse.getFileResult();
+			private int positionInChunk = 0;
+			
+			@Override
+			protected FSFFileAttributes readNext() throws Exception {
+				if (positionInChunk >= chunk.size()) {
+					if (cursorID == null) {
+						return null;
+					}
+					RemoteFSResponse response = performRemotely(RemoteFS.COMMAND_LIST_FILES_WITH_ATTRIBUTES_CHUNK, cursorID, "" + chunkSize);
+					cursorID = response.getFileResult();
+					chunk = RemoteFSUtil.toFileAttributesList(remoteFS, response);
+					positionInChunk = 0;
+					if ((chunk == null) || (chunk.isEmpty())) {
+						return null;
+					}
+				}
+				return chunk.get(positionInChunk ++);
+			}
+			
+			@Override
+			protected void closeResources() throws IOException {
+				if (cursorID == null) {
+					return;
+				}
+				//: the stream has not been read to the end, so the server still keeps it open
+				String openCursorID = cursorID;
+				cursorID = null;
+				try {
+					performRemotely(RemoteFS.COMMAND_CLOSE_DIRECTORY_STREAM, openCursorID);
+				} catch (Exception e) {
+					throw new IOException("Could not close directory stream of '" + absolutePath + "'", e);
+				}
+			}
+		};
+	}
+	
+	@Override
+	public FSFFileAttributes readAttributes() throws Exception {
+		List<FSFFileAttributes> attributesList = RemoteFSUtil.toFileAttributesList(remoteFS, performRemotely(RemoteFS.COMMAND_READ_ATTRIBUTES));
+		if ((attributesList == null) || (attributesList.size() != 1)) {
+			throw new Exception("Unexpected attributes response for file '" + absolutePath + "': " + attributesList);
+		}
+		FSFFileAttributes result = attributesList.get(0);
+		result.setFile(this);
+		cachedVersion = result.getVersion();
+		return result;
+	}
+
 	@Override
 	public String getName() {
 		int pos = absolutePath.lastIndexOf(separator);
@@ -173,6 +243,11 @@ public class RemoteFile implements FSFFile{
 	@Override
 	public void copyTo(FSFFile destFile) throws Exception {
 		FSFFileUtil.verifyCopyPossible(this, destFile);
+		if ((destFile instanceof RemoteFile) && (remoteFS.isSameLocation((RemoteFS)destFile.getFSFSystem()))) {
+			//: the data is copied on the server and doesn't need to be transferred
+			performRemotely(RemoteFS.COMMAND_COPY_TO, destFile.getAbsolutePath());
+			return;
+		}
 		FSFFileUtil.copyViaStreams(this, destFile);
 //
 		destFile.setVersion(getVersion(false));
@@ -252,17 +327,26 @@ public class RemoteFile implements FSFFile{
 	public InputStream getInputStream() throws Exception {
 		return new ByteArrayInputStream(readBytes());
 	}
+	
+	@Override
+	public InputStream getInputStream(long offset, long length) throws Exception {
+		FSFFileUtil.verifyRange(offset, length);
+		return new ByteArrayInputStream(toBytes(performRemotely(RemoteFS.COMMAND_READ_BYTES_RANGE, "" + offset, "" + length)));
+	}
+	
+	@Override
+	public SeekableByteChannel getSeekableByteChannel() throws Exception {
+		return new RangeReadChannel(this);
+	}
 
 	@Override
 	public <K> K readObject(Class<K> classType) throws Exception {
-		byte[] bytes = readBytes();
-		return FSFFileUtil.objectFromByteArray(bytes, classType);
+		return FSFFileUtil.readObject(this, classType);
 	}
 
 	@Override
 	public <K> FSFFile writeObject(K objectToWrite) throws Exception {
-		byte[] bytes = FSFFileUtil.objectToByteArray(objectToWrite);
-		return writeBytes(false, bytes);
+		return FSFFileUtil.writeObject(this, objectToWrite);
 	}
 
 	@Override
@@ -316,13 +400,15 @@ public class RemoteFile implements FSFFile{
 	@Override
 	public <K> VersionedData<K> readObjectAndVersion(Class<K> classType) throws Exception {
 		RemoteFSResponse result = performRemotely(RemoteFS.COMMAND_READ_BYTES_AND_VERSION);
-		byte[] bytes = FSFFileUtil.readAllBytes(result.getByteResponseInputStream());
-		return new VersionedData<K>(result.getNumberResponse(), FSFFileUtil.objectFromByteArray(bytes, classType));
+		try (InputStream inputStream = result.getByteResponseInputStream()){
+			return new VersionedData<K>(result.getNumberResponse(), remoteFS.getSerializer().read(inputStream, classType));
+		}
 	}
 
 	@Override
 	public <K> FSFFile writeObjectForVersion(K objectToWrite, long newVersion) throws WrongVersionException, Exception {
-		return writeBytesForVersion(false, FSFFileUtil.objectToByteArray(objectToWrite), newVersion);
+		//: not via getOutputStreamForVersion because its close() could only report a WrongVersionException wrapped in an IOException
+		return writeBytesForVersion(false, FSFFileUtil.objectToByteArray(remoteFS.getSerializer(), objectToWrite), newVersion);
 	}
 
 	@Override
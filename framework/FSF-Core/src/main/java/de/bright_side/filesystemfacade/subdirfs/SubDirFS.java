@@ -5,6 +5,7 @@ import java.util.List;
 
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.facade.IllegalPathItemNameException;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
@@ -110,6 +111,21 @@ public class SubDirFS implements FSFSystem{
 	public String getSeparator() {
 		return SEPARATOR;
 	}
+
+	@Override
+	public FSFSerializer getSerializer() {
+		return innerFS.getSerializer();
+	}
+
+	@Override
+	public void setSerializer(FSFSerializer serializer) {
+		innerFS.setSerializer(serializer);
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return innerFS.isConcurrent();
+	}
 	
 	protected boolean isInnerFileInBasePath(FSFFile file) {
 		String usePath = file.getAbsolutePath() + innerFS.getSeparator();
@@ -0,0 +1,91 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
+/**
+ * base class for directory streams which read one item after the other. 
+ * Subclasses only provide the next item and release their resources on close.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public abstract class AbstractDirectoryStream implements FSFDirectoryStream{
+	private boolean iteratorCreated = false;
+	private boolean closed = false;
+	private boolean endReached = false;
+	private FSFFileAttributes nextItem = null;
+	
+	/**
+	 * @return the next item or null if there are no more items
+	 * @throws Exception on general error
+	 */
+	protected abstract FSFFileAttributes readNext() throws Exception;
+	
+	/**
+	 * releases the resources such as connections or file handles. Called only once.
+	 * @throws IOException on error
+	 */
+	protected abstract void closeResources() throws IOException;
+
+	@Override
+	public Iterator<FSFFileAttributes> iterator() {
+		if (iteratorCreated) {
+			throw new IllegalStateException("The iterator of a directory stream may only be requested once");
+		}
+		if (closed) {
+			throw new IllegalStateException("The directory stream is already closed");
+		}
+		iteratorCreated = true;
+		return new Iterator<FSFFileAttributes>() {
+			@Override
+			public boolean hasNext() {
+				return fetchNextIfNecessary();
+			}
+
+			@Override
+			public FSFFileAttributes next() {
+				if (!fetchNextIfNecessary()) {
+					throw new NoSuchElementException();
+				}
+				FSFFileAttributes result = nextItem;
+				nextItem = null;
+				return result;
+			}
+		};
+	}
+	
+	private boolean fetchNextIfNecessary() {
+		if (nextItem != null) {
+			return true;
+		}
+		if ((closed) || (endReached)) {
+			return false;
+		}
+		try {
+			nextItem = readNext();
+		} catch (Exception e) {
+			throw new RuntimeException("Could not read next item of directory stream", e);
+		}
+		if (nextItem == null) {
+			endReached = true;
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		nextItem = null;
+		closeResources();
+	}
+	
+}
@@ -0,0 +1,40 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
+
+/**
+ * serializes objects in the binary format of Java serialization. This is more compact and faster than JSON for objects with many numbers, 
+ * but the objects must implement java.io.Serializable and the data can only be read by Java.
+ * Only use it for data from trusted sources because Java deserialization can instantiate any serializable class on the class path.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class BinarySerializer implements FSFSerializer{
+
+	@Override
+	public <K> void write(K object, OutputStream outputStream) throws Exception {
+		ObjectOutputStream objectOutputStream = new ObjectOutputStream(new BufferedOutputStream(outputStream));
+		objectOutputStream.writeObject(object);
+		objectOutputStream.flush();
+	}
+
+	@Override
+	public <K> K read(InputStream inputStream, Class<K> classType) throws Exception {
+		ObjectInputStream objectInputStream = new ObjectInputStream(new BufferedInputStream(inputStream));
+		Object result = objectInputStream.readObject();
+		try {
+			return classType.cast(result);
+		} catch (ClassCastException e) {
+			throw new Exception("Expected object of type '" + classType.getName() + "' but found type '" + result.getClass().getName() + "'", e);
+		}
+	}
+
+}
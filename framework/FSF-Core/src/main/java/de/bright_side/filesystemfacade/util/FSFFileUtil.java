@@ -1,31 +1,31 @@
 package de.bright_side.filesystemfacade.util;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.math.BigInteger;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.util.ListDirFormatting.Style;
 
@@ -36,7 +36,12 @@ import de.bright_side.filesystemfacade.util.ListDirFormatting.Style;
 public class FSFFileUtil {
 	private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.ssss");
 	private static final String STRING_ENCODING = "UTF-8";
+	/** serializer which is used by default by all file systems: compact JSON with a shared Gson instance */
+	public static final FSFSerializer DEFAULT_SERIALIZER = new JsonSerializer();
 	private static final boolean LOGGING_ENABLED = false;
+	private static final int COPY_BUFFER_SIZE = 256 * 1024;
+	private static final int MAX_POOLED_COPY_BUFFERS = 16;
+	private static final Queue<byte[]> COPY_BUFFER_POOL = new ConcurrentLinkedQueue<>();
 
 	/**
 	 * 
@@ -79,20 +84,26 @@ public class FSFFileUtil {
 		}
 		
 		StringBuilder result = new StringBuilder();
-		List<FSFFile> files = file.listFiles();
+		List<FSFFileAttributes> files;
+		try {
+			files = file.listFilesWithAttributes();
+		} catch (Exception e) {
+			throw new RuntimeException("Could not list files of '" + file.getAbsolutePath() + "'", e);
+		}
 		if (files == null){
 			return new StringBuilder("(path does not exist: '" + file.getAbsolutePath() + "')");
 		}
 		
-		SortedMap<String, FSFFile> filesOfTypeFile = new TreeMap<>();
-		SortedMap<String, FSFFile> filesOfTypeDir = new TreeMap<>();
+		SortedMap<String, FSFFileAttributes> filesOfTypeFile = new TreeMap<>();
+		SortedMap<String, FSFFileAttributes> filesOfTypeDir = new TreeMap<>();
 		
-		for (FSFFile i: files) {
-			if ((filenamesToSkip == null) || (!filenamesToSkip.contains(i.getName()))){
+		for (FSFFileAttributes i: files) {
+			String name = i.getFile().getName();
+			if ((filenamesToSkip == null) || (!filenamesToSkip.contains(name))){
 				if (i.isDirectory()) {
-					filesOfTypeDir.put(i.getName(), i);
+					filesOfTypeDir.put(name, i);
 				} else {
-					filesOfTypeFile.put(i.getName(), i);
+					filesOfTypeFile.put(name, i);
 				}
 			}
 		}
@@ -102,14 +113,15 @@ public class FSFFileUtil {
 //		List<FSFFile> allFiles = new ArrayList<>(filesOfTypeDir);
 //		allFiles.addAll(filesOfTypeFile);
 		
-		LinkedHashMap<String, FSFFile> allFiles = new LinkedHashMap<>();
+		LinkedHashMap<String, FSFFileAttributes> allFiles = new LinkedHashMap<>();
 		allFiles.putAll(filesOfTypeDir);
 		allFiles.putAll(filesOfTypeFile);
 		
-		for (Map.Entry<String, FSFFile> i: allFiles.entrySet()){
-			FSFFile fileItem = i.getValue();
+		for (Map.Entry<String, FSFFileAttributes> i: allFiles.entrySet()){
+			FSFFileAttributes attributes = i.getValue();
+			FSFFile fileItem = attributes.getFile();
 			String filename = i.getKey();
-			String type = fileItem.isDirectory() ? "<D>" : "<F>";
+			String type = attributes.isDirectory() ? "<D>" : "<F>";
 			switch (useFormatting.getStyle()) {
 			case FULL_PATH:
 				result.append(fileItem.getAbsolutePath() + " " + type);
@@ -122,27 +134,126 @@ public class FSFFileUtil {
 				break;
 			}
 			if (useFormatting.isIncludeSize()){
-				result.append(" | " + fileItem.getLength());
+				result.append(" | " + attributes.getLength());
 			}
 			if (useFormatting.isIncludeTime()){
-				result.append(" | " + getTimeLastModifiedString(fileItem));
+				result.append(" | " + TIME_FORMAT.format(attributes.getTimeLastModified()));
 			}
 			result.append("\n");
 			
-			if ((useFormatting.isAllSubItems()) && (fileItem.isDirectory())){
+			if ((useFormatting.isAllSubItems()) && (attributes.isDirectory())){
 				result.append(listDirAsString(fileItem, useFormatting, filenamesToSkip, indent + "   "));
 			}
 		}
 		return result;
 	}
 	
-	private static String getTimeLastModifiedString(FSFFile file) {
-		 try{
-			 TIME_FORMAT.format(file.getTimeLastModified());
-		 } catch (Exception e) {
-			 return "?";
-		 }
-		 return null;
+	/**
+	 * reads the attributes of the file by calling the single getter methods. This may be used by file systems which cannot read all attributes in one operation
+	 * @param file file of which the attributes should be read
+	 * @return the attributes of the file
+	 * @throws Exception on general error
+	 */
+	public static FSFFileAttributes readAttributesOneByOne(FSFFile file) throws Exception {
+		if (!file.exists()) {
+			return FSFFileAttributes.createNonExisting(file);
+		}
+		boolean isDir = file.isDirectory();
+		long length = isDir ? 0 : file.getLength();
+		return new FSFFileAttributes(file, true, isDir, length, file.getTimeLastModified(), file.getTimeCreated(), file.getVersion(false));
+	}
+	
+	/**
+	 * lists the files and reads the attributes of each file. This may be used by file systems which cannot read the attributes together with the file list
+	 * @param file directory of which the files should be listed
+	 * @return the sub-items with their attributes or null if the file is not a directory
+	 * @throws Exception on general error
+	 */
+	public static List<FSFFileAttributes> listFilesWithAttributesOneByOne(FSFFile file) throws Exception {
+		List<FSFFile> files = file.listFiles();
+		if (files == null) {
+			return null;
+		}
+		List<FSFFileAttributes> result = new ArrayList<>();
+		for (FSFFile i: files) {
+			result.add(i.readAttributes());
+		}
+		return result;
+	}
+
+	/**
+	 * creates a directory stream by reading the whole directory. This may be used by file systems which cannot read directories lazily
+	 * @param file directory of which the files should be listed
+	 * @return the directory stream or null if the file is not a directory
+	 * @throws Exception on general error
+	 */
+	public static FSFDirectoryStream openDirectoryStreamViaList(FSFFile file) throws Exception {
+		List<FSFFileAttributes> items = file.listFilesWithAttributes();
+		if (items == null) {
+			return null;
+		}
+		return new ListDirectoryStream(items);
+	}
+
+	/**
+	 * @param offset position of the first byte of the range
+	 * @param length maximum number of bytes of the range
+	 * @throws Exception if offset or length are negative
+	 */
+	public static void verifyRange(long offset, long length) throws Exception {
+		if (offset < 0) {
+			throw new Exception("The offset must not be negative: " + offset);
+		}
+		if (length < 0) {
+			throw new Exception("The length must not be negative: " + length);
+		}
+	}
+	
+	/**
+	 * @param data the complete data of the file or null for an empty file
+	 * @param offset position of the first byte of the range
+	 * @param length maximum number of bytes of the range
+	 * @return the bytes of the range which is shorter than length if the data ends before
+	 * @throws Exception if offset or length are negative
+	 */
+	public static byte[] getRange(byte[] data, long offset, long length) throws Exception {
+		verifyRange(offset, length);
+		if ((data == null) || (offset >= data.length)) {
+			return new byte[0];
+		}
+		int end = (int)Math.min(data.length, offset + length);
+		return Arrays.copyOfRange(data, (int)offset, end);
+	}
+	
+	/**
+	 * reads the range by skipping the bytes before the offset in the full input stream. 
+	 * This may be used by file systems which cannot read a range directly (e.g. because the data is encrypted)
+	 * @param file file to be read
+	 * @param offset position of the first byte to be read
+	 * @param length maximum number of bytes to be read
+	 * @return input stream which provides the bytes of the range
+	 * @throws Exception on general error
+	 */
+	public static InputStream getInputStreamViaFullStream(FSFFile file, long offset, long length) throws Exception {
+		verifyRange(offset, length);
+		InputStream inputStream = file.getInputStream();
+		try {
+			long remainingSkip = offset;
+			while (remainingSkip > 0) {
+				long skipped = inputStream.skip(remainingSkip);
+				if (skipped <= 0) {
+					if (inputStream.read() == -1) {
+						break;
+					}
+					skipped = 1;
+				}
+				remainingSkip -= skipped;
+			}
+		} catch (Exception e) {
+			inputStream.close();
+			throw e;
+		}
+		return new RangeInputStream(inputStream, length);
 	}
 
 	public static void verifyCopyPossible(FSFFile source, FSFFile dest) throws Exception{
@@ -164,13 +275,18 @@ public class FSFFileUtil {
 		if ((dest.exists()) && (dest.isDirectory()) && (!dest.listFiles().isEmpty())){
 			throw new Exception("Cannot copy to '" + dest.getAbsolutePath() + "' because destination is non-empty directory.");
 		}
+		
+		//: file systems which copy the entry itself would otherwise replace the directory by the file
+		if ((source.isFile()) && (dest.exists()) && (dest.isDirectory())){
+			throw new Exception("Cannot copy file to '" + dest.getAbsolutePath() + "' because destination is a directory.");
+		}
 	}
 
 	public static void copyViaStreams(FSFFile source, FSFFile dest) throws Exception {
 //		log("copyViaStreams: source = " + source + ", dest = " + dest);
 //		log("copyViaStreams: source exists: " + source.exists());
+		byte[] buf = borrowCopyBuffer();
 		try(InputStream inputStream = source.getInputStream(); OutputStream outputStream = dest.getOutputStream(false)){
-		 	byte[] buf = new byte[10240];
 		 	int r;
 //	 		log("copyViaStreams: starting to read");
 		 	while((r=inputStream.read(buf)) != -1){
@@ -181,6 +297,26 @@ public class FSFFileUtil {
 //		 	log("copyViaStreams: done");
 		} catch (Exception e){
 			throw new Exception("Could not copy from file '" + source.getAbsolutePath() + "' to '" + dest.getAbsolutePath() + "'", e);
+		} finally {
+			returnCopyBuffer(buf);
+		}
+	}
+	
+	/**
+	 * @return a buffer for copying data from the pool or a new buffer if the pool is empty
+	 */
+	private static byte[] borrowCopyBuffer() {
+		byte[] result = COPY_BUFFER_POOL.poll();
+		if (result == null) {
+			result = new byte[COPY_BUFFER_SIZE];
+		}
+		return result;
+	}
+	
+	private static void returnCopyBuffer(byte[] buffer) {
+		//: the size check is not exact when multiple threads return buffers at the same time, but that only means that a few buffers more are kept
+		if (COPY_BUFFER_POOL.size() < MAX_POOLED_COPY_BUFFERS) {
+			COPY_BUFFER_POOL.offer(buffer);
 		}
 	}
 
@@ -190,7 +326,7 @@ public class FSFFileUtil {
 	 * @return all sub-items recursively and as a list ordered by path
 	 */
 	public static List<FSFFile> listFilesTree(FSFFile file) throws Exception{
-		return listFilesTree(file, null);
+		return listFilesTree(file, new TreeWalkConfig());
 	}
 	
 	/**
@@ -200,51 +336,106 @@ public class FSFFileUtil {
 	 * @throws Exception on general error
 	 */
 	public static List<FSFFile> listFilesTree(FSFFile file, Set<String> filenamesToSkip) throws Exception{
-		List<FSFFile> unsortedItems = new ArrayList<>();
-		if (file.isDirectory()){
-			unsortedItems = listFilesTreeUnsorted(file.listFiles(), filenamesToSkip);
+		return listFilesTree(file, new TreeWalkConfig().setFilenamesToSkip(filenamesToSkip));
+	}
+	
+	/**
+	 * @param file file object that holds the directory of which the file tree should be listed
+	 * @param config configuration of the tree walk such as parallelism, depth and filters
+	 * @return all sub-items recursively and as a list ordered by path
+	 * @throws Exception on general error
+	 */
+	public static List<FSFFile> listFilesTree(FSFFile file, TreeWalkConfig config) throws Exception{
+		List<FSFFile> result = new ArrayList<>();
+		for (FSFFileAttributes i: listFilesTreeWithAttributes(file, config)) {
+			result.add(i.getFile());
 		}
+		return result;
+	}
+	
+	/**
+	 * @param file file object that holds the directory of which the file tree should be listed
+	 * @param filenamesToSkip list of filenames to be skipped (e.g. history directories)
+	 * @return all sub-items recursively together with their attributes and as a list ordered by path
+	 * @throws Exception on general error
+	 */
+	public static List<FSFFileAttributes> listFilesTreeWithAttributes(FSFFile file, Set<String> filenamesToSkip) throws Exception{
+		return listFilesTreeWithAttributes(file, new TreeWalkConfig().setFilenamesToSkip(filenamesToSkip));
+	}
+	
+	/**
+	 * @param file file object that holds the directory of which the file tree should be listed
+	 * @param config configuration of the tree walk such as parallelism, depth and filters
+	 * @return all sub-items recursively together with their attributes and as a list ordered by path
+	 * @throws Exception on general error
+	 */
+	public static List<FSFFileAttributes> listFilesTreeWithAttributes(FSFFile file, TreeWalkConfig config) throws Exception{
+		final List<FSFFileAttributes> unsortedItems = Collections.synchronizedList(new ArrayList<FSFFileAttributes>());
+		TreeWalker.walk(file, new TreeWalkVisitor() {
+			@Override
+			public boolean preVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+				unsortedItems.add(dir);
+				return true;
+			}
+			
+			@Override
+			public void visitFile(FSFFileAttributes file, int depth) throws Exception {
+				unsortedItems.add(file);
+			}
+			
+			@Override
+			public void postVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+			}
+		}, config);
 		
 		//: don't use collections sort, because in the special case of encrypted files with encrypted file names
 		//: there may be multiple file names that actually mean the same plain file name
 		//: hence getAbsolutePath() must be used which created an uncrypted version of the path
-		SortedMap<String, FSFFile> pathToItemMap = new TreeMap<>();
-		for (FSFFile i: unsortedItems) {
-			pathToItemMap.put(i.getAbsolutePath(), i);
+		SortedMap<String, FSFFileAttributes> pathToItemMap = new TreeMap<>();
+		for (FSFFileAttributes i: unsortedItems) {
+			pathToItemMap.put(i.getFile().getAbsolutePath(), i);
 		}
  		
-		return new ArrayList<FSFFile>(pathToItemMap.values());
+		return new ArrayList<FSFFileAttributes>(pathToItemMap.values());
 	}
 
-	private static List<FSFFile> listFilesTreeUnsorted(List<FSFFile> file, Set<String> filenamesToSkip) throws Exception{
-		List<FSFFile> result = new ArrayList<>();
-		for (FSFFile i: file){
-			if ((filenamesToSkip == null) || (!filenamesToSkip.contains(i.getName()))) {
-				result.add(i);
-				if (i.isDirectory()){
-					result.addAll(listFilesTreeUnsorted(i.listFiles(), filenamesToSkip));
-				}
-			}
-		}
-		return result;
+	/**
+	 * deletes the given item and all sub-items recursively
+	 * @param file file object which represents the directory to be deleted
+	 * @throws Exception on general error
+	 */
+	public static void deleteTree(FSFFile file) throws Exception{
+		deleteTree(file, TreeWalkConfig.DEFAULT_PARALLELISM);
 	}
 	
 	/**
 	 * deletes the given item and all sub-items recursively
 	 * @param file file object which represents the directory to be deleted
+	 * @param parallelism number of threads which delete directories at the same time (see TreeWalkConfig.setParallelism)
 	 * @throws Exception on general error
 	 */
-	public static void deleteTree(FSFFile file) throws Exception{
-		if (!file.exists()) {
+	public static void deleteTree(FSFFile file, int parallelism) throws Exception{
+		FSFFileAttributes attributes = file.readAttributes();
+		if (!attributes.exists()) {
 			return;
 		}
-		if (file.isDirectory()){
-			List<FSFFile> items = listFilesTree(file);
-			Collections.reverse(items);
-			
-			for (FSFFile i: items){
-				i.delete();
-			}
+		if (attributes.isDirectory()){
+			TreeWalker.walk(file, new TreeWalkVisitor() {
+				@Override
+				public boolean preVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+					return true;
+				}
+				
+				@Override
+				public void visitFile(FSFFileAttributes file, int depth) throws Exception {
+					file.getFile().delete();
+				}
+				
+				@Override
+				public void postVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+					dir.getFile().delete();
+				}
+			}, new TreeWalkConfig().setParallelism(parallelism));
 		}
 		
 		file.delete();
@@ -262,12 +453,25 @@ public class FSFFileUtil {
 	 * @throws Exception on general error
 	 */
 	public static void copyFilesTree(FSFFile source, FSFFile dest, boolean copyVersionData) throws Exception{
+		copyFilesTree(source, dest, copyVersionData, new TreeWalkConfig());
+	}
+	
+	/**
+	 * copies all sub-items recursively to the dest directory
+	 * @param source source directory to be copied
+	 * @param dest dest directory to be copied to
+	 * @param copyVersionData if true the version data is copied as well
+	 * @param config configuration of the tree walk such as parallelism, depth and filters which define the items to be copied
+	 * @throws Exception on general error
+	 */
+	public static void copyFilesTree(FSFFile source, final FSFFile dest, final boolean copyVersionData, TreeWalkConfig config) throws Exception{
 //		log("copyFilesTree: source = " + source + ", dest = " + dest + ", copyVersionData = " + copyVersionData);
-		if (!source.exists()){
+		FSFFileAttributes sourceAttributes = source.readAttributes();
+		if (!sourceAttributes.exists()){
 			throw new Exception("The source '" + source.getAbsolutePath() + "' does not exist");
 		}
 		
-		if (source.isFile()){
+		if (sourceAttributes.isFile()){
 //			log("copyFilesTree: source is file");
 			source.copyTo(dest);
 			if (copyVersionData) {
@@ -276,21 +480,45 @@ public class FSFFileUtil {
 			return;
 		}
 		
-		List<FSFFile> items = listFilesTree(source);
 		dest.mkdirs();
-		for (FSFFile i: items){
-			FSFFile destFile = createDestFile(dest, source, i);
-//			log("copyFilesTree: processing item " + i + ", destFile = " + destFile);
-			if (i.isDirectory()){
-				destFile.mkdir();
-			} else {
-				i.copyTo(destFile);
+		
+		//: maps the path of each source directory that is currently copied to its dest directory
+		final Map<String, FSFFile> sourcePathToDestDirMap = new ConcurrentHashMap<>();
+		TreeWalker.walk(source, new TreeWalkVisitor() {
+			private FSFFile getDestFile(FSFFile sourceFile, int depth) {
+				FSFFile destDir = dest;
+				if (depth > 1) {
+					destDir = sourcePathToDestDirMap.get(sourceFile.getParentFile().getAbsolutePath());
+				}
+				return destDir.getChild(sourceFile.getName());
+			}
+			
+			@Override
+			public boolean preVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+//				log("copyFilesTree: processing dir " + dir);
+				FSFFile destDir = getDestFile(dir.getFile(), depth);
+				destDir.mkdir();
+				sourcePathToDestDirMap.put(dir.getFile().getAbsolutePath(), destDir);
+				return true;
+			}
+			
+			@Override
+			public void visitFile(FSFFileAttributes file, int depth) throws Exception {
+//				log("copyFilesTree: processing file " + file);
+				FSFFile destFile = getDestFile(file.getFile(), depth);
+				file.getFile().copyTo(destFile);
 				if (copyVersionData) {
-					destFile.setVersion(i.getVersion(false));
+					destFile.setVersion(file.getVersion());
 				}
+				destFile.setTimeLastModified(file.getTimeLastModified());
 			}
-			destFile.setTimeLastModified(i.getTimeLastModified());
-		}
+			
+			@Override
+			public void postVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+				FSFFile destDir = sourcePathToDestDirMap.remove(dir.getFile().getAbsolutePath());
+				destDir.setTimeLastModified(dir.getTimeLastModified());
+			}
+		}, config);
 	}
 
 	private static void log(String message) {
@@ -299,34 +527,6 @@ public class FSFFileUtil {
 		}
 	}
 
-	private static FSFFile createDestFile(FSFFile destRoot, FSFFile source, FSFFile sourceSubItem) throws Exception {
-		FSFFile result = destRoot;
-		for (String i: createSubPathList(source, sourceSubItem)){
-			result = result.getChild(i);
-		}
-		result = result.getChild(sourceSubItem.getName());
-		return result;
-	}
-
-	private static List<String> createSubPathList(FSFFile root, FSFFile subItem) throws Exception {
-		List<String> result = new ArrayList<>();
-		FSFFile file = subItem;
-		while (!file.getAbsolutePath().equals(root.getAbsolutePath())){
-			file = file.getParentFile();
-			if (file == null){
-				throw new Exception("Sub item '" + subItem.getAbsolutePath() + "' is not a child of root '" + root.getAbsolutePath() + "'");
-			}
-			result.add(file.getName());
-		}
-		Collections.reverse(result);
-		if (!result.isEmpty()){
-			result.remove(0);
-		}
-		
-		log("createSubPathList. root = '" + root.getAbsolutePath() + "', subItem = '" + subItem.getAbsolutePath() + "', items: " + result);
-		return result;
-	}
-
 	public static void writeBytes(FSFFile file, boolean append, byte[] bytes) throws Exception {
 		OutputStream outputStream = file.getOutputStream(append);
 		writeBytes(outputStream, bytes);
@@ -432,41 +632,53 @@ public class FSFFileUtil {
 	}
 
 	public static byte[] objectToByteArray(Object object) throws Exception{
-		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		String json = gson.toJson(object);
-		BufferedWriter writer = null;
+		return objectToByteArray(DEFAULT_SERIALIZER, object);
+	}
+
+	public static byte[] objectToByteArray(FSFSerializer serializer, Object object) throws Exception{
 		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 		try{
-			writer = new BufferedWriter(new OutputStreamWriter(outputStream, STRING_ENCODING));
-			writer.append(json);
+			serializer.write(object, outputStream);
 		}catch (IOException e){
 			throw new Exception("Could not write data to byte array", e);
-		} finally {
-			if (writer != null){
-				writer.close();
-			}
 		}
-		byte[] result = outputStream.toByteArray();
-		return result;
+		return outputStream.toByteArray();
 	}
 
 	public static <K> K objectFromByteArray(byte[] byteArray, Class<K> classType) throws Exception{
-		BufferedReader reader = null;
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		Gson gson = gsonBuilder.create();
-		ByteArrayInputStream inputStream = new ByteArrayInputStream(byteArray);
-		try{
-			reader = new BufferedReader(new InputStreamReader(inputStream, STRING_ENCODING));
-			return gson.fromJson(reader, classType);
-		} catch (Exception e){
-			throw e;
-		} finally {
-			if (reader != null){
-				reader.close();
-			}
-		}
+		return objectFromByteArray(DEFAULT_SERIALIZER, byteArray, classType);
+	}
+
+	public static <K> K objectFromByteArray(FSFSerializer serializer, byte[] byteArray, Class<K> classType) throws Exception{
+		return serializer.read(new ByteArrayInputStream(byteArray), classType);
 	}
 	
+	/**
+	 * reads the object by streaming the data of the file directly into the serializer of the file system of the file
+	 * @param file file to read from
+	 * @param classType class of the object
+	 * @return the object or null if the file is empty
+	 * @throws Exception on general error
+	 */
+	public static <K> K readObject(FSFFile file, Class<K> classType) throws Exception{
+		try (InputStream inputStream = file.getInputStream()){
+			return file.getFSFSystem().getSerializer().read(inputStream, classType);
+		}
+	}
+
+	/**
+	 * writes the object by streaming the output of the serializer of the file system of the file directly into the file
+	 * @param file file to write to
+	 * @param objectToWrite object to be written
+	 * @return the file
+	 * @throws Exception on general error
+	 */
+	public static <K> FSFFile writeObject(FSFFile file, K objectToWrite) throws Exception{
+		try (OutputStream outputStream = file.getOutputStream(false)){
+			file.getFSFSystem().getSerializer().write(objectToWrite, outputStream);
+		}
+		return file;
+	}
 
 	public static byte[] readExactAmountOfBytes(InputStream fileInputStream, int length) throws Exception{
 		byte[] data = new byte[length];
@@ -0,0 +1,57 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
+
+/**
+ * serializes objects as JSON with one Gson instance which is created once and shared by all threads.
+ * The JSON is written directly to the output stream and read directly from the input stream without an intermediate String or byte array.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class JsonSerializer implements FSFSerializer{
+	private static final String ENCODING = "UTF-8";
+	private final Gson gson;
+	
+	/**
+	 * creates a serializer which writes compact JSON
+	 */
+	public JsonSerializer() {
+		this(false);
+	}
+	
+	/**
+	 * @param prettyPrinting if true the JSON is written with line breaks and indentation which makes it readable but larger and slower
+	 */
+	public JsonSerializer(boolean prettyPrinting) {
+		GsonBuilder builder = new GsonBuilder();
+		if (prettyPrinting) {
+			builder.setPrettyPrinting();
+		}
+		gson = builder.create();
+	}
+
+	@Override
+	public <K> void write(K object, OutputStream outputStream) throws Exception {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, ENCODING));
+		gson.toJson(object, writer);
+		writer.flush();
+	}
+
+	@Override
+	public <K> K read(InputStream inputStream, Class<K> classType) throws Exception {
+		return gson.fromJson(new BufferedReader(new InputStreamReader(inputStream, ENCODING)), classType);
+	}
+
+}
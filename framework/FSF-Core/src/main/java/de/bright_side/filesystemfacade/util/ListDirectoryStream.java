@@ -0,0 +1,34 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
+/**
+ * directory stream for items that have already been read into a list, e.g. by file systems which cannot read directories lazily 
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class ListDirectoryStream extends AbstractDirectoryStream{
+	private Iterator<FSFFileAttributes> listIterator;
+	
+	public ListDirectoryStream(List<FSFFileAttributes> items) {
+		listIterator = items.iterator();
+	}
+
+	@Override
+	protected FSFFileAttributes readNext() throws Exception {
+		if (!listIterator.hasNext()) {
+			return null;
+		}
+		return listIterator.next();
+	}
+
+	@Override
+	protected void closeResources() throws IOException {
+	}
+	
+}
@@ -0,0 +1,88 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * input stream which provides at most the given number of bytes of the inner stream. On close the inner stream and optionally a further resource 
+ * (e.g. a file channel or random access content) are closed.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class RangeInputStream extends FilterInputStream{
+	private long remaining;
+	private Closeable resource;
+
+	public RangeInputStream(InputStream inputStream, long length) {
+		this(inputStream, length, null);
+	}
+	
+	/**
+	 * @param inputStream stream which is already positioned at the start of the range
+	 * @param length maximum number of bytes to be read
+	 * @param resource resource to be closed together with the stream or null
+	 */
+	public RangeInputStream(InputStream inputStream, long length, Closeable resource) {
+		super(inputStream);
+		this.remaining = length;
+		this.resource = resource;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+		int result = super.read();
+		if (result >= 0) {
+			remaining --;
+		}
+		return result;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+		int result = super.read(b, off, (int)Math.min(len, remaining));
+		if (result > 0) {
+			remaining -= result;
+		}
+		return result;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long result = super.skip(Math.min(n, remaining));
+		if (result > 0) {
+			remaining -= result;
+		}
+		return result;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int)Math.min(super.available(), remaining);
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		} finally {
+			if (resource != null) {
+				resource.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
+/**
+ * read-only seekable channel which reads each requested block with FSFFile.getInputStream(offset, length). 
+ * This way only the data that is actually read is transferred from the file system.
+ * The size of the file is read once when the channel is created.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class RangeReadChannel implements SeekableByteChannel{
+	private FSFFile file;
+	private long size;
+	private long position = 0;
+	private boolean open = true;
+
+	/**
+	 * @param file file to be read
+	 * @throws Exception if the file doesn't exist or is a directory
+	 */
+	public RangeReadChannel(FSFFile file) throws Exception {
+		FSFFileAttributes attributes = file.readAttributes();
+		if (!attributes.isFile()) {
+			throw new Exception("There is no file at path '" + file.getAbsolutePath() + "'");
+		}
+		this.file = file;
+		this.size = attributes.getLength();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public void close() throws IOException {
+		open = false;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		verifyOpen();
+		if (position >= size) {
+			return -1;
+		}
+		int length = (int)Math.min(dst.remaining(), size - position);
+		if (length == 0) {
+			return 0;
+		}
+		byte[] buffer = new byte[length];
+		int readLength = 0;
+		try (InputStream inputStream = file.getInputStream(position, length)){
+			int r;
+			while ((readLength < length) && ((r = inputStream.read(buffer, readLength, length - readLength)) != -1)) {
+				readLength += r;
+			}
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException("Could not read " + length + " bytes at position " + position + " of file '" + file.getAbsolutePath() + "'", e);
+		}
+		if (readLength == 0) {
+			return -1;
+		}
+		dst.put(buffer, 0, readLength);
+		position += readLength;
+		return readLength;
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public long position() throws IOException {
+		verifyOpen();
+		return position;
+	}
+
+	@Override
+	public SeekableByteChannel position(long newPosition) throws IOException {
+		verifyOpen();
+		if (newPosition < 0) {
+			throw new IllegalArgumentException("position must not be negative: " + newPosition);
+		}
+		position = newPosition;
+		return this;
+	}
+
+	@Override
+	public long size() throws IOException {
+		verifyOpen();
+		return size;
+	}
+
+	@Override
+	public SeekableByteChannel truncate(long size) throws IOException {
+		throw new NonWritableChannelException();
+	}
+	
+	private void verifyOpen() throws ClosedChannelException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+	}
+
+}
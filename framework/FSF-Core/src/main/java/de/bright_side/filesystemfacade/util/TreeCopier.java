@@ -0,0 +1,274 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
+/**
+ * copies a tree of files with a pool of worker threads. The source tree is walked by the TreeWalker: each directory is created in the
+ * destination before the files in it are handed to the workers. The sum of the lengths of the files being copied is limited by
+ * TreeCopyConfig.maxInFlightBytes so that the walk does not run away from the workers. Files are retried on errors and the progress is reported
+ * to the TreeCopyProgressListener. The time of the directories is set after all files have been copied.
+ *
+ * @author Philip Heyse
+ *
+ */
+public class TreeCopier {
+	private static final boolean LOGGING_ENABLED = false;
+	private static final int MAX_PENDING_FILES_PER_THREAD = 16;
+
+	private final TreeCopyConfig config;
+	private final FSFFile destRoot;
+	private ExecutorService executor;
+	private Semaphore pendingFilesSemaphore;
+	/** the byte limit is a long and therefore can't be the number of permits of a semaphore */
+	private final Object inFlightBytesLock = new Object();
+	private long inFlightBytes;
+	private final Map<String, FSFFile> sourcePathToDestDirMap = new ConcurrentHashMap<>();
+	private final List<CreatedDir> createdDirs = Collections.synchronizedList(new ArrayList<CreatedDir>());
+	private final Map<String, Exception> failedFiles = new ConcurrentHashMap<>();
+	private final AtomicLong dirsCreated = new AtomicLong();
+	private final AtomicLong filesCopied = new AtomicLong();
+	private final AtomicLong bytesCopied = new AtomicLong();
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong lastProgressTime = new AtomicLong();
+	private long startTime;
+
+	private TreeCopier(FSFFile destRoot, TreeCopyConfig config) {
+		this.destRoot = destRoot;
+		this.config = config;
+	}
+
+	/**
+	 * copies all sub-items of the source recursively to the dest directory. If the source is a file it is copied to dest.
+	 * Files which could not be copied after all retries don't stop the copying but are listed in TreeCopyProgress.getFailedFiles()
+	 * @param source source directory or file to be copied
+	 * @param dest dest directory or file to be copied to
+	 * @param config configuration of the copying or null for the default configuration
+	 * @return the final progress
+	 * @throws Exception if the source does not exist, a directory could not be read or created or the copying was interrupted
+	 */
+	public static TreeCopyProgress copy(FSFFile source, FSFFile dest, TreeCopyConfig config) throws Exception{
+		TreeCopier copier = new TreeCopier(dest, config == null ? new TreeCopyConfig() : config);
+		return copier.copy(source);
+	}
+
+	private TreeCopyProgress copy(FSFFile source) throws Exception{
+		log("copy: source = '" + source.getAbsolutePath() + "', dest = '" + destRoot.getAbsolutePath() + "', config = " + config);
+		startTime = System.currentTimeMillis();
+		lastProgressTime.set(startTime);
+		FSFFileAttributes sourceAttributes = source.readAttributes();
+		if (!sourceAttributes.exists()){
+			throw new Exception("The source '" + source.getAbsolutePath() + "' does not exist");
+		}
+
+		if (sourceAttributes.isFile()){
+			copyFileWithRetries(sourceAttributes, destRoot);
+			return reportFinalProgress();
+		}
+
+		destRoot.mkdirs();
+		//: the workers read the source and write the dest, so both file systems must allow access by multiple threads
+		if ((config.getParallelism() > 1) && (source.getFSFSystem().isConcurrent()) && (destRoot.getFSFSystem().isConcurrent())) {
+			executor = Executors.newFixedThreadPool(config.getParallelism());
+			pendingFilesSemaphore = new Semaphore(config.getParallelism() * MAX_PENDING_FILES_PER_THREAD);
+		}
+
+		try {
+			TreeWalker.walk(source, new TreeWalkVisitor() {
+				@Override
+				public boolean preVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+					FSFFile destDir = getDestFile(dir.getFile(), depth);
+					destDir.mkdir();
+					dirsCreated.incrementAndGet();
+					sourcePathToDestDirMap.put(dir.getFile().getAbsolutePath(), destDir);
+					createdDirs.add(new CreatedDir(destDir, dir.getTimeLastModified()));
+					return true;
+				}
+
+				@Override
+				public void visitFile(FSFFileAttributes file, int depth) throws Exception {
+					submitFile(file, getDestFile(file.getFile(), depth));
+				}
+
+				@Override
+				public void postVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+					sourcePathToDestDirMap.remove(dir.getFile().getAbsolutePath());
+				}
+			}, config.getWalkConfig());
+		} catch (Exception e) {
+			if (executor != null) {
+				executor.shutdownNow();
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
+			throw e;
+		}
+
+		if (executor != null) {
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		}
+
+		//: copying the files changes the time of the directories, so the time is set afterwards. Sub-directories were created after their parents.
+		for (int i = createdDirs.size() - 1; i >= 0; i--) {
+			CreatedDir createdDir = createdDirs.get(i);
+			createdDir.dir.setTimeLastModified(createdDir.timeLastModified);
+		}
+
+		return reportFinalProgress();
+	}
+
+	private FSFFile getDestFile(FSFFile sourceFile, int depth) {
+		FSFFile destDir = destRoot;
+		if (depth > 1) {
+			destDir = sourcePathToDestDirMap.get(sourceFile.getParentFile().getAbsolutePath());
+		}
+		return destDir.getChild(sourceFile.getName());
+	}
+
+	/**
+	 * copies the file in the calling thread if the copying is sequential or hands it to the workers. Blocks while too many bytes or files are in flight
+	 */
+	private void submitFile(final FSFFileAttributes sourceFile, final FSFFile destFile) throws Exception{
+		if (executor == null) {
+			copyFileWithRetries(sourceFile, destFile);
+			return;
+		}
+
+		final long bytes = Math.min(sourceFile.getLength(), config.getMaxInFlightBytes());
+		pendingFilesSemaphore.acquire();
+		try {
+			acquireInFlightBytes(bytes);
+		} catch (InterruptedException e) {
+			pendingFilesSemaphore.release();
+			throw e;
+		}
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						copyFileWithRetries(sourceFile, destFile);
+					} finally {
+						releaseInFlightBytes(bytes);
+						pendingFilesSemaphore.release();
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			releaseInFlightBytes(bytes);
+			pendingFilesSemaphore.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * waits until the bytes fit into TreeCopyConfig.maxInFlightBytes. The bytes must not be more than the limit
+	 */
+	private void acquireInFlightBytes(long bytes) throws InterruptedException {
+		synchronized (inFlightBytesLock) {
+			while (inFlightBytes + bytes > config.getMaxInFlightBytes()) {
+				inFlightBytesLock.wait();
+			}
+			inFlightBytes += bytes;
+		}
+	}
+
+	private void releaseInFlightBytes(long bytes) {
+		synchronized (inFlightBytesLock) {
+			inFlightBytes -= bytes;
+			inFlightBytesLock.notifyAll();
+		}
+	}
+
+	private void copyFileWithRetries(FSFFileAttributes sourceFile, FSFFile destFile) {
+		String sourcePath = sourceFile.getFile().getAbsolutePath();
+		int attempt = 0;
+		while (true) {
+			try {
+				copyFile(sourceFile, destFile);
+				filesCopied.incrementAndGet();
+				bytesCopied.addAndGet(sourceFile.getLength());
+				break;
+			} catch (Exception e) {
+				log("copyFileWithRetries: attempt " + attempt + " to copy '" + sourcePath + "' failed: " + e);
+				if (attempt >= config.getMaxRetries()) {
+					failedFiles.put(sourcePath, e);
+					break;
+				}
+			}
+			attempt ++;
+			retries.incrementAndGet();
+			try {
+				Thread.sleep(config.getRetryDelayMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failedFiles.put(sourcePath, e);
+				break;
+			}
+		}
+		reportProgressIfDue();
+	}
+
+	private void copyFile(FSFFileAttributes sourceFile, FSFFile destFile) throws Exception{
+		sourceFile.getFile().copyTo(destFile);
+		if (config.isCopyVersionData()) {
+			destFile.setVersion(sourceFile.getVersion());
+		}
+		destFile.setTimeLastModified(sourceFile.getTimeLastModified());
+	}
+
+	private void reportProgressIfDue() {
+		TreeCopyProgressListener listener = config.getProgressListener();
+		if (listener == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		long lastTime = lastProgressTime.get();
+		if ((now - lastTime >= config.getProgressIntervalMillis()) && (lastProgressTime.compareAndSet(lastTime, now))) {
+			listener.onProgress(createProgress(false));
+		}
+	}
+
+	private TreeCopyProgress reportFinalProgress() {
+		TreeCopyProgress result = createProgress(true);
+		log("copy: done. Progress = " + result);
+		if (config.getProgressListener() != null) {
+			config.getProgressListener().onProgress(result);
+		}
+		return result;
+	}
+
+	private TreeCopyProgress createProgress(boolean finished) {
+		return new TreeCopyProgress(dirsCreated.get(), filesCopied.get(), bytesCopied.get(), retries.get(), System.currentTimeMillis() - startTime
+				, finished, new HashMap<String, Exception>(failedFiles));
+	}
+
+	private void log(String message) {
+		if (LOGGING_ENABLED) {
+			System.out.println("TreeCopier> " + message);
+		}
+	}
+
+	private static class CreatedDir{
+		private final FSFFile dir;
+		private final long timeLastModified;
+
+		public CreatedDir(FSFFile dir, long timeLastModified) {
+			this.dir = dir;
+			this.timeLastModified = timeLastModified;
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+package de.bright_side.filesystemfacade.util;
+
+/**
+ * @author Philip Heyse
+ *
+ */
+public class TreeCopyConfig {
+	public static final int DEFAULT_PARALLELISM = 4;
+	public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 64 * 1024 * 1024;
+	public static final int DEFAULT_MAX_RETRIES = 2;
+	public static final long DEFAULT_RETRY_DELAY_MILLIS = 1000;
+	public static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 1000;
+	
+	private int parallelism = DEFAULT_PARALLELISM;
+	private long maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+	private int maxRetries = DEFAULT_MAX_RETRIES;
+	private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+	private boolean copyVersionData = false;
+	private TreeWalkConfig walkConfig;
+	private TreeCopyProgressListener progressListener;
+	private long progressIntervalMillis = DEFAULT_PROGRESS_INTERVAL_MILLIS;
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * @param parallelism number of worker threads which copy files at the same time. If the file system of the source or of the dest does not
+	 * allow access by multiple threads (see FSFSystem.isConcurrent) the files are copied sequentially. Default: DEFAULT_PARALLELISM
+	 * @return this object
+	 */
+	public TreeCopyConfig setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+		return this;
+	}
+	
+	public long getMaxInFlightBytes() {
+		return maxInFlightBytes;
+	}
+	
+	/**
+	 * @param maxInFlightBytes maximum sum of the lengths of the files which are copied or waiting to be copied at the same time. 
+	 * If a file is larger than this value it is copied alone
+	 * @return this object
+	 */
+	public TreeCopyConfig setMaxInFlightBytes(long maxInFlightBytes) {
+		this.maxInFlightBytes = maxInFlightBytes;
+		return this;
+	}
+	
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+	
+	/**
+	 * @param maxRetries number of times the copying of a file is repeated after it failed
+	 * @return this object
+	 */
+	public TreeCopyConfig setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+		return this;
+	}
+	
+	public long getRetryDelayMillis() {
+		return retryDelayMillis;
+	}
+	
+	public TreeCopyConfig setRetryDelayMillis(long retryDelayMillis) {
+		this.retryDelayMillis = retryDelayMillis;
+		return this;
+	}
+	
+	public boolean isCopyVersionData() {
+		return copyVersionData;
+	}
+	
+	public TreeCopyConfig setCopyVersionData(boolean copyVersionData) {
+		this.copyVersionData = copyVersionData;
+		return this;
+	}
+	
+	public TreeWalkConfig getWalkConfig() {
+		return walkConfig;
+	}
+	
+	/**
+	 * @param walkConfig configuration of the walk through the source tree (parallelism of listing the directories, depth and filters) or null for the default
+	 * @return this object
+	 */
+	public TreeCopyConfig setWalkConfig(TreeWalkConfig walkConfig) {
+		this.walkConfig = walkConfig;
+		return this;
+	}
+	
+	public TreeCopyProgressListener getProgressListener() {
+		return progressListener;
+	}
+	
+	public TreeCopyConfig setProgressListener(TreeCopyProgressListener progressListener) {
+		this.progressListener = progressListener;
+		return this;
+	}
+	
+	public long getProgressIntervalMillis() {
+		return progressIntervalMillis;
+	}
+	
+	/**
+	 * @param progressIntervalMillis minimum time between two calls of the progress listener while copying. The final progress is always reported
+	 * @return this object
+	 */
+	public TreeCopyConfig setProgressIntervalMillis(long progressIntervalMillis) {
+		this.progressIntervalMillis = progressIntervalMillis;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "TreeCopyConfig{parallelism=" + parallelism + ", maxInFlightBytes=" + maxInFlightBytes + ", maxRetries=" + maxRetries + ", retryDelayMillis="
+				+ retryDelayMillis + ", copyVersionData=" + copyVersionData + ", walkConfig=" + walkConfig + ", progressIntervalMillis=" + progressIntervalMillis + "}";
+	}
+
+}
@@ -0,0 +1,89 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.util.Map;
+
+/**
+ * snapshot of the progress of a tree copy (see TreeCopier)
+ * 
+ * @author Philip Heyse
+ *
+ */
+public class TreeCopyProgress {
+	private long dirsCreated;
+	private long filesCopied;
+	private long bytesCopied;
+	private long retries;
+	private long elapsedMillis;
+	private boolean finished;
+	private Map<String, Exception> failedFiles;
+	
+	public TreeCopyProgress(long dirsCreated, long filesCopied, long bytesCopied, long retries, long elapsedMillis, boolean finished, Map<String, Exception> failedFiles) {
+		this.dirsCreated = dirsCreated;
+		this.filesCopied = filesCopied;
+		this.bytesCopied = bytesCopied;
+		this.retries = retries;
+		this.elapsedMillis = elapsedMillis;
+		this.finished = finished;
+		this.failedFiles = failedFiles;
+	}
+
+	public long getDirsCreated() {
+		return dirsCreated;
+	}
+
+	public long getFilesCopied() {
+		return filesCopied;
+	}
+
+	public long getBytesCopied() {
+		return bytesCopied;
+	}
+
+	/**
+	 * @return number of times the copying of a file was repeated after an error
+	 */
+	public long getRetries() {
+		return retries;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/**
+	 * @return true if this is the final report after all files have been processed
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * @return map from the source path to the last exception of all files which could not be copied after all retries
+	 */
+	public Map<String, Exception> getFailedFiles() {
+		return failedFiles;
+	}
+	
+	public double getBytesPerSecond() {
+		return perSecond(bytesCopied);
+	}
+	
+	public double getFilesPerSecond() {
+		return perSecond(filesCopied);
+	}
+	
+	private double perSecond(long value) {
+		if (elapsedMillis <= 0) {
+			return 0;
+		}
+		return value * 1000.0 / elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "TreeCopyProgress{dirsCreated=" + dirsCreated + ", filesCopied=" + filesCopied + ", bytesCopied=" + bytesCopied + ", retries=" + retries
+				+ ", failedFiles=" + failedFiles.size() + ", elapsedMillis=" + elapsedMillis + ", bytesPerSecond=" + (long)getBytesPerSecond() 
+				+ ", filesPerSecond=" + (long)getFilesPerSecond() + ", finished=" + finished + "}";
+	}
+
+}
@@ -0,0 +1,13 @@
+package de.bright_side.filesystemfacade.util;
+
+/**
+ * @author Philip Heyse
+ *
+ */
+public interface TreeCopyProgressListener {
+	/**
+	 * called from the copying threads, so the implementation must be thread safe and should return quickly
+	 * @param progress snapshot of the current progress
+	 */
+	void onProgress(TreeCopyProgress progress);
+}
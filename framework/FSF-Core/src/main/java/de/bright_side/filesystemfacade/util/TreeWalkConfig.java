@@ -0,0 +1,78 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.util.Set;
+
+/**
+ * @author Philip Heyse
+ *
+ */
+public class TreeWalkConfig {
+	public static final int DEFAULT_PARALLELISM = 1;
+	public static final int UNLIMITED_DEPTH = -1;
+	
+	private int parallelism = DEFAULT_PARALLELISM;
+	private int maxDepth = UNLIMITED_DEPTH;
+	private Set<String> filenamesToSkip;
+	private TreeWalkNameFilter nameFilter;
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * @param parallelism number of threads of the fork/join pool that walks the directories. 1 means that the tree is walked sequentially in
+	 * the calling thread. Values greater than 1 only make sense if the file system may be accessed by multiple threads at the same time and 
+	 * mainly pay off for file systems where each directory listing has a latency (e.g. database, remote or SFTP)
+	 * @return this object
+	 */
+	public TreeWalkConfig setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+		return this;
+	}
+	
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+	
+	/**
+	 * @param maxDepth maximum depth of items to be visited: 1 means only the direct sub-items of the start directory. 
+	 * Directories in the max depth are visited but their content is not walked. Default is UNLIMITED_DEPTH
+	 * @return this object
+	 */
+	public TreeWalkConfig setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+		return this;
+	}
+	
+	public Set<String> getFilenamesToSkip() {
+		return filenamesToSkip;
+	}
+	
+	/**
+	 * @param filenamesToSkip names of files and directories which are skipped (e.g. history directories) or null
+	 * @return this object
+	 */
+	public TreeWalkConfig setFilenamesToSkip(Set<String> filenamesToSkip) {
+		this.filenamesToSkip = filenamesToSkip;
+		return this;
+	}
+	
+	public TreeWalkNameFilter getNameFilter() {
+		return nameFilter;
+	}
+	
+	/**
+	 * @param nameFilter filter which decides which items are visited or null to visit all items (except the filenamesToSkip)
+	 * @return this object
+	 */
+	public TreeWalkConfig setNameFilter(TreeWalkNameFilter nameFilter) {
+		this.nameFilter = nameFilter;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "TreeWalkConfig{parallelism=" + parallelism + ", maxDepth=" + maxDepth + ", filenamesToSkip=" + filenamesToSkip + ", nameFilter=" + nameFilter + "}";
+	}
+	
+}
@@ -0,0 +1,14 @@
+package de.bright_side.filesystemfacade.util;
+
+/**
+ * @author Philip Heyse
+ *
+ */
+public interface TreeWalkNameFilter {
+	/**
+	 * @param name name of the file or directory
+	 * @param directory true if the item is a directory
+	 * @return true if the item should be visited (and in case of a directory also walked), false if it should be skipped
+	 */
+	boolean accept(String name, boolean directory);
+}
@@ -0,0 +1,35 @@
+package de.bright_side.filesystemfacade.util;
+
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
+/**
+ * callbacks of a tree walk (see TreeWalker). If the walk runs with a parallelism greater than 1 the methods are called from multiple threads
+ * at the same time and need to be thread safe. It is guaranteed that preVisitDirectory of a directory is called before any of its sub-items is visited
+ * and that postVisitDirectory is called after all sub-items have been visited.
+ * 
+ * @author Philip Heyse
+ *
+ */
+public interface TreeWalkVisitor {
+	/**
+	 * @param dir attributes of the directory
+	 * @param depth 1 for the direct sub-items of the directory where the walk started, 2 for their sub-items, etc.
+	 * @return true if the sub-items of the directory should be walked and postVisitDirectory should be called. false to skip the directory
+	 * @throws Exception on general error. The walk is stopped and the exception is thrown by TreeWalker.walk
+	 */
+	boolean preVisitDirectory(FSFFileAttributes dir, int depth) throws Exception;
+	
+	/**
+	 * @param file attributes of the file
+	 * @param depth 1 for the direct sub-items of the directory where the walk started, 2 for their sub-items, etc.
+	 * @throws Exception on general error. The walk is stopped and the exception is thrown by TreeWalker.walk
+	 */
+	void visitFile(FSFFileAttributes file, int depth) throws Exception;
+	
+	/**
+	 * @param dir attributes of the directory as read before the sub-items were walked
+	 * @param depth 1 for the direct sub-items of the directory where the walk started, 2 for their sub-items, etc.
+	 * @throws Exception on general error. The walk is stopped and the exception is thrown by TreeWalker.walk
+	 */
+	void postVisitDirectory(FSFFileAttributes dir, int depth) throws Exception;
+}
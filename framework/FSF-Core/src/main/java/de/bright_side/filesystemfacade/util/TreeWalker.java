@@ -0,0 +1,191 @@
+package de.bright_side.filesystemfacade.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+
+/**
+ * walks the tree of sub-items of a directory and calls the visitor for each item. With a parallelism greater than 1 the directories are walked
+ * by a work-stealing fork/join pool so that multiple directories are listed at the same time.
+ * The items of a directory are visited while its directory stream is read, so a directory is never loaded into memory completely. Only the
+ * sub-directories which are to be walked are queued (in parallel mode they are handed to the pool as soon as they are read). The sub-directories
+ * are walked after the stream of their parent has been closed, so each thread has at most one directory stream open at a time.
+ *
+ * @author Philip Heyse
+ *
+ */
+public class TreeWalker {
+	private static final boolean LOGGING_ENABLED = false;
+
+	private final TreeWalkVisitor visitor;
+	private final TreeWalkConfig config;
+	private final boolean parallel;
+	private final AtomicReference<Exception> firstError = new AtomicReference<>();
+
+	private TreeWalker(TreeWalkVisitor visitor, TreeWalkConfig config) {
+		this.visitor = visitor;
+		this.config = config;
+		this.parallel = config.getParallelism() > 1;
+	}
+
+	/**
+	 * walks all sub-items of the given directory. The directory itself is not visited. If the directory does not exist or is a file nothing is visited.
+	 * @param dir directory of which the sub-items should be walked
+	 * @param visitor visitor which is called for each item
+	 * @param config configuration of the walk or null to use the default configuration (sequential, unlimited depth, no filters)
+	 * @throws Exception the first exception that occurred while reading a directory or in the visitor. The walk is stopped as soon as possible after an exception
+	 */
+	public static void walk(FSFFile dir, TreeWalkVisitor visitor, TreeWalkConfig config) throws Exception{
+		TreeWalker walker = new TreeWalker(visitor, config == null ? new TreeWalkConfig() : config);
+		walker.walk(dir);
+	}
+
+	private void walk(FSFFile dir) throws Exception{
+		log("walk: dir = '" + dir.getAbsolutePath() + "', config = " + config);
+		if (!parallel) {
+			walkDirContent(dir, 1);
+			return;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(config.getParallelism());
+		try {
+			pool.invoke(new DirTask(dir, null, 1));
+		} finally {
+			pool.shutdown();
+		}
+		Exception error = firstError.get();
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	private boolean isStopped() {
+		return firstError.get() != null;
+	}
+
+	private boolean isAccepted(FSFFileAttributes item) {
+		String name = item.getFile().getName();
+		Set<String> filenamesToSkip = config.getFilenamesToSkip();
+		if ((filenamesToSkip != null) && (filenamesToSkip.contains(name))) {
+			return false;
+		}
+		TreeWalkNameFilter nameFilter = config.getNameFilter();
+		if ((nameFilter != null) && (!nameFilter.accept(name, item.isDirectory()))) {
+			return false;
+		}
+		return true;
+	}
+
+	private boolean isContentToBeWalked(int depth) {
+		return (config.getMaxDepth() == TreeWalkConfig.UNLIMITED_DEPTH) || (depth < config.getMaxDepth());
+	}
+
+	/**
+	 * visits the items of the directory while the directory stream is read and walks the sub-directories
+	 */
+	private void walkDirContent(FSFFile dir, int depth) throws Exception{
+		List<FSFFileAttributes> dirsToWalk = new ArrayList<>();
+		List<DirTask> tasks = new ArrayList<>();
+		try (FSFDirectoryStream stream = dir.openDirectoryStream()){
+			if (stream == null) {
+				return;
+			}
+			for (FSFFileAttributes i: stream) {
+				if (isStopped()) {
+					return;
+				}
+				if (!isAccepted(i)) {
+					continue;
+				}
+				if (i.isDirectory()) {
+					if (visitor.preVisitDirectory(i, depth)) {
+						if (parallel) {
+							DirTask task = new DirTask(i.getFile(), i, depth + 1);
+							task.fork();
+							tasks.add(task);
+						} else {
+							dirsToWalk.add(i);
+						}
+					}
+				} else {
+					visitor.visitFile(i, depth);
+				}
+			}
+		} finally {
+			//: the forked tasks need to finish even if reading the directory failed so that the walk does not end while tasks are running
+			for (DirTask i: tasks) {
+				i.join();
+			}
+		}
+
+		for (FSFFileAttributes i: dirsToWalk) {
+			if (isStopped()) {
+				return;
+			}
+			walkDir(i, depth + 1);
+		}
+	}
+
+	/**
+	 * walks the content of the directory (if the max depth allows it) and calls postVisitDirectory
+	 * @param dir attributes of the directory
+	 * @param contentDepth depth of the sub-items of the directory
+	 */
+	private void walkDir(FSFFileAttributes dir, int contentDepth) throws Exception{
+		if (isContentToBeWalked(contentDepth - 1)) {
+			walkDirContent(dir.getFile(), contentDepth);
+		}
+		if (!isStopped()) {
+			visitor.postVisitDirectory(dir, contentDepth - 1);
+		}
+	}
+
+	private void log(String message) {
+		if (LOGGING_ENABLED) {
+			System.out.println("TreeWalker> " + message);
+		}
+	}
+
+	/**
+	 * task that walks a directory in the fork/join pool. Exceptions are not thrown by the task but stored as the first error so that the other tasks stop
+	 */
+	private class DirTask extends RecursiveAction{
+		private static final long serialVersionUID = -2309129856421187207L;
+		private final FSFFile dir;
+		private final FSFFileAttributes dirAttributes;
+		private final int contentDepth;
+
+		/**
+		 * @param dirAttributes attributes of the directory or null for the start directory which is not visited itself
+		 */
+		public DirTask(FSFFile dir, FSFFileAttributes dirAttributes, int contentDepth) {
+			this.dir = dir;
+			this.dirAttributes = dirAttributes;
+			this.contentDepth = contentDepth;
+		}
+
+		@Override
+		protected void compute() {
+			if (isStopped()) {
+				return;
+			}
+			try {
+				if (dirAttributes == null) {
+					walkDirContent(dir, contentDepth);
+				} else {
+					walkDir(dirAttributes, contentDepth);
+				}
+			} catch (Exception e) {
+				firstError.compareAndSet(null, e);
+			}
+		}
+	}
+
+}
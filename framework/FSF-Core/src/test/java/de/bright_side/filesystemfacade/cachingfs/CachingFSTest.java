@@ -0,0 +1,201 @@
+package de.bright_side.filesystemfacade.cachingfs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFDirectoryStream;
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+import de.bright_side.filesystemfacade.memoryfs.MemoryFS;
+import de.bright_side.filesystemfacade.metricsfs.MetricsFS;
+import de.bright_side.filesystemfacade.metricsfs.MetricsOperation;
+import de.bright_side.filesystemfacade.util.SimpleFSFEnvironment;
+
+public class CachingFSTest {
+	private static final long START_TIME = 1000000;
+	
+	private long getInnerCalls(MetricsFS metricsFS, MetricsOperation operation) {
+		return metricsFS.getSnapshot().getOperation(operation) == null ? 0 : metricsFS.getSnapshot().getOperation(operation).getCalls();
+	}
+
+	@Test
+	public void exists_secondCallFromCache() throws Exception {
+		SimpleFSFEnvironment environment = new SimpleFSFEnvironment(START_TIME);
+		MetricsFS metricsFS = new MetricsFS(new MemoryFS(environment), environment);
+		CachingFS fs = new CachingFS(metricsFS, new CachingFSConfig(), environment);
+		fs.createByPath("/file.txt").writeString("hello");
+		
+		assertTrue(fs.createByPath("/file.txt").exists());
+		assertTrue(fs.createByPath("/file.txt").isFile());
+		assertFalse(fs.createByPath("/file.txt").isDirectory());
+		assertEquals(5, fs.createByPath("/file.txt").getLength());
+		
+		assertEquals(1, getInnerCalls(metricsFS, MetricsOperation.READ_ATTRIBUTES));
+		assertEquals(0, getInnerCalls(metricsFS, MetricsOperation.EXISTS));
+		assertEquals(1, fs.getStatistics().getMisses());
+		assertEquals(3, fs.getStatistics().getHits());
+	}
+
+	@Test
+	public void exists_notExistingFileCached() throws Exception {
+		CachingFS fs = new CachingFS(new MemoryFS());
+		assertFalse(fs.createByPath("/file.txt").exists());
+		assertFalse(fs.createByPath("/file.txt").exists());
+		assertEquals(1, fs.getStatistics().getHits());
+		
+		fs.createByPath("/file.txt").writeString("hello");
+		assertTrue(fs.createByPath("/file.txt").exists());
+	}
+
+	@Test
+	public void listFiles_fromCacheAndInvalidatedByWrite() throws Exception {
+		SimpleFSFEnvironment environment = new SimpleFSFEnvironment(START_TIME);
+		MetricsFS metricsFS = new MetricsFS(new MemoryFS(environment), environment);
+		CachingFS fs = new CachingFS(metricsFS, new CachingFSConfig(), environment);
+		FSFFile dir = fs.createByPath("/dir").mkdirs();
+		dir.getChild("a.txt").writeString("a");
+		
+		assertEquals(1, dir.listFiles().size());
+		assertEquals(1, dir.listFilesWithAttributes().size());
+		assertEquals(1, getInnerCalls(metricsFS, MetricsOperation.LIST_FILES_WITH_ATTRIBUTES));
+		//: the attributes of the listed items are cached as well
+		assertTrue(dir.getChild("a.txt").isFile());
+		assertEquals(0, getInnerCalls(metricsFS, MetricsOperation.READ_ATTRIBUTES));
+		
+		dir.getChild("b.txt").writeString("b");
+		assertEquals(2, dir.listFiles().size());
+		assertEquals(2, getInnerCalls(metricsFS, MetricsOperation.LIST_FILES_WITH_ATTRIBUTES));
+	}
+
+	@Test
+	public void listFiles_invalidatedByDeleteRenameAndMove() throws Exception {
+		CachingFS fs = new CachingFS(new MemoryFS());
+		FSFFile dir = fs.createByPath("/dir").mkdirs();
+		FSFFile otherDir = fs.createByPath("/other").mkdirs();
+		dir.getChild("a.txt").writeString("a");
+		dir.getChild("b.txt").writeString("b");
+		assertEquals(2, dir.listFiles().size());
+		assertEquals(0, otherDir.listFiles().size());
+		
+		dir.getChild("a.txt").delete();
+		assertEquals(1, dir.listFiles().size());
+		assertFalse(dir.getChild("a.txt").exists());
+		
+		dir.getChild("b.txt").rename("c.txt");
+		assertFalse(dir.getChild("b.txt").exists());
+		assertTrue(dir.getChild("c.txt").exists());
+		assertEquals("c.txt", dir.listFiles().get(0).getName());
+		
+		dir.getChild("c.txt").moveTo(otherDir.getChild("c.txt"));
+		assertEquals(0, dir.listFiles().size());
+		assertEquals(1, otherDir.listFiles().size());
+		assertTrue(otherDir.getChild("c.txt").exists());
+	}
+
+	@Test
+	public void deleteTree_subItemsInvalidated() throws Exception {
+		CachingFS fs = new CachingFS(new MemoryFS());
+		FSFFile dir = fs.createByPath("/dir/sub").mkdirs();
+		dir.getChild("a.txt").writeString("a");
+		assertTrue(dir.getChild("a.txt").exists());
+		assertTrue(fs.createByPath("/dir/sub").isDirectory());
+		
+		fs.createByPath("/dir").deleteTree();
+		assertFalse(dir.getChild("a.txt").exists());
+		assertFalse(fs.createByPath("/dir/sub").exists());
+		assertTrue(fs.getStatistics().getInvalidations() > 0);
+	}
+
+	@Test
+	public void getOutputStream_invalidatedOnClose() throws Exception {
+		CachingFS fs = new CachingFS(new MemoryFS());
+		FSFFile file = fs.createByPath("/file.txt");
+		try (OutputStream outputStream = file.getOutputStream(false)){
+			outputStream.write(new byte[10]);
+			//: read while the stream is open so that the entry is cached
+			file.exists();
+			outputStream.write(new byte[10]);
+		}
+		assertEquals(20, file.getLength());
+	}
+
+	@Test
+	public void exists_changeOfInnerFSNoticedAfterTimeToLive() throws Exception {
+		SimpleFSFEnvironment environment = new SimpleFSFEnvironment(START_TIME);
+		MemoryFS innerFS = new MemoryFS(environment);
+		CachingFS fs = new CachingFS(innerFS, new CachingFSConfig().setTimeToLiveMillis(100), environment);
+		assertFalse(fs.createByPath("/file.txt").exists());
+		
+		innerFS.createByPath("/file.txt").writeString("hello");
+		environment.setCurrentTime(START_TIME + 99);
+		assertFalse(fs.createByPath("/file.txt").exists());
+		environment.setCurrentTime(START_TIME + 100);
+		assertTrue(fs.createByPath("/file.txt").exists());
+	}
+
+	@Test
+	public void exists_leastRecentlyUsedEvicted() throws Exception {
+		CachingFS fs = new CachingFS(new MemoryFS(), new CachingFSConfig().setMaxEntries(2));
+		fs.createByPath("/a.txt").exists();
+		fs.createByPath("/b.txt").exists();
+		fs.createByPath("/a.txt").exists();
+		fs.createByPath("/c.txt").exists();
+		
+		assertEquals(1, fs.getStatistics().getEvictions());
+		assertEquals(2, fs.getStatistics().getAttributesEntries());
+		fs.resetStatistics();
+		//: b was used least recently and has been evicted
+		fs.createByPath("/a.txt").exists();
+		fs.createByPath("/b.txt").exists();
+		assertEquals(1, fs.getStatistics().getHits());
+		assertEquals(1, fs.getStatistics().getMisses());
+	}
+	
+	@Test
+	public void clearCache_entriesRemoved() throws Exception {
+		CachingFS fs = new CachingFS(new MemoryFS());
+		fs.createByPath("/a.txt").exists();
+		fs.clearCache();
+		assertEquals(0, fs.getStatistics().getAttributesEntries());
+		fs.createByPath("/a.txt").exists();
+		assertEquals(2, fs.getStatistics().getMisses());
+	}
+
+	@Test
+	public void readAttributes_changedWhileReadFromInnerFS_notCached() throws Exception {
+		CachingFS fs = new CachingFS(new MemoryFS());
+		CachingFile file = (CachingFile)fs.createByPath("/file.txt");
+		file.writeString("old");
+		
+		//: simulates a reader which reads the old attributes from the inner file system while the file is written
+		long generation = fs.getCache().getGeneration();
+		FSFFileAttributes oldAttributes = file.getInnerFile().readAttributes();
+		file.writeString("new value");
+		fs.getCache().putAttributes(file.getInnerFile().getAbsolutePath(), oldAttributes, generation);
+		
+		assertEquals(9, fs.createByPath("/file.txt").getLength());
+	}
+
+	@Test
+	public void openDirectoryStream_changedWhileStreamIsRead_notCached() throws Exception {
+		CachingFS fs = new CachingFS(new MemoryFS());
+		FSFFile dir = fs.createByPath("/dir").mkdirs();
+		dir.getChild("a.txt").writeString("a");
+		
+		try (FSFDirectoryStream stream = dir.openDirectoryStream()){
+			Iterator<FSFFileAttributes> iterator = stream.iterator();
+			dir.getChild("a.txt").writeString("changed");
+			assertTrue(iterator.hasNext());
+			iterator.next();
+		}
+		
+		assertEquals(7, dir.getChild("a.txt").getLength());
+	}
+
+}
@@ -0,0 +1,374 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.util.SimpleFSFEnvironment;
+
+public class DatabaseConnectionPoolTest {
+	private static final long TIME_001 = 1000000;
+	private static final String SQL_1 = "SELECT 1";
+	private static final String SQL_2 = "SELECT 2";
+
+	/**
+	 * a connection which only records the calls
+	 */
+	private static class FakeConnection{
+		private final AtomicInteger preparedStatements = new AtomicInteger();
+		private final AtomicInteger closedStatements = new AtomicInteger();
+		private boolean closed = false;
+		private boolean valid = true;
+		private boolean autoCommit = true;
+		private int rollbacks = 0;
+		private boolean failStatementReset = false;
+		private final List<String> statementCalls = new ArrayList<>();
+		private Connection connection;
+
+		public FakeConnection() {
+			connection = (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+				switch (method.getName()) {
+				case "close":
+					closed = true;
+					return null;
+				case "isClosed":
+					return closed;
+				case "isValid":
+					return valid;
+				case "getAutoCommit":
+					return autoCommit;
+				case "setAutoCommit":
+					autoCommit = (Boolean)args[0];
+					return null;
+				case "rollback":
+					rollbacks ++;
+					return null;
+				case "prepareStatement":
+					preparedStatements.incrementAndGet();
+					return createStatement();
+				default:
+					return null;
+				}
+			});
+		}
+
+		private PreparedStatement createStatement() {
+			return (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+				statementCalls.add(method.getName());
+				if (method.getName().equals("close")) {
+					closedStatements.incrementAndGet();
+				} else if ((failStatementReset) && (method.getName().equals("clearBatch"))) {
+					throw new SQLException("reset failed");
+				}
+				return null;
+			});
+		}
+	}
+
+	private static class TestPool extends DatabaseConnectionPool{
+		private final List<FakeConnection> createdConnections = new ArrayList<>();
+
+		public TestPool(DatabaseFSConfig config, SimpleFSFEnvironment environment) throws Exception {
+			super(config, environment);
+		}
+
+		@Override
+		protected Connection createConnection() throws Exception {
+			FakeConnection result = new FakeConnection();
+			synchronized (createdConnections) {
+				createdConnections.add(result);
+			}
+			return result.connection;
+		}
+	}
+
+	private static DatabaseFSConfig createConfig(int minPoolSize, int maxPoolSize) {
+		DatabaseFSConfig result = new DatabaseFSConfig();
+		result.setMinPoolSize(minPoolSize);
+		result.setMaxPoolSize(maxPoolSize);
+		result.setPoolIdleTimeoutMillis(60000);
+		result.setPoolValidationIntervalMillis(5000);
+		result.setPoolMaxWaitMillis(100);
+		result.setStatementCacheSize(1);
+		return result;
+	}
+
+	@Test
+	public void getConnection_returnedConnection_reused() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 2), new SimpleFSFEnvironment(TIME_001));
+
+		pool.getConnection().close();
+		pool.getConnection().close();
+
+		assertEquals(1, pool.createdConnections.size());
+		assertFalse(pool.createdConnections.get(0).closed);
+		DatabaseConnectionPoolStatistics statistics = pool.getStatistics();
+		assertEquals(1, statistics.getOpenConnections());
+		assertEquals(1, statistics.getIdleConnections());
+		assertEquals(0, statistics.getActiveConnections());
+		assertEquals(2, statistics.getBorrowedConnections());
+		assertEquals(1, statistics.getCreatedConnections());
+	}
+
+	@Test
+	public void getConnection_returnedTwice_onlyReturnedOnce() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 2), new SimpleFSFEnvironment(TIME_001));
+		Connection connection = pool.getConnection();
+
+		connection.close();
+		connection.close();
+
+		assertTrue(connection.isClosed());
+		assertEquals(1, pool.getStatistics().getIdleConnections());
+		assertThrows(Exception.class, () -> connection.prepareStatement(SQL_1));
+	}
+
+	@Test
+	public void getConnection_maxPoolSizeReached_waitsAndFails() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 1), new SimpleFSFEnvironment(TIME_001));
+		Connection connection = pool.getConnection();
+
+		assertThrows(Exception.class, () -> pool.getConnection());
+		assertEquals(1, pool.getStatistics().getWaitsForConnection());
+
+		connection.close();
+		pool.getConnection().close();
+		assertEquals(1, pool.createdConnections.size());
+	}
+
+	@Test
+	public void getConnection_concurrentThreads_maxPoolSizeKept() throws Exception {
+		DatabaseFSConfig config = createConfig(0, 3);
+		config.setPoolMaxWaitMillis(10000);
+		TestPool pool = new TestPool(config, new SimpleFSFEnvironment(TIME_001));
+		AtomicInteger inUse = new AtomicInteger();
+		AtomicInteger maxInUse = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int thread = 0; thread < 8; thread++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 200; i++) {
+						try (Connection connection = pool.getConnection()){
+							maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+							connection.prepareStatement(SQL_1).close();
+							inUse.decrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> i: futures) {
+				i.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertTrue(maxInUse.get() <= 3);
+		assertTrue(pool.createdConnections.size() <= 3);
+		assertEquals(1600, pool.getStatistics().getBorrowedConnections());
+		assertEquals(0, pool.getStatistics().getActiveConnections());
+	}
+
+	@Test
+	public void getConnection_invalidIdleConnection_replaced() throws Exception {
+		SimpleFSFEnvironment environment = new SimpleFSFEnvironment(TIME_001);
+		TestPool pool = new TestPool(createConfig(0, 2), environment);
+		pool.getConnection().close();
+		pool.createdConnections.get(0).valid = false;
+
+		//: the connection is only validated after the validation interval
+		pool.getConnection().close();
+		assertEquals(1, pool.createdConnections.size());
+
+		environment.setCurrentTime(TIME_001 + 5000);
+		pool.getConnection().close();
+
+		assertEquals(2, pool.createdConnections.size());
+		assertTrue(pool.createdConnections.get(0).closed);
+		assertEquals(1, pool.getStatistics().getFailedValidations());
+		assertEquals(1, pool.getStatistics().getOpenConnections());
+	}
+
+	@Test
+	public void evictIdleConnections_idleTimeoutReached_closedDownToMinPoolSize() throws Exception {
+		SimpleFSFEnvironment environment = new SimpleFSFEnvironment(TIME_001);
+		TestPool pool = new TestPool(createConfig(1, 3), environment);
+		pool.fillToMinPoolSize();
+		assertEquals(1, pool.createdConnections.size());
+		Connection connection1 = pool.getConnection();
+		Connection connection2 = pool.getConnection();
+		Connection connection3 = pool.getConnection();
+		connection1.close();
+		connection2.close();
+		connection3.close();
+		assertEquals(3, pool.getStatistics().getIdleConnections());
+
+		environment.setCurrentTime(TIME_001 + 60000);
+		pool.evictIdleConnections();
+
+		assertEquals(1, pool.getStatistics().getOpenConnections());
+		assertEquals(2, pool.getStatistics().getEvictedConnections());
+		assertEquals(2, pool.getStatistics().getClosedConnections());
+	}
+
+	@Test
+	public void close_returnedAfterClose_connectionClosed() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 2), new SimpleFSFEnvironment(TIME_001));
+		pool.getConnection().close();
+		Connection connection = pool.getConnection();
+		pool.getConnection().close();
+
+		pool.close();
+		assertEquals(1, pool.getStatistics().getOpenConnections());
+		connection.close();
+
+		assertEquals(0, pool.getStatistics().getOpenConnections());
+		assertTrue(pool.createdConnections.get(0).closed);
+		assertTrue(pool.createdConnections.get(1).closed);
+		assertThrows(Exception.class, () -> pool.getConnection());
+	}
+
+	@Test
+	public void close_uncommittedTransaction_rolledBack() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 1), new SimpleFSFEnvironment(TIME_001));
+		Connection connection = pool.getConnection();
+		connection.setAutoCommit(false);
+
+		connection.close();
+
+		FakeConnection fakeConnection = pool.createdConnections.get(0);
+		assertEquals(1, fakeConnection.rollbacks);
+		assertTrue(fakeConnection.autoCommit);
+		assertTrue(pool.getConnection().getAutoCommit());
+	}
+
+	@Test
+	public void prepareStatement_sameSQL_preparedOnce() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 1), new SimpleFSFEnvironment(TIME_001));
+
+		for (int i = 0; i < 3; i++) {
+			try (Connection connection = pool.getConnection(); PreparedStatement statement = connection.prepareStatement(SQL_1)){
+				statement.setLong(1, i);
+			}
+		}
+
+		FakeConnection fakeConnection = pool.createdConnections.get(0);
+		assertEquals(1, fakeConnection.preparedStatements.get());
+		assertEquals(0, fakeConnection.closedStatements.get());
+		assertEquals(2, pool.getStatistics().getStatementCacheHits());
+		assertEquals(1, pool.getStatistics().getStatementCacheMisses());
+	}
+
+	@Test
+	public void prepareStatement_released_parametersBatchAndLimitsReset() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 1), new SimpleFSFEnvironment(TIME_001));
+
+		try (Connection connection = pool.getConnection(); PreparedStatement statement = connection.prepareStatement(SQL_1)){
+			statement.setFetchSize(100);
+			statement.setMaxRows(10);
+			statement.addBatch();
+		}
+
+		FakeConnection fakeConnection = pool.createdConnections.get(0);
+		assertTrue(fakeConnection.statementCalls.contains("clearParameters"));
+		assertTrue(fakeConnection.statementCalls.contains("clearBatch"));
+		assertEquals(2, Collections.frequency(fakeConnection.statementCalls, "setFetchSize"));
+		assertEquals(2, Collections.frequency(fakeConnection.statementCalls, "setMaxRows"));
+		assertEquals(0, fakeConnection.closedStatements.get());
+	}
+
+	@Test
+	public void prepareStatement_resetFails_statementClosedAndPreparedAgain() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 1), new SimpleFSFEnvironment(TIME_001));
+
+		try (Connection connection = pool.getConnection()){
+			pool.createdConnections.get(0).failStatementReset = true;
+			connection.prepareStatement(SQL_1).close();
+		}
+		pool.createdConnections.get(0).failStatementReset = false;
+		try (Connection connection = pool.getConnection()){
+			connection.prepareStatement(SQL_1).close();
+		}
+
+		FakeConnection fakeConnection = pool.createdConnections.get(0);
+		assertEquals(2, fakeConnection.preparedStatements.get());
+		assertEquals(1, fakeConnection.closedStatements.get());
+		assertEquals(0, pool.getStatistics().getStatementCacheHits());
+	}
+
+	@Test
+	public void prepareStatement_sameSQLInUse_separateStatement() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 1), new SimpleFSFEnvironment(TIME_001));
+
+		try (Connection connection = pool.getConnection()){
+			PreparedStatement statement1 = connection.prepareStatement(SQL_1);
+			PreparedStatement statement2 = connection.prepareStatement(SQL_1);
+			assertNotSame(statement1, statement2);
+			assertSame(connection, statement1.getConnection());
+			statement2.close();
+			statement1.close();
+		}
+
+		FakeConnection fakeConnection = pool.createdConnections.get(0);
+		assertEquals(2, fakeConnection.preparedStatements.get());
+		assertEquals(1, fakeConnection.closedStatements.get());
+	}
+
+	@Test
+	public void prepareStatement_cacheFull_leastRecentlyUsedClosed() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 1), new SimpleFSFEnvironment(TIME_001));
+
+		try (Connection connection = pool.getConnection()){
+			connection.prepareStatement(SQL_1).close();
+			connection.prepareStatement(SQL_2).close();
+			connection.prepareStatement(SQL_2).close();
+		}
+
+		FakeConnection fakeConnection = pool.createdConnections.get(0);
+		assertEquals(2, fakeConnection.preparedStatements.get());
+		assertEquals(1, fakeConnection.closedStatements.get());
+		assertEquals(1, pool.getStatistics().getStatementCacheHits());
+	}
+
+	@Test
+	public void close_statementNotClosed_statementClosedByPool() throws Exception {
+		TestPool pool = new TestPool(createConfig(0, 1), new SimpleFSFEnvironment(TIME_001));
+		Connection connection = pool.getConnection();
+		PreparedStatement statement = connection.prepareStatement(SQL_1);
+
+		connection.close();
+		statement.close();
+		pool.getConnection().prepareStatement(SQL_1);
+
+		FakeConnection fakeConnection = pool.createdConnections.get(0);
+		assertEquals(1, fakeConnection.closedStatements.get());
+		assertEquals(2, fakeConnection.preparedStatements.get());
+	}
+
+	@Test
+	public void createPool_minGreaterThanMax_exception() throws Exception {
+		assertThrows(Exception.class, () -> new TestPool(createConfig(2, 1), new SimpleFSFEnvironment(TIME_001)));
+		assertThrows(Exception.class, () -> new TestPool(createConfig(0, 0), new SimpleFSFEnvironment(TIME_001)));
+	}
+
+}
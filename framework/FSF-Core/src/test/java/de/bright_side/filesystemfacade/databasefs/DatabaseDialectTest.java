@@ -0,0 +1,93 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class DatabaseDialectTest {
+	private static final String[] KEY_COLUMNS = {"APP", "TENANT", "ID"};
+	private static final Object[] KEY = {"app", "tenant", 7L};
+
+	@Test
+	public void forJdbcUrl_knownDatabases_matchingDialect() {
+		assertTrue(DatabaseDialect.forJdbcUrl("jdbc:mariadb://127.0.0.1/dbfs001") instanceof MariaDBDialect);
+		assertTrue(DatabaseDialect.forJdbcUrl("jdbc:mysql://127.0.0.1/dbfs001") instanceof MariaDBDialect);
+		assertTrue(DatabaseDialect.forJdbcUrl("jdbc:postgresql://127.0.0.1/dbfs001") instanceof PostgreSQLDialect);
+		assertTrue(DatabaseDialect.forJdbcUrl("jdbc:h2:mem:fsf;MODE=MySQL") instanceof H2Dialect);
+		assertTrue(DatabaseDialect.forJdbcUrl("JDBC:HSQLDB:mem:fsf") instanceof HSQLDBDialect);
+	}
+
+	@Test
+	public void forJdbcUrl_unknownDatabase_null() {
+		assertNull(DatabaseDialect.forJdbcUrl("jdbc:sqlserver://127.0.0.1"));
+		assertNull(DatabaseDialect.forJdbcUrl(null));
+	}
+
+	@Test
+	public void getDialect_noDialectSet_detectedByUrlAndKept() throws Exception {
+		DatabaseFSConfig config = new DatabaseFSConfig();
+		config.setDbUrl("jdbc:postgresql://127.0.0.1/dbfs001");
+		DatabaseDialect dialect = DatabaseFSUtil.getDialect(config);
+
+		assertTrue(dialect instanceof PostgreSQLDialect);
+		assertTrue(dialect == config.getDialect());
+	}
+
+	@Test
+	public void getDialect_unknownUrl_mariaDB() throws Exception {
+		DatabaseFSConfig config = new DatabaseFSConfig();
+		config.setDbUrl("jdbc:unknown://127.0.0.1");
+		assertTrue(DatabaseFSUtil.getDialect(config) instanceof MariaDBDialect);
+	}
+
+	@Test
+	public void getAfterKeyCondition_default_rowValueComparison() {
+		List<Object> parameters = new ArrayList<>();
+		String condition = new PostgreSQLDialect().getAfterKeyCondition(KEY_COLUMNS, KEY, parameters);
+
+		assertEquals("((APP, TENANT, ID) > (?, ?, ?))", condition);
+		assertEquals("[app, tenant, 7]", parameters.toString());
+	}
+
+	@Test
+	public void getAfterKeyCondition_mariaDB_expandedCondition() {
+		List<Object> parameters = new ArrayList<>();
+		String condition = new MariaDBDialect().getAfterKeyCondition(KEY_COLUMNS, KEY, parameters);
+
+		assertEquals("((APP > ?) OR (APP = ? AND TENANT > ?) OR (APP = ? AND TENANT = ? AND ID > ?))", condition);
+		assertEquals("[app, app, tenant, app, tenant, 7]", parameters.toString());
+	}
+
+	@Test
+	public void getBlobRangeSQL_embeddedDatabases_readViaBlob() {
+		assertNull(new H2Dialect().getBlobRangeSQL("FILE_DATA"));
+		assertNull(new HSQLDBDialect().getBlobRangeSQL("FILE_DATA"));
+	}
+
+	private DatabaseMetaData createMetaData(String productVersion) {
+		return (DatabaseMetaData)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DatabaseMetaData.class}
+				, (proxy, method, args) -> method.getName().equals("getDatabaseProductVersion") ? productVersion : null);
+	}
+
+	@Test
+	public void isRecursiveQuerySupported_mariaDBAndMySQLVersions_supportedSinceFirstVersionWithCTE() throws Exception {
+		MariaDBDialect dialect = new MariaDBDialect();
+		assertTrue(dialect.isRecursiveQuerySupported(createMetaData("10.4.12-MariaDB")));
+		assertTrue(dialect.isRecursiveQuerySupported(createMetaData("10.2.2-MariaDB-log")));
+		assertTrue(dialect.isRecursiveQuerySupported(createMetaData("5.5.5-10.3.22-MariaDB-0+deb10u1")));
+		assertTrue(dialect.isRecursiveQuerySupported(createMetaData("8.0.19")));
+		assertFalse(dialect.isRecursiveQuerySupported(createMetaData("10.1.44-MariaDB")));
+		assertFalse(dialect.isRecursiveQuerySupported(createMetaData("5.5.5-10.2.1-MariaDB")));
+		assertFalse(dialect.isRecursiveQuerySupported(createMetaData("5.7.29-log")));
+		assertTrue(new H2Dialect().isRecursiveQuerySupported(createMetaData("1.4.200")));
+	}
+
+}
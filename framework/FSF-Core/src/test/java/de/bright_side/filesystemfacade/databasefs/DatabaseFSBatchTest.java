@@ -0,0 +1,267 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.util.SimpleFSFEnvironment;
+
+public class DatabaseFSBatchTest {
+	private static final String SQL_INSERT = "INSERT INTO FILES (ID, NAME) VALUES (?, ?)";
+	private static final String SQL_UPDATE = "UPDATE FILES SET NAME = ? WHERE ID = ?";
+	private static final String SQL_SELECT = "SELECT NAME FROM FILES WHERE ID = ?";
+	private static final String H2_URL = "jdbc:h2:mem:DatabaseFSBatchTest;DB_CLOSE_DELAY=-1";
+
+	/**
+	 * a connection which only records the calls
+	 */
+	private static class FakeConnection{
+		private final List<String> preparedSQLs = new ArrayList<>();
+		/** the number of updates of each executed batch in the order of execution */
+		private final List<String> executedBatches = new ArrayList<>();
+		private boolean closed = false;
+		private boolean autoCommit = true;
+		private int commits = 0;
+		private int rollbacks = 0;
+		private Connection connection;
+
+		public FakeConnection() {
+			connection = (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+				switch (method.getName()) {
+				case "close":
+					closed = true;
+					return null;
+				case "getAutoCommit":
+					return autoCommit;
+				case "setAutoCommit":
+					autoCommit = (Boolean)args[0];
+					return null;
+				case "commit":
+					commits ++;
+					return null;
+				case "rollback":
+					rollbacks ++;
+					return null;
+				case "prepareStatement":
+					preparedSQLs.add((String)args[0]);
+					return createStatement((String)args[0]);
+				default:
+					return null;
+				}
+			});
+		}
+
+		private PreparedStatement createStatement(String sql) {
+			final int[] updates = new int[1];
+			return (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+				switch (method.getName()) {
+				case "addBatch":
+					updates[0] ++;
+					return null;
+				case "executeBatch":
+					executedBatches.add(sql + " x " + updates[0]);
+					return new int[updates[0]];
+				default:
+					return null;
+				}
+			});
+		}
+	}
+
+	private DatabaseFSBatch createBatch(FakeConnection connection) throws Exception {
+		return new DatabaseFSBatch(new DatabaseFSConfig(), connection.connection);
+	}
+
+	@Test
+	public void addUpdate_sameSQL_oneBatch() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		DatabaseFSBatch batch = createBatch(connection);
+		for (long i = 1; i <= 100; i++) {
+			batch.addUpdate(SQL_INSERT, i, "file" + i + ".txt");
+		}
+		assertEquals(0, connection.executedBatches.size());
+		batch.commit();
+
+		assertEquals(1, connection.preparedSQLs.size());
+		assertEquals("[" + SQL_INSERT + " x 100]", connection.executedBatches.toString());
+		assertEquals(1, batch.getExecutedBatches());
+		assertEquals(100, batch.getBatchedUpdates());
+	}
+
+	@Test
+	public void addUpdate_differentSQL_previousBatchExecutedFirst() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		DatabaseFSBatch batch = createBatch(connection);
+		batch.addUpdate(SQL_INSERT, 1L, "a.txt");
+		batch.addUpdate(SQL_INSERT, 2L, "b.txt");
+		batch.addUpdate(SQL_UPDATE, "c.txt", 1L);
+		batch.addUpdate(SQL_INSERT, 3L, "d.txt");
+		batch.commit();
+
+		assertEquals("[" + SQL_INSERT + " x 2, " + SQL_UPDATE + " x 1, " + SQL_INSERT + " x 1]", connection.executedBatches.toString());
+	}
+
+	@Test
+	public void addUpdate_manyUpdates_executedInSeveralBatches() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		DatabaseFSBatch batch = createBatch(connection);
+		for (long i = 1; i <= 1200; i++) {
+			batch.addUpdate(SQL_INSERT, i, "file" + i + ".txt");
+		}
+		batch.commit();
+
+		assertEquals(3, connection.executedBatches.size());
+		assertEquals(1200, batch.getBatchedUpdates());
+	}
+
+	@Test
+	public void batchConnection_prepareStatement_pendingUpdatesExecutedBefore() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		DatabaseFSBatch batch = createBatch(connection);
+		batch.addUpdate(SQL_INSERT, 1L, "a.txt");
+		batch.getBatchConnection().prepareStatement(SQL_SELECT);
+
+		assertEquals("[" + SQL_INSERT + " x 1]", connection.executedBatches.toString());
+		assertEquals("[" + SQL_INSERT + ", " + SQL_SELECT + "]", connection.preparedSQLs.toString());
+		batch.rollback();
+	}
+
+	@Test
+	public void batchConnection_closeAndCommit_noEffect() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		DatabaseFSBatch batch = createBatch(connection);
+		batch.getBatchConnection().commit();
+		batch.getBatchConnection().setAutoCommit(true);
+		batch.getBatchConnection().close();
+
+		assertEquals(0, connection.commits);
+		assertFalse(connection.autoCommit);
+		assertFalse(connection.closed);
+		batch.rollback();
+	}
+
+	@Test
+	public void commit_normal_committedOnceAndConnectionRestored() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		DatabaseFSBatch batch = createBatch(connection);
+		assertFalse(connection.autoCommit);
+		batch.addUpdate(SQL_INSERT, 1L, "a.txt");
+		batch.commit();
+		batch.close();
+
+		assertEquals(1, connection.commits);
+		assertEquals(0, connection.rollbacks);
+		assertTrue(connection.autoCommit);
+		assertTrue(connection.closed);
+		assertTrue(batch.isFinished());
+	}
+
+	@Test
+	public void close_notCommitted_rolledBack() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		try (DatabaseFSBatch batch = createBatch(connection)) {
+			batch.addUpdate(SQL_INSERT, 1L, "a.txt");
+		}
+
+		assertEquals(0, connection.commits);
+		assertEquals(1, connection.rollbacks);
+		assertEquals(0, connection.executedBatches.size());
+		assertTrue(connection.autoCommit);
+		assertTrue(connection.closed);
+	}
+
+	@Test
+	public void addUpdate_afterCommit_exception() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		DatabaseFSBatch batch = createBatch(connection);
+		batch.commit();
+
+		assertThrows(Exception.class, () -> batch.addUpdate(SQL_INSERT, 1L, "a.txt"));
+		assertThrows(Exception.class, () -> batch.getBatchConnection().prepareStatement(SQL_SELECT));
+	}
+
+	private DatabaseFSConfig createPoolConfig(int maxPoolSize, boolean withIDTable) throws Exception {
+		DatabaseFSConfig config = new DatabaseFSConfig();
+		config.setMaxPoolSize(maxPoolSize);
+		config.setConnectionPool(new DatabaseConnectionPool(config, new SimpleFSFEnvironment(0)));
+		if (withIDTable) {
+			config.setIdAllocator(new DatabaseIDAllocator(config));
+		}
+		return config;
+	}
+
+	@Test
+	public void verifyConnectionsAvailable_poolOfOneWithIDTable_exception() throws Exception {
+		DatabaseFSConfig config = createPoolConfig(1, true);
+		Exception exception = assertThrows(Exception.class, () -> DatabaseFSBatch.verifyConnectionsAvailable(config));
+		assertTrue(exception.getMessage().contains("at least 2"));
+	}
+
+	@Test
+	public void verifyConnectionsAvailable_enoughConnectionsOrNoIDTable_noException() throws Exception {
+		DatabaseFSBatch.verifyConnectionsAvailable(createPoolConfig(2, true));
+		DatabaseFSBatch.verifyConnectionsAvailable(createPoolConfig(1, false));
+		DatabaseFSBatch.verifyConnectionsAvailable(new DatabaseFSConfig());
+	}
+
+	@Test
+	public void getIDOfNewDirItem_dirCreatedInBatch_itemsKnown() throws Exception {
+		FakeConnection connection = new FakeConnection();
+		DatabaseFSBatch batch = createBatch(connection);
+		batch.entryInserted(0, "dir", 10, true);
+		batch.entryInserted(10, "a.txt", 11, false);
+
+		assertEquals(null, batch.getIDOfNewDirItem(0, "dir"));
+		assertEquals(11L, (long)batch.getIDOfNewDirItem(10, "a.txt"));
+		assertTrue(batch.getIDOfNewDirItem(10, "b.txt") < 0);
+
+		batch.dirItemsChanged(10);
+		assertEquals(null, batch.getIDOfNewDirItem(10, "b.txt"));
+		batch.rollback();
+	}
+
+	private static DatabaseFSConfig createH2Config(Connection connection) {
+		DatabaseFSConfig result = new DatabaseFSConfig();
+		result.setDbConnection(connection);
+		result.setAppName("myApp");
+		result.setTenantName("myTenant");
+		result.setFileTableName("FILESYSTEM");
+		result.setAutoCreateTable(true);
+		result.setSchemaName("PUBLIC");
+		return result;
+	}
+
+	@Test
+	public void rollback_idsReservedInBatchOnDbConnection_idsNotUsedTwice() throws Exception {
+		try (Connection connectionA = DriverManager.getConnection(H2_URL, "sa", "");
+				Connection connectionB = DriverManager.getConnection(H2_URL, "sa", "")) {
+			DatabaseFS fsA = new DatabaseFS(createH2Config(connectionA), new SimpleFSFEnvironment(0));
+			DatabaseFS fsB = new DatabaseFS(createH2Config(connectionB), new SimpleFSFEnvironment(0));
+
+			//: the block reserved by the batch is released again by the rollback of the batch
+			try (DatabaseFSBatch batch = fsA.beginBatch()) {
+				batch.getFS().createByPath("/rolledBack.txt").writeString("x");
+			}
+
+			fsB.createByPath("/b1.txt").writeString("b1");
+			fsA.createByPath("/a.txt").writeString("a");
+			fsB.createByPath("/b2.txt").writeString("b2");
+
+			assertEquals("a", fsB.createByPath("/a.txt").readString());
+			assertEquals("b2", fsA.createByPath("/b2.txt").readString());
+			assertFalse(fsA.createByPath("/rolledBack.txt").exists());
+			DatabaseFSUtil.dropFileTable(createH2Config(connectionA));
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+
+public class DatabaseFSSchemaMigrationTest {
+	private static final String H2_URL = "jdbc:h2:mem:DatabaseFSSchemaMigrationTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseFSConfig createConfig() {
+		DatabaseFSConfig result = new DatabaseFSConfig();
+		result.setDbUrl(H2_URL);
+		result.setDbDriverClassName("org.h2.Driver");
+		result.setDbUserName("sa");
+		result.setDbPassword("");
+		result.setAppName("myApp");
+		result.setTenantName("myTenant");
+		result.setFileTableName("FILESYSTEM");
+		result.setAutoCreateTable(true);
+		result.setSchemaName("PUBLIC");
+		return result;
+	}
+
+	@AfterEach
+	public void afterTest() throws Exception {
+		if (DatabaseFSUtil.doesFileTableExist(createConfig())) {
+			DatabaseFSUtil.dropFileTable(createConfig());
+		}
+	}
+
+	private int readMigrationStep(DatabaseFSConfig config) throws Exception {
+		String sql = "SELECT MIGRATION_STEP FROM " + DatabaseFSUtil.getSchemaAndVersionTable(config);
+		return DatabaseFSUtil.processQueryAsValue(config, sql, Integer.class);
+	}
+
+	@Test
+	public void migrateStep_fileDataWrittenBeforeColumnDropped_dataMovedAgain() throws Exception {
+		DatabaseFS fs = new DatabaseFS(createConfig());
+		fs.createByPath("/a.txt").writeString("a");
+
+		DatabaseFSSchemaMigration migration = new DatabaseFSSchemaMigration(createConfig());
+		assertFalse(migration.migrateStep());
+		assertEquals(1, readMigrationStep(createConfig()));
+
+		//: the file system has no chunk size and still writes to the FILE_DATA column
+		fs.createByPath("/b.txt").writeString("b");
+		assertFalse(migration.migrateStep());
+		assertEquals(2, readMigrationStep(createConfig()));
+		assertFalse(migration.migrateStep());
+		assertEquals(0, readMigrationStep(createConfig()));
+
+		migration.migrate();
+		assertEquals(2, migration.getMovedFiles());
+		DatabaseFS migratedFS = new DatabaseFS(createConfig());
+		assertEquals("a", migratedFS.createByPath("/a.txt").readString());
+		assertEquals("b", migratedFS.createByPath("/b.txt").readString());
+	}
+
+	@Test
+	public void migrateStep_fileDataWrittenWhenColumnIsDropped_writeRefused() throws Exception {
+		DatabaseFS fs = new DatabaseFS(createConfig());
+		FSFFile fileA = fs.createByPath("/a.txt").writeString("a");
+
+		DatabaseFSSchemaMigration migration = new DatabaseFSSchemaMigration(createConfig());
+		assertFalse(migration.migrateStep());
+		assertFalse(migration.migrateStep());
+		assertEquals(2, readMigrationStep(createConfig()));
+
+		assertThrows(Exception.class, () -> fileA.writeString("changed"));
+		assertThrows(Exception.class, () -> fs.createByPath("/b.txt").writeString("b"));
+
+		assertTrue(migration.migrateStep());
+		assertEquals(1, migration.getMovedFiles());
+		DatabaseFS migratedFS = new DatabaseFS(createConfig());
+		assertEquals("a", migratedFS.createByPath("/a.txt").readString());
+		assertFalse(migratedFS.createByPath("/b.txt").exists());
+	}
+
+}
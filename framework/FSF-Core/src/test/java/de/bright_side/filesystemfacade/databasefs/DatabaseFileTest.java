@@ -0,0 +1,74 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+
+public class DatabaseFileTest {
+	private static final String H2_URL = "jdbc:h2:mem:DatabaseFileTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseFSConfig createConfig() {
+		DatabaseFSConfig result = new DatabaseFSConfig();
+		result.setDbUrl(H2_URL);
+		result.setDbDriverClassName("org.h2.Driver");
+		result.setDbUserName("sa");
+		result.setDbPassword("");
+		result.setAppName("myApp");
+		result.setTenantName("myTenant");
+		result.setFileTableName("FILESYSTEM");
+		result.setAutoCreateTable(true);
+		result.setSchemaName("PUBLIC");
+		result.setChunkSize(4);
+		return result;
+	}
+
+	@AfterEach
+	public void afterTest() throws Exception {
+		if (DatabaseFSUtil.doesFileTableExist(createConfig())) {
+			DatabaseFSUtil.dropFileTable(createConfig());
+		}
+	}
+
+	/**
+	 * lets the deletion of the chunks fail by renaming the chunk table
+	 */
+	private void verifyDeleteFailedAtomically(DatabaseFSConfig config) throws Exception {
+		FSFFile file = new DatabaseFS(config).createByPath("/a.txt").writeString("content");
+		String chunkTable = DatabaseFSUtil.getSchemaAndChunkTable(config);
+		String chunkTableName = chunkTable.substring(chunkTable.indexOf('.') + 1);
+		DatabaseFSUtil.processUpdate(config, "ALTER TABLE " + chunkTable + " RENAME TO " + chunkTableName + "_MOVED");
+		try {
+			assertThrows(Exception.class, () -> file.delete());
+		} finally {
+			DatabaseFSUtil.processUpdate(config, "ALTER TABLE " + chunkTable + "_MOVED RENAME TO " + chunkTableName);
+		}
+
+		FSFFile fileOfOtherFS = new DatabaseFS(createConfig()).createByPath("/a.txt");
+		assertTrue(fileOfOtherFS.exists());
+		assertEquals("content", fileOfOtherFS.readString());
+	}
+
+	@Test
+	public void delete_deletingChunksFails_entryKept() throws Exception {
+		verifyDeleteFailedAtomically(createConfig());
+	}
+
+	@Test
+	public void delete_deletingChunksFailsWithDbConnection_entryKept() throws Exception {
+		try (Connection connection = DriverManager.getConnection(H2_URL, "sa", "")) {
+			DatabaseFSConfig config = createConfig();
+			config.setDbConnection(connection);
+			verifyDeleteFailedAtomically(config);
+			assertTrue(connection.getAutoCommit());
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class DatabaseIDAllocatorTest {
+
+	private static class TestIDAllocator extends DatabaseIDAllocator {
+		private final AtomicInteger allocatedBlocks = new AtomicInteger();
+		private long nextFreeID;
+
+		public TestIDAllocator(DatabaseFSConfig config, long firstFreeID) throws Exception {
+			super(config);
+			this.nextFreeID = firstFreeID;
+		}
+
+		@Override
+		protected synchronized long allocateBlock(int size) throws Exception {
+			allocatedBlocks.incrementAndGet();
+			long result = nextFreeID;
+			nextFreeID += size;
+			return result;
+		}
+	}
+
+	private DatabaseFSConfig createConfig(int idBlockSize) {
+		DatabaseFSConfig config = new DatabaseFSConfig();
+		config.setIdBlockSize(idBlockSize);
+		return config;
+	}
+
+	@Test
+	public void nextID_severalBlocks_consecutiveIDs() throws Exception {
+		TestIDAllocator allocator = new TestIDAllocator(createConfig(10), 1);
+		for (long i = 1; i <= 25; i++) {
+			assertEquals(i, allocator.nextID());
+		}
+		assertEquals(3, allocator.allocatedBlocks.get());
+	}
+
+	@Test
+	public void nextID_otherAllocatorsInBetween_blocksNotOverlapping() throws Exception {
+		final TestIDAllocator sharedTable = new TestIDAllocator(createConfig(5), 1);
+		DatabaseIDAllocator allocator1 = new DatabaseIDAllocator(createConfig(5)) {
+			@Override
+			protected long allocateBlock(int size) throws Exception {
+				return sharedTable.allocateBlock(size);
+			}
+		};
+		DatabaseIDAllocator allocator2 = new DatabaseIDAllocator(createConfig(5)) {
+			@Override
+			protected long allocateBlock(int size) throws Exception {
+				return sharedTable.allocateBlock(size);
+			}
+		};
+
+		assertEquals(1, allocator1.nextID());
+		assertEquals(6, allocator2.nextID());
+		assertEquals(2, allocator1.nextID());
+		assertEquals(7, allocator2.nextID());
+	}
+
+	@Test
+	public void nextID_multipleThreads_uniqueIDs() throws Exception {
+		final TestIDAllocator allocator = new TestIDAllocator(createConfig(7), 1);
+		final int numberOfThreads = 8;
+		final int idsPerThread = 1000;
+		final List<Long> ids = Collections.synchronizedList(new ArrayList<Long>());
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < numberOfThreads; i++) {
+			threads.add(new Thread(() -> {
+				try {
+					for (int j = 0; j < idsPerThread; j++) {
+						ids.add(allocator.nextID());
+					}
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			}));
+		}
+		for (Thread i: threads) {
+			i.start();
+		}
+		for (Thread i: threads) {
+			i.join();
+		}
+
+		Set<Long> uniqueIDs = new HashSet<>(ids);
+		assertEquals(numberOfThreads * idsPerThread, uniqueIDs.size());
+		assertEquals(numberOfThreads * idsPerThread, (long)Collections.max(uniqueIDs));
+	}
+
+	@Test
+	public void create_blockSizeZero_exception() throws Exception {
+		assertThrows(Exception.class, () -> new DatabaseIDAllocator(createConfig(0)));
+	}
+
+}
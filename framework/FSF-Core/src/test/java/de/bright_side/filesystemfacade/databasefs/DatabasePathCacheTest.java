@@ -0,0 +1,59 @@
+package de.bright_side.filesystemfacade.databasefs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class DatabasePathCacheTest {
+
+	@Test
+	public void putID_cacheFull_leastRecentlyUsedRemoved() throws Exception {
+		DatabasePathCache cache = new DatabasePathCache(2);
+		cache.putID("/a", 1);
+		cache.putID("/b", 2);
+		cache.getID("/a");
+		cache.putID("/c", 3);
+
+		assertEquals(2, cache.size());
+		assertEquals(Long.valueOf(1), cache.getID("/a"));
+		assertNull(cache.getID("/b"));
+		assertEquals(Long.valueOf(3), cache.getID("/c"));
+	}
+
+	@Test
+	public void putID_sizeZero_nothingCached() throws Exception {
+		DatabasePathCache cache = new DatabasePathCache(0);
+		cache.putID("/a", 1);
+
+		assertNull(cache.getID("/a"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void removeTree_dirWithSubItems_subItemsRemoved() throws Exception {
+		DatabasePathCache cache = new DatabasePathCache(10);
+		cache.putID("/dir", 1);
+		cache.putID("/dir/sub", 2);
+		cache.putID("/dir/sub/file.txt", 3);
+		cache.putID("/dir2", 4);
+		cache.putID("/dir2/file.txt", 5);
+		cache.putID("/other", 6);
+
+		cache.removeTree("/dir");
+
+		assertNull(cache.getID("/dir"));
+		assertNull(cache.getID("/dir/sub"));
+		assertNull(cache.getID("/dir/sub/file.txt"));
+		assertEquals(Long.valueOf(4), cache.getID("/dir2"));
+		assertEquals(Long.valueOf(5), cache.getID("/dir2/file.txt"));
+		assertEquals(Long.valueOf(6), cache.getID("/other"));
+	}
+
+	@Test
+	public void splitPath_normal() throws Exception {
+		assertEquals("[dir, sub, file.txt]", DatabaseFS.splitPath("/dir/sub/file.txt").toString());
+		assertEquals("[]", DatabaseFS.splitPath("").toString());
+	}
+
+}
@@ -0,0 +1,130 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+public class CompositeContentTest {
+	private static final String ENCODING = "UTF-8";
+	
+	private static MemoryFS createFS(MemoryFSContentStore store) {
+		return new MemoryFS(FSFFileUtil.createDefaultEnvironment(), new MemoryFSConfig().setContentStore(store));
+	}
+	
+	private static MemoryFSContent getContent(MemoryFS fs, String path) {
+		return fs.getItem(path).getContent();
+	}
+	
+	private static void appendLines(FSFFile file, int from, int to) throws Exception {
+		for (int i = from; i < to; i++) {
+			file.writeBytes(true, ("line " + i + "\n").getBytes(ENCODING));
+		}
+	}
+	
+	private static String createLines(int from, int to) {
+		StringBuilder result = new StringBuilder();
+		for (int i = from; i < to; i++) {
+			result.append("line " + i + "\n");
+		}
+		return result.toString();
+	}
+
+	@Test
+	public void writeBytes_append_partsAdded() throws Exception {
+		MemoryFS fs = createFS(new HeapContentStore());
+		FSFFile file = fs.createByPath("/log.txt");
+		file.writeString("");
+		appendLines(file, 0, 1000);
+		
+		MemoryFSContent content = getContent(fs, "/log.txt");
+		assertTrue(content instanceof CompositeContent);
+		assertEquals(1000, ((CompositeContent)content).getNumberOfParts());
+		assertEquals(createLines(0, 1000), file.readString());
+		assertEquals(createLines(0, 1000).length(), file.getLength());
+	}
+
+	@Test
+	public void getInputStream_range_compacted() throws Exception {
+		MemoryFS fs = createFS(new HeapContentStore());
+		FSFFile file = fs.createByPath("/log.txt");
+		appendLines(file, 0, 100);
+		String expected = createLines(0, 100);
+		
+		try (InputStream inputStream = file.getInputStream(15, 300)){
+			assertEquals(expected.substring(15, 315), new String(FSFFileUtil.readAllBytes(inputStream), ENCODING));
+		}
+		assertFalse(getContent(fs, "/log.txt") instanceof CompositeContent);
+		assertEquals(expected, file.readString());
+	}
+
+	@Test
+	public void getInputStream_rangeWithFewParts_notCompacted() throws Exception {
+		MemoryFS fs = createFS(new HeapContentStore());
+		FSFFile file = fs.createByPath("/log.txt");
+		appendLines(file, 0, 5);
+		String expected = createLines(0, 5);
+		
+		try (InputStream inputStream = file.getInputStream(5, 20)){
+			assertEquals(expected.substring(5, 25), new String(FSFFileUtil.readAllBytes(inputStream), ENCODING));
+		}
+		try (InputStream inputStream = file.getInputStream(expected.length() - 3, 20)){
+			assertEquals(expected.substring(expected.length() - 3), new String(FSFFileUtil.readAllBytes(inputStream), ENCODING));
+		}
+		assertTrue(getContent(fs, "/log.txt") instanceof CompositeContent);
+	}
+	
+	@Test
+	public void writeBytes_appendToCopies_independent() throws Exception {
+		MemoryFS fs = createFS(new HeapContentStore());
+		FSFFile file = fs.createByPath("/a.txt");
+		appendLines(file, 0, 3);
+		FSFFile copy = fs.createByPath("/b.txt");
+		file.copyTo(copy);
+		
+		appendLines(copy, 100, 102);
+		appendLines(file, 3, 5);
+		appendLines(copy, 102, 103);
+		
+		assertEquals(createLines(0, 5), file.readString());
+		assertEquals(createLines(0, 3) + createLines(100, 103), copy.readString());
+	}
+	
+	@Test
+	public void getInputStream_appendWhileReading_streamReadsPreviousContent() throws Exception {
+		MemoryFS fs = createFS(new HeapContentStore());
+		FSFFile file = fs.createByPath("/log.txt");
+		appendLines(file, 0, 3);
+		
+		try (InputStream inputStream = file.getInputStream()){
+			appendLines(file, 3, 6);
+			assertEquals(createLines(0, 3), new String(FSFFileUtil.readAllBytes(inputStream), ENCODING));
+		}
+		assertEquals(createLines(0, 6), file.readString());
+	}
+
+	@Test
+	public void delete_offHeapAppendedAndCopied_allChunksFreed() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(1024 * 1024, 16, 1024);
+		MemoryFS fs = createFS(store);
+		FSFFile file = fs.createByPath("/a.txt");
+		appendLines(file, 0, 50);
+		file.copyTo(fs.createByPath("/b.txt"));
+		appendLines(file, 50, 60);
+		appendLines(fs.createByPath("/b.txt"), 60, 70);
+		assertEquals(createLines(0, 60), file.readString());
+		assertEquals(createLines(0, 50) + createLines(60, 70), fs.createByPath("/b.txt").readString());
+		
+		file.delete();
+		fs.createByPath("/b.txt").delete();
+		assertEquals(0, store.getStatistics().getUsedChunks());
+		assertEquals(0, store.getStatistics().getStoredBytes());
+	}
+
+}
@@ -0,0 +1,240 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+/**
+ * stress tests of the concurrent mode of the MemoryFS: multiple threads change and read the same directories and files
+ */
+public class ConcurrentMemoryFSTest {
+	private static final int NUMBER_OF_THREADS = 8;
+	private static final int DATA_SIZE = 1000;
+	
+	private static MemoryFS createFS() {
+		return new MemoryFS(FSFFileUtil.createDefaultEnvironment(), true);
+	}
+	
+	/**
+	 * runs the task in the given number of threads which all start at the same time and waits until all are done
+	 * @return the first exception thrown by a task or null
+	 */
+	private static Throwable runInThreads(int numberOfThreads, final ThreadTask task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final AtomicReference<Throwable> firstError = new AtomicReference<>();
+		for (int i = 0; i < numberOfThreads; i++) {
+			final int threadIndex = i;
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						startLatch.await();
+						task.run(threadIndex);
+					} catch (Throwable e) {
+						firstError.compareAndSet(null, e);
+					}
+				}
+			});
+		}
+		startLatch.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+		return firstError.get();
+	}
+	
+	private static void assertNoError(Throwable error) {
+		if (error != null) {
+			throw new AssertionError("Error in thread: " + error, error);
+		}
+	}
+	
+	/**
+	 * verifies that each child listed in a directory exists and that each item is listed in its parent
+	 */
+	private static void assertConsistent(MemoryFS fs, String dirPath) {
+		for (String i: fs.getChildPathsOrEmpty(dirPath)) {
+			MemoryFSItem item = fs.getItem(i);
+			assertNotNull(item, "Listed child does not exist: '" + i + "'");
+			assertEquals(dirPath, MemoryFSUtil.getParentPath(i));
+			if (item.isDir()) {
+				assertConsistent(fs, i);
+			}
+		}
+	}
+	
+	@Test
+	public void writeBytes_appendFromManyThreads_noBytesLost() throws Exception {
+		MemoryFS fs = createFS();
+		final FSFFile file = fs.createByPath("/dir/file.bin");
+		file.getParentFile().mkdirs();
+		final int appendsPerThread = 200;
+		
+		assertNoError(runInThreads(NUMBER_OF_THREADS, new ThreadTask() {
+			@Override
+			public void run(int threadIndex) throws Exception {
+				for (int i = 0; i < appendsPerThread; i++) {
+					file.writeBytes(true, new byte[10]);
+				}
+			}
+		}));
+		
+		assertEquals(NUMBER_OF_THREADS * appendsPerThread * 10, file.getLength());
+	}
+	
+	@Test
+	public void readBytes_whileWriting_onlyCompleteContent() throws Exception {
+		MemoryFS fs = createFS();
+		final FSFFile file = fs.createByPath("/file.bin");
+		file.writeBytes(false, createData((byte)0));
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final int numberOfWriters = NUMBER_OF_THREADS / 2;
+		
+		assertNoError(runInThreads(NUMBER_OF_THREADS, new ThreadTask() {
+			@Override
+			public void run(int threadIndex) throws Exception {
+				if (threadIndex < numberOfWriters) {
+					for (int i = 0; i < 500; i++) {
+						file.writeBytes(false, createData((byte)(threadIndex + 1)));
+					}
+					writing.set(false);
+				} else {
+					while (writing.get()) {
+						byte[] data = file.readBytes();
+						assertEquals(DATA_SIZE, data.length);
+						for (byte i: data) {
+							assertEquals(data[0], i);
+						}
+					}
+				}
+			}
+		}));
+	}
+
+	@Test
+	public void mkdirs_sameTreeFromManyThreads_consistent() throws Exception {
+		final MemoryFS fs = createFS();
+		
+		assertNoError(runInThreads(NUMBER_OF_THREADS, new ThreadTask() {
+			@Override
+			public void run(int threadIndex) throws Exception {
+				for (int i = 0; i < 100; i++) {
+					fs.createByPath("/a/b/c/d" + (i % 10) + "/e" + threadIndex).mkdirs();
+				}
+			}
+		}));
+		
+		assertConsistent(fs, "");
+		assertEquals(10, fs.createByPath("/a/b/c").listFiles().size());
+		assertEquals(NUMBER_OF_THREADS, fs.createByPath("/a/b/c/d3").listFiles().size());
+	}
+	
+	@Test
+	public void moveTo_betweenDirsFromManyThreads_noFileLostOrDuplicated() throws Exception {
+		final MemoryFS fs = createFS();
+		final int numberOfFiles = 100;
+		final FSFFile leftDir = fs.createByPath("/left").mkdirs();
+		final FSFFile rightDir = fs.createByPath("/right").mkdirs();
+		for (int i = 0; i < numberOfFiles; i++) {
+			leftDir.getChild("file" + i + ".txt").writeString("content " + i);
+		}
+		
+		assertNoError(runInThreads(NUMBER_OF_THREADS, new ThreadTask() {
+			@Override
+			public void run(int threadIndex) throws Exception {
+				Random random = new Random(threadIndex);
+				for (int i = 0; i < 300; i++) {
+					String name = "file" + random.nextInt(numberOfFiles) + ".txt";
+					boolean toRight = random.nextBoolean();
+					FSFFile source = (toRight ? leftDir : rightDir).getChild(name);
+					FSFFile dest = (toRight ? rightDir : leftDir).getChild(name);
+					try {
+						source.moveTo(dest);
+					} catch (Exception e) {
+						//: the file may have been moved by another thread in the meantime. This cannot be checked by source.exists()
+						//: afterwards because another thread may already have moved the file back
+						if (!e.getMessage().startsWith("The file to be moved does not exist")) {
+							throw e;
+						}
+					}
+				}
+			}
+		}));
+		
+		assertConsistent(fs, "");
+		Set<String> names = new TreeSet<>();
+		List<FSFFile> files = new ArrayList<>(leftDir.listFiles());
+		files.addAll(rightDir.listFiles());
+		for (FSFFile i: files) {
+			assertTrue(names.add(i.getName()), "File exists in both directories: " + i.getName());
+			String number = i.getName().substring("file".length(), i.getName().length() - ".txt".length());
+			assertEquals("content " + number, i.readString());
+		}
+		assertEquals(numberOfFiles, names.size());
+	}
+	
+	@Test
+	public void listFilesWithAttributes_whileCreatingAndDeleting_noException() throws Exception {
+		final MemoryFS fs = createFS();
+		final FSFFile dir = fs.createByPath("/dir").mkdirs();
+		final AtomicBoolean changing = new AtomicBoolean(true);
+		final int numberOfWriters = NUMBER_OF_THREADS / 2;
+		
+		assertNoError(runInThreads(NUMBER_OF_THREADS, new ThreadTask() {
+			@Override
+			public void run(int threadIndex) throws Exception {
+				if (threadIndex < numberOfWriters) {
+					for (int i = 0; i < 1000; i++) {
+						FSFFile file = dir.getChild("file" + threadIndex + "_" + (i % 20) + ".txt");
+						if (i % 40 < 20) {
+							file.writeString("x");
+						} else {
+							file.delete();
+						}
+					}
+					changing.set(false);
+				} else {
+					while (changing.get()) {
+						for (FSFFileAttributes i: dir.listFilesWithAttributes()) {
+							assertTrue(i.getFile().getName().startsWith("file"));
+						}
+						dir.listFiles();
+					}
+				}
+			}
+		}));
+		
+		assertConsistent(fs, "");
+		assertEquals(0, dir.listFiles().size());
+	}
+	
+	private static byte[] createData(byte value) {
+		byte[] result = new byte[DATA_SIZE];
+		Arrays.fill(result, value);
+		return result;
+	}
+	
+	private interface ThreadTask{
+		void run(int threadIndex) throws Exception;
+	}
+
+}
@@ -0,0 +1,168 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+import de.bright_side.filesystemfacade.util.SimpleFSFEnvironment;
+
+public class MemoryFSImageTest {
+	private static final long TIME_001 = 1000000;
+	private static final long TIME_002 = 2000000;
+	private static final String LONG_CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+	private File imageFile;
+
+	@BeforeEach
+	public void createImageFile() throws Exception {
+		imageFile = Files.createTempFile("MemoryFSImageTest", ".img").toFile();
+	}
+
+	@AfterEach
+	public void deleteImageFile() throws Exception {
+		imageFile.delete();
+	}
+
+	private static MemoryFS createFixture() throws Exception {
+		MemoryFS fs = new MemoryFS(new SimpleFSFEnvironment(TIME_001));
+		fs.createByPath("/dir/sub/empty").mkdirs();
+		fs.createByPath("/dir/a.txt").writeString("a");
+		fs.createByPath("/dir/sub/b.txt").writeString(LONG_CONTENT);
+		fs.createByPath("/dir/sub/empty.txt").writeString("");
+		fs.createByPath("/c.txt").writeString("c");
+		fs.createByPath("/c.txt").setTimeCreated(TIME_002);
+		return fs;
+	}
+
+	private static String listDir(MemoryFS fs) throws Exception {
+		return fs.createByPath("").listFilesTree().toString();
+	}
+
+	@Test
+	public void load_writtenImage_sameFilesAndContent() throws Exception {
+		MemoryFS fs = createFixture();
+		MemoryFSImage.write(fs, imageFile);
+
+		MemoryFS result = MemoryFSImage.load(imageFile);
+
+		assertEquals(listDir(fs), listDir(result));
+		assertEquals("a", result.createByPath("/dir/a.txt").readString());
+		assertEquals(LONG_CONTENT, result.createByPath("/dir/sub/b.txt").readString());
+		assertEquals("", result.createByPath("/dir/sub/empty.txt").readString());
+		assertEquals(0, result.createByPath("/dir/sub/empty.txt").getLength());
+		assertTrue(result.createByPath("/dir/sub/empty").isDirectory());
+		assertEquals(0, result.createByPath("/dir/sub/empty").listFiles().size());
+		assertEquals("c", result.createByPath("/c.txt").readString());
+	}
+
+	@Test
+	public void load_writtenImage_timesKept() throws Exception {
+		MemoryFSImage.write(createFixture(), imageFile);
+
+		MemoryFS result = MemoryFSImage.load(imageFile);
+
+		assertEquals(TIME_001, result.createByPath("/dir/a.txt").getTimeLastModified());
+		assertEquals(TIME_001, result.createByPath("/dir/sub").getTimeCreated());
+		assertEquals(TIME_002, result.createByPath("/c.txt").getTimeCreated());
+	}
+
+	@Test
+	public void load_smallSegments_contentSpansSegments() throws Exception {
+		MemoryFSImage.write(createFixture(), imageFile);
+
+		MemoryFS result = MemoryFSImage.load(imageFile, FSFFileUtil.createDefaultEnvironment(), new MemoryFSConfig(), 7);
+
+		assertEquals(LONG_CONTENT, result.createByPath("/dir/sub/b.txt").readString());
+		byte[] range = new byte[5];
+		try (InputStream inputStream = result.getItem("/dir/sub/b.txt").getInputStream(11, 5)){
+			assertEquals(5, inputStream.read(range));
+		}
+		assertEquals("bcdef", new String(range, "UTF-8"));
+		assertEquals(TIME_002, result.createByPath("/c.txt").getTimeCreated());
+		assertEquals(listDir(createFixture()), listDir(result));
+	}
+
+	@Test
+	public void load_writeAfterLoad_mappedContentReplaced() throws Exception {
+		MemoryFSImage.write(createFixture(), imageFile);
+		MemoryFS result = MemoryFSImage.load(imageFile);
+		assertTrue(result.getItem("/dir/a.txt").getContent() instanceof MappedContent);
+
+		result.createByPath("/dir/a.txt").writeString("new a");
+		result.createByPath("/c.txt").writeBytes(true, "c".getBytes("UTF-8"));
+		result.createByPath("/dir/sub/b.txt").delete();
+		result.createByPath("/dir/sub").rename("renamed");
+
+		assertFalse(result.getItem("/dir/a.txt").getContent() instanceof MappedContent);
+		assertEquals("new a", result.createByPath("/dir/a.txt").readString());
+		assertEquals("cc", result.createByPath("/c.txt").readString());
+		assertFalse(result.createByPath("/dir/renamed/b.txt").exists());
+		assertEquals("", result.createByPath("/dir/renamed/empty.txt").readString());
+		assertEquals("a", MemoryFSImage.load(imageFile).createByPath("/dir/a.txt").readString());
+	}
+
+	@Test
+	public void load_offHeapConfig_writtenContentInStore() throws Exception {
+		MemoryFSImage.write(createFixture(), imageFile);
+		OffHeapContentStore store = new OffHeapContentStore(1024, 16, 64);
+
+		MemoryFS result = MemoryFSImage.load(imageFile, FSFFileUtil.createDefaultEnvironment(), new MemoryFSConfig().setContentStore(store));
+		assertEquals(0, store.getStatistics().getUsedChunks());
+		result.createByPath("/dir/a.txt").writeString("new a");
+
+		assertEquals(1, store.getStatistics().getUsedChunks());
+		assertEquals("new a", result.createByPath("/dir/a.txt").readString());
+		assertEquals(LONG_CONTENT, result.createByPath("/dir/sub/b.txt").readString());
+	}
+
+	@Test
+	public void write_snapshot_imageOfSnapshot() throws Exception {
+		MemoryFS fs = createFixture();
+		MemoryFS snapshot = fs.snapshot();
+		fs.createByPath("/c.txt").writeString("new c");
+
+		MemoryFSImage.write(snapshot, imageFile);
+
+		assertEquals("c", MemoryFSImage.load(imageFile).createByPath("/c.txt").readString());
+	}
+
+	@Test
+	public void load_emptyFileSystem_onlyRoot() throws Exception {
+		MemoryFSImage.write(new MemoryFS(), imageFile);
+
+		MemoryFS result = MemoryFSImage.load(imageFile);
+
+		assertEquals(0, result.createByPath("").listFiles().size());
+	}
+
+	@Test
+	public void load_noImage_exception() throws Exception {
+		try (OutputStream outputStream = new FileOutputStream(imageFile)){
+			outputStream.write("not an image".getBytes("UTF-8"));
+		}
+
+		assertThrows(Exception.class, () -> MemoryFSImage.load(imageFile));
+	}
+
+	@Test
+	public void load_truncatedImage_exception() throws Exception {
+		MemoryFSImage.write(createFixture(), imageFile);
+		byte[] bytes = Files.readAllBytes(imageFile.toPath());
+		Files.write(imageFile.toPath(), Arrays.copyOf(bytes, bytes.length - 10));
+
+		assertThrows(Exception.class, () -> MemoryFSImage.load(imageFile));
+	}
+
+}
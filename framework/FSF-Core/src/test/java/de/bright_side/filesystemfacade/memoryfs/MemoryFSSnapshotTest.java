@@ -0,0 +1,244 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+public class MemoryFSSnapshotTest {
+	private static final String ENCODING = "UTF-8";
+	private static final int CHUNK_SIZE = 16;
+	private static final int SLAB_SIZE = 64;
+	/** needs two chunks */
+	private static final String LONG_CONTENT = "0123456789abcdefghij";
+
+	private static MemoryFS createFS(MemoryFSContentStore store, boolean concurrent) {
+		return new MemoryFS(FSFFileUtil.createDefaultEnvironment(), new MemoryFSConfig().setContentStore(store).setConcurrent(concurrent));
+	}
+
+	private static MemoryFS createFixture() throws Exception {
+		MemoryFS fs = createFS(new HeapContentStore(), false);
+		fs.createByPath("/dir/sub").mkdirs();
+		fs.createByPath("/dir/a.txt").writeString("a");
+		fs.createByPath("/dir/sub/b.txt").writeString("b");
+		fs.createByPath("/c.txt").writeString("c");
+		return fs;
+	}
+
+	private static String listDir(MemoryFS fs) throws Exception {
+		return fs.createByPath("").listFilesTree().toString();
+	}
+
+	@Test
+	public void snapshot_changesAfterSnapshot_snapshotUnchanged() throws Exception {
+		MemoryFS fs = createFixture();
+		String listingBefore = listDir(fs);
+		MemoryFS snapshot = fs.snapshot();
+
+		fs.createByPath("/dir/a.txt").writeString("new a");
+		fs.createByPath("/dir/sub/b.txt").writeBytes(true, "b".getBytes(ENCODING));
+		fs.createByPath("/c.txt").delete();
+		fs.createByPath("/d.txt").writeString("d");
+		fs.createByPath("/dir/sub").rename("renamed");
+
+		assertTrue(snapshot.isSnapshot());
+		assertFalse(fs.isSnapshot());
+		assertEquals(listingBefore, listDir(snapshot));
+		assertEquals("a", snapshot.createByPath("/dir/a.txt").readString());
+		assertEquals("b", snapshot.createByPath("/dir/sub/b.txt").readString());
+		assertEquals("c", snapshot.createByPath("/c.txt").readString());
+		assertFalse(snapshot.createByPath("/d.txt").exists());
+
+		assertEquals("new a", fs.createByPath("/dir/a.txt").readString());
+		assertEquals("bb", fs.createByPath("/dir/renamed/b.txt").readString());
+		assertFalse(fs.createByPath("/c.txt").exists());
+		assertEquals("d", fs.createByPath("/d.txt").readString());
+	}
+
+	@Test
+	public void snapshot_moveDirAfterSnapshot_onlyPathCopied() throws Exception {
+		MemoryFS fs = createFixture();
+		MemoryFS snapshot = fs.snapshot();
+		
+		fs.createByPath("/dir/sub").moveTo(fs.createByPath("/movedSub"));
+		
+		assertEquals("b", fs.createByPath("/movedSub/b.txt").readString());
+		assertEquals("b", snapshot.createByPath("/dir/sub/b.txt").readString());
+		assertFalse(snapshot.createByPath("/movedSub").exists());
+		assertFalse(fs.createByPath("/dir/sub").exists());
+		//: the moved directory is only referenced by another parent, the unchanged directories and files are still shared
+		assertSame(snapshot.getItem("/dir/sub"), fs.getItem("/movedSub"));
+		assertSame(snapshot.getItem("/dir/a.txt"), fs.getItem("/dir/a.txt"));
+	}
+
+	@Test
+	public void snapshot_setTime_snapshotUnchanged() throws Exception {
+		MemoryFS fs = createFixture();
+		FSFFile file = fs.createByPath("/c.txt");
+		file.setTimeLastModified(1000L);
+		file.setTimeCreated(500L);
+		MemoryFS snapshot = fs.snapshot();
+
+		file.setTimeLastModified(2000L);
+		file.setTimeCreated(1500L);
+
+		assertEquals(1000L, snapshot.createByPath("/c.txt").getTimeLastModified());
+		assertEquals(500L, snapshot.createByPath("/c.txt").getTimeCreated());
+		assertEquals(2000L, file.getTimeLastModified());
+		assertEquals(1500L, file.getTimeCreated());
+	}
+
+	@Test
+	public void snapshot_contentShared() throws Exception {
+		MemoryFS fs = createFixture();
+		MemoryFS snapshot = fs.snapshot();
+		fs.createByPath("/c.txt").writeString("new c");
+
+		assertSame(fs.getItem("/dir/a.txt").getContent(), snapshot.getItem("/dir/a.txt").getContent());
+		assertEquals("new c", fs.createByPath("/c.txt").readString());
+		assertEquals("c", snapshot.createByPath("/c.txt").readString());
+	}
+
+	@Test
+	public void snapshot_changeSnapshot_fails() throws Exception {
+		MemoryFS snapshot = createFixture().snapshot();
+
+		assertThrows(Exception.class, () -> snapshot.createByPath("/c.txt").writeString("x"));
+		assertThrows(Exception.class, () -> snapshot.createByPath("/c.txt").delete());
+		assertThrows(Exception.class, () -> snapshot.createByPath("/dir").deleteTree());
+		assertThrows(Exception.class, () -> snapshot.createByPath("/c.txt").rename("x.txt"));
+		assertThrows(Exception.class, () -> snapshot.createByPath("/dir/a.txt").copyTo(snapshot.createByPath("/x.txt")));
+		assertThrows(Exception.class, () -> createFixture().createByPath("/dir").copyFilesTree(snapshot.createByPath("/copy")));
+		snapshot.createByPath("/newDir").mkdirs();
+
+		assertFalse(snapshot.createByPath("/newDir").exists());
+		assertFalse(snapshot.createByPath("/x.txt").exists());
+		assertEquals("c", snapshot.createByPath("/c.txt").readString());
+	}
+
+	@Test
+	public void snapshot_outputStreamOpenedBeforeSnapshot_writtenToFileSystemOnly() throws Exception {
+		MemoryFS fs = createFixture();
+		OutputStream outputStream = fs.createByPath("/c.txt").getOutputStream(true);
+		outputStream.write("123".getBytes(ENCODING));
+		MemoryFS snapshot = fs.snapshot();
+		outputStream.close();
+
+		assertEquals("c123", fs.createByPath("/c.txt").readString());
+		assertEquals("c", snapshot.createByPath("/c.txt").readString());
+	}
+
+	@Test
+	public void copyFilesTree_fromSnapshotToNewFS_contentShared() throws Exception {
+		MemoryFS fs = createFixture();
+		MemoryFS snapshot = fs.snapshot();
+		MemoryFS fork = createFS(fs.getContentStore(), false);
+
+		snapshot.createByPath("").copyFilesTree(fork.createByPath(""));
+		fork.createByPath("/c.txt").writeString("fork c");
+
+		assertEquals("a", fork.createByPath("/dir/a.txt").readString());
+		assertEquals("b", fork.createByPath("/dir/sub/b.txt").readString());
+		assertSame(fs.getItem("/dir/sub/b.txt").getContent(), fork.getItem("/dir/sub/b.txt").getContent());
+		assertEquals("fork c", fork.createByPath("/c.txt").readString());
+		assertEquals("c", fs.createByPath("/c.txt").readString());
+	}
+
+	@Test
+	public void releaseSnapshot_offHeap_chunksOfReplacedContentFreed() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE);
+		MemoryFS fs = createFS(store, false);
+		fs.createByPath("/a.txt").writeString(LONG_CONTENT);
+		fs.createByPath("/b.txt").writeString("b");
+		assertEquals(3, store.getStatistics().getUsedChunks());
+
+		MemoryFS snapshot = fs.snapshot();
+		fs.createByPath("/a.txt").writeString("new a");
+		fs.createByPath("/b.txt").delete();
+		assertEquals(4, store.getStatistics().getUsedChunks());
+		assertEquals(LONG_CONTENT, snapshot.createByPath("/a.txt").readString());
+		assertEquals("b", snapshot.createByPath("/b.txt").readString());
+
+		snapshot.releaseSnapshot();
+		assertEquals(1, store.getStatistics().getUsedChunks());
+		assertEquals("new a", fs.createByPath("/a.txt").readString());
+	}
+
+	@Test
+	public void releaseSnapshot_unchangedFileSystem_contentKept() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE);
+		MemoryFS fs = createFS(store, false);
+		fs.createByPath("/a.txt").writeString("a");
+
+		fs.snapshot().releaseSnapshot();
+		fs.createByPath("/b.txt").writeString("b");
+
+		assertEquals("a", fs.createByPath("/a.txt").readString());
+		assertEquals(2, store.getStatistics().getUsedChunks());
+		assertThrows(IllegalStateException.class, () -> fs.releaseSnapshot());
+	}
+
+	@Test
+	public void snapshot_concurrentWriters_snapshotsConsistent() throws Exception {
+		final MemoryFS fs = createFS(new HeapContentStore(), true);
+		final int numberOfFiles = 50;
+		for (int i = 0; i < numberOfFiles; i++) {
+			fs.createByPath("/file" + i + ".txt").writeString("0");
+		}
+
+		final AtomicBoolean stopped = new AtomicBoolean(false);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			//: each round writes the round number to all files so that a consistent snapshot contains the same number in all files
+			futures.add(executor.submit(() -> {
+				int round = 1;
+				while (!stopped.get()) {
+					fs.getNamespaceLock().lock();
+					try {
+						for (int i = 0; i < numberOfFiles; i++) {
+							fs.createByPath("/file" + i + ".txt").writeString("" + round);
+						}
+					} finally {
+						fs.getNamespaceLock().unlock();
+					}
+					round ++;
+				}
+				return null;
+			}));
+			futures.add(executor.submit(() -> {
+				for (int run = 0; run < 200; run++) {
+					MemoryFS snapshot = fs.snapshot();
+					String expected = snapshot.createByPath("/file0.txt").readString();
+					for (int i = 1; i < numberOfFiles; i++) {
+						assertEquals(expected, snapshot.createByPath("/file" + i + ".txt").readString());
+					}
+				}
+				return null;
+			}));
+			futures.get(1).get(60, TimeUnit.SECONDS);
+		} finally {
+			stopped.set(true);
+			executor.shutdown();
+		}
+		for (Future<?> i: futures) {
+			i.get(60, TimeUnit.SECONDS);
+		}
+	}
+
+}
@@ -3,6 +3,8 @@ package de.bright_side.filesystemfacade.memoryfs;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.OutputStream;
@@ -831,6 +833,72 @@ public class MemoryFileTest{
 		assertEquals(text2, dirB.getChild("helloTwo.txt").readString());
 	}
 
+	@Test
+	public void test_rename_dirWithSubItems_itemsNotCopied() throws Exception{
+		MemoryFS memoryFS = createFS();
+		FSFFile file = memoryFS.createByPath("/dir1/dir2/dir3/myFile.txt");
+		file.getParentFile().mkdirs();
+		file.writeString("Hello!");
+		memoryFS.createByPath("/dir1").setTimeLastModified(1000L);
+		MemoryFSItem dir2Item = memoryFS.getItem("/dir1/dir2");
+		MemoryFSItem fileItem = memoryFS.getItem("/dir1/dir2/dir3/myFile.txt");
+		
+		memoryFS.createByPath("/dir1").rename("newDir1");
+		
+		assertFalse(memoryFS.createByPath("/dir1").exists());
+		assertSame(dir2Item, memoryFS.getItem("/newDir1/dir2"));
+		assertSame(fileItem, memoryFS.getItem("/newDir1/dir2/dir3/myFile.txt"));
+		assertEquals("Hello!", memoryFS.createByPath("/newDir1/dir2/dir3/myFile.txt").readString());
+		assertEquals(1000L, memoryFS.createByPath("/newDir1").getTimeLastModified());
+	}
+
+	@Test
+	public void test_moveTo_dirToOtherDir_itemsNotCopied() throws Exception{
+		MemoryFS memoryFS = createFS();
+		memoryFS.createByPath("/dirA/sub").mkdirs();
+		memoryFS.createByPath("/dirB").mkdirs();
+		memoryFS.createByPath("/dirA/sub/hello.txt").writeString("Hello!");
+		MemoryFSItem subItem = memoryFS.getItem("/dirA/sub");
+		
+		memoryFS.createByPath("/dirA/sub").moveTo(memoryFS.createByPath("/dirB/movedSub"));
+		
+		assertTrue(memoryFS.createByPath("/dirA").listFiles().isEmpty());
+		assertSame(subItem, memoryFS.getItem("/dirB/movedSub"));
+		assertEquals("Hello!", memoryFS.createByPath("/dirB/movedSub/hello.txt").readString());
+	}
 
+	@Test
+	public void test_moveTo_intoOwnSubDir_exception() throws Exception{
+		MemoryFS memoryFS = createFS();
+		memoryFS.createByPath("/dirA/sub").mkdirs();
+		
+		assertThrows(Exception.class, () -> memoryFS.createByPath("/dirA").moveTo(memoryFS.createByPath("/dirA/sub/dirA")));
+		assertTrue(memoryFS.createByPath("/dirA/sub").exists());
+	}
+
+	@Test
+	public void test_listFiles_namesShared() throws Exception{
+		MemoryFS memoryFS = createFS();
+		memoryFS.createByPath("/dir1").mkdirs();
+		memoryFS.createByPath("/dir2").mkdirs();
+		memoryFS.createByPath(new StringBuilder("/dir1/file.txt").toString()).writeString("1");
+		memoryFS.createByPath(new StringBuilder("/dir2/file.txt").toString()).writeString("2");
+		
+		List<FSFFile> files1 = memoryFS.createByPath("/dir1").listFiles();
+		List<FSFFile> files2 = memoryFS.createByPath("/dir2").listFiles();
+		
+		assertSame(files1.get(0).getName(), files2.get(0).getName());
+		assertEquals("/dir1/file.txt", files1.get(0).getAbsolutePath());
+		assertEquals("1", files1.get(0).readString());
+	}
+
+	@Test
+	public void test_mkdir_parentMissing_notCreated() throws Exception{
+		MemoryFS memoryFS = createFS();
+		memoryFS.createByPath("/dir1/dir2").mkdir();
+		
+		assertFalse(memoryFS.createByPath("/dir1/dir2").exists());
+		assertFalse(memoryFS.createByPath("/dir1").exists());
+	}
 	
 }
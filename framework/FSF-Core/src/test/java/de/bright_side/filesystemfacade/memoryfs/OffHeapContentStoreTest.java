@@ -0,0 +1,160 @@
+package de.bright_side.filesystemfacade.memoryfs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+public class OffHeapContentStoreTest {
+	private static final int CHUNK_SIZE = 16;
+	private static final int SLAB_SIZE = 64;
+	
+	private static MemoryFS createFS(OffHeapContentStore store) {
+		return new MemoryFS(FSFFileUtil.createDefaultEnvironment(), new MemoryFSConfig().setContentStore(store));
+	}
+	
+	private static byte[] createData(int length) {
+		byte[] result = new byte[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = (byte)i;
+		}
+		return result;
+	}
+
+	@Test
+	public void writeBytes_readBytesAndStreamsAcrossChunks() throws Exception {
+		MemoryFS fs = createFS(new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE));
+		FSFFile file = fs.createByPath("/file.bin");
+		byte[] data = createData(50);
+		file.writeBytes(false, data);
+		
+		assertEquals(50, file.getLength());
+		assertArrayEquals(data, file.readBytes());
+		try (InputStream inputStream = file.getInputStream()){
+			assertArrayEquals(data, FSFFileUtil.readAllBytes(inputStream));
+		}
+		try (InputStream inputStream = file.getInputStream(10, 30)){
+			assertArrayEquals(Arrays.copyOfRange(data, 10, 40), FSFFileUtil.readAllBytes(inputStream));
+		}
+		try (InputStream inputStream = file.getInputStream(45, 100)){
+			assertArrayEquals(Arrays.copyOfRange(data, 45, 50), FSFFileUtil.readAllBytes(inputStream));
+		}
+	}
+
+	@Test
+	public void getStatistics_usedStoredAndFragmentation() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE);
+		MemoryFS fs = createFS(store);
+		fs.createByPath("/a.bin").writeBytes(false, createData(20));
+		fs.createByPath("/b.bin").writeBytes(false, createData(4));
+		
+		OffHeapStatistics statistics = store.getStatistics();
+		assertEquals(3, statistics.getUsedChunks());
+		assertEquals(48, statistics.getUsedBytes());
+		assertEquals(24, statistics.getStoredBytes());
+		assertEquals(0.5, statistics.getFragmentation(), 0.0001);
+		assertEquals(1024 - 48, statistics.getFreeBytes());
+		assertEquals(1, statistics.getNumberOfSlabs());
+	}
+
+	@Test
+	public void delete_chunksReused() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE);
+		MemoryFS fs = createFS(store);
+		fs.createByPath("/a.bin").writeBytes(false, createData(64));
+		assertEquals(64, store.getStatistics().getReservedBytes());
+		
+		fs.createByPath("/a.bin").delete();
+		assertEquals(0, store.getStatistics().getUsedChunks());
+		assertEquals(4, store.getStatistics().getFreeChunks());
+		
+		fs.createByPath("/b.bin").writeBytes(false, createData(64));
+		assertEquals(0, store.getStatistics().getFreeChunks());
+		assertEquals(64, store.getStatistics().getReservedBytes());
+		assertArrayEquals(createData(64), fs.createByPath("/b.bin").readBytes());
+	}
+	
+	@Test
+	public void writeBytes_overwrite_previousChunksFreed() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE);
+		MemoryFS fs = createFS(store);
+		FSFFile file = fs.createByPath("/a.bin");
+		for (int i = 0; i < 100; i++) {
+			file.writeBytes(false, createData(40));
+		}
+		assertEquals(3, store.getStatistics().getUsedChunks());
+		assertEquals(40, store.getStatistics().getStoredBytes());
+	}
+
+	@Test
+	public void getInputStream_contentReplacedWhileReading_chunksKeptUntilClosed() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE);
+		MemoryFS fs = createFS(store);
+		FSFFile file = fs.createByPath("/a.bin");
+		file.writeBytes(false, createData(32));
+		
+		InputStream inputStream = file.getInputStream();
+		file.writeBytes(false, new byte[32]);
+		assertEquals(4, store.getStatistics().getUsedChunks());
+		assertArrayEquals(createData(32), FSFFileUtil.readAllBytes(inputStream));
+		inputStream.close();
+		assertEquals(2, store.getStatistics().getUsedChunks());
+		assertArrayEquals(new byte[32], file.readBytes());
+	}
+	
+	@Test
+	public void copyTo_contentShared() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE);
+		MemoryFS fs = createFS(store);
+		FSFFile file = fs.createByPath("/a.bin");
+		file.writeBytes(false, createData(32));
+		file.copyTo(fs.createByPath("/b.bin"));
+		assertEquals(2, store.getStatistics().getUsedChunks());
+		
+		file.delete();
+		assertEquals(2, store.getStatistics().getUsedChunks());
+		assertArrayEquals(createData(32), fs.createByPath("/b.bin").readBytes());
+		fs.createByPath("/b.bin").delete();
+		assertEquals(0, store.getStatistics().getUsedChunks());
+	}
+	
+	@Test
+	public void writeBytes_capacityExhausted_exception() throws Exception {
+		OffHeapContentStore store = new OffHeapContentStore(64, CHUNK_SIZE, SLAB_SIZE);
+		MemoryFS fs = createFS(store);
+		fs.createByPath("/a.bin").writeBytes(false, createData(48));
+		
+		assertThrows(IOException.class, () -> fs.createByPath("/b.bin").writeBytes(false, createData(32)));
+		//: like in other file systems the bytes written before the error are kept
+		assertEquals(16, fs.createByPath("/b.bin").getLength());
+		assertEquals(4, store.getStatistics().getUsedChunks());
+		
+		fs.createByPath("/b.bin").delete();
+		assertEquals(1, store.getStatistics().getFreeChunks());
+		fs.createByPath("/c.bin").writeBytes(false, createData(16));
+		assertArrayEquals(createData(16), fs.createByPath("/c.bin").readBytes());
+	}
+	
+	@Test
+	public void writeBytes_append() throws Exception {
+		MemoryFS fs = createFS(new OffHeapContentStore(1024, CHUNK_SIZE, SLAB_SIZE));
+		FSFFile file = fs.createByPath("/log.txt");
+		file.writeString("first line\n");
+		file.writeBytes(true, "second line\n".getBytes("UTF-8"));
+		assertEquals("first line\nsecond line\n", file.readString());
+	}
+	
+	@Test
+	public void constructor_slabSizeNotMultipleOfChunkSize_exception() {
+		assertThrows(IllegalArgumentException.class, () -> new OffHeapContentStore(1024, 16, 40));
+	}
+
+}
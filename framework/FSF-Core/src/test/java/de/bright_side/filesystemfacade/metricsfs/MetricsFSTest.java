@@ -0,0 +1,141 @@
+package de.bright_side.filesystemfacade.metricsfs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.memoryfs.MemoryFS;
+import de.bright_side.filesystemfacade.util.FSFFileUtil;
+
+public class MetricsFSTest {
+
+	@Test
+	public void getSnapshot_callsAndBytes() throws Exception {
+		MetricsFS fs = new MetricsFS(new MemoryFS());
+		FSFFile dir = fs.createByPath("/dir").mkdirs();
+		dir.getChild("a.txt").writeBytes(false, new byte[100]);
+		dir.getChild("b.txt").writeBytes(false, new byte[50]);
+		assertEquals(100, dir.getChild("a.txt").readBytes().length);
+		assertEquals(2, dir.listFiles().size());
+		dir.getChild("a.txt").exists();
+		dir.getChild("c.txt").exists();
+		
+		MetricsSnapshot snapshot = fs.getSnapshot();
+		assertEquals(1, snapshot.getOperation(MetricsOperation.MKDIRS).getCalls());
+		assertEquals(2, snapshot.getOperation(MetricsOperation.WRITE_BYTES).getCalls());
+		assertEquals(150, snapshot.getOperation(MetricsOperation.WRITE_BYTES).getBytesWritten());
+		assertEquals(1, snapshot.getOperation(MetricsOperation.READ_BYTES).getCalls());
+		assertEquals(100, snapshot.getOperation(MetricsOperation.READ_BYTES).getBytesRead());
+		assertEquals(1, snapshot.getOperation(MetricsOperation.LIST_FILES).getCalls());
+		assertEquals(2, snapshot.getOperation(MetricsOperation.EXISTS).getCalls());
+		assertEquals(0, snapshot.getOperation(MetricsOperation.RENAME).getCalls());
+		assertEquals(0, snapshot.getTotalErrors());
+		assertTrue(snapshot.getOperation(MetricsOperation.WRITE_BYTES).getMaxNanos() > 0);
+	}
+
+	@Test
+	public void getSnapshot_streams() throws Exception {
+		MetricsFS fs = new MetricsFS(new MemoryFS());
+		FSFFile file = fs.createByPath("/file.txt");
+		try (OutputStream outputStream = file.getOutputStream(false)){
+			outputStream.write(new byte[30]);
+			outputStream.write(1);
+		}
+		try (InputStream inputStream = file.getInputStream()){
+			assertEquals(31, FSFFileUtil.readAllBytes(inputStream).length);
+		}
+		
+		MetricsSnapshot snapshot = fs.getSnapshot();
+		assertEquals(1, snapshot.getOperation(MetricsOperation.GET_OUTPUT_STREAM).getCalls());
+		assertEquals(31, snapshot.getOperation(MetricsOperation.GET_OUTPUT_STREAM).getBytesWritten());
+		assertEquals(1, snapshot.getOperation(MetricsOperation.GET_INPUT_STREAM).getCalls());
+		assertEquals(31, snapshot.getOperation(MetricsOperation.GET_INPUT_STREAM).getBytesRead());
+	}
+
+	@Test
+	public void getSnapshot_errors() throws Exception {
+		MetricsFS fs = new MetricsFS(new MemoryFS());
+		try {
+			fs.createByPath("/notExisting.txt").readBytes();
+		} catch (Exception ignored) {
+		}
+		
+		OperationMetricsSnapshot snapshot = fs.getSnapshot().getOperation(MetricsOperation.READ_BYTES);
+		assertEquals(1, snapshot.getCalls());
+		assertEquals(1, snapshot.getErrors());
+	}
+	
+	@Test
+	public void getSnapshot_stackedLayers() throws Exception {
+		MetricsFS innerMetricsFS = new MetricsFS(new MemoryFS());
+		MetricsFS outerMetricsFS = new MetricsFS(innerMetricsFS);
+		outerMetricsFS.createByPath("/file.txt").writeString("hello");
+		
+		assertEquals(1, outerMetricsFS.getSnapshot().getOperation(MetricsOperation.WRITE_STRING).getCalls());
+		assertEquals(1, innerMetricsFS.getSnapshot().getOperation(MetricsOperation.WRITE_STRING).getCalls());
+		assertEquals("hello", innerMetricsFS.getInnerFS().createByPath("/file.txt").readString());
+	}
+	
+	@Test
+	public void reset_normal() throws Exception {
+		MetricsFS fs = new MetricsFS(new MemoryFS());
+		fs.createByPath("/file.txt").writeString("hello");
+		fs.reset();
+		assertEquals(0, fs.getSnapshot().getTotalCalls());
+		assertTrue(fs.getSnapshot().getOperations().isEmpty());
+	}
+	
+	@Test
+	public void latencyHistogram_percentiles() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		long[] counts = histogram.getBucketCounts();
+		long median = LatencyHistogram.getValueAtPercentile(counts, 50);
+		long p99 = LatencyHistogram.getValueAtPercentile(counts, 99);
+		assertTrue((median >= 500000) && (median <= 500000 * 1.125), "median = " + median);
+		assertTrue((p99 >= 990000) && (p99 <= 990000 * 1.125), "p99 = " + p99);
+		assertEquals(0, LatencyHistogram.getValueAtPercentile(new long[LatencyHistogram.NUMBER_OF_BUCKETS], 50));
+	}
+
+	@Test
+	public void latencyHistogram_bucketBounds() throws Exception {
+		long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE};
+		for (long i: values) {
+			int index = LatencyHistogram.getBucketIndex(i);
+			assertTrue(LatencyHistogram.getBucketUpperBound(index) >= i, "value " + i);
+			if (index > 0) {
+				assertTrue(LatencyHistogram.getBucketUpperBound(index - 1) < i, "value " + i);
+			}
+		}
+		assertEquals(LatencyHistogram.NUMBER_OF_BUCKETS - 1, LatencyHistogram.getBucketIndex(Long.MAX_VALUE));
+	}
+	
+	@Test
+	public void registerMBean_normal() throws Exception {
+		MetricsFS fs = new MetricsFS(new MemoryFS());
+		fs.createByPath("/file.txt").writeString("hello");
+		ObjectName name = fs.registerMBean("test-" + System.nanoTime());
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			assertTrue(server.isRegistered(name));
+			assertEquals(1L, server.getAttribute(name, "TotalCalls"));
+			server.invoke(name, "reset", new Object[0], new String[0]);
+			assertEquals(0L, server.getAttribute(name, "TotalCalls"));
+		} finally {
+			fs.unregisterMBean();
+		}
+		assertTrue(!ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+	
+}
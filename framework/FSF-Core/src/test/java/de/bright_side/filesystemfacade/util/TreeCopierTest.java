@@ -0,0 +1,216 @@
+package de.bright_side.filesystemfacade.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileWithInnerFile;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.memoryfs.MemoryFS;
+import de.bright_side.filesystemfacade.nativefs.NativeFS;
+
+public class TreeCopierTest {
+	private static final long TIME_001 = 1000000;
+	
+	/**
+	 * file whose copyTo fails as long as the shared counter of failures to come is greater than 0
+	 */
+	private static class FailingFile extends FSFFileWithInnerFile{
+		private final AtomicInteger failuresToCome;
+
+		public FailingFile(FSFFile innerFile, AtomicInteger failuresToCome) {
+			super(innerFile);
+			this.failuresToCome = failuresToCome;
+		}
+
+		@Override
+		public void copyTo(FSFFile destFile) throws Exception {
+			if (failuresToCome.getAndDecrement() > 0) {
+				throw new Exception("simulated copy error");
+			}
+			super.copyTo(destFile);
+		}
+
+		@Override
+		public FSFSystem getFSFSystem() {
+			return getInnerFile().getFSFSystem();
+		}
+
+		@Override
+		protected FSFFile wrap(FSFFile innerFile) {
+			if (innerFile == null) {
+				return null;
+			}
+			return new FailingFile(innerFile, failuresToCome);
+		}
+	}
+	
+	private static FSFFile createSourceDir() throws Exception {
+		return createSourceDir(false);
+	}
+	
+	private static FSFFile createSourceDir(boolean concurrent) throws Exception {
+		MemoryFS fs = new MemoryFS(new SimpleFSFEnvironment(TIME_001), concurrent);
+		FSFFile dir = fs.createByPath("/source").mkdirs();
+		dir.getChild("a").mkdirs().getChild("a1.txt").writeString("a1");
+		dir.getChild("a").getChild("aa").mkdirs().getChild("aa1.txt").writeString("aa1");
+		dir.getChild("b").mkdirs().getChild("b1.txt").writeString("b1-with-more-bytes");
+		dir.getChild("b").getChild("b2.txt").writeString("");
+		dir.getChild("c.txt").writeString("c");
+		return dir;
+	}
+	
+	private static List<String> toContentList(FSFFile dir) throws Exception {
+		List<String> result = new ArrayList<>();
+		String basePath = dir.getAbsolutePath();
+		for (FSFFile i: dir.listFilesTree()) {
+			String path = i.getAbsolutePath().substring(basePath.length()).replace('\\', '/');
+			if (i.isDirectory()) {
+				result.add(path + "/");
+			} else {
+				result.add(path + "=" + i.readString());
+			}
+		}
+		return result;
+	}
+	
+	@Test
+	public void test_copy_sequential() throws Exception {
+		FSFFile source = createSourceDir();
+		FSFFile dest = new MemoryFS().createByPath("/dest");
+		final List<TreeCopyProgress> reports = new ArrayList<>();
+		TreeCopyConfig config = new TreeCopyConfig().setParallelism(1).setProgressListener(new TreeCopyProgressListener() {
+			@Override
+			public void onProgress(TreeCopyProgress progress) {
+				reports.add(progress);
+			}
+		});
+		
+		TreeCopyProgress result = TreeCopier.copy(source, dest, config);
+		
+		assertEquals(toContentList(source), toContentList(dest));
+		assertEquals(TIME_001, dest.getChild("a").getChild("aa").getChild("aa1.txt").getTimeLastModified());
+		assertEquals(TIME_001, dest.getChild("a").getTimeLastModified());
+		assertEquals(3, result.getDirsCreated());
+		assertEquals(5, result.getFilesCopied());
+		assertEquals(24, result.getBytesCopied());
+		assertEquals(0, result.getFailedFiles().size());
+		assertEquals(true, result.isFinished());
+		assertTrue(reports.get(reports.size() - 1).isFinished());
+	}
+	
+	@Test
+	public void test_copy_parallelWithSmallInFlightLimit() throws Exception {
+		FSFFile source = createSourceDir(true);
+		File tempDir = Files.createTempDirectory("TreeCopierTest").toFile();
+		FSFFile dest = new NativeFS().createByPath(tempDir.getAbsolutePath()).getChild("dest");
+		try {
+			final List<TreeCopyProgress> reports = Collections.synchronizedList(new ArrayList<TreeCopyProgress>());
+			TreeCopyConfig config = new TreeCopyConfig().setParallelism(4).setMaxInFlightBytes(3).setProgressIntervalMillis(0);
+			config.setProgressListener(new TreeCopyProgressListener() {
+				@Override
+				public void onProgress(TreeCopyProgress progress) {
+					reports.add(progress);
+				}
+			});
+			
+			TreeCopyProgress result = TreeCopier.copy(source, dest, config);
+			
+			assertEquals(toContentList(source), toContentList(dest));
+			assertEquals(5, result.getFilesCopied());
+			assertEquals(0, result.getFailedFiles().size());
+			assertTrue(reports.size() > 1);
+		} finally {
+			new NativeFS().createByPath(tempDir.getAbsolutePath()).deleteTree();
+		}
+	}
+	
+	@Test
+	public void test_copy_singleFile() throws Exception {
+		FSFFile source = createSourceDir().getChild("c.txt");
+		FSFFile dest = new MemoryFS().createByPath("/dest.txt");
+		
+		TreeCopyProgress result = TreeCopier.copy(source, dest, null);
+		
+		assertEquals("c", dest.readString());
+		assertEquals(1, result.getFilesCopied());
+		assertEquals(0, result.getDirsCreated());
+	}
+	
+	@Test
+	public void test_copy_failedTwice_copiedByRetry() throws Exception {
+		FSFFile source = new FailingFile(createSourceDir().getChild("c.txt"), new AtomicInteger(2));
+		FSFFile dest = new MemoryFS().createByPath("/dest.txt");
+		
+		TreeCopyProgress result = TreeCopier.copy(source, dest, new TreeCopyConfig().setMaxRetries(2).setRetryDelayMillis(0));
+		
+		assertEquals("c", dest.readString());
+		assertEquals(1, result.getFilesCopied());
+		assertEquals(2, result.getRetries());
+		assertEquals(0, result.getFailedFiles().size());
+	}
+	
+	@Test
+	public void test_copy_failedMoreThanMaxRetries_listedAsFailed() throws Exception {
+		FSFFile source = new FailingFile(createSourceDir(), new AtomicInteger(3));
+		FSFFile dest = new MemoryFS().createByPath("/dest");
+		
+		//: sequentially, all failures belong to the first file
+		TreeCopyProgress result = TreeCopier.copy(source, dest, new TreeCopyConfig().setParallelism(1).setMaxRetries(2).setRetryDelayMillis(0));
+		
+		assertEquals(4, result.getFilesCopied());
+		assertEquals(2, result.getRetries());
+		assertEquals(1, result.getFailedFiles().size());
+		assertEquals("simulated copy error", result.getFailedFiles().values().iterator().next().getMessage());
+	}
+	
+	@Test
+	public void test_copy_destNotConcurrent_copiedInCallingThread() throws Exception {
+		FSFFile source = createSourceDir(true);
+		FSFFile dest = new MemoryFS().createByPath("/dest");
+		final Set<Thread> reportingThreads = Collections.synchronizedSet(new HashSet<Thread>());
+		TreeCopyConfig config = new TreeCopyConfig().setProgressIntervalMillis(0).setProgressListener(new TreeCopyProgressListener() {
+			@Override
+			public void onProgress(TreeCopyProgress progress) {
+				reportingThreads.add(Thread.currentThread());
+			}
+		});
+		
+		TreeCopyProgress result = TreeCopier.copy(source, dest, config);
+		
+		assertEquals(toContentList(source), toContentList(dest));
+		assertEquals(5, result.getFilesCopied());
+		assertEquals(Collections.singleton(Thread.currentThread()), reportingThreads);
+	}
+	
+	@Test
+	public void test_copy_sourceNotConcurrent_copiedInCallingThread() throws Exception {
+		FSFFile source = createSourceDir(false);
+		FSFFile dest = new MemoryFS(new SimpleFSFEnvironment(TIME_001), true).createByPath("/dest");
+		final Set<Thread> reportingThreads = Collections.synchronizedSet(new HashSet<Thread>());
+		TreeCopyConfig config = new TreeCopyConfig().setProgressIntervalMillis(0).setProgressListener(new TreeCopyProgressListener() {
+			@Override
+			public void onProgress(TreeCopyProgress progress) {
+				reportingThreads.add(Thread.currentThread());
+			}
+		});
+		
+		TreeCopyProgress result = TreeCopier.copy(source, dest, config);
+		
+		assertEquals(toContentList(source), toContentList(dest));
+		assertEquals(5, result.getFilesCopied());
+		assertEquals(Collections.singleton(Thread.currentThread()), reportingThreads);
+	}
+	
+}
@@ -0,0 +1,186 @@
+package de.bright_side.filesystemfacade.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFFileAttributes;
+import de.bright_side.filesystemfacade.facade.FSFFileWithInnerFile;
+import de.bright_side.filesystemfacade.facade.FSFSystem;
+import de.bright_side.filesystemfacade.memoryfs.MemoryFS;
+
+public class TreeWalkerTest {
+	
+	/**
+	 * counts the items read from directory streams and fails if the complete listing of a directory is requested
+	 */
+	private static class StreamCountingFile extends FSFFileWithInnerFile{
+		private final int[] readItems;
+
+		public StreamCountingFile(FSFFile innerFile, int[] readItems) {
+			super(innerFile);
+			this.readItems = readItems;
+		}
+
+		@Override
+		public List<FSFFile> listFiles() {
+			throw new RuntimeException("complete listing requested");
+		}
+
+		@Override
+		public List<FSFFileAttributes> listFilesWithAttributes() throws Exception {
+			throw new Exception("complete listing requested");
+		}
+
+		@Override
+		protected FSFFileAttributes wrapAttributes(FSFFileAttributes innerAttributes) throws Exception {
+			readItems[0] ++;
+			return super.wrapAttributes(innerAttributes);
+		}
+
+		@Override
+		public FSFSystem getFSFSystem() {
+			return getInnerFile().getFSFSystem();
+		}
+
+		@Override
+		protected FSFFile wrap(FSFFile innerFile) {
+			return new StreamCountingFile(innerFile, readItems);
+		}
+	}
+	
+	private static FSFFile createTestDir() throws Exception {
+		MemoryFS fs = new MemoryFS();
+		FSFFile dir = fs.createByPath("/top").mkdirs();
+		dir.getChild("a").mkdirs().getChild("a1.txt").writeString("a1");
+		dir.getChild("a").getChild("aa").mkdirs().getChild("aa1.txt").writeString("aa1");
+		dir.getChild("b").mkdirs().getChild("b1.txt").writeString("b1");
+		dir.getChild("b").getChild("b2.log").writeString("b2");
+		dir.getChild("c.txt").writeString("c");
+		return dir;
+	}
+	
+	private static List<String> toPaths(List<FSFFile> files){
+		List<String> result = new ArrayList<>();
+		for (FSFFile i: files) {
+			result.add(i.getAbsolutePath());
+		}
+		return result;
+	}
+	
+	@Test
+	public void test_walk_normal() throws Exception {
+		FSFFile dir = createTestDir();
+		final List<String> events = new ArrayList<>();
+		TreeWalker.walk(dir, new TreeWalkVisitor() {
+			@Override
+			public boolean preVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+				events.add("pre:" + dir.getFile().getAbsolutePath() + ":" + depth);
+				return true;
+			}
+			
+			@Override
+			public void visitFile(FSFFileAttributes file, int depth) throws Exception {
+				events.add("file:" + file.getFile().getAbsolutePath() + ":" + depth);
+			}
+			
+			@Override
+			public void postVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+				events.add("post:" + dir.getFile().getAbsolutePath() + ":" + depth);
+			}
+		}, null);
+		
+		assertEquals(11, events.size());
+		assertTrue(events.indexOf("pre:/top/a:1") < events.indexOf("file:/top/a/a1.txt:2"));
+		assertTrue(events.indexOf("pre:/top/a/aa:2") < events.indexOf("file:/top/a/aa/aa1.txt:3"));
+		assertTrue(events.indexOf("file:/top/a/aa/aa1.txt:3") < events.indexOf("post:/top/a/aa:2"));
+		assertTrue(events.indexOf("post:/top/a/aa:2") < events.indexOf("post:/top/a:1"));
+		assertTrue(events.indexOf("file:/top/b/b2.log:2") < events.indexOf("post:/top/b:1"));
+		assertTrue(events.contains("file:/top/c.txt:1"));
+	}
+	
+	@Test
+	public void test_walk_maxDepthAndFilter() throws Exception {
+		FSFFile dir = createTestDir();
+		TreeWalkConfig config = new TreeWalkConfig().setMaxDepth(2).setNameFilter(new TreeWalkNameFilter() {
+			@Override
+			public boolean accept(String name, boolean directory) {
+				return directory || name.endsWith(".txt");
+			}
+		});
+		List<String> result = toPaths(FSFFileUtil.listFilesTree(dir, config));
+		assertEquals("[/top/a, /top/a/a1.txt, /top/a/aa, /top/b, /top/b/b1.txt, /top/c.txt]", result.toString());
+	}
+	
+	@Test
+	public void test_walk_parallel() throws Exception {
+		FSFFile dir = createTestDir();
+		List<String> sequentialResult = toPaths(FSFFileUtil.listFilesTree(dir));
+		List<String> parallelResult = toPaths(FSFFileUtil.listFilesTree(dir, new TreeWalkConfig().setParallelism(4)));
+		assertEquals(8, sequentialResult.size());
+		assertEquals(sequentialResult, parallelResult);
+	}
+
+	@Test
+	public void test_walk_errorInVisitor() throws Exception {
+		FSFFile dir = createTestDir();
+		String message = null;
+		try {
+			TreeWalker.walk(dir, new TreeWalkVisitor() {
+				@Override
+				public boolean preVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+					return true;
+				}
+				
+				@Override
+				public void visitFile(FSFFileAttributes file, int depth) throws Exception {
+					if (file.getFile().getName().equals("aa1.txt")) {
+						throw new Exception("failed on " + file.getFile().getName());
+					}
+				}
+				
+				@Override
+				public void postVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+				}
+			}, new TreeWalkConfig().setParallelism(2));
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals("failed on aa1.txt", message);
+	}
+	
+	@Test
+	public void test_walk_largeDir_itemsVisitedWhileStreamIsRead() throws Exception {
+		FSFFile innerDir = new MemoryFS().createByPath("/top").mkdirs();
+		for (int i = 0; i < 100; i++) {
+			innerDir.getChild("file" + i + ".txt").writeString("" + i);
+		}
+		final int[] readItems = new int[1];
+		final List<Integer> readItemsWhenVisited = new ArrayList<>();
+		TreeWalker.walk(new StreamCountingFile(innerDir, readItems), new TreeWalkVisitor() {
+			@Override
+			public boolean preVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+				return true;
+			}
+			
+			@Override
+			public void visitFile(FSFFileAttributes file, int depth) throws Exception {
+				readItemsWhenVisited.add(readItems[0]);
+			}
+			
+			@Override
+			public void postVisitDirectory(FSFFileAttributes dir, int depth) throws Exception {
+			}
+		}, null);
+		
+		assertEquals(100, readItemsWhenVisited.size());
+		assertEquals(1, (int)readItemsWhenVisited.get(0));
+		assertEquals(100, (int)readItemsWhenVisited.get(99));
+	}
+	
+}
@@ -13,6 +13,7 @@ import org.apache.commons.vfs2.provider.sftp.SftpFileSystemConfigBuilder;
 
 import de.bright_side.filesystemfacade.facade.FSFEnvironment;
 import de.bright_side.filesystemfacade.facade.FSFFile;
+import de.bright_side.filesystemfacade.facade.FSFSerializer;
 import de.bright_side.filesystemfacade.facade.FSFSystem;
 import de.bright_side.filesystemfacade.util.FSFFileUtil;
 import de.bright_side.filesystemfacade.vfs.VfsFile;
@@ -91,4 +92,14 @@ public class SftpFS implements FSFSystem {
     public String getSeparator() {
         return vfsFileSystem.getSeparator();
     }
+
+    @Override
+    public FSFSerializer getSerializer() {
+        return vfsFileSystem.getSerializer();
+    }
+
+    @Override
+    public void setSerializer(FSFSerializer serializer) {
+        vfsFileSystem.setSerializer(serializer);
+    }
 }